@@ -27,6 +27,8 @@ import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Filer;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
@@ -137,6 +139,26 @@ public abstract class AbstractAnnotationProcessor extends AbstractProcessor {
         return (PackageElement) element;
     }
 
+    /**
+     * Get the name of a class without its package, with the names of the enclosing classes
+     * separated by underscores (i.e. <code>Outer_Inner</code>).
+     *
+     * <p>It is used as the base name of the classes generated for the class, so that two nested
+     * classes with the same simple name don't lead to the same generated class.</p>
+     *
+     * @param clazz     class element
+     * @return flattened class name
+     */
+    protected final String getFlatName(TypeElement clazz) {
+        String binaryName = getElementUtils().getBinaryName(clazz).toString();
+        String packageName = getPackage(clazz).getQualifiedName().toString();
+
+        if (!packageName.isEmpty())
+            binaryName = binaryName.substring(packageName.length() + 1);
+
+        return binaryName.replace('$', '_');
+    }
+
     /**
      * Get superclass.
      *
@@ -368,4 +390,32 @@ public abstract class AbstractAnnotationProcessor extends AbstractProcessor {
         throw new ProcessorException("Column \"" + columnName + "\" not found in class \"" + clazz.getSimpleName() + "\"", clazz);
     }
 
+    /**
+     * Check whether a class can be referenced from the generated code of its package.
+     *
+     * @param clazz     class element
+     * @return <code>true</code> if the class and all its enclosing ones are not private and not
+     *         inner classes; <code>false</code> otherwise
+     */
+    protected final boolean isAccessible(TypeElement clazz) {
+        Element element = clazz;
+
+        while (element.getKind() == ElementKind.CLASS) {
+            if (element.getModifiers().contains(Modifier.PRIVATE))
+                return false;
+
+            TypeElement type = (TypeElement) element;
+
+            if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC))
+                return false;
+
+            if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS)
+                return false;
+
+            element = element.getEnclosingElement();
+        }
+
+        return true;
+    }
+
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.processor;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+
+import it.mscuttari.kaoldb.annotations.Entity;
+
+/**
+ * Generate, for each entity, a class implementing the <code>EntityAccessor</code> interface,
+ * in order to read and write the entity fields and to create new instances without relying
+ * on reflection.
+ *
+ * <p>
+ * Only the fields declared by the entity class itself are covered, as the ones of the parent
+ * classes are handled by the accessors of the parents. Private, static and final fields are
+ * skipped, and so are the classes not visible from their own package. The fields of primitive
+ * types are also covered by the primitive setters (i.e. <code>setInt</code>), which assign the
+ * values read by the hydration plans without boxing them.
+ * </p>
+ */
+@SupportedAnnotationTypes("it.mscuttari.kaoldb.annotations.Entity")
+@SupportedSourceVersion(SourceVersion.RELEASE_8)
+public final class AccessorsCreator extends AbstractAnnotationProcessor {
+
+    private static final String ACCESSOR_SUFFIX = "_Accessor";
+
+    /** Primitive types having a dedicated setter in the accessor interface */
+    private static final TypeKind[] PRIMITIVE_SETTERS = {
+            TypeKind.BOOLEAN, TypeKind.BYTE, TypeKind.SHORT, TypeKind.INT,
+            TypeKind.LONG, TypeKind.FLOAT, TypeKind.DOUBLE
+    };
+
+    private static final ClassName pojoExceptionClass = ClassName.get("it.mscuttari.kaoldb.exceptions", "PojoException");
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        ClassName accessorInterface = ClassName.get("it.mscuttari.kaoldb.interfaces", "EntityAccessor");
+
+        Collection<TypeElement> entities = roundEnv.getElementsAnnotatedWith(Entity.class).stream()
+                .filter(element -> element.getKind() == ElementKind.CLASS)
+                .map(element -> (TypeElement) element)
+                .filter(this::isAccessible)
+                .collect(Collectors.toList());
+
+        for (TypeElement entity : entities) {
+            try {
+                String packageName = getPackage(entity).getQualifiedName().toString();
+                TypeName entityClass = TypeName.get(getTypeUtils().erasure(entity.asType()));
+
+                List<Element> fields = entity.getEnclosedElements().stream()
+                        .filter(element -> element.getKind() == ElementKind.FIELD)
+                        .filter(element -> !element.getModifiers().contains(Modifier.PRIVATE))
+                        .filter(element -> !element.getModifiers().contains(Modifier.STATIC))
+                        .filter(element -> !element.getModifiers().contains(Modifier.FINAL))
+                        .collect(Collectors.toList());
+
+                TypeSpec.Builder accessor = TypeSpec.classBuilder(getFlatName(entity) + ACCESSOR_SUFFIX)
+                        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                        .addSuperinterface(ParameterizedTypeName.get(accessorInterface, entityClass))
+                        .addMethod(createNewInstanceMethod(entity, entityClass))
+                        .addMethod(createGetFieldIndexMethod(fields))
+                        .addMethod(createGetValueMethod(entityClass, fields))
+                        .addMethod(createSetValueMethod(entity.getSimpleName().toString(), entityClass, fields));
+
+                for (TypeKind primitive : PRIMITIVE_SETTERS) {
+                    if (fields.stream().anyMatch(field -> field.asType().getKind() == primitive)) {
+                        accessor.addMethod(createSetPrimitiveMethod(primitive, entityClass, fields));
+                    }
+                }
+
+                JavaFile.builder(packageName, accessor.build()).build().writeTo(getFiler());
+
+            } catch (IOException e) {
+                logError(e.getMessage(), entity);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Create the <code>newInstance</code> method.
+     *
+     * <p>
+     * The method invokes the no-arguments constructor, if the class is concrete and such
+     * constructor is visible from the package. Otherwise it returns <code>null</code>, and the
+     * framework will instantiate the class on its own.
+     * </p>
+     *
+     * @param entity        entity class element
+     * @param entityClass   entity class name
+     *
+     * @return method specification
+     */
+    private MethodSpec createNewInstanceMethod(TypeElement entity, TypeName entityClass) {
+        boolean instantiable = !entity.getModifiers().contains(Modifier.ABSTRACT) &&
+                entity.getEnclosedElements().stream()
+                        .filter(element -> element.getKind() == ElementKind.CONSTRUCTOR)
+                        .map(element -> (ExecutableElement) element)
+                        .anyMatch(constructor -> constructor.getParameters().isEmpty() &&
+                                !constructor.getModifiers().contains(Modifier.PRIVATE));
+
+        MethodSpec.Builder method = MethodSpec.methodBuilder("newInstance")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(entityClass);
+
+        if (instantiable) {
+            method.addStatement("return new $T()", entityClass);
+        } else {
+            method.addStatement("return null");
+        }
+
+        return method.build();
+    }
+
+    /**
+     * Create the <code>getFieldIndex</code> method.
+     *
+     * @param fields    accessible fields
+     * @return method specification
+     */
+    private MethodSpec createGetFieldIndexMethod(List<Element> fields) {
+        CodeBlock.Builder code = CodeBlock.builder().beginControlFlow("switch (fieldName)");
+
+        for (int i = 0; i < fields.size(); i++) {
+            code.addStatement("case $S: return $L", fields.get(i).getSimpleName().toString(), i);
+        }
+
+        code.addStatement("default: return -1").endControlFlow();
+
+        return MethodSpec.methodBuilder("getFieldIndex")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(String.class, "fieldName")
+                .returns(int.class)
+                .addCode(code.build())
+                .build();
+    }
+
+    /**
+     * Create the <code>getValue</code> method.
+     *
+     * @param entityClass   entity class name
+     * @param fields        accessible fields
+     *
+     * @return method specification
+     */
+    private MethodSpec createGetValueMethod(TypeName entityClass, List<Element> fields) {
+        CodeBlock.Builder code = CodeBlock.builder().beginControlFlow("switch (fieldIndex)");
+
+        for (int i = 0; i < fields.size(); i++) {
+            code.addStatement("case $L: return obj.$N", i, fields.get(i).getSimpleName().toString());
+        }
+
+        code.addStatement("default: throw new $T($S + fieldIndex)", IllegalArgumentException.class, "Invalid field index: ")
+                .endControlFlow();
+
+        return MethodSpec.methodBuilder("getValue")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(entityClass, "obj")
+                .addParameter(int.class, "fieldIndex")
+                .returns(Object.class)
+                .addCode(code.build())
+                .build();
+    }
+
+    /**
+     * Create the <code>setValue</code> method.
+     *
+     * <p>
+     * Values are cast to the erasure of the field types, so that generic fields don't need the
+     * type variables to be in scope. Null values assigned to primitive fields lead to a
+     * <code>PojoException</code>.
+     * </p>
+     *
+     * @param entityName    entity class simple name
+     * @param entityClass   entity class name
+     * @param fields        accessible fields
+     *
+     * @return method specification
+     */
+    private MethodSpec createSetValueMethod(String entityName, TypeName entityClass, List<Element> fields) {
+        CodeBlock.Builder code = CodeBlock.builder().beginControlFlow("switch (fieldIndex)");
+
+        for (int i = 0; i < fields.size(); i++) {
+            Element field = fields.get(i);
+            String fieldName = field.getSimpleName().toString();
+            TypeName fieldType = TypeName.get(getTypeUtils().erasure(field.asType())).box();
+
+            code.add("case $L:\n", i).indent();
+
+            // Unboxing a null value would lead to a bare NullPointerException
+            if (field.asType().getKind().isPrimitive()) {
+                code.beginControlFlow("if (value == null)")
+                        .addStatement("throw new $T($S)", pojoExceptionClass, "Field \"" + fieldName + "\" of class \"" + entityName + "\" can't be set to null")
+                        .endControlFlow();
+            }
+
+            code.addStatement("obj.$N = ($T) value", fieldName, fieldType)
+                    .addStatement("break")
+                    .unindent();
+        }
+
+        code.addStatement("default: throw new $T($S + fieldIndex)", IllegalArgumentException.class, "Invalid field index: ")
+                .endControlFlow();
+
+        return MethodSpec.methodBuilder("setValue")
+                .addAnnotation(Override.class)
+                .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class)
+                        .addMember("value", "$S", "unchecked")
+                        .build())
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(entityClass, "obj")
+                .addParameter(int.class, "fieldIndex")
+                .addParameter(Object.class, "value")
+                .addCode(code.build())
+                .build();
+    }
+
+    /**
+     * Create the setter of the fields of a primitive type (i.e. <code>setInt</code>), which
+     * assigns the values without boxing them.
+     *
+     * @param primitive     primitive type
+     * @param entityClass   entity class name
+     * @param fields        accessible fields
+     *
+     * @return method specification
+     */
+    private MethodSpec createSetPrimitiveMethod(TypeKind primitive, TypeName entityClass, List<Element> fields) {
+        CodeBlock.Builder code = CodeBlock.builder().beginControlFlow("switch (fieldIndex)");
+
+        for (int i = 0; i < fields.size(); i++) {
+            Element field = fields.get(i);
+
+            if (field.asType().getKind() == primitive) {
+                code.add("case $L:\n", i).indent()
+                        .addStatement("obj.$N = value", field.getSimpleName().toString())
+                        .addStatement("break")
+                        .unindent();
+            }
+        }
+
+        code.addStatement("default: throw new $T($S + fieldIndex)", IllegalArgumentException.class, "Invalid field index: ")
+                .endControlFlow();
+
+        String typeName = primitive.name().toLowerCase(Locale.ROOT);
+
+        return MethodSpec.methodBuilder("set" + Character.toUpperCase(typeName.charAt(0)) + typeName.substring(1))
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(entityClass, "obj")
+                .addParameter(int.class, "fieldIndex")
+                .addParameter(TypeName.get(getTypeUtils().getPrimitiveType(primitive)), "value")
+                .addCode(code.build())
+                .build();
+    }
+
+}
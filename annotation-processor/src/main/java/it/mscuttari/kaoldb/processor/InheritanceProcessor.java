@@ -36,6 +36,7 @@ import javax.lang.model.element.TypeElement;
 import it.mscuttari.kaoldb.annotations.DiscriminatorColumn;
 import it.mscuttari.kaoldb.annotations.DiscriminatorValue;
 import it.mscuttari.kaoldb.annotations.Entity;
+import it.mscuttari.kaoldb.annotations.Inheritance;
 
 /**
  * Analyze the entities in order to determine if the hierarchy tree is coherent with respect to
@@ -45,6 +46,7 @@ import it.mscuttari.kaoldb.annotations.Entity;
         "it.mcsuttari.kaoldb.annotations.Entity",
         "it.mscuttari.kaoldb.annotations.DiscriminatorColumn",
         "it.mscuttari.kaoldb.annotations.DiscriminatorValue",
+        "it.mscuttari.kaoldb.annotations.Inheritance",
 })
 @SupportedSourceVersion(SourceVersion.RELEASE_7)
 public final class InheritanceProcessor extends AbstractAnnotationProcessor {
@@ -65,6 +67,10 @@ public final class InheritanceProcessor extends AbstractAnnotationProcessor {
                 checkDiscriminatorValue(element);
             }
 
+            for (Element element : roundEnv.getElementsAnnotatedWith(Inheritance.class)) {
+                checkInheritance(element);
+            }
+
             // Check the uniqueness of each discriminator value
 
             Map<Element, Collection<String>> parentsMap = new HashMap<>();
@@ -266,4 +272,48 @@ public final class InheritanceProcessor extends AbstractAnnotationProcessor {
         }
     }
 
+    /**
+     * Check an element annotated with {@link Inheritance}.
+     *
+     * <p>
+     * It ensures the following constraints are respected:
+     * <ul>
+     *     <li>The element is a class</li>
+     *     <li>The element is annotated with {@link Entity}</li>
+     *     <li>None of the superclasses is annotated with {@link Entity}, as the strategy is
+     *     shared by the whole hierarchy</li>
+     * </ul>
+     * </p>
+     *
+     * @param element       class element
+     * @throws ProcessorException if some constraints are not respected
+     */
+    private void checkInheritance(Element element) throws ProcessorException {
+        // Security check
+        if (element.getAnnotation(Inheritance.class) == null) {
+            return;
+        }
+
+        // Check that the element is a class
+        if (element.getKind() != ElementKind.CLASS) {
+            throw new ProcessorException("Element \"" + element.getSimpleName() + "\" should not have @Inheritance annotation", element);
+        }
+
+        // Check that the class is an entity
+        if (element.getAnnotation(Entity.class) == null) {
+            throw new ProcessorException("Class \"" + element.getSimpleName() + "\" is not an entity", element);
+        }
+
+        // Check that the class is the root of its hierarchy
+        Element currentClass = getSuperclass(element);
+
+        while (!ClassName.get(currentClass.asType()).equals(ClassName.OBJECT)) {
+            if (currentClass.getAnnotation(Entity.class) != null) {
+                throw new ProcessorException("@Inheritance can only be used on the root entity of a hierarchy", element);
+            }
+
+            currentClass = getSuperclass(currentClass);
+        }
+    }
+
 }
\ No newline at end of file
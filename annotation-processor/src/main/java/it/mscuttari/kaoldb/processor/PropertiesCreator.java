@@ -69,7 +69,7 @@ public final class PropertiesCreator extends AbstractAnnotationProcessor {
 
                 // Entity class
                 TypeName entityClass = ClassName.get(entity.asType());
-                TypeSpec.Builder generatedEntityClass = TypeSpec.classBuilder(entity.getSimpleName().toString() + ENTITY_SUFFIX);
+                TypeSpec.Builder generatedEntityClass = TypeSpec.classBuilder(getFlatName((TypeElement) entity) + ENTITY_SUFFIX);
                 generatedEntityClass.addModifiers(Modifier.PUBLIC, Modifier.FINAL);
 
                 // Get all parents fields
@@ -0,0 +1,520 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.processor;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+import it.mscuttari.kaoldb.annotations.Column;
+import it.mscuttari.kaoldb.annotations.Convert;
+import it.mscuttari.kaoldb.annotations.DiscriminatorColumn;
+import it.mscuttari.kaoldb.annotations.DiscriminatorType;
+import it.mscuttari.kaoldb.annotations.DiscriminatorValue;
+import it.mscuttari.kaoldb.annotations.Entity;
+import it.mscuttari.kaoldb.annotations.EnumType;
+import it.mscuttari.kaoldb.annotations.Enumerated;
+import it.mscuttari.kaoldb.annotations.Id;
+import it.mscuttari.kaoldb.annotations.JoinColumn;
+import it.mscuttari.kaoldb.annotations.JoinTable;
+import it.mscuttari.kaoldb.annotations.ManyToMany;
+import it.mscuttari.kaoldb.annotations.ManyToOne;
+import it.mscuttari.kaoldb.annotations.OneToMany;
+import it.mscuttari.kaoldb.annotations.OneToOne;
+import it.mscuttari.kaoldb.annotations.Table;
+
+/**
+ * Generate, for each entity, a class implementing the <code>EntitySchema</code> interface,
+ * in order to provide the mapping metadata without scanning the entity through reflection
+ * at startup.
+ *
+ * <p>
+ * The default names are computed with the same policy used by the framework. Entities without
+ * the {@link Table} annotation, or whose parent entity, join tables or converters classes can't
+ * be referenced from their package, are skipped: the framework will map them through reflection
+ * and report any error.
+ * </p>
+ *
+ * <p>
+ * The schemas of each package are then listed by a class implementing the
+ * <code>SchemaRegistry</code> interface, so that they can be loaded all at once.
+ * </p>
+ */
+@SupportedAnnotationTypes("it.mscuttari.kaoldb.annotations.Entity")
+@SupportedSourceVersion(SourceVersion.RELEASE_8)
+public final class SchemaCreator extends AbstractAnnotationProcessor {
+
+    private static final String SCHEMA_SUFFIX = "_Schema";
+    private static final String REGISTRY_NAME = "KaolDB_Schemas";
+
+    private static final ClassName schemaInterface = ClassName.get("it.mscuttari.kaoldb.interfaces", "EntitySchema");
+    private static final ClassName simpleColumnClass = schemaInterface.nestedClass("SimpleColumn");
+    private static final ClassName discriminatorColumnClass = schemaInterface.nestedClass("DiscriminatorColumn");
+    private static final ClassName joinColumnClass = schemaInterface.nestedClass("JoinColumn");
+    private static final ClassName joinTableClass = schemaInterface.nestedClass("JoinTable");
+    private static final ClassName registryInterface = ClassName.get("it.mscuttari.kaoldb.interfaces", "SchemaRegistry");
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        // Entities whose schema has been generated, by package
+        Map<String, List<TypeElement>> registries = new LinkedHashMap<>();
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(Entity.class)) {
+            if (element.getKind() != ElementKind.CLASS)
+                continue;
+
+            TypeElement entity = (TypeElement) element;
+            Table table = entity.getAnnotation(Table.class);
+
+            if (table == null || !isAccessible(entity))
+                continue;
+
+            TypeElement parent = getParentEntity(entity);
+
+            if (parent != null && !isReferenceable(parent, entity))
+                continue;
+
+            try {
+                String packageName = getPackage(entity).getQualifiedName().toString();
+                String tableName = table.name().isEmpty() ? getDefaultName(entity.getSimpleName().toString()) : table.name();
+
+                DiscriminatorValue discriminatorValue = entity.getAnnotation(DiscriminatorValue.class);
+                DiscriminatorColumn discriminatorColumn = entity.getAnnotation(DiscriminatorColumn.class);
+
+                List<String> relationships = new ArrayList<>();
+                List<CodeBlock> columns = new ArrayList<>();
+                List<String> joinColumns = new ArrayList<>();
+                List<CodeBlock> joinTables = new ArrayList<>();
+                boolean referenceable = true;
+
+                for (Element field : entity.getEnclosedElements()) {
+                    if (field.getKind() != ElementKind.FIELD)
+                        continue;
+
+                    String fieldName = field.getSimpleName().toString();
+                    OneToOne oneToOne = field.getAnnotation(OneToOne.class);
+                    ManyToOne manyToOne = field.getAnnotation(ManyToOne.class);
+
+                    if (oneToOne != null || manyToOne != null ||
+                            field.getAnnotation(OneToMany.class) != null ||
+                            field.getAnnotation(ManyToMany.class) != null) {
+
+                        relationships.add(fieldName);
+
+                        JoinTable joinTable = field.getAnnotation(JoinTable.class);
+
+                        if (joinTable != null) {
+                            CodeBlock code = createJoinTable(entity, field, joinTable);
+
+                            if (code == null) {
+                                referenceable = false;
+                                break;
+                            }
+
+                            joinTables.add(code);
+                        }
+                    }
+
+                    Column column = field.getAnnotation(Column.class);
+
+                    if (column != null) {
+                        CodeBlock code = createColumn(entity, field, column);
+
+                        if (code == null) {
+                            referenceable = false;
+                            break;
+                        }
+
+                        columns.add(code);
+
+                    } else if ((oneToOne != null && oneToOne.mappedBy().isEmpty()) || manyToOne != null) {
+                        joinColumns.add(fieldName);
+                    }
+                }
+
+                if (!referenceable)
+                    continue;
+
+                TypeSpec schema = TypeSpec.classBuilder(getFlatName(entity) + SCHEMA_SUFFIX)
+                        .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                        .addSuperinterface(schemaInterface)
+                        .addField(createListField("RELATIONSHIPS", ClassName.get(String.class), createStringsList(relationships)))
+                        .addField(createListField("COLUMNS", simpleColumnClass, createList(columns)))
+                        .addField(createListField("JOIN_COLUMNS", ClassName.get(String.class), createStringsList(joinColumns)))
+                        .addField(createListField("JOIN_TABLES", joinTableClass, createList(joinTables)))
+                        .addMethod(createGetter("getTableName", ClassName.get(String.class), CodeBlock.of("$S", tableName)))
+                        .addMethod(createGetter("getParent",
+                                ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)),
+                                parent == null ? CodeBlock.of("null") : CodeBlock.of("$T.class", ClassName.get(parent))))
+                        .addMethod(createGetter("getDiscriminatorValue", ClassName.get(String.class),
+                                discriminatorValue == null ? CodeBlock.of("null") : CodeBlock.of("$S", discriminatorValue.value())))
+                        .addMethod(createGetter("getRelationships", listOf(ClassName.get(String.class)), CodeBlock.of("RELATIONSHIPS")))
+                        .addMethod(createGetter("getColumns", listOf(simpleColumnClass), CodeBlock.of("COLUMNS")))
+                        .addMethod(createGetter("getJoinColumns", listOf(ClassName.get(String.class)), CodeBlock.of("JOIN_COLUMNS")))
+                        .addMethod(createGetter("getDiscriminatorColumn", discriminatorColumnClass,
+                                discriminatorColumn == null ? CodeBlock.of("null") : CodeBlock.of("new $T($S, $T.$L)",
+                                        discriminatorColumnClass,
+                                        discriminatorColumn.name(),
+                                        DiscriminatorType.class,
+                                        discriminatorColumn.discriminatorType().name())))
+                        .addMethod(createGetter("getJoinTables", listOf(joinTableClass), CodeBlock.of("JOIN_TABLES")))
+                        .build();
+
+                JavaFile.builder(packageName, schema).build().writeTo(getFiler());
+                registries.computeIfAbsent(packageName, key -> new ArrayList<>()).add(entity);
+
+            } catch (IOException e) {
+                logError(e.getMessage(), entity);
+            }
+        }
+
+        for (Map.Entry<String, List<TypeElement>> registry : registries.entrySet()) {
+            try {
+                JavaFile.builder(registry.getKey(), createRegistry(registry.getValue())).build().writeTo(getFiler());
+
+            } catch (IOException e) {
+                logError(e.getMessage(), registry.getValue().get(0));
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Create the registry of the schemas of a package.
+     *
+     * @param entities  entities of the package whose schema has been generated
+     * @return type specification
+     */
+    private TypeSpec createRegistry(List<TypeElement> entities) {
+        TypeName mapType = ParameterizedTypeName.get(ClassName.get(Map.class),
+                ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class)),
+                schemaInterface);
+
+        CodeBlock.Builder initializer = CodeBlock.builder()
+                .addStatement("$T schemas = new $T<>($L)", mapType, HashMap.class, entities.size());
+
+        for (TypeElement entity : entities) {
+            initializer.addStatement("schemas.put($T.class, new $T())",
+                    TypeName.get(getTypeUtils().erasure(entity.asType())),
+                    ClassName.get(getPackage(entity).getQualifiedName().toString(), getFlatName(entity) + SCHEMA_SUFFIX));
+        }
+
+        initializer.addStatement("SCHEMAS = $T.unmodifiableMap(schemas)", Collections.class);
+
+        return TypeSpec.classBuilder(REGISTRY_NAME)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(registryInterface)
+                .addField(FieldSpec.builder(mapType, "SCHEMAS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).build())
+                .addStaticBlock(initializer.build())
+                .addMethod(createGetter("getSchemas", mapType, CodeBlock.of("SCHEMAS")))
+                .build();
+    }
+
+    /**
+     * Get the nearest superclass annotated with {@link Entity}.
+     *
+     * @param entity    entity class
+     * @return parent entity class (<code>null</code> if the entity has no parent)
+     */
+    private TypeElement getParentEntity(TypeElement entity) {
+        TypeMirror superclass = entity.getSuperclass();
+
+        while (superclass.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+
+            if (element.getAnnotation(Entity.class) != null)
+                return element;
+
+            superclass = element.getSuperclass();
+        }
+
+        return null;
+    }
+
+    /**
+     * Check whether a class can be referenced from the package of another one.
+     *
+     * @param clazz     class to be referenced
+     * @param from      class whose package will contain the reference
+     *
+     * @return <code>true</code> if the class is accessible; <code>false</code> otherwise
+     */
+    private boolean isReferenceable(TypeElement clazz, TypeElement from) {
+        if (!isAccessible(clazz))
+            return false;
+
+        if (getPackage(clazz).equals(getPackage(from)))
+            return true;
+
+        Element element = clazz;
+
+        while (element.getKind() == ElementKind.CLASS) {
+            if (!element.getModifiers().contains(Modifier.PUBLIC))
+                return false;
+
+            element = element.getEnclosingElement();
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the default name of a table or of a column.
+     *
+     * <p>Same policy of the framework: uppercase characters are replaced with underscore followed
+     * by the same character converted to lowercase, except for the first character.</p>
+     *
+     * @param name  class or field name
+     * @return table or column name
+     */
+    private static String getDefaultName(String name) {
+        char[] c = name.toCharArray();
+        c[0] = Character.toLowerCase(c[0]);
+        return new String(c).replaceAll("([A-Z])", "_$1").toLowerCase();
+    }
+
+    /**
+     * Create the instantiation of a basic column descriptor.
+     *
+     * @param entity    entity class
+     * @param field     field annotated with {@link Column}
+     * @param column    column annotation
+     *
+     * @return code block, or <code>null</code> if the converter class can't be referenced from
+     *         the package of the entity
+     */
+    private CodeBlock createColumn(TypeElement entity, Element field, Column column) {
+        String fieldName = field.getSimpleName().toString();
+        String name = column.name().isEmpty() ? getDefaultName(fieldName) : column.name();
+
+        Convert convert = field.getAnnotation(Convert.class);
+        TypeElement converter = convert == null ? null : getClassValue(convert::value);
+
+        if (convert != null && (converter == null || !isReferenceable(converter, entity))) {
+            return null;
+        }
+
+        Enumerated enumerated = field.getAnnotation(Enumerated.class);
+
+        return CodeBlock.of("new $T($S, $S, $S, $L, $L, $L, $S, $L, $T.$L, $L)",
+                simpleColumnClass,
+                fieldName,
+                name,
+                column.columnDefinition().isEmpty() ? null : column.columnDefinition(),
+                field.getAnnotation(Id.class) != null,
+                column.nullable(),
+                column.unique(),
+                column.defaultValue().isEmpty() ? null : column.defaultValue(),
+                converter == null ? CodeBlock.of("null") : CodeBlock.of("$T.class", ClassName.get(converter)),
+                EnumType.class,
+                enumerated == null ? EnumType.STRING.name() : enumerated.value().name(),
+                column.scale());
+    }
+
+    /**
+     * Create the instantiation of a join table descriptor.
+     *
+     * @param entity    entity class
+     * @param field     field annotated with {@link JoinTable}
+     * @param joinTable join table annotation
+     *
+     * @return code block, or <code>null</code> if the join classes can't be referenced from
+     *         the package of the entity
+     */
+    private CodeBlock createJoinTable(TypeElement entity, Element field, JoinTable joinTable) {
+        TypeElement joinClass = getClassValue(joinTable::joinClass);
+        TypeElement inverseJoinClass = getClassValue(joinTable::inverseJoinClass);
+
+        if (joinClass == null || inverseJoinClass == null ||
+                !isReferenceable(joinClass, entity) || !isReferenceable(inverseJoinClass, entity)) {
+
+            return null;
+        }
+
+        return CodeBlock.of("new $T($S, $S, $T.class, $T.class,\n$L,\n$L)",
+                joinTableClass,
+                field.getSimpleName().toString(),
+                joinTable.name(),
+                ClassName.get(joinClass),
+                ClassName.get(inverseJoinClass),
+                createJoinColumns(field, joinTable.joinColumns()),
+                createJoinColumns(field, joinTable.inverseJoinColumns()));
+    }
+
+    /**
+     * Create the instantiation of an unmodifiable list of join column descriptors.
+     *
+     * @param field         field the columns are generated from
+     * @param joinColumns   join column annotations
+     *
+     * @return code block
+     */
+    private CodeBlock createJoinColumns(Element field, JoinColumn[] joinColumns) {
+        List<CodeBlock> blocks = new ArrayList<>(joinColumns.length);
+
+        for (JoinColumn joinColumn : joinColumns) {
+            String name = joinColumn.name().isEmpty() ? getDefaultName(field.getSimpleName().toString()) : joinColumn.name();
+
+            blocks.add(CodeBlock.of("new $T($S, $S, $S, $L, $L, $S, $L)",
+                    joinColumnClass,
+                    name,
+                    joinColumn.referencedColumnName(),
+                    joinColumn.columnDefinition().isEmpty() ? null : joinColumn.columnDefinition(),
+                    joinColumn.nullable(),
+                    joinColumn.unique(),
+                    joinColumn.defaultValue().isEmpty() ? null : joinColumn.defaultValue(),
+                    joinColumn.index()));
+        }
+
+        return createList(blocks);
+    }
+
+    /**
+     * Get the class specified by an annotation attribute.
+     *
+     * <p>The classes being compiled can't be loaded, so the attribute is read by catching the
+     * {@link MirroredTypeException} thrown while trying to access it.</p>
+     *
+     * @param value     annotation attribute
+     * @return class element, or <code>null</code> if it is not a declared class
+     */
+    private static TypeElement getClassValue(Supplier<Class<?>> value) {
+        TypeMirror type;
+
+        try {
+            value.get();
+            return null;
+
+        } catch (MirroredTypeException e) {
+            type = e.getTypeMirror();
+        }
+
+        return type.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) type).asElement() : null;
+    }
+
+    /**
+     * Create the instantiation of an unmodifiable list of strings.
+     *
+     * @param elements  strings
+     * @return code block
+     */
+    private static CodeBlock createStringsList(List<String> elements) {
+        List<CodeBlock> blocks = new ArrayList<>(elements.size());
+
+        for (String element : elements) {
+            blocks.add(CodeBlock.of("$S", element));
+        }
+
+        return createList(blocks);
+    }
+
+    /**
+     * Create the instantiation of an unmodifiable list.
+     *
+     * @param elements  code of the elements
+     * @return code block
+     */
+    private static CodeBlock createList(List<CodeBlock> elements) {
+        if (elements.isEmpty()) {
+            return CodeBlock.of("$T.emptyList()", Collections.class);
+        }
+
+        return CodeBlock.builder()
+                .add("$T.unmodifiableList($T.asList(\n", Collections.class, Arrays.class)
+                .indent().indent()
+                .add(CodeBlock.join(elements, ",\n"))
+                .unindent().unindent()
+                .add("))")
+                .build();
+    }
+
+    /**
+     * Create a constant list field.
+     *
+     * @param name          field name
+     * @param elementType   type of the list elements
+     * @param initializer   field initializer
+     *
+     * @return field specification
+     */
+    private static FieldSpec createListField(String name, TypeName elementType, CodeBlock initializer) {
+        return FieldSpec.builder(listOf(elementType), name, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer(initializer)
+                .build();
+    }
+
+    /**
+     * Create a method returning a value.
+     *
+     * @param name          method name
+     * @param returnType    return type
+     * @param value         returned value
+     *
+     * @return method specification
+     */
+    private static MethodSpec createGetter(String name, TypeName returnType, CodeBlock value) {
+        return MethodSpec.methodBuilder(name)
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(returnType)
+                .addStatement("return $L", value)
+                .build();
+    }
+
+    /**
+     * Get the type of a list.
+     *
+     * @param elementType   type of the list elements
+     * @return list type
+     */
+    private static TypeName listOf(TypeName elementType) {
+        return ParameterizedTypeName.get(ClassName.get(List.class), elementType);
+    }
+
+}
@@ -65,4 +65,11 @@ public @interface Column {
      */
     String columnDefinition() default "";
 
+
+    /**
+     * The scale of a {@link java.math.BigDecimal} column, that is the number of digits after the
+     * decimal point to be kept when storing the value as an integer.
+     */
+    int scale() default 0;
+
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Specifies the converter to be used to store the values of a {@link Column} field.
+ *
+ * <p>The converter class must implement the <code>it.mscuttari.kaoldb.interfaces.TypeConverter</code>
+ * interface for the field type and must have a public no-arguments constructor.</p>
+ */
+@Target({FIELD})
+@Retention(RUNTIME)
+public @interface Convert {
+
+    /**
+     * The converter class.
+     */
+    Class<?> value();
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.annotations;
+
+/**
+ * Defines the ways an enum value can be stored.
+ *
+ * @see Enumerated
+ */
+public enum EnumType {
+
+    /**
+     * Constant name, stored as <code>TEXT</code>.
+     */
+    STRING,
+
+    /**
+     * Constant ordinal, stored as <code>INTEGER</code>.
+     *
+     * <p>The stored values change if the constants are reordered.</p>
+     */
+    ORDINAL,
+
+    /**
+     * Stable code specified through the {@link EnumCode} annotation on each constant, stored
+     * as <code>INTEGER</code>.
+     */
+    CODE
+
+}
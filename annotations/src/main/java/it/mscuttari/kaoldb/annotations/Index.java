@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Used in the {@link Table} annotation to specify an index of the table.
+ *
+ * <p>The columns that reference other tables through a {@link JoinColumn} are already indexed
+ * by default, and don't need to be declared here.</p>
+ */
+@Target({})
+@Retention(RUNTIME)
+public @interface Index {
+
+    /**
+     * The name of the index.
+     * Defaults to <code>index_</code> followed by the table and the columns names, separated
+     * by underscores.
+     */
+    String name() default "";
+
+
+    /**
+     * The names of the indexed columns, in order.
+     */
+    String[] columnNames();
+
+
+    /**
+     * Whether the index is unique.
+     */
+    boolean unique() default false;
+
+
+    /**
+     * The condition of a partial index, in SQL syntax, without the <code>WHERE</code> keyword.
+     * Defaults to an index over all the rows.
+     */
+    String where() default "";
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Specifies the inheritance strategy of an entity hierarchy.
+ *
+ * <p>It must be declared on the root entity of the hierarchy and applies to all its
+ * descendants. When not specified, {@link InheritanceType#JOINED} is used.</p>
+ */
+@Target({TYPE})
+@Retention(RUNTIME)
+public @interface Inheritance {
+
+    /**
+     * The strategy to be used for the entity hierarchy.
+     * Defaults to {@link InheritanceType#JOINED}.
+     */
+    InheritanceType strategy() default InheritanceType.JOINED;
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.annotations;
+
+/**
+ * Defines the inheritance strategies of the entity hierarchies.
+ */
+public enum InheritanceType {
+
+    /**
+     * Each entity has its own table, containing its columns and the primary keys of its
+     * parent. Polymorphic reads join the tables of the whole hierarchy.
+     */
+    JOINED,
+
+    /**
+     * The whole hierarchy is stored in the table of the root entity, whose rows are told
+     * apart by the discriminator columns. The columns of the descendants are always nullable.
+     */
+    SINGLE_TABLE
+
+}
@@ -72,4 +72,14 @@ public @interface JoinColumn {
      */
     String columnDefinition() default "";
 
+
+    /**
+     * Whether an index has to be created on the column.
+     *
+     * <p>Indexing the foreign keys avoids full table scans when joining the tables and when
+     * the referenced rows are updated or deleted. Columns belonging to a {@link JoinColumns}
+     * annotation are indexed together, and only if all of them allow it.</p>
+     */
+    boolean index() default true;
+
 }
@@ -28,5 +28,6 @@ public @interface Table {
 
     String name() default "";
     UniqueConstraint[] uniqueConstraints() default {};
+    Index[] indexes() default {};
 
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.interfaces;
+
+import android.util.Pair;
+
+import androidx.annotation.CheckResult;
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * Differences between two consecutive results of a live query.
+ *
+ * <p>
+ * The elements of the two lists are matched according to their primary keys: an element
+ * present in both the lists is considered to be changed if any of its column values differs.
+ * </p>
+ *
+ * <p>
+ * The positions of the removed elements refer to the previous results, while the positions of
+ * the inserted and changed elements refer to the new ones. The moved elements are represented
+ * as pairs of previous and new positions.
+ * </p>
+ *
+ * @param <M>   result objects class
+ */
+public interface ChangeSet<M> {
+
+    /**
+     * Get the new results.
+     *
+     * @return results list
+     */
+    @CheckResult
+    @NonNull
+    List<M> getResults();
+
+    /**
+     * Get the positions, in the new results, of the elements that were not previously present.
+     *
+     * @return inserted positions, in ascending order
+     */
+    @CheckResult
+    @NonNull
+    List<Integer> getInsertions();
+
+    /**
+     * Get the positions, in the previous results, of the elements that are no longer present.
+     *
+     * @return removed positions, in ascending order
+     */
+    @CheckResult
+    @NonNull
+    List<Integer> getRemovals();
+
+    /**
+     * Get the elements whose relative order has changed.
+     *
+     * <p>
+     * Only the minimum amount of moves needed to restore the order of the surviving elements
+     * is reported.
+     * </p>
+     *
+     * @return pairs of previous and new positions, in ascending order of new position
+     */
+    @CheckResult
+    @NonNull
+    List<Pair<Integer, Integer>> getMoves();
+
+    /**
+     * Get the positions, in the new results, of the elements whose content has changed.
+     *
+     * @return changed positions, in ascending order
+     */
+    @CheckResult
+    @NonNull
+    List<Integer> getChanges();
+
+    /**
+     * Check whether the results have not changed at all.
+     *
+     * @return <code>true</code> if there are no insertions, removals, moves or changes;
+     *         <code>false</code> otherwise
+     */
+    @CheckResult
+    boolean isEmpty();
+
+}
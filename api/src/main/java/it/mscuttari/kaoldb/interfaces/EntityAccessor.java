@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.interfaces;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Reflection-free access to the fields of an entity class.
+ *
+ * <p>
+ * An implementation named <code>EntityName_Accessor</code> is generated by the annotation
+ * processor, in the same package of the entity, for each class annotated with
+ * {@link it.mscuttari.kaoldb.annotations.Entity}; nested classes are prefixed by the names of
+ * their enclosing classes (i.e. <code>Outer_Inner_Accessor</code>). Only the fields declared
+ * by the entity class itself and visible from its package are covered: for the other ones,
+ * and for the classes that can't be instantiated through an accessible no-arguments
+ * constructor, the framework falls back to reflection.
+ * </p>
+ *
+ * <p>
+ * Primitive fields can also be written through the <code>setXxx</code> methods, which don't
+ * require the values to be boxed. Their default implementations delegate to
+ * {@link #setValue(Object, int, Object)}.
+ * </p>
+ *
+ * @param <T>   entity class
+ */
+public interface EntityAccessor<T> {
+
+    /**
+     * Create a new instance of the entity through its no-arguments constructor.
+     *
+     * @return new instance, or <code>null</code> if the class can't be instantiated directly
+     */
+    @Nullable
+    T newInstance();
+
+    /**
+     * Get the index to be used to access a field.
+     *
+     * @param fieldName     field name
+     * @return field index, or <code>-1</code> if the field is not covered by the accessor
+     */
+    int getFieldIndex(String fieldName);
+
+    /**
+     * Get the value of a field.
+     *
+     * @param obj           object whose field has to be read
+     * @param fieldIndex    field index, as returned by {@link #getFieldIndex(String)}
+     *
+     * @return field value (primitive values are boxed)
+     *
+     * @throws IllegalArgumentException if the index is not valid
+     */
+    Object getValue(T obj, int fieldIndex);
+
+    /**
+     * Set the value of a field.
+     *
+     * @param obj           object whose field has to be written
+     * @param fieldIndex    field index, as returned by {@link #getFieldIndex(String)}
+     * @param value         value to be assigned (primitive values must be boxed)
+     *
+     * @throws IllegalArgumentException if the index is not valid
+     * @throws it.mscuttari.kaoldb.exceptions.PojoException if a null value is assigned to a
+     *                                                      primitive field
+     */
+    void setValue(T obj, int fieldIndex, Object value);
+
+    /**
+     * Set the value of a <code>boolean</code> field.
+     *
+     * @param obj           object whose field has to be written
+     * @param fieldIndex    field index, as returned by {@link #getFieldIndex(String)}
+     * @param value         value to be assigned
+     *
+     * @throws IllegalArgumentException if the index is not valid
+     */
+    default void setBoolean(T obj, int fieldIndex, boolean value) {
+        setValue(obj, fieldIndex, value);
+    }
+
+    /**
+     * Set the value of a <code>byte</code> field.
+     *
+     * @param obj           object whose field has to be written
+     * @param fieldIndex    field index, as returned by {@link #getFieldIndex(String)}
+     * @param value         value to be assigned
+     *
+     * @throws IllegalArgumentException if the index is not valid
+     */
+    default void setByte(T obj, int fieldIndex, byte value) {
+        setValue(obj, fieldIndex, value);
+    }
+
+    /**
+     * Set the value of a <code>short</code> field.
+     *
+     * @param obj           object whose field has to be written
+     * @param fieldIndex    field index, as returned by {@link #getFieldIndex(String)}
+     * @param value         value to be assigned
+     *
+     * @throws IllegalArgumentException if the index is not valid
+     */
+    default void setShort(T obj, int fieldIndex, short value) {
+        setValue(obj, fieldIndex, value);
+    }
+
+    /**
+     * Set the value of an <code>int</code> field.
+     *
+     * @param obj           object whose field has to be written
+     * @param fieldIndex    field index, as returned by {@link #getFieldIndex(String)}
+     * @param value         value to be assigned
+     *
+     * @throws IllegalArgumentException if the index is not valid
+     */
+    default void setInt(T obj, int fieldIndex, int value) {
+        setValue(obj, fieldIndex, value);
+    }
+
+    /**
+     * Set the value of a <code>long</code> field.
+     *
+     * @param obj           object whose field has to be written
+     * @param fieldIndex    field index, as returned by {@link #getFieldIndex(String)}
+     * @param value         value to be assigned
+     *
+     * @throws IllegalArgumentException if the index is not valid
+     */
+    default void setLong(T obj, int fieldIndex, long value) {
+        setValue(obj, fieldIndex, value);
+    }
+
+    /**
+     * Set the value of a <code>float</code> field.
+     *
+     * @param obj           object whose field has to be written
+     * @param fieldIndex    field index, as returned by {@link #getFieldIndex(String)}
+     * @param value         value to be assigned
+     *
+     * @throws IllegalArgumentException if the index is not valid
+     */
+    default void setFloat(T obj, int fieldIndex, float value) {
+        setValue(obj, fieldIndex, value);
+    }
+
+    /**
+     * Set the value of a <code>double</code> field.
+     *
+     * @param obj           object whose field has to be written
+     * @param fieldIndex    field index, as returned by {@link #getFieldIndex(String)}
+     * @param value         value to be assigned
+     *
+     * @throws IllegalArgumentException if the index is not valid
+     */
+    default void setDouble(T obj, int fieldIndex, double value) {
+        setValue(obj, fieldIndex, value);
+    }
+
+}
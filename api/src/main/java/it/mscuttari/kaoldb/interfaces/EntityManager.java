@@ -16,10 +16,12 @@
 
 package it.mscuttari.kaoldb.interfaces;
 
+import java.util.Collection;
 import java.util.List;
 
 import androidx.annotation.CheckResult;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 
 /**
@@ -63,6 +65,47 @@ public interface EntityManager {
     @NonNull
     <T> List<T> getAll(@NonNull Class<T> entityClass);
 
+    /**
+     * Get an entity element by its primary key.
+     *
+     * <p>
+     * The identifier is the value of the primary key or, in case of entities with multiple
+     * primary keys, an object of the entity class having its primary keys set. When the primary
+     * key is a join column, its value is the one of the referenced column of the linked object.
+     * The element is loaded through a statement prepared just once for each entity, without the
+     * need of building a query.
+     * </p>
+     *
+     * @param entityClass   entity class
+     * @param id            primary key value, or object with the primary keys set
+     * @param <T>           entity class
+     *
+     * @return element (<code>null</code> if not found). It may be an instance of a subclass of
+     *         the entity class
+     */
+    @CheckResult
+    @Nullable
+    <T> T find(@NonNull Class<T> entityClass, @NonNull Object id);
+
+    /**
+     * Get the entity elements having some primary keys.
+     *
+     * <p>
+     * The elements are loaded in batches, each of them with a single statement. The identifiers
+     * not matching any element are ignored and the order of the results is not guaranteed.
+     * </p>
+     *
+     * @param entityClass   entity class
+     * @param ids           primary key values, or objects with the primary keys set
+     * @param <T>           entity class
+     *
+     * @return elements list
+     * @see #find(Class, Object)
+     */
+    @CheckResult
+    @NonNull
+    <T> List<T> findAll(@NonNull Class<T> entityClass, @NonNull Collection<?> ids);
+
     /**
      * Get all the entity elements.
      *
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.interfaces;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+import it.mscuttari.kaoldb.annotations.DiscriminatorType;
+import it.mscuttari.kaoldb.annotations.EnumType;
+
+/**
+ * Mapping metadata of an entity, precomputed at compile time.
+ *
+ * <p>
+ * An implementation named <code>EntityName_Schema</code> is generated by the annotation
+ * processor, in the same package of the entity, for each class annotated with
+ * {@link it.mscuttari.kaoldb.annotations.Entity}; nested classes are prefixed by the names of
+ * their enclosing classes (i.e. <code>Outer_Inner_Schema</code>), and listed by the
+ * {@link SchemaRegistry} of the package. It allows the mapping process to skip the scan of
+ * the class hierarchy and of the annotations of every field: only the fields listed here are
+ * loaded, and the properties of the basic columns, converters included, are read directly.
+ * </p>
+ *
+ * <p>
+ * The join columns reference the columns of other entities, so only the fields they originate
+ * from are listed and their properties are still resolved at runtime. The join tables are
+ * described together with their join columns, whose types are anyway determined by the
+ * referenced columns. When the schema of an entity is not available, the whole mapping falls
+ * back to reflection.
+ * </p>
+ */
+public interface EntitySchema {
+
+    /**
+     * Get the name of the entity table.
+     *
+     * @return table name
+     */
+    @NonNull
+    String getTableName();
+
+    /**
+     * Get the nearest superclass annotated with {@link it.mscuttari.kaoldb.annotations.Entity}.
+     *
+     * @return parent class, or <code>null</code> if the entity has no parent
+     */
+    @Nullable
+    Class<?> getParent();
+
+    /**
+     * Get the discriminator value of the entity.
+     *
+     * @return discriminator value as declared in the annotation, or <code>null</code> if not
+     *         specified
+     */
+    @Nullable
+    String getDiscriminatorValue();
+
+    /**
+     * Get the names of the fields declared by the entity that are annotated with
+     * {@link it.mscuttari.kaoldb.annotations.OneToOne}, {@link it.mscuttari.kaoldb.annotations.OneToMany},
+     * {@link it.mscuttari.kaoldb.annotations.ManyToOne} or {@link it.mscuttari.kaoldb.annotations.ManyToMany}.
+     *
+     * @return relationship fields names
+     */
+    @NonNull
+    List<String> getRelationships();
+
+    /**
+     * Get the basic columns, originated from the fields declared by the entity that are
+     * annotated with {@link it.mscuttari.kaoldb.annotations.Column}.
+     *
+     * @return basic columns
+     */
+    @NonNull
+    List<SimpleColumn> getColumns();
+
+    /**
+     * Get the names of the fields declared by the entity that lead to join columns, that is the
+     * ones annotated with {@link it.mscuttari.kaoldb.annotations.ManyToOne} and the owning
+     * sides of the {@link it.mscuttari.kaoldb.annotations.OneToOne} relationships.
+     *
+     * @return join columns fields names
+     */
+    @NonNull
+    List<String> getJoinColumns();
+
+    /**
+     * Get the discriminator column declared by the entity through the
+     * {@link it.mscuttari.kaoldb.annotations.DiscriminatorColumn} annotation.
+     *
+     * @return discriminator column, or <code>null</code> if not declared
+     */
+    @Nullable
+    DiscriminatorColumn getDiscriminatorColumn();
+
+    /**
+     * Get the join tables, originated from the relationship fields declared by the entity that
+     * are annotated with {@link it.mscuttari.kaoldb.annotations.JoinTable}.
+     *
+     * @return join tables
+     */
+    @NonNull
+    List<JoinTable> getJoinTables();
+
+    /**
+     * Properties of a basic column, with the default values already applied.
+     */
+    final class SimpleColumn {
+
+        @NonNull public final String field;
+        @NonNull public final String name;
+        @Nullable public final String columnDefinition;
+        public final boolean primaryKey;
+        public final boolean nullable;
+        public final boolean unique;
+        @Nullable public final String defaultValue;
+        @Nullable public final Class<?> converter;
+        @NonNull public final EnumType enumType;
+        public final int scale;
+
+        /**
+         * Constructor.
+         *
+         * @param field             name of the field the column is generated from
+         * @param name              column name
+         * @param columnDefinition  custom column definition (<code>null</code> if not specified)
+         * @param primaryKey        whether the column is a primary key
+         * @param nullable          whether the column is nullable
+         * @param unique            whether the column is unique
+         * @param defaultValue      default value (<code>null</code> if not specified)
+         * @param converter         converter class specified through the
+         *                          {@link it.mscuttari.kaoldb.annotations.Convert} annotation
+         *                          (<code>null</code> if the built-in converters have to be used)
+         * @param enumType          storage strategy of the enum values
+         * @param scale             digits after the decimal point of the {@link java.math.BigDecimal} values
+         */
+        public SimpleColumn(@NonNull String field,
+                            @NonNull String name,
+                            @Nullable String columnDefinition,
+                            boolean primaryKey,
+                            boolean nullable,
+                            boolean unique,
+                            @Nullable String defaultValue,
+                            @Nullable Class<?> converter,
+                            @NonNull EnumType enumType,
+                            int scale) {
+
+            this.field = field;
+            this.name = name;
+            this.columnDefinition = columnDefinition;
+            this.primaryKey = primaryKey;
+            this.nullable = nullable;
+            this.unique = unique;
+            this.defaultValue = defaultValue;
+            this.converter = converter;
+            this.enumType = enumType;
+            this.scale = scale;
+        }
+
+    }
+
+    /**
+     * Properties of a discriminator column.
+     */
+    final class DiscriminatorColumn {
+
+        @NonNull public final String name;
+        @NonNull public final DiscriminatorType type;
+
+        /**
+         * Constructor.
+         *
+         * @param name  column name
+         * @param type  type of the discriminator values
+         */
+        public DiscriminatorColumn(@NonNull String name, @NonNull DiscriminatorType type) {
+            this.name = name;
+            this.type = type;
+        }
+
+    }
+
+    /**
+     * Properties of a column of a join table, with the default values already applied.
+     */
+    final class JoinColumn {
+
+        @NonNull public final String name;
+        @NonNull public final String referencedColumnName;
+        @Nullable public final String columnDefinition;
+        public final boolean nullable;
+        public final boolean unique;
+        @Nullable public final String defaultValue;
+        public final boolean index;
+
+        /**
+         * Constructor.
+         *
+         * @param name                  column name
+         * @param referencedColumnName  name of the referenced column
+         * @param columnDefinition      custom column definition (<code>null</code> if not specified)
+         * @param nullable              whether the column is nullable
+         * @param unique                whether the column is unique
+         * @param defaultValue          default value (<code>null</code> if not specified)
+         * @param index                 whether the column has to be indexed
+         */
+        public JoinColumn(@NonNull String name,
+                          @NonNull String referencedColumnName,
+                          @Nullable String columnDefinition,
+                          boolean nullable,
+                          boolean unique,
+                          @Nullable String defaultValue,
+                          boolean index) {
+
+            this.name = name;
+            this.referencedColumnName = referencedColumnName;
+            this.columnDefinition = columnDefinition;
+            this.nullable = nullable;
+            this.unique = unique;
+            this.defaultValue = defaultValue;
+            this.index = index;
+        }
+
+    }
+
+    /**
+     * Properties of a join table.
+     */
+    final class JoinTable {
+
+        @NonNull public final String field;
+        @NonNull public final String name;
+        @NonNull public final Class<?> joinClass;
+        @NonNull public final Class<?> inverseJoinClass;
+        @NonNull public final List<JoinColumn> joinColumns;
+        @NonNull public final List<JoinColumn> inverseJoinColumns;
+
+        /**
+         * Constructor.
+         *
+         * @param field                 name of the field the table is generated from
+         * @param name                  table name
+         * @param joinClass             class referenced by the direct join columns
+         * @param inverseJoinClass      class referenced by the inverse join columns
+         * @param joinColumns           direct join columns
+         * @param inverseJoinColumns    inverse join columns
+         */
+        public JoinTable(@NonNull String field,
+                         @NonNull String name,
+                         @NonNull Class<?> joinClass,
+                         @NonNull Class<?> inverseJoinClass,
+                         @NonNull List<JoinColumn> joinColumns,
+                         @NonNull List<JoinColumn> inverseJoinColumns) {
+
+            this.field = field;
+            this.name = name;
+            this.joinClass = joinClass;
+            this.inverseJoinClass = inverseJoinClass;
+            this.joinColumns = joinColumns;
+            this.inverseJoinColumns = inverseJoinColumns;
+        }
+
+    }
+
+}
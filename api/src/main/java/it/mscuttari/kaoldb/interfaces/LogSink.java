@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.interfaces;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Destination of the framework logs.
+ *
+ * <p>
+ * The messages are built only if their level is enabled, so the sink receives just the ones
+ * that have to be written.
+ * </p>
+ */
+public interface LogSink {
+
+    /** Log levels, in ascending order of severity */
+    enum Level {
+        VERBOSE,
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR,
+        ASSERT
+    }
+
+    /**
+     * Write a message.
+     *
+     * @param level     message level
+     * @param tag       tag identifying the framework
+     * @param message   message
+     */
+    void log(@NonNull Level level, @NonNull String tag, @NonNull String message);
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.interfaces;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Listener receiving the instrumentation events of the framework.
+ *
+ * <p>
+ * The methods are invoked synchronously by the thread performing the operation, which may
+ * also be a background one: implementations must therefore be thread safe and as fast as
+ * possible. All the methods do nothing by default, so that only the events of interest have
+ * to be handled.
+ * </p>
+ *
+ * <p>
+ * Queries are identified by their shape, that is their SQL statement with the literal values
+ * replaced by placeholders, so that the executions of the same query with different parameters
+ * can be aggregated together.
+ * </p>
+ */
+public interface MetricsListener {
+
+    /** Kind of a write operation */
+    enum WriteType {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+    /**
+     * Called after a query has been executed and its results have been loaded.
+     *
+     * @param database          database name
+     * @param shape             query shape
+     * @param executionNanos    time spent by SQLite to execute the query, in nanoseconds
+     * @param rows              amount of rows read
+     * @param hydrationNanos    time spent to convert the rows into objects, in nanoseconds
+     */
+    default void onQuery(@NonNull String database, @NonNull String shape, long executionNanos, int rows, long hydrationNanos) {
+
+    }
+
+    /**
+     * Called after a row has been inserted, updated or deleted.
+     *
+     * @param database  database name
+     * @param type      operation type
+     * @param table     table name
+     * @param nanos     operation latency, in nanoseconds
+     * @param rows      amount of affected rows
+     */
+    default void onWrite(@NonNull String database, @NonNull WriteType type, @NonNull String table, long nanos, int rows) {
+
+    }
+
+    /**
+     * Called when a transaction ends.
+     *
+     * @param database      database name
+     * @param nanos         transaction duration, in nanoseconds
+     * @param successful    whether the transaction has been committed
+     */
+    default void onTransaction(@NonNull String database, long nanos, boolean successful) {
+
+    }
+
+    /**
+     * Called when a connection towards a database is opened.
+     *
+     * @param database  database name
+     */
+    default void onConnectionOpened(@NonNull String database) {
+
+    }
+
+    /**
+     * Called when a connection towards a database is closed.
+     *
+     * @param database  database name
+     */
+    default void onConnectionClosed(@NonNull String database) {
+
+    }
+
+    /**
+     * Called when a background task is submitted while all the core threads of the pool are
+     * busy, and a new thread has therefore to be created.
+     *
+     * @param activeThreads     amount of threads executing a task
+     * @param coreThreads       amount of threads kept alive by the pool
+     */
+    default void onPoolSaturation(int activeThreads, int coreThreads) {
+
+    }
+
+    /**
+     * Called every time a live query is executed in order to load or refresh its data.
+     *
+     * <p>
+     * Refresh requests received while the query is running, or while the live data has no
+     * active observers, are coalesced and therefore lead to just one execution.
+     * </p>
+     *
+     * @param database  database name
+     * @param shape     query shape
+     */
+    default void onLiveQueryRefresh(@NonNull String database, @NonNull String shape) {
+
+    }
+
+}
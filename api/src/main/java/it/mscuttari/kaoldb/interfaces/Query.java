@@ -53,12 +53,37 @@ public interface Query<M> {
      * internal values of each element.
      * </p>
      *
+     * <p>
+     * The query is executed in background and only while the live data has active observers:
+     * its value is therefore not available until the first observer is registered.
+     * </p>
+     *
      * @return live data
      */
     @CheckResult
     @NonNull
     LiveData<List<M>> getLiveResults();
 
+    /**
+     * Run the query and get the differences between its consecutive results.
+     *
+     * <p>
+     * Every time the results change, the emitted {@link ChangeSet} contains the new results
+     * list together with the positions of the inserted, removed, moved and changed elements.
+     * The differences are computed in background, so that the observers can apply them
+     * without scanning the whole list. The first emission reports all the elements as inserted.
+     * </p>
+     *
+     * <p>
+     * The same execution policy of {@link #getLiveResults()} applies.
+     * </p>
+     *
+     * @return live change sets
+     */
+    @CheckResult
+    @NonNull
+    LiveData<ChangeSet<M>> getLiveChanges();
+
     /**
      * Run the query and get the first query result object.
      *
@@ -67,4 +92,78 @@ public interface Query<M> {
     @CheckResult
     M getSingleResult();
 
+    /**
+     * Explain how SQLite executes the query, without running it.
+     *
+     * <p>
+     * Useful to check, for example in tests, that critical queries make use of an index
+     * (see {@link QueryPlan#usesIndex()}).
+     * </p>
+     *
+     * @return query plan
+     */
+    @CheckResult
+    @NonNull
+    QueryPlan getQueryPlan();
+
+    /**
+     * Set the size of the cursor window used to read the results.
+     *
+     * <p>
+     * When the results don't fit into the window, the query is executed again from the
+     * beginning every time the window has to be refilled. A bigger window avoids such
+     * executions when reading large results, at the cost of a higher memory usage.
+     * </p>
+     *
+     * <p>
+     * The window size can be customized only starting from Android 9 (API 28): on previous
+     * versions, the default window is always used.
+     * </p>
+     *
+     * @param bytes     window size in bytes (<code>0</code> to use the default one)
+     * @return this query
+     */
+    @NonNull
+    Query<M> setCursorWindowSize(long bytes);
+
+    /**
+     * Set the amount of rows to be read at once.
+     *
+     * <p>
+     * If set, the results are read by executing the query multiple times, each time limited to
+     * <code>rows</code> elements and starting after the primary key of the last element read.
+     * Large results can therefore be scanned in linear time while keeping each cursor small.
+     * The results are sorted by their primary key.
+     * </p>
+     *
+     * @param rows      chunk size (<code>0</code> to read all the results with a single cursor)
+     * @return this query
+     */
+    @NonNull
+    Query<M> setChunkSize(int rows);
+
+    /**
+     * Set whether the results have to be loaded in two phases.
+     *
+     * <p>
+     * By default, the tables of all the subclasses of the requested entity are joined, so that
+     * each object is read from a single row. With wide or deep hierarchies such rows are large
+     * and mostly made of <code>NULL</code> values.<br>
+     * When the two-phase loading is enabled, the query first reads just the primary keys and
+     * the discriminator values of the results. Then, the objects of each concrete subclass
+     * actually found are loaded in batches by primary key, by joining only the tables of that
+     * subclass and of its parents.
+     * </p>
+     *
+     * <p>
+     * The results order is preserved. Queries whose results can't belong to different
+     * subclasses are always executed at once.
+     * </p>
+     *
+     * @param enabled   whether to enable the two-phase loading
+     * @return this query
+     */
+    @NonNull
+    Query<M> setTwoPhaseLoading(boolean enabled);
+
 }
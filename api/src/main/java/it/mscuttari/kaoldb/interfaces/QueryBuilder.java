@@ -72,6 +72,12 @@ public interface QueryBuilder<T> {
      * will keep the clauses it was built with.
      * </p>
      *
+     * <p>
+     * The root may also be linked to a subclass of the result entity (see
+     * {@link Root#treatAs(Class)}), in which case only the objects of that subclass are
+     * retrieved.
+     * </p>
+     *
      * @param root      the root of the desired result entity
      *
      * @return {@link Query} object which can be used to retrieve query result objects
@@ -84,6 +90,6 @@ public interface QueryBuilder<T> {
      */
     @CheckResult
     @NonNull
-    Query<T> build(@NonNull Root<T> root);
+    Query<T> build(@NonNull Root<? extends T> root);
 
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.interfaces;
+
+import androidx.annotation.CheckResult;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * Execution plan of a query, as reported by the SQLite <code>EXPLAIN QUERY PLAN</code>
+ * statement.
+ *
+ * <p>
+ * The plan is meant for debugging purposes: the format of the steps descriptions depends on
+ * the SQLite version shipped with the device and may therefore change between Android releases.
+ * </p>
+ */
+public interface QueryPlan {
+
+    /**
+     * Get the explained SQL statement.
+     *
+     * @return SQL query
+     */
+    @CheckResult
+    @NonNull
+    String getSql();
+
+    /**
+     * Get the steps of the plan.
+     *
+     * @return steps, in the order they are reported by SQLite
+     */
+    @CheckResult
+    @NonNull
+    List<Step> getSteps();
+
+    /**
+     * Check whether every table is accessed through an index or a primary key.
+     *
+     * @return <code>true</code> if no step scans a whole table; <code>false</code> otherwise
+     */
+    @CheckResult
+    boolean usesIndex();
+
+    /**
+     * Get the tables that are scanned as a whole and contain at least the amount of rows set
+     * with <code>KaolDB.setFullScanThreshold(long)</code>.
+     *
+     * @return table names
+     */
+    @CheckResult
+    @NonNull
+    List<String> getFullScans();
+
+    /**
+     * Single step of a query plan.
+     */
+    final class Step {
+
+        public final int id;
+        public final int parent;
+        @NonNull public final String detail;
+        @Nullable public final String table;
+        public final boolean fullScan;
+
+        /**
+         * Constructor.
+         *
+         * @param id        step ID
+         * @param parent    ID of the parent step (<code>0</code> if the step has no parent)
+         * @param detail    human readable description of the step
+         * @param table     accessed table (<code>null</code> if the step doesn't access a table)
+         * @param fullScan  whether the whole table is scanned
+         */
+        public Step(int id, int parent, @NonNull String detail, @Nullable String table, boolean fullScan) {
+            this.id = id;
+            this.parent = parent;
+            this.detail = detail;
+            this.table = table;
+            this.fullScan = fullScan;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return detail;
+        }
+
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.interfaces;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Listener notified, in debug mode, of the execution plan of each distinct query.
+ *
+ * <p>
+ * Queries differing only in their literal values share the same plan, which is therefore
+ * explained only once.
+ * </p>
+ */
+public interface QueryPlanListener {
+
+    /**
+     * Method called after a query has been explained.
+     *
+     * @param plan  query plan
+     */
+    void onQueryPlan(@NonNull QueryPlan plan);
+
+}
@@ -22,6 +22,7 @@ import androidx.annotation.Nullable;
 
 import java.util.Collection;
 
+import it.mscuttari.kaoldb.exceptions.QueryException;
 import it.mscuttari.kaoldb.query.Property;
 import it.mscuttari.kaoldb.query.SingleProperty;
 
@@ -79,6 +80,28 @@ public interface Root<X> {
     @NonNull
     Collection<Root<?>> getJoinedRoots();
 
+    /**
+     * Get a root restricted to a subclass of the entity.
+     *
+     * <p>
+     * The returned root has the same alias of this one and is meant to replace it in the
+     * <code>FROM</code> clause: only the tables of the subclass, of its parents and of its
+     * children are joined, while the ones of the other branches of the hierarchy are skipped.
+     * The properties of the subclass can then be used to create the expressions.
+     * </p>
+     *
+     * @param subclass      entity subclass
+     * @param <S>           entity subclass
+     *
+     * @return subclass root
+     *
+     * @throws QueryException if the class is not an entity extending the root one, or if the
+     *                        root is a join
+     */
+    @CheckResult
+    @NonNull
+    <S extends X> Root<S> treatAs(@NonNull Class<S> subclass);
+
     /**
      * Get <code>IS NULL</code> expression for a property.
      *
@@ -323,4 +346,75 @@ public interface Root<X> {
     @NonNull
     Expression glob(@NonNull SingleProperty<X, String> x, @NonNull SingleProperty<X, String> y);
 
+    /**
+     * Get <code>IN</code> expression between a property and a list of values.
+     *
+     * <p>
+     * The expression is equivalent to a disjunction of equalities, but it is rendered as a
+     * single predicate that SQLite can evaluate by using the indexes of the column.
+     * The property must be mapped to a column and the values can't be null: the null columns
+     * must be searched with {@link #isNull(SingleProperty)}.
+     * </p>
+     *
+     * @param property  entity property
+     * @param values    values
+     * @param <T>       data type
+     *
+     * @return expression
+     * @throws QueryException if any of the values is null
+     */
+    @CheckResult
+    @NonNull
+    <T> Expression in(@NonNull SingleProperty<X, T> property, @NonNull Collection<? extends T> values);
+
+    /**
+     * Get <code>IN</code> expression between a property and the values of a property of
+     * the results of a subquery.
+     *
+     * <p>Both the properties must be mapped to a column.</p>
+     *
+     * @param property  entity property
+     * @param subquery  subquery
+     * @param selected  property of the subquery results
+     * @param <Y>       subquery results class
+     * @param <T>       data type
+     *
+     * @return expression
+     */
+    @CheckResult
+    @NonNull
+    <Y, T> Expression in(@NonNull SingleProperty<X, T> property, @NonNull Query<Y> subquery, @NonNull SingleProperty<Y, T> selected);
+
+    /**
+     * Get <code>NOT IN</code> expression between a property and a list of values.
+     *
+     * @param property  entity property
+     * @param values    values
+     * @param <T>       data type
+     *
+     * @return expression
+     * @throws QueryException if any of the values is null
+     * @see #in(SingleProperty, Collection)
+     */
+    @CheckResult
+    @NonNull
+    <T> Expression notIn(@NonNull SingleProperty<X, T> property, @NonNull Collection<? extends T> values);
+
+    /**
+     * Get <code>NOT IN</code> expression between a property and the values of a property of
+     * the results of a subquery.
+     *
+     * @param property  entity property
+     * @param subquery  subquery
+     * @param selected  property of the subquery results
+     * @param <Y>       subquery results class
+     * @param <T>       data type
+     *
+     * @return expression
+     * @see #in(SingleProperty, Query, SingleProperty)
+     */
+    @CheckResult
+    @NonNull
+    <Y, T> Expression notIn(@NonNull SingleProperty<X, T> property, @NonNull Query<Y> subquery, @NonNull SingleProperty<Y, T> selected);
+
 }
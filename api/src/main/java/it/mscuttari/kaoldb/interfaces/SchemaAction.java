@@ -16,8 +16,6 @@
 
 package it.mscuttari.kaoldb.interfaces;
 
-import android.database.sqlite.SQLiteDatabase;
-
 public interface SchemaAction {
 
     /**
@@ -25,6 +23,6 @@ public interface SchemaAction {
      *
      * @param db    writable database
      */
-    void run(SQLiteDatabase db);
+    void run(StorageConnection db);
 
 }
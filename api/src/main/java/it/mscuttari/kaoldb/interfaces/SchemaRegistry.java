@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.interfaces;
+
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+
+/**
+ * Mapping metadata of all the entities of a package, precomputed at compile time.
+ *
+ * <p>
+ * An implementation named <code>KaolDB_Schemas</code> is generated by the annotation processor
+ * in each package containing at least an entity with an {@link EntitySchema}. A database loads
+ * the registries of the packages of its entities just once, instead of looking up the schema
+ * class of each entity, and maps the entities on the calling thread when all of them are
+ * covered.
+ * </p>
+ */
+public interface SchemaRegistry {
+
+    /**
+     * Get the schemas of the entities of the package.
+     *
+     * @return unmodifiable map between the entity classes and their schemas
+     */
+    @NonNull
+    Map<Class<?>, EntitySchema> getSchemas();
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.interfaces;
+
+import androidx.annotation.CheckResult;
+import androidx.annotation.NonNull;
+
+/**
+ * Database operation whose duration exceeded the configured threshold.
+ */
+public interface SlowOperation {
+
+    /** Kind of a slow operation */
+    enum Type {
+        QUERY,
+        INSERT,
+        UPDATE,
+        DELETE,
+        TRANSACTION
+    }
+
+    /**
+     * Get the operation type.
+     *
+     * @return type
+     */
+    @CheckResult
+    @NonNull
+    Type getType();
+
+    /**
+     * Get the name of the database the operation has been executed on.
+     *
+     * @return database name
+     */
+    @CheckResult
+    @NonNull
+    String getDatabase();
+
+    /**
+     * Get the description of the operation.
+     *
+     * <p>
+     * For queries it is their shape, that is the SQL statement with the literal values
+     * replaced by placeholders; for writes it is the name of the affected table; for
+     * transactions it is empty.
+     * </p>
+     *
+     * @return operation description
+     */
+    @CheckResult
+    @NonNull
+    String getShape();
+
+    /**
+     * Get the amount of arguments bound to the statement.
+     *
+     * @return bound arguments count
+     */
+    @CheckResult
+    int getArgumentsCount();
+
+    /**
+     * Get the amount of rows read or written.
+     *
+     * @return rows count (<code>0</code> for transactions)
+     */
+    @CheckResult
+    int getRows();
+
+    /**
+     * Get the duration of the operation.
+     *
+     * @return duration in nanoseconds
+     */
+    @CheckResult
+    long getDuration();
+
+    /**
+     * Get the time the operation ended at.
+     *
+     * @return timestamp in milliseconds, as returned by {@link System#currentTimeMillis()}
+     */
+    @CheckResult
+    long getTimestamp();
+
+    /**
+     * Get the name of the thread the operation has been executed by.
+     *
+     * @return thread name
+     */
+    @CheckResult
+    @NonNull
+    String getThreadName();
+
+    /**
+     * Check whether the operation has been executed by the main thread, and therefore has
+     * blocked the user interface.
+     *
+     * @return <code>true</code> if executed by the main thread; <code>false</code> otherwise
+     */
+    @CheckResult
+    boolean isMainThread();
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.interfaces;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Connection to a database opened by a {@link StorageDriver}.
+ *
+ * <p>
+ * The semantics are the ones of the Android SQLite database: the errors are reported through
+ * {@link android.database.SQLException} and the transactions can be nested, with the changes
+ * being committed only if all the nested transactions have been marked as successful.
+ * </p>
+ */
+public interface StorageConnection extends AutoCloseable {
+
+    /**
+     * Check whether the connection is still open.
+     *
+     * @return <code>true</code> if open; <code>false</code> otherwise
+     */
+    boolean isOpen();
+
+    /**
+     * Close the connection.
+     */
+    @Override
+    void close();
+
+    /**
+     * Get the schema version of the database.
+     *
+     * @return version (<code>0</code> if the database has just been created)
+     */
+    int getVersion();
+
+    /**
+     * Set the schema version of the database.
+     *
+     * @param version   version
+     */
+    void setVersion(int version);
+
+    /**
+     * Execute a single statement not returning any data.
+     *
+     * @param sql       SQL statement
+     */
+    void execSQL(@NonNull String sql);
+
+    /**
+     * Execute a single statement not returning any data.
+     *
+     * @param sql       SQL statement
+     * @param bindArgs  values to be bound to the statement placeholders
+     */
+    void execSQL(@NonNull String sql, @NonNull Object[] bindArgs);
+
+    /**
+     * Execute a query.
+     *
+     * @param sql               SQL query
+     * @param selectionArgs     values to be bound to the query placeholders
+     *
+     * @return cursor positioned before the first row
+     */
+    @NonNull
+    Cursor rawQuery(@NonNull String sql, @Nullable String[] selectionArgs);
+
+    /**
+     * Compile a statement, so that it can be executed multiple times.
+     *
+     * @param sql       SQL statement
+     * @return compiled statement
+     */
+    @NonNull
+    StorageStatement compileStatement(@NonNull String sql);
+
+    /**
+     * Insert a row.
+     *
+     * @param table     table name
+     * @param values    column values
+     *
+     * @return ID of the new row, or <code>-1</code> if an error occurred
+     */
+    long insert(@NonNull String table, @NonNull ContentValues values);
+
+    /**
+     * Update the rows matching a selection clause.
+     *
+     * @param table         table name
+     * @param values        new column values
+     * @param whereClause   selection clause (<code>null</code> to update all the rows)
+     * @param whereArgs     selection arguments
+     *
+     * @return amount of affected rows
+     */
+    int update(@NonNull String table, @NonNull ContentValues values, @Nullable String whereClause, @Nullable String[] whereArgs);
+
+    /**
+     * Delete the rows matching a selection clause.
+     *
+     * @param table         table name
+     * @param whereClause   selection clause (<code>null</code> to delete all the rows)
+     * @param whereArgs     selection arguments
+     *
+     * @return amount of affected rows
+     */
+    int delete(@NonNull String table, @Nullable String whereClause, @Nullable String[] whereArgs);
+
+    /**
+     * Begin a transaction, eventually nested into the running one.
+     */
+    void beginTransaction();
+
+    /**
+     * Mark the current transaction as successful.
+     */
+    void setTransactionSuccessful();
+
+    /**
+     * End the current transaction. If it is the outermost one, its changes are committed if it
+     * and all its nested transactions have been marked as successful, or rolled back otherwise.
+     */
+    void endTransaction();
+
+    /**
+     * Check whether a transaction is running.
+     *
+     * @return <code>true</code> if a transaction is running; <code>false</code> otherwise
+     */
+    boolean inTransaction();
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.interfaces;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Storage engine the databases are stored into.
+ *
+ * <p>
+ * The framework accesses the databases only through the connections opened by the driver, so
+ * that the same mapping and queries can run both on Android and on a plain JVM.
+ * </p>
+ */
+public interface StorageDriver {
+
+    /**
+     * Open a database, creating it if it doesn't exist yet.
+     *
+     * @param name      database name
+     * @return writable connection
+     */
+    @NonNull
+    StorageConnection open(@NonNull String name);
+
+    /**
+     * Delete a database, together with its auxiliary files.
+     *
+     * @param name      database name
+     * @return <code>true</code> if the database has been deleted; <code>false</code> otherwise
+     */
+    boolean delete(@NonNull String name);
+
+}
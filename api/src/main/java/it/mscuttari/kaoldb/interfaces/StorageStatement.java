@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.interfaces;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Compiled statement of a {@link StorageConnection}.
+ *
+ * <p>The arguments indexes start from <code>1</code>.</p>
+ */
+public interface StorageStatement extends AutoCloseable {
+
+    /**
+     * Bind <code>NULL</code> to an argument.
+     *
+     * @param index     argument index
+     */
+    void bindNull(int index);
+
+    /**
+     * Bind an integer to an argument.
+     *
+     * @param index     argument index
+     * @param value     value
+     */
+    void bindLong(int index, long value);
+
+    /**
+     * Bind a floating point number to an argument.
+     *
+     * @param index     argument index
+     * @param value     value
+     */
+    void bindDouble(int index, double value);
+
+    /**
+     * Bind a string to an argument.
+     *
+     * @param index     argument index
+     * @param value     value
+     */
+    void bindString(int index, @NonNull String value);
+
+    /**
+     * Bind a byte array to an argument.
+     *
+     * @param index     argument index
+     * @param value     value
+     */
+    void bindBlob(int index, @NonNull byte[] value);
+
+    /**
+     * Remove all the bound values.
+     */
+    void clearBindings();
+
+    /**
+     * Execute a statement not returning any data.
+     */
+    void execute();
+
+    /**
+     * Execute an <code>INSERT</code> statement.
+     *
+     * @return ID of the inserted row, or <code>-1</code> if the insertion failed
+     */
+    long executeInsert();
+
+    /**
+     * Execute an <code>UPDATE</code> or <code>DELETE</code> statement.
+     *
+     * @return amount of affected rows
+     */
+    int executeUpdateDelete();
+
+    /**
+     * Execute a query returning a single numeric value.
+     *
+     * @return value of the first column of the first row
+     */
+    long simpleQueryForLong();
+
+    /**
+     * Execute a query returning a single string.
+     *
+     * @return value of the first column of the first row
+     */
+    @Nullable
+    String simpleQueryForString();
+
+    /**
+     * Release the statement.
+     */
+    @Override
+    void close();
+
+}
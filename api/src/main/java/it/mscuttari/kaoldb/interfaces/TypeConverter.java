@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.interfaces;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Conversion between the values of a field and the data stored in its database column.
+ *
+ * <p>
+ * The converter of each column is resolved just once, while mapping the entities: the built-in
+ * converters cover the primitive types and their wrappers, {@link String},
+ * <code>byte[]</code>, {@link java.util.Date} and {@link java.util.Calendar} (stored as epoch
+ * milliseconds), {@link java.util.UUID} (stored as a 16 bytes blob),
+ * {@link java.math.BigDecimal} (stored as a long scaled according to
+ * {@link it.mscuttari.kaoldb.annotations.Column#scale()}) and enums. Any other type can be
+ * stored by annotating the field with {@link it.mscuttari.kaoldb.annotations.Convert}.
+ * </p>
+ *
+ * <p>
+ * <code>NULL</code> values are handled by the framework, so the converters never receive
+ * <code>null</code> values.
+ * </p>
+ *
+ * <p>
+ * Fields of primitive types are populated through the <code>readXxx</code> methods, so that
+ * their values don't need to be boxed. Their default implementations unbox the value returned
+ * by {@link #read(Cursor, int)}, and should be overridden by the converters of numeric and
+ * boolean types.
+ * </p>
+ *
+ * @param <T>   field type
+ */
+public interface TypeConverter<T> {
+
+    /**
+     * Get the type of the database column.
+     *
+     * @return SQL column type (<code>INTEGER</code>, <code>REAL</code>, <code>TEXT</code>
+     *         or <code>BLOB</code>)
+     */
+    @NonNull
+    String getColumnType();
+
+    /**
+     * Read the column value of the current row of a cursor.
+     *
+     * @param c             cursor
+     * @param columnIndex   index of the column, whose value is not <code>NULL</code>
+     *
+     * @return field value
+     */
+    @NonNull
+    T read(@NonNull Cursor c, int columnIndex);
+
+    /**
+     * Read the column value of the current row of a cursor as a <code>boolean</code>.
+     *
+     * @param c             cursor
+     * @param columnIndex   index of the column, whose value is not <code>NULL</code>
+     *
+     * @return field value
+     */
+    default boolean readBoolean(@NonNull Cursor c, int columnIndex) {
+        return (Boolean) read(c, columnIndex);
+    }
+
+    /**
+     * Read the column value of the current row of a cursor as an <code>int</code>.
+     *
+     * <p>Used also for <code>byte</code> and <code>short</code> fields, whose values are then
+     * narrowed to the field type.</p>
+     *
+     * @param c             cursor
+     * @param columnIndex   index of the column, whose value is not <code>NULL</code>
+     *
+     * @return field value
+     */
+    default int readInt(@NonNull Cursor c, int columnIndex) {
+        return ((Number) read(c, columnIndex)).intValue();
+    }
+
+    /**
+     * Read the column value of the current row of a cursor as a <code>long</code>.
+     *
+     * @param c             cursor
+     * @param columnIndex   index of the column, whose value is not <code>NULL</code>
+     *
+     * @return field value
+     */
+    default long readLong(@NonNull Cursor c, int columnIndex) {
+        return ((Number) read(c, columnIndex)).longValue();
+    }
+
+    /**
+     * Read the column value of the current row of a cursor as a <code>float</code>.
+     *
+     * @param c             cursor
+     * @param columnIndex   index of the column, whose value is not <code>NULL</code>
+     *
+     * @return field value
+     */
+    default float readFloat(@NonNull Cursor c, int columnIndex) {
+        return ((Number) read(c, columnIndex)).floatValue();
+    }
+
+    /**
+     * Read the column value of the current row of a cursor as a <code>double</code>.
+     *
+     * @param c             cursor
+     * @param columnIndex   index of the column, whose value is not <code>NULL</code>
+     *
+     * @return field value
+     */
+    default double readDouble(@NonNull Cursor c, int columnIndex) {
+        return ((Number) read(c, columnIndex)).doubleValue();
+    }
+
+    /**
+     * Store a field value into content values.
+     *
+     * @param cv        content values
+     * @param column    column name
+     * @param value     field value
+     */
+    void write(@NonNull ContentValues cv, @NonNull String column, @NonNull T value);
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.benchmark;
+
+import android.database.MatrixCursor;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import it.mscuttari.kaoldb.examples.films.models.ActionFilm;
+import it.mscuttari.kaoldb.examples.films.models.Country;
+import it.mscuttari.kaoldb.examples.films.models.FantasyFilm;
+import it.mscuttari.kaoldb.examples.films.models.Film;
+import it.mscuttari.kaoldb.examples.films.models.FilmRestriction;
+import it.mscuttari.kaoldb.examples.films.models.Genre;
+import it.mscuttari.kaoldb.examples.films.models.Person;
+import it.mscuttari.kaoldb.examples.films.models.ThrillerFilm;
+import it.mscuttari.kaoldb.interfaces.EntityManager;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+import it.mscuttari.kaoldb.interfaces.StorageDriver;
+import it.mscuttari.kaoldb.mapping.BaseColumnObject;
+import it.mscuttari.kaoldb.mapping.DatabaseObject;
+import it.mscuttari.kaoldb.mapping.EntityObject;
+import it.mscuttari.kaoldb.query.CachedCursor;
+import it.mscuttari.kaoldb.query.EntityManagerImpl;
+
+/**
+ * Schema shared by the benchmarks.
+ *
+ * <p>
+ * The database file is never opened, so that the benchmarks measure only the framework code and
+ * can run on a plain JVM.
+ * </p>
+ */
+public final class BenchmarkSchema {
+
+    /** Alias of the root entity in the simulated query results */
+    public static final String ALIAS = "a0";
+
+    private BenchmarkSchema() {
+
+    }
+
+    /**
+     * Create and map the database.
+     *
+     * @return mapped database
+     */
+    public static DatabaseObject createDatabase() {
+        DatabaseObject db = new DatabaseObject();
+        db.setName("benchmark");
+        db.setVersion(1);
+
+        db.addEntityClass(Country.class);
+        db.addEntityClass(Genre.class);
+        db.addEntityClass(Person.class);
+        db.addEntityClass(Film.class);
+        db.addEntityClass(ActionFilm.class);
+        db.addEntityClass(FantasyFilm.class);
+        db.addEntityClass(ThrillerFilm.class);
+
+        db.mapEntities();
+        db.waitUntilReady();
+
+        return db;
+    }
+
+    /**
+     * Get an entity manager of the database.
+     *
+     * @param db    database
+     * @return entity manager
+     */
+    public static EntityManager getEntityManager(DatabaseObject db) {
+        // The benchmarks never open the database
+        StorageDriver driver = new StorageDriver() {
+            @NonNull
+            @Override
+            public StorageConnection open(@NonNull String name) {
+                throw new UnsupportedOperationException("The benchmarks can't open the database");
+            }
+
+            @Override
+            public boolean delete(@NonNull String name) {
+                return false;
+            }
+        };
+
+        return EntityManagerImpl.getEntityManager(driver, db);
+    }
+
+    /**
+     * Create a cursor with the same structure of the results of a polymorphic query on the
+     * {@link Film} entity, whose rows are equally distributed among its children.
+     *
+     * @param db    database
+     * @param rows  amount of rows
+     *
+     * @return cursor
+     */
+    public static CachedCursor createFilmsCursor(DatabaseObject db, int rows) {
+        EntityObject<Film> film = db.getEntity(Film.class);
+        List<EntityObject<?>> children = new ArrayList<>(film.children);
+
+        // Columns of the whole hierarchy, named as in the SELECT clause of the query
+        List<String> names = new ArrayList<>();
+        List<BaseColumnObject> columns = new ArrayList<>();
+        List<EntityObject<?>> owners = new ArrayList<>();
+
+        for (EntityObject<?> entity : concat(film, children)) {
+            String alias = entity == film ? ALIAS : ALIAS + entity.getName();
+
+            for (BaseColumnObject column : entity.columns) {
+                names.add(alias + "." + column.name);
+                columns.add(column);
+                owners.add(entity);
+            }
+        }
+
+        MatrixCursor cursor = new MatrixCursor(names.toArray(new String[0]), rows);
+
+        for (int i = 0; i < rows; i++) {
+            EntityObject<?> child = children.get(i % children.size());
+            Object[] row = new Object[names.size()];
+
+            for (int j = 0; j < row.length; j++) {
+                EntityObject<?> owner = owners.get(j);
+
+                if (owner == film || owner == child) {
+                    row[j] = getValue(columns.get(j).name, child, i);
+                }
+            }
+
+            cursor.addRow(row);
+        }
+
+        return new CachedCursor(cursor);
+    }
+
+    /**
+     * Get the value of a column of the simulated results.
+     *
+     * @param column    column name
+     * @param entity    leaf entity of the row
+     * @param row       row index
+     *
+     * @return column value
+     */
+    private static Object getValue(String column, EntityObject<?> entity, int row) {
+        switch (column) {
+            case "title":                   return "Film " + row;
+            case "year":                    return 1980 + row % 40;
+            case "genre":                   return entity.discriminatorValue;
+            case "director_first_name":     return "First name " + row % 100;
+            case "director_last_name":      return "Last name " + row % 100;
+            case "length":                  return 90 + row % 60;
+            case "restriction":             return FilmRestriction.values()[row % FilmRestriction.values().length].name();
+            default:                        return null;
+        }
+    }
+
+    private static List<EntityObject<?>> concat(EntityObject<?> entity, List<EntityObject<?>> others) {
+        List<EntityObject<?>> result = new ArrayList<>(others.size() + 1);
+        result.add(entity);
+        result.addAll(others);
+        return result;
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.benchmark;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import it.mscuttari.kaoldb.examples.films.models.Person;
+import it.mscuttari.kaoldb.mapping.BaseColumnObject;
+import it.mscuttari.kaoldb.mapping.EntityObject;
+import it.mscuttari.kaoldb.query.CachedCursor;
+
+/**
+ * Conversion of the values of the columns having different data types.
+ */
+@State(Scope.Benchmark)
+public class ColumnTypeDispatchBenchmark {
+
+    private BaseColumnObject[] columns;
+    private String[] names;
+    private Object[] values;
+    private Cursor cursor;
+
+    @Setup
+    public void setUp() {
+        EntityObject<Person> person = BenchmarkSchema.createDatabase().getEntity(Person.class);
+
+        List<BaseColumnObject> columns = new ArrayList<>();
+
+        for (BaseColumnObject column : person.columns) {
+            columns.add(column);
+        }
+
+        this.columns = columns.toArray(new BaseColumnObject[0]);
+        this.names = new String[this.columns.length];
+        this.values = new Object[this.columns.length];
+
+        String[] cursorColumns = new String[this.columns.length];
+        Object[] cursorRow = new Object[this.columns.length];
+
+        for (int i = 0; i < this.columns.length; i++) {
+            names[i] = this.columns[i].name;
+            cursorColumns[i] = BenchmarkSchema.ALIAS + "." + names[i];
+
+            switch (names[i]) {
+                case "birth_date":
+                    Calendar calendar = Calendar.getInstance();
+                    values[i] = calendar;
+                    cursorRow[i] = calendar.getTimeInMillis();
+                    break;
+
+                default:
+                    values[i] = names[i];
+                    cursorRow[i] = names[i];
+                    break;
+            }
+        }
+
+        MatrixCursor cursor = new MatrixCursor(cursorColumns, 1);
+        cursor.addRow(cursorRow);
+        cursor.moveToFirst();
+        this.cursor = new CachedCursor(cursor);
+    }
+
+    /**
+     * Values written through the converters already associated with the columns.
+     */
+    @Benchmark
+    public ContentValues putValue() {
+        ContentValues cv = new ContentValues();
+
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].putValue(cv, values[i]);
+        }
+
+        return cv;
+    }
+
+    /**
+     * Values written through the converters found according to their classes.
+     */
+    @Benchmark
+    public ContentValues insertIntoContentValues() {
+        ContentValues cv = new ContentValues();
+
+        for (int i = 0; i < columns.length; i++) {
+            BaseColumnObject.insertIntoContentValues(cv, names[i], values[i]);
+        }
+
+        return cv;
+    }
+
+    /**
+     * Values read from a cursor, by searching the columns by name.
+     */
+    @Benchmark
+    public void parseCursor(Blackhole blackhole) {
+        for (BaseColumnObject column : columns) {
+            blackhole.consume(column.parseCursor(cursor, BenchmarkSchema.ALIAS));
+        }
+    }
+
+    /**
+     * Columns definitions used in the create table statements.
+     */
+    @Benchmark
+    public void getSQL(Blackhole blackhole) {
+        for (BaseColumnObject column : columns) {
+            blackhole.consume(column.getSQL());
+        }
+    }
+
+}
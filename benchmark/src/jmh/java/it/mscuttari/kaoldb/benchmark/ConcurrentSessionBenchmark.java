@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ExecutionException;
+
+import it.mscuttari.kaoldb.ConcurrentSession;
+
+/**
+ * Overhead of the tasks executed in parallel during the mapping and the relationships loading.
+ */
+@State(Scope.Benchmark)
+public class ConcurrentSessionBenchmark {
+
+    @Param({"1", "16"})
+    public int tasks;
+
+    @Benchmark
+    public int submitAndWait() throws ExecutionException, InterruptedException {
+        ConcurrentSession<Integer> session = new ConcurrentSession<>();
+
+        for (int i = 0; i < tasks; i++) {
+            int value = i;
+            session.submit(() -> value);
+        }
+
+        session.waitForAll();
+
+        int sum = 0;
+
+        for (Integer result : session) {
+            sum += result;
+        }
+
+        return sum;
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.benchmark;
+
+import android.database.Cursor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import it.mscuttari.kaoldb.examples.films.models.Film;
+import it.mscuttari.kaoldb.mapping.DatabaseObject;
+import it.mscuttari.kaoldb.mapping.EntityObject;
+import it.mscuttari.kaoldb.mapping.HydrationPlan;
+
+/**
+ * Conversion of the rows of a polymorphic query into objects.
+ */
+@State(Scope.Benchmark)
+public class HydrationBenchmark {
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private EntityObject<Film> entity;
+    private Cursor cursor;
+
+    @Setup
+    public void setUp() {
+        DatabaseObject db = BenchmarkSchema.createDatabase();
+        entity = db.getEntity(Film.class);
+        cursor = BenchmarkSchema.createFilmsCursor(db, rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cursor.close();
+    }
+
+    /**
+     * Each row is converted on its own, thus resolving again the columns of the cursor.
+     */
+    @Benchmark
+    public void parseCursor(Blackhole blackhole) {
+        cursor.moveToPosition(-1);
+
+        while (cursor.moveToNext()) {
+            blackhole.consume(entity.parseCursor(cursor, BenchmarkSchema.ALIAS));
+        }
+    }
+
+    /**
+     * The columns of the cursor are resolved just once, as done by the queries.
+     */
+    @Benchmark
+    public void hydrationPlan(Blackhole blackhole) {
+        HydrationPlan<Film> plan = new HydrationPlan<>(entity, cursor, BenchmarkSchema.ALIAS);
+        cursor.moveToPosition(-1);
+
+        while (cursor.moveToNext()) {
+            blackhole.consume(plan.hydrate(cursor));
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import it.mscuttari.kaoldb.examples.films.models.Film;
+import it.mscuttari.kaoldb.examples.films.models.Film_;
+import it.mscuttari.kaoldb.interfaces.EntityManager;
+import it.mscuttari.kaoldb.interfaces.Expression;
+import it.mscuttari.kaoldb.interfaces.Root;
+
+/**
+ * Rendering of the SQL conditions of the predicates and of their logical combinations.
+ */
+@State(Scope.Benchmark)
+public class PredicateRenderingBenchmark {
+
+    private Root<Film> root;
+    private Expression predicate;
+    private Expression expression;
+
+    @Setup
+    public void setUp() {
+        EntityManager em = BenchmarkSchema.getEntityManager(BenchmarkSchema.createDatabase());
+        root = em.getQueryBuilder(Film.class).getRoot(Film.class);
+
+        predicate = root.eq(Film_.title, "Inception");
+
+        expression = root.eq(Film_.title, "Inception")
+                .or(root.like(Film_.title, "The %"))
+                .and(root.between(Film_.year, 2000, 2010))
+                .and(root.isNull(Film_.length).not());
+    }
+
+    @Benchmark
+    public Expression createPredicate() {
+        return root.eq(Film_.year, 2000);
+    }
+
+    @Benchmark
+    public String renderPredicate() {
+        return predicate.toString();
+    }
+
+    @Benchmark
+    public String renderExpression() {
+        return expression.toString();
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import it.mscuttari.kaoldb.examples.films.models.Film;
+import it.mscuttari.kaoldb.examples.films.models.Film_;
+import it.mscuttari.kaoldb.examples.films.models.Person;
+import it.mscuttari.kaoldb.examples.films.models.Person_;
+import it.mscuttari.kaoldb.interfaces.EntityManager;
+import it.mscuttari.kaoldb.interfaces.Query;
+import it.mscuttari.kaoldb.interfaces.QueryBuilder;
+import it.mscuttari.kaoldb.interfaces.Root;
+
+/**
+ * Rendering of the SQL statements of the queries having a polymorphic root.
+ */
+@State(Scope.Benchmark)
+public class QueryBuildBenchmark {
+
+    private EntityManager em;
+
+    @Setup
+    public void setUp() {
+        em = BenchmarkSchema.getEntityManager(BenchmarkSchema.createDatabase());
+    }
+
+    @Benchmark
+    public Query<Film> polymorphicRoot() {
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<Film> root = qb.getRoot(Film.class);
+
+        return qb.from(root).build(root);
+    }
+
+    @Benchmark
+    public Query<Film> polymorphicRootWithPredicates() {
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<Film> root = qb.getRoot(Film.class);
+
+        return qb.from(root)
+                .where(root.eq(Film_.year, 2000).and(root.gt(Film_.length, 120)))
+                .build(root);
+    }
+
+    @Benchmark
+    public Query<Film> polymorphicRootWithJoin() {
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<Film> film = qb.getRoot(Film.class);
+        Root<Person> director = qb.getRoot(Person.class);
+
+        return qb.from(film.join(director, Film_.director))
+                .where(director.eq(Person_.lastName, "Nolan"))
+                .build(film);
+    }
+
+}
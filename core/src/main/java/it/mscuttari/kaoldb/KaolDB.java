@@ -20,16 +20,25 @@ import android.content.Context;
 import android.content.res.XmlResourceParser;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.XmlRes;
 
+import java.util.List;
 import java.util.Map;
 
+import it.mscuttari.kaoldb.driver.AndroidStorageDriver;
 import it.mscuttari.kaoldb.exceptions.ConfigParseException;
 import it.mscuttari.kaoldb.exceptions.KaolDBException;
 import it.mscuttari.kaoldb.exceptions.MappingException;
 import it.mscuttari.kaoldb.interfaces.EntityManager;
+import it.mscuttari.kaoldb.interfaces.LogSink;
+import it.mscuttari.kaoldb.interfaces.MetricsListener;
+import it.mscuttari.kaoldb.interfaces.QueryPlanListener;
+import it.mscuttari.kaoldb.interfaces.SlowOperation;
+import it.mscuttari.kaoldb.interfaces.StorageDriver;
 import it.mscuttari.kaoldb.mapping.DatabaseObject;
 import it.mscuttari.kaoldb.query.EntityManagerImpl;
+import it.mscuttari.kaoldb.query.QueryPlanInspector;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -72,6 +81,121 @@ public final class KaolDB {
         config.setDebugMode(enabled);
     }
 
+    /**
+     * Set the minimum level of the debug messages to be written (default = {@link LogSink.Level#VERBOSE}).
+     *
+     * @param level     minimum level
+     */
+    public void setLogLevel(@NonNull LogSink.Level level) {
+        checkNotNull(level);
+        config.setLogLevel(level);
+    }
+
+    /**
+     * Set the destination of the debug messages (default = {@link LogUtils#STANDARD_OUTPUT}).
+     *
+     * <p>
+     * {@link LogUtils#LOGCAT} writes the messages to Logcat, but custom sinks can be used to
+     * redirect them to any other logging framework.
+     * </p>
+     *
+     * @param sink      log sink
+     */
+    public void setLogSink(@NonNull LogSink sink) {
+        checkNotNull(sink);
+        config.setLogSink(sink);
+    }
+
+    /**
+     * Set the listener to be notified of the execution plan of each distinct query.
+     *
+     * <p>
+     * The queries are explained only in debug mode (see {@link #setDebugMode(boolean)}): each
+     * query shape, that is the SQL statement without its literal values, is explained just once.
+     * </p>
+     *
+     * @param listener  listener (<code>null</code> to remove the current one)
+     */
+    public void setQueryPlanListener(@Nullable QueryPlanListener listener) {
+        config.setQueryPlanListener(listener);
+    }
+
+    /**
+     * Set the minimum amount of rows a table must contain in order for its full scans to be
+     * logged as warnings in debug mode (default = {@value QueryPlanInspector#DEFAULT_FULL_SCAN_THRESHOLD}).
+     *
+     * @param rows      rows threshold (<code>0</code> to report all the full scans)
+     * @throws IllegalArgumentException if <code>rows</code> is negative
+     */
+    public void setFullScanThreshold(long rows) {
+        config.setFullScanThreshold(rows);
+    }
+
+    /**
+     * Set the listener to be notified of the instrumentation events, such as the queries and
+     * writes latencies (default = <code>null</code>).
+     *
+     * <p>
+     * A {@link it.mscuttari.kaoldb.metrics.MetricsAggregator} can be used to collect the
+     * latencies distributions in memory.
+     * </p>
+     *
+     * @param listener  listener (<code>null</code> to disable the metrics)
+     */
+    public void setMetricsListener(@Nullable MetricsListener listener) {
+        config.setMetricsListener(listener);
+    }
+
+    /**
+     * Set the minimum duration of the operations to be recorded into the slow operations log
+     * (default = <code>0</code>, that is disabled).
+     *
+     * <p>
+     * Each entry captures the operation shape, the amount of bound arguments and of rows, the
+     * duration and the thread that executed it. The log is kept in memory, independently from
+     * the debug mode, and can be read through {@link #getSlowOperations()}.
+     * </p>
+     *
+     * @param type      operation type
+     * @param millis    threshold in milliseconds (<code>0</code> to disable the log)
+     *
+     * @throws IllegalArgumentException if <code>millis</code> is negative
+     */
+    public void setSlowOperationThreshold(@NonNull SlowOperation.Type type, long millis) {
+        checkNotNull(type);
+        config.setSlowOperationThreshold(type, millis);
+    }
+
+    /**
+     * Set the maximum amount of entries kept by the slow operations log
+     * (default = {@value SlowOperationLog#DEFAULT_CAPACITY}).
+     *
+     * <p>Once full, each new entry replaces the oldest one. The current entries are discarded.</p>
+     *
+     * @param entries   log size
+     * @throws IllegalArgumentException if <code>entries</code> is not positive
+     */
+    public void setSlowOperationLogSize(int entries) {
+        config.setSlowOperationLogSize(entries);
+    }
+
+    /**
+     * Get the operations recorded by the slow operations log.
+     *
+     * @return operations, from the oldest to the newest
+     */
+    @NonNull
+    public List<SlowOperation> getSlowOperations() {
+        return SlowOperationLog.getEntries();
+    }
+
+    /**
+     * Discard the operations recorded by the slow operations log.
+     */
+    public void clearSlowOperations() {
+        SlowOperationLog.clear();
+    }
+
     /**
      * Set configuration.
      *
@@ -82,7 +206,7 @@ public final class KaolDB {
         checkNotNull(context);
 
         // Load configuration file
-        LogUtils.d("Loading the configuration file. Resource ID: " + resId);
+        LogUtils.d("Loading the configuration file. Resource ID: {}", resId);
         XmlResourceParser xml;
 
         try {
@@ -118,8 +242,27 @@ public final class KaolDB {
      * @throws IllegalArgumentException if the database doesn't exist
      */
     public EntityManager getEntityManager(@NonNull Context context, @NonNull String databaseName) {
+        return getEntityManager(new AndroidStorageDriver(context), databaseName);
+    }
+
+    /**
+     * Get entity manager for a specific database stored through a custom storage driver.
+     *
+     * <p>
+     * The driver is taken into account only the first time the entity manager of a database is
+     * requested, as only one entity manager per database is created.
+     * </p>
+     *
+     * @param driver            storage driver
+     * @param databaseName      database name
+     *
+     * @return entity manager
+     *
+     * @throws IllegalArgumentException if the database doesn't exist
+     */
+    public EntityManager getEntityManager(@NonNull StorageDriver driver, @NonNull String databaseName) {
+        checkNotNull(driver);
         checkNotNull(databaseName);
-        context = context.getApplicationContext();
 
         if (databaseName.isEmpty()) {
             throw new MappingException("Empty database name");
@@ -131,11 +274,8 @@ public final class KaolDB {
         if (db == null)
             throw new IllegalArgumentException("Database \"" + databaseName + "\" not found");
 
-        // Lazily map the entities
-        if (!db.isMapped())
-            db.mapEntities();
-
-        return EntityManagerImpl.getEntityManager(context, db);
+        // The entities are mapped on first use
+        return EntityManagerImpl.getEntityManager(driver, db);
     }
 
 }
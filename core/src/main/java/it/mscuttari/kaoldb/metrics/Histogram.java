@@ -0,0 +1,208 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.metrics;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non negative values, with logarithmic buckets.
+ *
+ * <p>
+ * Each power of two is split into {@value #SUB_BUCKETS} linear buckets, so that the values
+ * are recorded in constant time and space while the percentiles are estimated with a relative
+ * error lower than 1 / {@value #SUB_BUCKETS}. The minimum, maximum and mean values are exact.
+ * </p>
+ */
+public final class Histogram {
+
+    /** Amount of buckets each power of two is divided into (must be a power of two) */
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BUCKETS_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+    /** Values lower than {@link #SUB_BUCKETS} have their own bucket, the others share it by magnitude */
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKETS_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "count = " + getCount() + ", " +
+                "min = " + getMin() + ", " +
+                "mean = " + getMean() + ", " +
+                "p50 = " + getPercentile(50) + ", " +
+                "p90 = " + getPercentile(90) + ", " +
+                "p99 = " + getPercentile(99) + ", " +
+                "max = " + getMax();
+    }
+
+    /**
+     * Record a value.
+     *
+     * @param value     value to be recorded (negative values are recorded as <code>0</code>)
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+
+        counts.incrementAndGet(getBucket(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long current;
+
+        while (value < (current = min.get()) && !min.compareAndSet(current, value)) {
+            // Retry
+        }
+
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Retry
+        }
+    }
+
+    /**
+     * Get the amount of recorded values.
+     *
+     * @return values count
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Get the minimum recorded value.
+     *
+     * @return minimum value (<code>0</code> if no value has been recorded)
+     */
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    /**
+     * Get the maximum recorded value.
+     *
+     * @return maximum value (<code>0</code> if no value has been recorded)
+     */
+    public long getMax() {
+        return getCount() == 0 ? 0 : max.get();
+    }
+
+    /**
+     * Get the mean of the recorded values.
+     *
+     * @return mean value (<code>0</code> if no value has been recorded)
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * Estimate a percentile of the recorded values.
+     *
+     * @param percentile    percentile, between <code>0</code> and <code>100</code>
+     * @return highest value of the bucket the percentile falls into, limited to the maximum
+     *         recorded value (<code>0</code> if no value has been recorded)
+     * @throws IllegalArgumentException if the percentile is not between <code>0</code>
+     *                                  and <code>100</code>
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+
+        long count = getCount();
+
+        if (count == 0) {
+            return 0;
+        }
+
+        // Rank of the value, starting from 1
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+
+            if (seen >= rank) {
+                return Math.min(Math.max(getBucketUpperBound(i), getMin()), getMax());
+            }
+        }
+
+        // Values recorded concurrently may have been counted but not yet put into their bucket
+        return getMax();
+    }
+
+    /**
+     * Remove all the recorded values.
+     *
+     * <p>Values recorded concurrently may be partially kept.</p>
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+
+        count.set(0);
+        sum.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    /**
+     * Get the index of the bucket a value belongs to.
+     *
+     * @param value     non negative value
+     * @return bucket index
+     */
+    private static int getBucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKETS_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Get the highest value belonging to a bucket.
+     *
+     * @param bucket    bucket index
+     * @return bucket upper bound
+     */
+    private static long getBucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+
+        return lowerBound + (1L << shift) - 1;
+    }
+
+}
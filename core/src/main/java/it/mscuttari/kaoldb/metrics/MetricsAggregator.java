@@ -0,0 +1,296 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.metrics;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import it.mscuttari.kaoldb.interfaces.MetricsListener;
+
+/**
+ * Metrics listener collecting the instrumentation events in memory.
+ *
+ * <p>
+ * Latencies are recorded, in nanoseconds, into {@link Histogram histograms}, so that their
+ * percentiles can be periodically read and shipped elsewhere. Queries are grouped by their
+ * shape and writes by their type and table; all the other events are just counted.
+ * </p>
+ *
+ * <p>
+ * The memory usage is proportional to the amount of distinct query shapes and written tables.
+ * </p>
+ */
+public class MetricsAggregator implements MetricsListener {
+
+    private final ConcurrentMap<String, Histogram> queryExecutionTimes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> queryHydrationTimes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> queryRows = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> writeTimes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> liveQueryRefreshes = new ConcurrentHashMap<>();
+
+    private final Histogram transactionTimes = new Histogram();
+    private final AtomicLong failedTransactions = new AtomicLong();
+    private final AtomicLong openedConnections = new AtomicLong();
+    private final AtomicLong closedConnections = new AtomicLong();
+    private final AtomicLong poolSaturations = new AtomicLong();
+    private final AtomicInteger maxActiveThreads = new AtomicInteger();
+
+    @Override
+    public void onQuery(@NonNull String database, @NonNull String shape, long executionNanos, int rows, long hydrationNanos) {
+        getHistogram(queryExecutionTimes, shape).record(executionNanos);
+        getHistogram(queryHydrationTimes, shape).record(hydrationNanos);
+        getHistogram(queryRows, shape).record(rows);
+    }
+
+    @Override
+    public void onWrite(@NonNull String database, @NonNull WriteType type, @NonNull String table, long nanos, int rows) {
+        getHistogram(writeTimes, getWriteKey(type, table)).record(nanos);
+    }
+
+    @Override
+    public void onTransaction(@NonNull String database, long nanos, boolean successful) {
+        transactionTimes.record(nanos);
+
+        if (!successful) {
+            failedTransactions.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onConnectionOpened(@NonNull String database) {
+        openedConnections.incrementAndGet();
+    }
+
+    @Override
+    public void onConnectionClosed(@NonNull String database) {
+        closedConnections.incrementAndGet();
+    }
+
+    @Override
+    public void onPoolSaturation(int activeThreads, int coreThreads) {
+        poolSaturations.incrementAndGet();
+
+        int current;
+
+        while (activeThreads > (current = maxActiveThreads.get()) && !maxActiveThreads.compareAndSet(current, activeThreads)) {
+            // Retry
+        }
+    }
+
+    @Override
+    public void onLiveQueryRefresh(@NonNull String database, @NonNull String shape) {
+        AtomicLong counter = liveQueryRefreshes.get(shape);
+
+        if (counter == null) {
+            AtomicLong newCounter = new AtomicLong();
+            counter = liveQueryRefreshes.putIfAbsent(shape, newCounter);
+
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+
+        counter.incrementAndGet();
+    }
+
+    /**
+     * Get the execution times of the queries.
+     *
+     * @return map between the query shapes and their execution times
+     */
+    @NonNull
+    public Map<String, Histogram> getQueryExecutionTimes() {
+        return Collections.unmodifiableMap(queryExecutionTimes);
+    }
+
+    /**
+     * Get the time spent to convert the rows read by the queries into objects.
+     *
+     * @return map between the query shapes and their hydration times
+     */
+    @NonNull
+    public Map<String, Histogram> getQueryHydrationTimes() {
+        return Collections.unmodifiableMap(queryHydrationTimes);
+    }
+
+    /**
+     * Get the amount of rows read by the queries.
+     *
+     * @return map between the query shapes and their rows counts
+     */
+    @NonNull
+    public Map<String, Histogram> getQueryRows() {
+        return Collections.unmodifiableMap(queryRows);
+    }
+
+    /**
+     * Get the latencies of the write operations.
+     *
+     * @return map between the operations, in the <code>TYPE table</code> format
+     *         (i.e. <code>INSERT people</code>), and their latencies
+     */
+    @NonNull
+    public Map<String, Histogram> getWriteTimes() {
+        return Collections.unmodifiableMap(writeTimes);
+    }
+
+    /**
+     * Get the latencies of a write operation.
+     *
+     * @param type      operation type
+     * @param table     table name
+     *
+     * @return latencies (empty if the operation has never been executed)
+     */
+    @NonNull
+    public Histogram getWriteTimes(@NonNull WriteType type, @NonNull String table) {
+        Histogram histogram = writeTimes.get(getWriteKey(type, table));
+        return histogram == null ? new Histogram() : histogram;
+    }
+
+    /**
+     * Get the durations of the transactions.
+     *
+     * @return transactions durations
+     */
+    @NonNull
+    public Histogram getTransactionTimes() {
+        return transactionTimes;
+    }
+
+    /**
+     * Get the amount of transactions that have been rolled back.
+     *
+     * @return failed transactions count
+     */
+    public long getFailedTransactions() {
+        return failedTransactions.get();
+    }
+
+    /**
+     * Get the amount of opened database connections.
+     *
+     * @return opened connections count
+     */
+    public long getOpenedConnections() {
+        return openedConnections.get();
+    }
+
+    /**
+     * Get the amount of closed database connections.
+     *
+     * @return closed connections count
+     */
+    public long getClosedConnections() {
+        return closedConnections.get();
+    }
+
+    /**
+     * Get the amount of tasks submitted while all the core threads were busy.
+     *
+     * @return saturations count
+     */
+    public long getPoolSaturations() {
+        return poolSaturations.get();
+    }
+
+    /**
+     * Get the maximum amount of concurrently busy threads observed during a saturation.
+     *
+     * @return busy threads count
+     */
+    public int getMaxActiveThreads() {
+        return maxActiveThreads.get();
+    }
+
+    /**
+     * Get the amount of executions of the live queries.
+     *
+     * @return map between the query shapes and their executions count
+     */
+    @NonNull
+    public Map<String, Long> getLiveQueryRefreshes() {
+        Map<String, Long> result = new ConcurrentHashMap<>();
+
+        for (Map.Entry<String, AtomicLong> entry : liveQueryRefreshes.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().get());
+        }
+
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Discard all the collected data.
+     */
+    public void reset() {
+        queryExecutionTimes.clear();
+        queryHydrationTimes.clear();
+        queryRows.clear();
+        writeTimes.clear();
+        liveQueryRefreshes.clear();
+
+        transactionTimes.reset();
+        failedTransactions.set(0);
+        openedConnections.set(0);
+        closedConnections.set(0);
+        poolSaturations.set(0);
+        maxActiveThreads.set(0);
+    }
+
+    /**
+     * Get the histogram associated to a key, creating it if not existing.
+     *
+     * @param histograms    histograms map
+     * @param key           key
+     *
+     * @return histogram
+     */
+    private static Histogram getHistogram(ConcurrentMap<String, Histogram> histograms, String key) {
+        Histogram histogram = histograms.get(key);
+
+        if (histogram == null) {
+            Histogram newHistogram = new Histogram();
+            histogram = histograms.putIfAbsent(key, newHistogram);
+
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Get the key identifying a write operation.
+     *
+     * @param type      operation type
+     * @param table     table name
+     *
+     * @return key
+     */
+    private static String getWriteKey(WriteType type, String table) {
+        return type + " " + table;
+    }
+
+}
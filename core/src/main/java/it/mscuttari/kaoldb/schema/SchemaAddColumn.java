@@ -16,15 +16,16 @@
 
 package it.mscuttari.kaoldb.schema;
 
-import android.database.sqlite.SQLiteDatabase;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 
 import static it.mscuttari.kaoldb.StringUtils.escape;
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTableColumns;
@@ -78,7 +79,7 @@ public final class SchemaAddColumn extends SchemaBaseAction implements SchemaAct
     }
 
     @Override
-    public void run(SQLiteDatabase db) {
+    public void run(StorageConnection db) {
         if (!column.primaryKey) {
             // The column can be directly added to the existing ones
 
@@ -98,6 +99,7 @@ public final class SchemaAddColumn extends SchemaBaseAction implements SchemaAct
             newColumns.add(column);
 
             Collection<ForeignKey> foreignKeys = getTableForeignKeys(db, table);
+            List<TableIndex> indexes = getTableIndexes(db, table);
 
             // Create new table containing the new column
             String tempTable = getTemporaryTableName(db);
@@ -117,6 +119,7 @@ public final class SchemaAddColumn extends SchemaBaseAction implements SchemaAct
             // Delete the old table and rename the temporary one
             new SchemaDeleteTable(table).run(db);
             new SchemaRenameTable(tempTable, table).run(db);
+            restoreIndexes(db, indexes, UnaryOperator.identity());
 
             // Enable foreign key checks
             db.execSQL("PRAGMA foreign_keys=ON");
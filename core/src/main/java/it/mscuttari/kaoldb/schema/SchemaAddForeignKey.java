@@ -1,13 +1,14 @@
 package it.mscuttari.kaoldb.schema;
 
-import android.database.sqlite.SQLiteDatabase;
-
 import androidx.annotation.NonNull;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 
 import static it.mscuttari.kaoldb.StringUtils.escape;
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTableColumns;
@@ -45,12 +46,13 @@ public final class SchemaAddForeignKey extends SchemaBaseAction implements Schem
     }
 
     @Override
-    public void run(SQLiteDatabase db) {
+    public void run(StorageConnection db) {
         db.execSQL("PRAGMA foreign_keys=OFF");
 
         Collection<Column> columns = getTableColumns(db, constraint.sourceTable);
         Collection<ForeignKey> foreignKeys = getTableForeignKeys(db, constraint.sourceTable);
         foreignKeys.add(constraint);
+        List<TableIndex> indexes = getTableIndexes(db, constraint.sourceTable);
 
         // Create new table with the new foreign key constraint
         String newTable = getTemporaryTableName(db);
@@ -70,6 +72,7 @@ public final class SchemaAddForeignKey extends SchemaBaseAction implements Schem
         // Delete the old table and rename the new one
         new SchemaDeleteTable(constraint.sourceTable).run(db);
         new SchemaRenameTable(newTable, constraint.sourceTable).run(db);
+        restoreIndexes(db, indexes, UnaryOperator.identity());
 
         db.execSQL("PRAGMA foreign_keys=ON");
     }
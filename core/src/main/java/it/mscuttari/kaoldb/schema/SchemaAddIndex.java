@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.schema;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import it.mscuttari.kaoldb.StringUtils;
+import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+
+import static it.mscuttari.kaoldb.StringUtils.escape;
+
+/**
+ * Database schema changer: create an index on some columns of a table.
+ *
+ * The actions rebuilding a table (i.e. the removal of a column) create its indexes again, except
+ * for the ones involving a removed column.
+ */
+public final class SchemaAddIndex extends SchemaBaseAction implements SchemaAction {
+
+    @NonNull private final String name;
+    @NonNull private final String table;
+    @NonNull private final List<String> columns;
+    private final boolean unique;
+    @Nullable private final String where;
+
+    /**
+     * Constructor.
+     *
+     * @param name      index name
+     * @param table     table name
+     * @param columns   names of the columns to be indexed, in order
+     *
+     * @throws IllegalArgumentException if <code>name</code> or <code>table</code> are empty or
+     *                                  if no column is specified
+     */
+    public SchemaAddIndex(@NonNull String name,
+                          @NonNull String table,
+                          @NonNull String... columns) {
+
+        this(name, table, Arrays.asList(columns), false, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name      index name
+     * @param table     table name
+     * @param columns   names of the columns to be indexed, in order
+     * @param unique    whether the index is unique
+     * @param where     condition of a partial index, without the <code>WHERE</code> keyword
+     *                  (<code>null</code> to index all the rows)
+     *
+     * @throws IllegalArgumentException if <code>name</code> or <code>table</code> are empty or
+     *                                  if no column is specified
+     */
+    public SchemaAddIndex(@NonNull String name,
+                          @NonNull String table,
+                          @NonNull List<String> columns,
+                          boolean unique,
+                          @Nullable String where) {
+
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Index name can't be empty");
+        }
+
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("Table name can't be empty");
+        }
+
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("Indexed columns not specified");
+        }
+
+        this.name = name;
+        this.table = table;
+        this.columns = Collections.unmodifiableList(columns);
+        this.unique = unique;
+        this.where = where == null || where.isEmpty() ? null : where;
+    }
+
+    @Override
+    public void run(StorageConnection db) {
+        String sql = "CREATE " + (unique ? "UNIQUE " : "") + "INDEX " + escape(name) +
+                " ON " + escape(table) +
+                " (" + columns.stream().map(StringUtils::escape).collect(Collectors.joining(", ")) + ")" +
+                (where == null ? "" : " WHERE " + where);
+
+        log(sql);
+        db.execSQL(sql);
+    }
+
+}
@@ -1,11 +1,11 @@
 package it.mscuttari.kaoldb.schema;
 
 import android.content.ContentValues;
-import android.database.sqlite.SQLiteDatabase;
 
 import androidx.annotation.NonNull;
 
 import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 import it.mscuttari.kaoldb.mapping.BaseColumnObject;
 
 /**
@@ -48,14 +48,14 @@ public final class SchemaAddRow extends SchemaBaseAction implements SchemaAction
     }
 
     @Override
-    public void run(SQLiteDatabase db) {
+    public void run(StorageConnection db) {
         ContentValues cv = new ContentValues();
 
         for (int i = 0; i < columns.length; i++) {
             BaseColumnObject.insertIntoContentValues(cv, columns[i], values[i]);
         }
 
-        db.insert(table, null, cv);
+        db.insert(table, cv);
     }
 
 }
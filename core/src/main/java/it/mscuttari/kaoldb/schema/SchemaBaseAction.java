@@ -16,11 +16,22 @@
 
 package it.mscuttari.kaoldb.schema;
 
-import android.database.sqlite.SQLiteDatabase;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import it.mscuttari.kaoldb.LogUtils;
 import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 
+import static it.mscuttari.kaoldb.StringUtils.escape;
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTables;
 
 abstract class SchemaBaseAction implements SchemaAction {
@@ -31,7 +42,7 @@ abstract class SchemaBaseAction implements SchemaAction {
      * @param sql   SQL statement
      */
     protected final void log(String sql) {
-        LogUtils.d("[Schema change] " + sql);
+        LogUtils.d("[Schema change] {}", sql);
     }
 
     /**
@@ -40,7 +51,7 @@ abstract class SchemaBaseAction implements SchemaAction {
      * @param db    readable database
      * @return unused table name
      */
-    protected final String getTemporaryTableName(SQLiteDatabase db) {
+    protected final String getTemporaryTableName(StorageConnection db) {
         int counter = 0;
         String name;
 
@@ -52,4 +63,154 @@ abstract class SchemaBaseAction implements SchemaAction {
         return name;
     }
 
+
+    /**
+     * Get the indexes explicitly created on a table.
+     *
+     * <p>The indexes automatically created by SQLite for the primary keys and the unique
+     * constraints are not listed, as they are created again together with the table.</p>
+     *
+     * @param db        readable database
+     * @param table     table name
+     *
+     * @return indexes of the table
+     */
+    protected final List<TableIndex> getTableIndexes(StorageConnection db, String table) {
+        String sql = "SELECT name, sql FROM sqlite_master WHERE type = 'index' AND tbl_name = ? AND sql IS NOT NULL";
+
+        try (Cursor c = db.rawQuery(sql, new String[]{table})) {
+            List<TableIndex> result = new ArrayList<>(c.getCount());
+
+            for (c.moveToFirst(); !c.isAfterLast(); c.moveToNext()) {
+                result.add(new TableIndex(c.getString(0), c.getString(1)));
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Create again the indexes of a table that has been rebuilt.
+     *
+     * <p>
+     * The indexes referencing a column that doesn't exist anymore are not created, while the
+     * references to the renamed columns are updated.
+     * </p>
+     *
+     * @param db        writable database
+     * @param indexes   indexes of the table before its rebuild
+     * @param mapping   new name of each column (<code>null</code> if the column has been dropped)
+     */
+    protected final void restoreIndexes(StorageConnection db,
+                                        List<TableIndex> indexes,
+                                        UnaryOperator<String> mapping) {
+
+        for (TableIndex index : indexes) {
+            String sql = index.getSQL(mapping);
+
+            if (sql == null) {
+                LogUtils.w("[Schema change] index \"{}\" dropped together with its columns", index.name);
+                continue;
+            }
+
+            log(sql);
+            db.execSQL(sql);
+        }
+    }
+
+    /**
+     * Index of a table, as read from the database schema.
+     */
+    protected static final class TableIndex {
+
+        /** Identifiers and string literals of a statement */
+        private static final Pattern TOKENS = Pattern.compile("'(?:[^']|'')*'|\"((?:[^\"]|\"\")*)\"|([A-Za-z_][A-Za-z0-9_]*)");
+
+        @NonNull private final String name;
+
+        /** Statement the index has been created with */
+        @NonNull private final String sql;
+
+        /**
+         * Constructor.
+         *
+         * @param name      index name
+         * @param sql       creation statement
+         */
+        TableIndex(@NonNull String name, @NonNull String sql) {
+            this.name = name;
+            this.sql = sql;
+        }
+
+        /**
+         * Get the statement creating the index again, once the columns of its table have
+         * been changed.
+         *
+         * <p>
+         * Only the part of the statement following the name of the table is inspected, that is
+         * the list of the indexed columns or expressions and the condition of the partial
+         * indexes.
+         * </p>
+         *
+         * @param mapping   new name of each column (<code>null</code> if the column has been
+         *                  dropped). Any other identifier must be returned unchanged.
+         *
+         * @return creation statement (<code>null</code> if the index references a dropped
+         *         column and can't be created anymore)
+         */
+        @Nullable
+        String getSQL(UnaryOperator<String> mapping) {
+            int start = -1;
+            char quote = 0;
+
+            // Search the bracket opening the list of the indexed columns, skipping the quoted names
+            for (int i = 0; i < sql.length() && start < 0; i++) {
+                char c = sql.charAt(i);
+
+                if (quote != 0) {
+                    quote = c == quote ? 0 : quote;
+                } else if (c == '"' || c == '\'' || c == '`') {
+                    quote = c;
+                } else if (c == '[') {
+                    quote = ']';
+                } else if (c == '(') {
+                    start = i;
+                }
+            }
+
+            if (start < 0) {
+                return sql;
+            }
+
+            Matcher matcher = TOKENS.matcher(sql);
+            matcher.region(start, sql.length());
+
+            StringBuilder sb = new StringBuilder(sql.substring(0, start));
+            int last = start;
+
+            while (matcher.find()) {
+                String identifier = matcher.group(1) != null ? matcher.group(1).replace("\"\"", "\"") : matcher.group(2);
+
+                if (identifier == null) {
+                    // String literal
+                    continue;
+                }
+
+                String newName = mapping.apply(identifier);
+
+                if (newName == null) {
+                    return null;
+                }
+
+                if (!newName.equals(identifier)) {
+                    sb.append(sql, last, matcher.start()).append(escape(newName));
+                    last = matcher.end();
+                }
+            }
+
+            return sb.append(sql.substring(last)).toString();
+        }
+
+    }
+
 }
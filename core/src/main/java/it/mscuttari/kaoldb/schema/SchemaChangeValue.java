@@ -19,7 +19,6 @@ package it.mscuttari.kaoldb.schema;
 import android.content.ContentValues;
 import android.database.Cursor;
 import android.database.DatabaseUtils;
-import android.database.sqlite.SQLiteDatabase;
 
 import androidx.annotation.NonNull;
 
@@ -31,6 +30,7 @@ import it.mscuttari.kaoldb.dump.RowDumpImpl;
 import it.mscuttari.kaoldb.interfaces.DatabaseDump;
 import it.mscuttari.kaoldb.interfaces.RowDump;
 import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 
 import static it.mscuttari.kaoldb.StringUtils.escape;
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTablePrimaryKeys;
@@ -72,11 +72,11 @@ public final class SchemaChangeValue<T> extends SchemaBaseAction implements Sche
     }
 
     @Override
-    public void run(SQLiteDatabase db) {
+    public void run(StorageConnection db) {
         DatabaseDump dbDump = new DatabaseDumpImpl(db);
         List<String> primaryKeys = getTablePrimaryKeys(db, table);
 
-        try (Cursor c = db.query(table, null, null, null, null, null, null)) {
+        try (Cursor c = db.rawQuery("SELECT * FROM " + escape(table), null)) {
             for (c.moveToFirst(); !c.isAfterLast(); c.moveToNext()) {
                 RowDump rowDump = new RowDumpImpl(c);
 
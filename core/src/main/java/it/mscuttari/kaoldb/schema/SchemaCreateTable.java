@@ -16,8 +16,6 @@
 
 package it.mscuttari.kaoldb.schema;
 
-import android.database.sqlite.SQLiteDatabase;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -28,6 +26,7 @@ import java.util.stream.Collectors;
 
 import it.mscuttari.kaoldb.StringUtils;
 import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 
 import static it.mscuttari.kaoldb.StringUtils.escape;
 
@@ -85,7 +84,7 @@ public final class SchemaCreateTable extends SchemaBaseAction implements SchemaA
     }
 
     @Override
-    public void run(SQLiteDatabase db) {
+    public void run(StorageConnection db) {
         // Columns
         List<String> statements = columns.stream()
                 .map(Column::getSQL)
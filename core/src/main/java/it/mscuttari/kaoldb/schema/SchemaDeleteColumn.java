@@ -16,8 +16,6 @@
 
 package it.mscuttari.kaoldb.schema;
 
-import android.database.sqlite.SQLiteDatabase;
-
 import androidx.annotation.NonNull;
 
 import java.util.ArrayList;
@@ -28,6 +26,7 @@ import java.util.stream.Collectors;
 import it.mscuttari.kaoldb.StringUtils;
 import it.mscuttari.kaoldb.dump.SQLiteUtils;
 import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 
 import static it.mscuttari.kaoldb.StringUtils.escape;
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getColumnStatement;
@@ -39,7 +38,8 @@ import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTablePrimaryKeys;
  *
  * SQLite doesn't support the removal of existing columns. So, in order to achieve that, the table
  * is renamed and a new one, with the column removed, is created. Then, the data is copied and the
- * older table is deleted.
+ * older table is deleted. The indexes of the table are created again, except for the ones
+ * involving the removed column.
  */
 public final class SchemaDeleteColumn extends SchemaBaseAction implements SchemaAction {
 
@@ -70,8 +70,9 @@ public final class SchemaDeleteColumn extends SchemaBaseAction implements Schema
     }
 
     @Override
-    public void run(SQLiteDatabase db) {
+    public void run(StorageConnection db) {
         List<String> columns = SQLiteUtils.getTableColumns(db, table).stream().map(column -> column.name).collect(Collectors.toList());
+        List<TableIndex> indexes = getTableIndexes(db, table);
 
         // Prepare the statements to be used to create the new table.
         // The statements of the old table are copied and only the column name is replaced with
@@ -154,6 +155,9 @@ public final class SchemaDeleteColumn extends SchemaBaseAction implements Schema
         // Delete the old table and rename the new one
         new SchemaDeleteTable(table).run(db);
         new SchemaRenameTable(newTable, table).run(db);
+
+        // The indexes have been dropped together with the old table
+        restoreIndexes(db, indexes, name -> name.equals(column) ? null : name);
     }
 
 }
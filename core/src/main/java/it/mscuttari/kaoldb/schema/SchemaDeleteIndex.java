@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.schema;
+
+import androidx.annotation.NonNull;
+
+import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+
+import static it.mscuttari.kaoldb.StringUtils.escape;
+
+/**
+ * Database schema changer: delete an index.
+ */
+public final class SchemaDeleteIndex extends SchemaBaseAction implements SchemaAction {
+
+    @NonNull private final String name;
+
+    /**
+     * Constructor.
+     *
+     * @param name      name of the index to be deleted
+     * @throws IllegalArgumentException if <code>name</code> is empty
+     */
+    public SchemaDeleteIndex(@NonNull String name) {
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Index name can't be empty");
+        }
+
+        this.name = name;
+    }
+
+    @Override
+    public void run(StorageConnection db) {
+        String sql = "DROP INDEX " + escape(name);
+        log(sql);
+        db.execSQL(sql);
+    }
+
+}
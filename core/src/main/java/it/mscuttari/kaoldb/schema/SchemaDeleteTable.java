@@ -16,11 +16,10 @@
 
 package it.mscuttari.kaoldb.schema;
 
-import android.database.sqlite.SQLiteDatabase;
-
 import androidx.annotation.NonNull;
 
 import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 
 import static it.mscuttari.kaoldb.StringUtils.escape;
 
@@ -46,7 +45,7 @@ public final class SchemaDeleteTable extends SchemaBaseAction implements SchemaA
     }
 
     @Override
-    public void run(SQLiteDatabase db) {
+    public void run(StorageConnection db) {
         String sql = "DROP TABLE " + escape(table);
         log(sql);
         db.execSQL(sql);
@@ -16,18 +16,18 @@
 
 package it.mscuttari.kaoldb.schema;
 
-import android.database.sqlite.SQLiteDatabase;
-
 import androidx.annotation.NonNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 import it.mscuttari.kaoldb.StringUtils;
 import it.mscuttari.kaoldb.dump.SQLiteUtils;
 import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 
 import static it.mscuttari.kaoldb.StringUtils.escape;
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTableColumns;
@@ -38,7 +38,8 @@ import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTableForeignKeys;
  *
  * SQLite doesn't support the renaming of existing columns. So, in order to achieve that, the table
  * is renamed and a new one, with the column renamed, is created. Then, the data is copied and the
- * older table is deleted.
+ * older table is deleted. The indexes of the table are created again, referencing the column
+ * with its new name.
  */
 public final class SchemaRenameColumn extends SchemaBaseAction implements SchemaAction {
 
@@ -78,11 +79,12 @@ public final class SchemaRenameColumn extends SchemaBaseAction implements Schema
     }
 
     @Override
-    public void run(SQLiteDatabase db) {
+    public void run(StorageConnection db) {
         // Disable foreign key checks
         db.execSQL("PRAGMA foreign_keys=OFF");
 
         Collection<Column> columns = getTableColumns(db, table);
+        List<TableIndex> indexes = getTableIndexes(db, table);
 
         // Create the new table
 
@@ -143,6 +145,9 @@ public final class SchemaRenameColumn extends SchemaBaseAction implements Schema
         new SchemaDeleteTable(table).run(db);
         new SchemaRenameTable(newTable, table).run(db);
 
+        // The indexes have been dropped together with the old table
+        restoreIndexes(db, indexes, name -> name.equals(oldName) ? newName : name);
+
         // Fix foreign keys of other tables
         fixOtherTablesForeignKeys(db);
 
@@ -155,7 +160,7 @@ public final class SchemaRenameColumn extends SchemaBaseAction implements Schema
      *
      * @param db    writable database
      */
-    private void fixOtherTablesForeignKeys(SQLiteDatabase db) {
+    private void fixOtherTablesForeignKeys(StorageConnection db) {
         for (String table : SQLiteUtils.getTables(db)) {
             if (table.equals(this.table)) {
                 // Already covered
@@ -165,6 +170,7 @@ public final class SchemaRenameColumn extends SchemaBaseAction implements Schema
             for (ForeignKey foreignKey : getTableForeignKeys(db, table)) {
                 if (foreignKey.destinationTable.equals(this.table) && foreignKey.destinationColumns.contains(oldName)) {
                     Collection<Column> columns = getTableColumns(db, table);
+                    List<TableIndex> indexes = getTableIndexes(db, table);
 
                     Collection<ForeignKey> newForeignKeys = getTableForeignKeys(db, table)
                             .stream()
@@ -200,6 +206,7 @@ public final class SchemaRenameColumn extends SchemaBaseAction implements Schema
                     // Delete the old table and rename the new one
                     new SchemaDeleteTable(table).run(db);
                     new SchemaRenameTable(newTable, table).run(db);
+                    restoreIndexes(db, indexes, UnaryOperator.identity());
                 }
             }
         }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb;
+
+import android.content.Context;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import it.mscuttari.kaoldb.driver.AndroidStorageDriver;
+import it.mscuttari.kaoldb.driver.JdbcStorageDriver;
+import it.mscuttari.kaoldb.interfaces.StorageDriver;
+
+/**
+ * Storage drivers the suites sharing the same assertions are run through.
+ */
+public enum StorageDriverType {
+
+    ANDROID {
+        @Override
+        public StorageDriver create(Context context) {
+            return new AndroidStorageDriver(context);
+        }
+    },
+
+    JDBC {
+        @Override
+        public StorageDriver create(Context context) {
+            return new JdbcStorageDriver(new File(context.getFilesDir(), "jdbc"));
+        }
+    };
+
+    /**
+     * Create a driver instance.
+     *
+     * @param context   application context
+     * @return storage driver
+     */
+    public abstract StorageDriver create(Context context);
+
+    /**
+     * Get the parameters of the test classes run through all the drivers.
+     *
+     * @return one parameter array for each driver type
+     */
+    public static Collection<Object[]> parameters() {
+        Collection<Object[]> result = new ArrayList<>();
+
+        for (StorageDriverType type : values()) {
+            result.add(new Object[] {type});
+        }
+
+        return result;
+    }
+
+}
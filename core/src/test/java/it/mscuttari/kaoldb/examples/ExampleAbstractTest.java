@@ -16,23 +16,31 @@
 
 package it.mscuttari.kaoldb.examples;
 
+import android.content.Context;
+
 import androidx.test.core.app.ApplicationProvider;
 
 import org.junit.After;
 import org.junit.Before;
+import org.robolectric.ParameterizedRobolectricTestRunner;
 
 import java.util.Calendar;
+import java.util.Collection;
 
 import it.mscuttari.kaoldb.AbstractTest;
 import it.mscuttari.kaoldb.KaolDB;
 import it.mscuttari.kaoldb.R;
+import it.mscuttari.kaoldb.StorageDriverType;
 import it.mscuttari.kaoldb.interfaces.EntityManager;
+import it.mscuttari.kaoldb.interfaces.StorageDriver;
 
 import static org.junit.Assert.assertTrue;
 
 public abstract class ExampleAbstractTest extends AbstractTest {
 
     private final String databaseName;
+    private final StorageDriverType driverType;
+    protected StorageDriver driver;
     protected EntityManager em;
 
     /**
@@ -41,7 +49,27 @@ public abstract class ExampleAbstractTest extends AbstractTest {
      * @param databaseName  database name
      */
     public ExampleAbstractTest(String databaseName) {
+        this(databaseName, StorageDriverType.ANDROID);
+    }
+
+    /**
+     * Constructor.
+     *
+     * <p>The test classes running through all the drivers have to be annotated with
+     * <code>@RunWith(ParameterizedRobolectricTestRunner.class)</code>, and receive the driver
+     * type from {@link #drivers()}.</p>
+     *
+     * @param databaseName  database name
+     * @param driverType    driver the database is accessed through
+     */
+    public ExampleAbstractTest(String databaseName, StorageDriverType driverType) {
         this.databaseName = databaseName;
+        this.driverType = driverType;
+    }
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "{0}")
+    public static Collection<Object[]> drivers() {
+        return StorageDriverType.parameters();
     }
 
     /**
@@ -50,12 +78,14 @@ public abstract class ExampleAbstractTest extends AbstractTest {
     @Before
     public void setUp() {
         // KaolDB instance
+        Context context = ApplicationProvider.getApplicationContext();
         KaolDB kdb = KaolDB.getInstance();
         kdb.setDebugMode(true);
-        kdb.setConfig(ApplicationProvider.getApplicationContext(), R.xml.persistence);
+        kdb.setConfig(context, R.xml.persistence);
 
         // Entity manager
-        em = kdb.getEntityManager(ApplicationProvider.getApplicationContext(), databaseName);
+        driver = driverType.create(context);
+        em = kdb.getEntityManager(driver, databaseName);
     }
 
     /**
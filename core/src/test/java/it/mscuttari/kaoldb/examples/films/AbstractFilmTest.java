@@ -16,6 +16,7 @@
 
 package it.mscuttari.kaoldb.examples.films;
 
+import it.mscuttari.kaoldb.StorageDriverType;
 import it.mscuttari.kaoldb.examples.ExampleAbstractTest;
 
 public abstract class AbstractFilmTest extends ExampleAbstractTest {
@@ -24,4 +25,8 @@ public abstract class AbstractFilmTest extends ExampleAbstractTest {
         super("films");
     }
 
+    public AbstractFilmTest(StorageDriverType driverType) {
+        super("films", driverType);
+    }
+
 }
@@ -0,0 +1,494 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.examples.films;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import it.mscuttari.kaoldb.KaolDB;
+import it.mscuttari.kaoldb.driver.AndroidStorageDriver;
+import it.mscuttari.kaoldb.examples.films.models.ActionFilm;
+import it.mscuttari.kaoldb.examples.films.models.Country;
+import it.mscuttari.kaoldb.examples.films.models.FantasyFilm;
+import it.mscuttari.kaoldb.examples.films.models.Film;
+import it.mscuttari.kaoldb.examples.films.models.FilmRestriction;
+import it.mscuttari.kaoldb.examples.films.models.Film_;
+import it.mscuttari.kaoldb.examples.films.models.Genre;
+import it.mscuttari.kaoldb.examples.films.models.Person;
+import it.mscuttari.kaoldb.examples.films.models.Person_;
+import it.mscuttari.kaoldb.examples.films.models.ThrillerFilm;
+import it.mscuttari.kaoldb.interfaces.DatabaseDump;
+import it.mscuttari.kaoldb.interfaces.DatabaseSchemaMigrator;
+import it.mscuttari.kaoldb.interfaces.Query;
+import it.mscuttari.kaoldb.interfaces.QueryBuilder;
+import it.mscuttari.kaoldb.interfaces.Root;
+import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+import it.mscuttari.kaoldb.mapping.DatabaseObject;
+import it.mscuttari.kaoldb.metrics.Histogram;
+import it.mscuttari.kaoldb.schema.SchemaAddColumn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * End-to-end benchmarks on the films schema.
+ *
+ * <p>
+ * The suite is skipped unless the <code>kaoldb.benchmark</code> system property is set to
+ * <code>true</code>. The following properties can be used to tune it:
+ * <ul>
+ *     <li><code>kaoldb.benchmark.rows</code>: comma separated amounts of films to be used
+ *     (default = <code>10000</code>)</li>
+ *     <li><code>kaoldb.benchmark.repetitions</code>: amount of repetitions of each read
+ *     (default = <code>5</code>)</li>
+ *     <li><code>kaoldb.benchmark.observers</code>: amount of live queries observing the same
+ *     data (default = <code>10</code>)</li>
+ *     <li><code>kaoldb.benchmark.output</code>: path of the JSON report
+ *     (default = <code>build/reports/benchmarks/films.json</code>)</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Example:
+ * <code>./gradlew :core:testDebugUnitTest --tests '*.FilmsBenchmark' -Pkaoldb.benchmark=true -Pkaoldb.benchmark.rows=10000,100000</code>
+ * </p>
+ */
+public class FilmsBenchmark extends AbstractFilmTest {
+
+    /** Maximum time to wait for the live queries to be refreshed, in milliseconds */
+    private static final long LIVE_TIMEOUT = 60000;
+
+    /** Year of the films observed by the live queries, not used by the other films */
+    private static final int LIVE_YEAR = 2100;
+
+    private static final int COUNTRIES = 10;
+    private static final int FILMS_PER_DIRECTOR = 10;
+
+    /** Whether the suite has to be run */
+    private static final boolean ENABLED = Boolean.getBoolean("kaoldb.benchmark");
+
+    private int repetitions;
+    private int observers;
+
+    @Before
+    public void configure() {
+        Assume.assumeTrue(ENABLED);
+
+        // Logs and query plans would dominate the measurements
+        KaolDB.getInstance().setDebugMode(false);
+
+        repetitions = Integer.getInteger("kaoldb.benchmark.repetitions", 5);
+        observers = Integer.getInteger("kaoldb.benchmark.observers", 10);
+    }
+
+    @After
+    @Override
+    public void tearDown() {
+        // The database is not created if the suite is skipped
+        if (ENABLED) {
+            super.tearDown();
+        }
+    }
+
+    @Test
+    public void run() throws Exception {
+        JSONArray runs = new JSONArray();
+        String[] sizes = System.getProperty("kaoldb.benchmark.rows", "10000").split(",");
+
+        for (int i = 0; i < sizes.length; i++) {
+            if (i > 0) {
+                // Start again from an empty database
+                em.deleteDatabase();
+            }
+
+            runs.put(run(Integer.parseInt(sizes[i].trim())));
+        }
+
+        JSONObject report = new JSONObject();
+        report.put("suite", "films");
+        report.put("repetitions", repetitions);
+        report.put("observers", observers);
+        report.put("runs", runs);
+
+        File output = new File(System.getProperty("kaoldb.benchmark.output", "build/reports/benchmarks/films.json"));
+        File directory = output.getAbsoluteFile().getParentFile();
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Can't create directory " + directory);
+        }
+
+        try (Writer writer = new FileWriter(output)) {
+            writer.write(report.toString(2));
+        }
+
+        System.out.println("Benchmark report written to " + output.getAbsolutePath());
+    }
+
+    /**
+     * Run all the benchmarks with a given amount of films.
+     *
+     * @param rows  amount of films
+     * @return run results
+     */
+    private JSONObject run(int rows) throws Exception {
+        JSONArray results = new JSONArray();
+
+        results.put(bulkPersist(rows));
+        results.put(polymorphicGetAll(rows));
+        results.put(joinQuery(rows));
+        results.put(eagerLoadRead());
+        results.put(liveQueryFanOut());
+        results.put(schemaUpgrade());
+
+        JSONObject run = new JSONObject();
+        run.put("rows", rows);
+        run.put("results", results);
+        return run;
+    }
+
+    /**
+     * Persist the films, together with their directors, genres and countries. Each entity is
+     * persisted on its own, as done by the applications.
+     */
+    private JSONObject bulkPersist(int rows) throws JSONException {
+        Result result = new Result("bulk_persist");
+
+        List<Country> countries = new ArrayList<>(COUNTRIES);
+
+        for (int i = 0; i < COUNTRIES; i++) {
+            Country country = new Country("Country " + i);
+            countries.add(country);
+            result.measure(1, () -> em.persist(country));
+        }
+
+        for (String genre : new String[] {"Action", "Fantasy", "Thriller"}) {
+            result.measure(1, () -> em.persist(new Genre(genre)));
+        }
+
+        int directorsCount = Math.max(rows / FILMS_PER_DIRECTOR, 1);
+        List<Person> directors = new ArrayList<>(directorsCount);
+        Calendar birthDate = getCalendar(1970, Calendar.JANUARY, 1);
+
+        for (int i = 0; i < directorsCount; i++) {
+            Person director = new Person("First name " + i, "Last name " + i, birthDate, countries.get(i % COUNTRIES));
+            directors.add(director);
+            result.measure(1, () -> em.persist(director));
+        }
+
+        for (int i = 0; i < rows; i++) {
+            Film film = createFilm(i, 1950 + i % 70, directors.get(i % directorsCount));
+            result.measure(1, () -> em.persist(film));
+        }
+
+        return result.toJson();
+    }
+
+    /**
+     * Load all the films, which requires to join all the tables of the hierarchy.
+     */
+    private JSONObject polymorphicGetAll(int rows) throws JSONException {
+        Result result = new Result("polymorphic_get_all");
+
+        for (int i = 0; i < repetitions; i++) {
+            List<Film> films = result.measure(() -> em.getAll(Film.class), List::size);
+            assertEquals(rows, films.size());
+        }
+
+        return result.toJson();
+    }
+
+    /**
+     * Search the films of a director, by joining the films and the people.
+     */
+    private JSONObject joinQuery(int rows) throws JSONException {
+        Result result = new Result("join_query");
+        int directorsCount = Math.max(rows / FILMS_PER_DIRECTOR, 1);
+
+        for (int i = 0; i < repetitions; i++) {
+            String lastName = "Last name " + (i * 7919) % directorsCount;
+
+            result.measure(() -> {
+                QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+                Root<Film> film = qb.getRoot(Film.class);
+                Root<Person> director = qb.getRoot(Person.class);
+
+                qb.from(film.join(director, Film_.director))
+                        .where(director.eq(Person_.lastName, lastName));
+
+                return qb.build(film).getResults();
+            }, List::size);
+        }
+
+        return result.toJson();
+    }
+
+    /**
+     * Load the action films, each of them requiring its genre, its director and the director's
+     * country to be loaded with separate queries.
+     */
+    private JSONObject eagerLoadRead() throws JSONException {
+        Result result = new Result("eager_load_read");
+
+        for (int i = 0; i < repetitions; i++) {
+            result.measure(() -> em.getAll(ActionFilm.class), List::size);
+        }
+
+        return result.toJson();
+    }
+
+    /**
+     * Measure the time needed by multiple live queries to be refreshed after a change of the
+     * data they observe.
+     */
+    private JSONObject liveQueryFanOut() throws JSONException {
+        Result result = new Result("live_query_fan_out");
+
+        Person director = em.getAll(Person.class).get(0);
+        List<LiveData<List<Film>>> liveData = new ArrayList<>(observers);
+        Observer<List<Film>> observer = films -> {};
+
+        for (int i = 0; i < observers; i++) {
+            QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+            Root<Film> root = qb.getRoot(Film.class);
+            qb.from(root).where(root.eq(Film_.year, LIVE_YEAR));
+
+            Query<Film> query = qb.build(root);
+            LiveData<List<Film>> data = query.getLiveResults();
+            data.observeForever(observer);
+            liveData.add(data);
+        }
+
+        awaitCondition(() -> allSized(liveData, 0));
+
+        for (int i = 0; i < repetitions; i++) {
+            Film film = createFilm(-1 - i, LIVE_YEAR, director);
+            int expected = i + 1;
+
+            result.measure(observers, () -> {
+                em.persist(film);
+                awaitCondition(() -> allSized(liveData, expected));
+            });
+        }
+
+        for (LiveData<List<Film>> data : liveData) {
+            data.removeObserver(observer);
+        }
+
+        return result.toJson();
+    }
+
+    /**
+     * Upgrade the schema of the populated database, by adding a column to the films table.
+     */
+    private JSONObject schemaUpgrade() throws JSONException {
+        Result result = new Result("schema_upgrade");
+
+        DatabaseObject database = new DatabaseObject();
+        database.setName("films");
+        database.setSchemaMigrator(AddColumnMigrator.class);
+
+        for (Class<?> clazz : new Class<?>[] {ActionFilm.class, Country.class, FantasyFilm.class, Film.class, Genre.class, Person.class, ThrillerFilm.class}) {
+            database.addEntityClass(clazz);
+        }
+
+        Context context = ApplicationProvider.getApplicationContext();
+        StorageConnection db = new AndroidStorageDriver(context).open("films");
+
+        try {
+            for (int i = 1; i <= repetitions; i++) {
+                int version = i;
+                result.measure(1, () -> database.upgrade(db, version, version + 1));
+            }
+
+        } finally {
+            db.close();
+        }
+
+        return result.toJson();
+    }
+
+    /**
+     * Migrator adding a new column to the films table at each version.
+     */
+    public static class AddColumnMigrator implements DatabaseSchemaMigrator {
+
+        @Override
+        public List<SchemaAction> onUpgrade(int oldVersion, int newVersion, DatabaseDump dump) {
+            return Collections.singletonList(new SchemaAddColumn("films", "column_" + newVersion, Integer.class, null, false, true, false));
+        }
+
+        @Override
+        public List<SchemaAction> onDowngrade(int oldVersion, int newVersion, DatabaseDump dump) {
+            return null;
+        }
+
+    }
+
+    /**
+     * Create a film. The films are equally distributed among the genres.
+     *
+     * @param index     film index
+     * @param year      year
+     * @param director  director
+     *
+     * @return film
+     */
+    private static Film createFilm(int index, int year, Person director) {
+        String title = "Film " + index;
+        int length = 90 + Math.abs(index) % 60;
+        FilmRestriction restriction = FilmRestriction.values()[Math.abs(index) % FilmRestriction.values().length];
+
+        switch (Math.abs(index) % 3) {
+            case 0:     return new ActionFilm(title, year, director, length, restriction);
+            case 1:     return new FantasyFilm(title, year, director, length, restriction);
+            default:    return new ThrillerFilm(title, year, director, length, restriction);
+        }
+    }
+
+    private static boolean allSized(List<LiveData<List<Film>>> liveData, int size) {
+        for (LiveData<List<Film>> data : liveData) {
+            List<Film> value = data.getValue();
+
+            if (value == null || value.size() != size) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Wait for a condition to be satisfied, by running the tasks posted to the main thread.
+     *
+     * @param condition     condition to be checked
+     */
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + LIVE_TIMEOUT;
+
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Live queries not refreshed within " + LIVE_TIMEOUT + " ms");
+            }
+
+            ShadowLooper.idleMainLooper();
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Latencies and throughput of a benchmark.
+     */
+    private static final class Result {
+
+        private final String name;
+        private final Histogram latencies = new Histogram();
+        private long rows;
+        private long duration;
+
+        Result(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Measure an operation.
+         *
+         * @param rows      amount of rows processed by the operation
+         * @param operation operation
+         */
+        void measure(long rows, Runnable operation) {
+            long start = System.nanoTime();
+            operation.run();
+            record(rows, System.nanoTime() - start);
+        }
+
+        /**
+         * Measure an operation returning a result.
+         *
+         * @param operation operation
+         * @param rows      function returning the amount of rows of the result
+         * @param <T>       result type
+         *
+         * @return operation result
+         */
+        <T> T measure(Supplier<T> operation, ToIntFunction<T> rows) {
+            long start = System.nanoTime();
+            T result = operation.get();
+            record(rows.applyAsInt(result), System.nanoTime() - start);
+            return result;
+        }
+
+        private void record(long rows, long nanos) {
+            this.rows += rows;
+            this.duration += nanos;
+            this.latencies.record(nanos);
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONObject latency = new JSONObject();
+            latency.put("min", toMicros(latencies.getMin()));
+            latency.put("mean", latencies.getMean() / 1000);
+            latency.put("p50", toMicros(latencies.getPercentile(50)));
+            latency.put("p90", toMicros(latencies.getPercentile(90)));
+            latency.put("p99", toMicros(latencies.getPercentile(99)));
+            latency.put("max", toMicros(latencies.getMax()));
+
+            JSONObject result = new JSONObject();
+            result.put("name", name);
+            result.put("operations", latencies.getCount());
+            result.put("rows", rows);
+            result.put("duration_ms", TimeUnit.NANOSECONDS.toMillis(duration));
+            result.put("operations_per_second", duration == 0 ? 0 : latencies.getCount() * 1e9 / duration);
+            result.put("rows_per_second", duration == 0 ? 0 : rows * 1e9 / duration);
+            result.put("latency_us", latency);
+
+            System.out.println("[Benchmark] " + name + ": " + result);
+            return result;
+        }
+
+        private static long toMicros(long nanos) {
+            return TimeUnit.NANOSECONDS.toMicros(nanos);
+        }
+
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.examples.films;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+
+import it.mscuttari.kaoldb.StorageDriverType;
+import it.mscuttari.kaoldb.examples.films.models.Country;
+import it.mscuttari.kaoldb.examples.films.models.FantasyFilm;
+import it.mscuttari.kaoldb.examples.films.models.Film;
+import it.mscuttari.kaoldb.examples.films.models.Person;
+import it.mscuttari.kaoldb.exceptions.QueryException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(ParameterizedRobolectricTestRunner.class)
+public class FindTest extends AbstractFilmTest {
+
+    public FindTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
+    @Test
+    public void findBySingleKey() {
+        Country country = new Country("IT");
+        em.persist(country);
+
+        assertEquals(country, em.find(Country.class, "IT"));
+        assertNull(em.find(Country.class, "UK"));
+    }
+
+    @Test
+    public void findByObject() {
+        Person person = new Person("David", "Yates", getCalendar(1963, Calendar.OCTOBER, 8), new Country("UK"));
+        em.persist(person.country);
+        em.persist(person);
+
+        Person id = new Person("David", "Yates", null, null);
+        assertEquals(person, em.find(Person.class, id));
+    }
+
+    @Test(expected = QueryException.class)
+    public void findByValueWithMultiplePrimaryKeys() {
+        em.persist(new Country("IT"));
+        em.find(Person.class, "David");
+    }
+
+    @Test
+    public void findSubclass() {
+        Person director = new Person("David", "Yates", getCalendar(1963, Calendar.OCTOBER, 8), new Country("UK"));
+        FantasyFilm film = new FantasyFilm("Fantastic Beasts and Where to Find Them", 2016, director, 133, null);
+
+        em.persist(director.country);
+        em.persist(director);
+        em.persist(film.genre);
+        em.persist(film);
+
+        Film result = em.find(Film.class, new FantasyFilm(film.title, film.year, null, null, null));
+        assertTrue(result instanceof FantasyFilm);
+        assertEquals(film, result);
+    }
+
+    @Test
+    public void findAllInBatches() {
+        List<Country> countries = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+
+        // More elements than the ones loaded by each statement
+        for (int i = 0; i < 300; i++) {
+            Country country = new Country("Country " + i);
+            em.persist(country);
+
+            countries.add(country);
+            ids.add(country.name);
+        }
+
+        ids.add("Missing");
+
+        List<Country> results = em.findAll(Country.class, ids);
+        assertEquals(countries.size(), results.size());
+        assertEquals(new HashSet<>(countries), new HashSet<>(results));
+    }
+
+    @Test
+    public void findAllByObjects() {
+        Country country = new Country("IT");
+        em.persist(country);
+
+        Person first = new Person("Mario", "Rossi", getCalendar(1970, Calendar.JANUARY, 1), country);
+        Person second = new Person("Luigi", "Verdi", getCalendar(1972, Calendar.MARCH, 3), country);
+        em.persist(first);
+        em.persist(second);
+
+        List<Person> results = em.findAll(Person.class, Arrays.asList(
+                new Person("Mario", "Rossi", null, null),
+                new Person("Luigi", "Verdi", null, null),
+                new Person("Anna", "Rossi", null, null)
+        ));
+
+        assertEquals(new HashSet<>(Arrays.asList(first, second)), new HashSet<>(results));
+    }
+
+}
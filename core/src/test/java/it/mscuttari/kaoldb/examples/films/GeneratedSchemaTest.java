@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.examples.films;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import it.mscuttari.kaoldb.annotations.DiscriminatorType;
+import it.mscuttari.kaoldb.annotations.EnumType;
+import it.mscuttari.kaoldb.examples.films.models.FantasyFilm_Schema;
+import it.mscuttari.kaoldb.examples.films.models.KaolDB_Schemas;
+import it.mscuttari.kaoldb.examples.films.models.Film;
+import it.mscuttari.kaoldb.examples.films.models.Film_Schema;
+import it.mscuttari.kaoldb.examples.films.models.Person;
+import it.mscuttari.kaoldb.examples.films.models.Person_Schema;
+import it.mscuttari.kaoldb.interfaces.EntitySchema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GeneratedSchemaTest {
+
+    @Test
+    public void rootEntity() {
+        EntitySchema schema = new Film_Schema();
+
+        assertEquals("films", schema.getTableName());
+        assertNull(schema.getParent());
+        assertNull(schema.getDiscriminatorValue());
+        assertEquals(Arrays.asList("genre", "director", "actors"), schema.getRelationships());
+        assertEquals(Arrays.asList("genre", "director"), schema.getJoinColumns());
+
+        EntitySchema.DiscriminatorColumn discriminatorColumn = schema.getDiscriminatorColumn();
+        assertNotNull(discriminatorColumn);
+        assertEquals("genre", discriminatorColumn.name);
+        assertEquals(DiscriminatorType.STRING, discriminatorColumn.type);
+    }
+
+    @Test
+    public void childEntity() {
+        EntitySchema schema = new FantasyFilm_Schema();
+
+        assertEquals("fantasy_films", schema.getTableName());
+        assertEquals(Film.class, schema.getParent());
+        assertEquals("Fantasy", schema.getDiscriminatorValue());
+        assertEquals(Collections.emptyList(), schema.getColumns());
+        assertNull(schema.getDiscriminatorColumn());
+        assertEquals(Collections.emptyList(), schema.getJoinTables());
+    }
+
+    @Test
+    public void simpleColumns() {
+        EntitySchema schema = new Person_Schema();
+        assertEquals(3, schema.getColumns().size());
+
+        EntitySchema.SimpleColumn firstName = schema.getColumns().get(0);
+        assertEquals("firstName", firstName.field);
+        assertEquals("first_name", firstName.name);
+        assertTrue(firstName.primaryKey);
+        assertTrue(firstName.nullable);
+        assertFalse(firstName.unique);
+        assertNull(firstName.columnDefinition);
+        assertNull(firstName.defaultValue);
+        assertNull(firstName.converter);
+        assertEquals(EnumType.STRING, firstName.enumType);
+        assertEquals(0, firstName.scale);
+
+        // Fields mapped by the other side don't lead to join columns
+        assertEquals(Collections.singletonList("country"), schema.getJoinColumns());
+    }
+
+    @Test
+    public void joinTables() {
+        EntitySchema schema = new Film_Schema();
+        assertEquals(1, schema.getJoinTables().size());
+
+        EntitySchema.JoinTable joinTable = schema.getJoinTables().get(0);
+        assertEquals("actors", joinTable.field);
+        assertEquals("acting", joinTable.name);
+        assertEquals(Film.class, joinTable.joinClass);
+        assertEquals(Person.class, joinTable.inverseJoinClass);
+        assertEquals(2, joinTable.joinColumns.size());
+        assertEquals(2, joinTable.inverseJoinColumns.size());
+
+        EntitySchema.JoinColumn filmTitle = joinTable.joinColumns.get(0);
+        assertEquals("film_title", filmTitle.name);
+        assertEquals("title", filmTitle.referencedColumnName);
+        assertTrue(filmTitle.nullable);
+        assertFalse(filmTitle.unique);
+        assertTrue(filmTitle.index);
+        assertNull(filmTitle.columnDefinition);
+        assertNull(filmTitle.defaultValue);
+
+        assertEquals("actor_last_name", joinTable.inverseJoinColumns.get(1).name);
+        assertEquals("last_name", joinTable.inverseJoinColumns.get(1).referencedColumnName);
+
+        // The inverse side doesn't own the join table
+        assertEquals(Collections.emptyList(), new Person_Schema().getJoinTables());
+    }
+
+    @Test
+    public void enumColumn() {
+        EntitySchema.SimpleColumn restriction = null;
+
+        for (EntitySchema.SimpleColumn column : new Film_Schema().getColumns()) {
+            if (column.name.equals("restriction")) {
+                restriction = column;
+            }
+        }
+
+        assertNotNull(restriction);
+        assertNull(restriction.converter);
+        assertEquals(EnumType.STRING, restriction.enumType);
+    }
+
+    @Test
+    public void registry() {
+        Map<Class<?>, EntitySchema> schemas = new KaolDB_Schemas().getSchemas();
+
+        assertEquals(7, schemas.size());
+        assertTrue(schemas.get(Film.class) instanceof Film_Schema);
+        assertTrue(schemas.get(Person.class) instanceof Person_Schema);
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.examples.films;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import it.mscuttari.kaoldb.examples.films.models.Country;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IndexesTest extends AbstractFilmTest {
+
+    @Test
+    public void joinColumnsIndexed() {
+        Map<String, String> indexes = getIndexes();
+
+        assertEquals("people", indexes.get("index_people_country"));
+        assertEquals("films", indexes.get("index_films_director_first_name_director_last_name"));
+        assertEquals("acting", indexes.get("index_acting_actor_first_name_actor_last_name"));
+    }
+
+    @Test
+    public void discriminatorColumnIndexedOnce() {
+        Map<String, String> indexes = getIndexes();
+
+        // The discriminator column is also a join column: just one index must be created
+        assertTrue(indexes.containsKey("index_films_genre"));
+        assertEquals(1, indexes.keySet().stream().filter(name -> name.startsWith("index_films_genre")).count());
+    }
+
+    /**
+     * Create the database and get its explicitly created indexes.
+     *
+     * @return map between the index names and the indexed tables
+     */
+    private Map<String, String> getIndexes() {
+        em.persist(new Country("IT"));
+
+        Context context = ApplicationProvider.getApplicationContext();
+        String path = context.getDatabasePath("films").getPath();
+        Map<String, String> result = new HashMap<>();
+
+        try (SQLiteDatabase db = SQLiteDatabase.openDatabase(path, null, SQLiteDatabase.OPEN_READONLY);
+             Cursor c = db.rawQuery("SELECT name, tbl_name FROM sqlite_master WHERE type = 'index' AND sql IS NOT NULL", null)) {
+
+            while (c.moveToNext()) {
+                result.put(c.getString(0), c.getString(1));
+            }
+        }
+
+        return result;
+    }
+
+}
@@ -16,13 +16,19 @@
 
 package it.mscuttari.kaoldb.examples.films;
 
+import android.content.ContentValues;
+
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
 
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 
+import it.mscuttari.kaoldb.StorageDriverType;
 import it.mscuttari.kaoldb.examples.films.models.ActionFilm;
 import it.mscuttari.kaoldb.examples.films.models.Country;
 import it.mscuttari.kaoldb.examples.films.models.Country_;
@@ -36,11 +42,18 @@ import it.mscuttari.kaoldb.examples.films.models.Person_;
 import it.mscuttari.kaoldb.examples.films.models.ThrillerFilm;
 import it.mscuttari.kaoldb.interfaces.QueryBuilder;
 import it.mscuttari.kaoldb.interfaces.Root;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
+@RunWith(ParameterizedRobolectricTestRunner.class)
 public class JoinTest extends AbstractFilmTest {
 
+    public JoinTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
     @Test
     public void getPeopleWithCountry() {
         // Countries
@@ -240,4 +253,65 @@ public class JoinTest extends AbstractFilmTest {
         assertEquals(qb.build(filmRoot).getResults(), Arrays.asList(film1, film2, film3, film5));
     }
 
+
+    @Test
+    public void getActorsOfFilm() {
+        Country usa = new Country("USA");
+        em.persist(usa);
+
+        Person director = new Person("Quentin", "Tarantino", getCalendar(1963, Calendar.MARCH, 27), usa);
+        Person actor1 = new Person("Uma", "Thurman", getCalendar(1970, Calendar.APRIL, 29), usa);
+        Person actor2 = new Person("Brad", "Pitt", getCalendar(1963, Calendar.DECEMBER, 18), usa);
+
+        em.persist(director);
+        em.persist(actor1);
+        em.persist(actor2);
+
+        ThrillerFilm film1 = new ThrillerFilm("Kill Bill: Volume 1", 2003, director, 106, null);
+        ActionFilm film2 = new ActionFilm("Inglourious Bastards", 2009, director, 153, null);
+
+        em.persist(film1.genre);
+        em.persist(film2.genre);
+
+        em.persist(film1);
+        em.persist(film2);
+
+        // The join table rows are not written by the entity manager
+        try (StorageConnection db = driver.open("films")) {
+            insertActing(db, film1, actor1);
+            insertActing(db, film2, actor1);
+            insertActing(db, film2, actor2);
+        }
+
+        // Non-owning side of the relationship
+        QueryBuilder<Person> personQb = em.getQueryBuilder(Person.class);
+
+        Root<Person> personRoot = personQb.getRoot(Person.class);
+        Root<Film> filmRoot = personQb.getRoot(Film.class);
+
+        personQb.from(personRoot.join(filmRoot, Person_.acting)).where(filmRoot.eq(Film_.title, film2.title));
+        assertEquals(new HashSet<>(Arrays.asList(actor1, actor2)), new HashSet<>(personQb.build(personRoot).getResults()));
+
+        personQb.where(filmRoot.eq(Film_.title, film1.title));
+        assertEquals(Collections.singletonList(actor1), personQb.build(personRoot).getResults());
+
+        // Owning side of the relationship
+        QueryBuilder<Film> filmQb = em.getQueryBuilder(Film.class);
+
+        filmRoot = filmQb.getRoot(Film.class);
+        personRoot = filmQb.getRoot(Person.class);
+
+        filmQb.from(filmRoot.join(personRoot, Film_.actors)).where(personRoot.eq(Person_.lastName, actor2.lastName));
+        assertEquals(Collections.singletonList(film2), filmQb.build(filmRoot).getResults());
+    }
+
+    private static void insertActing(StorageConnection db, Film film, Person actor) {
+        ContentValues cv = new ContentValues();
+        cv.put("film_title", film.title);
+        cv.put("film_year", film.year);
+        cv.put("actor_first_name", actor.firstName);
+        cv.put("actor_last_name", actor.lastName);
+        assertNotEquals(-1, db.insert("acting", cv));
+    }
+
 }
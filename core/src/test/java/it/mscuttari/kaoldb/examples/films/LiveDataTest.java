@@ -1,24 +1,32 @@
 package it.mscuttari.kaoldb.examples.films;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.robolectric.shadows.ShadowLooper;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 
-import edu.emory.mathcs.backport.java.util.Collections;
 import it.mscuttari.kaoldb.examples.films.models.Country;
 import it.mscuttari.kaoldb.examples.films.models.FantasyFilm;
 import it.mscuttari.kaoldb.examples.films.models.Film;
 import it.mscuttari.kaoldb.examples.films.models.Person;
+import it.mscuttari.kaoldb.interfaces.ChangeSet;
 import it.mscuttari.kaoldb.interfaces.Query;
 import it.mscuttari.kaoldb.interfaces.QueryBuilder;
 import it.mscuttari.kaoldb.interfaces.Root;
 
 public class LiveDataTest extends AbstractFilmTest {
 
+    /** Maximum time to wait for the live data to be updated, in milliseconds */
+    private static final long TIMEOUT = 5000;
+
     @Test
     public void updateFilmDirectorCountry() {
         Person director = new Person("David", "Yates", getCalendar(1963, Calendar.OCTOBER, 8), new Country("IT"));
@@ -36,11 +44,140 @@ public class LiveDataTest extends AbstractFilmTest {
         Query<Film> query = qb.build(root);
         LiveData<List<Film>> liveData = query.getLiveResults();
 
+        Observer<List<Film>> observer = films -> {};
+        liveData.observeForever(observer);
+
         director.country = new Country("UK");
         em.persist(director.country);
         em.update(director);
 
-        Assert.assertEquals(Collections.singletonList(film), liveData.getValue());
+        awaitValue(liveData, Collections.singletonList(film));
+        liveData.removeObserver(observer);
+    }
+
+    @Test
+    public void inactiveQueryNotExecuted() {
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<Film> root = qb.getRoot(Film.class);
+        qb.from(root);
+        Query<Film> query = qb.build(root);
+        LiveData<List<Film>> liveData = query.getLiveResults();
+
+        Person director = new Person("David", "Yates", getCalendar(1963, Calendar.OCTOBER, 8), new Country("IT"));
+        FantasyFilm film = new FantasyFilm("Fantastic Beasts and Where to Find Them", 2016, director, 133, null);
+
+        em.persist(director.country);
+        em.persist(director);
+
+        em.persist(film.genre);
+        em.persist(film);
+
+        // Without observers the query must not be executed
+        ShadowLooper.idleMainLooper();
+        Assert.assertNull(liveData.getValue());
+
+        // The pending changes are loaded as soon as an observer becomes active
+        Observer<List<Film>> observer = films -> {};
+        liveData.observeForever(observer);
+
+        awaitValue(liveData, Collections.singletonList(film));
+        liveData.removeObserver(observer);
+    }
+
+    @Test
+    public void changeSets() {
+        Person director = new Person("David", "Yates", getCalendar(1963, Calendar.OCTOBER, 8), new Country("IT"));
+        FantasyFilm film1 = new FantasyFilm("Fantastic Beasts and Where to Find Them", 2016, director, 133, null);
+        FantasyFilm film2 = new FantasyFilm("Fantastic Beasts: The Crimes of Grindelwald", 2018, director, 134, null);
+
+        em.persist(director.country);
+        em.persist(director);
+
+        em.persist(film1.genre);
+        em.persist(film1);
+
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<Film> root = qb.getRoot(Film.class);
+        qb.from(root);
+        Query<Film> query = qb.build(root);
+        LiveData<ChangeSet<Film>> liveData = query.getLiveChanges();
+
+        List<ChangeSet<Film>> emitted = new ArrayList<>();
+        Observer<ChangeSet<Film>> observer = emitted::add;
+        liveData.observeForever(observer);
+
+        // The first results are all insertions
+        awaitCondition(() -> liveData.getValue() != null);
+        Assert.assertEquals(Collections.singletonList(film1), liveData.getValue().getResults());
+        Assert.assertEquals(Collections.singletonList(0), liveData.getValue().getInsertions());
+
+        // Insertion of a new element
+        em.persist(film2);
+        awaitCondition(() -> liveData.getValue().getResults().size() == 2);
+        ChangeSet<Film> changeSet = liveData.getValue();
+        Assert.assertEquals(Collections.singletonList(changeSet.getResults().indexOf(film2)), changeSet.getInsertions());
+        Assert.assertTrue(changeSet.getRemovals().isEmpty());
+        Assert.assertTrue(changeSet.getChanges().isEmpty());
+
+        // Change of an existing element, modified in place as read from the results
+        FantasyFilm result = (FantasyFilm) changeSet.getResults().get(changeSet.getResults().indexOf(film2));
+        result.length = 143;
+        em.update(result);
+        awaitCondition(() -> !liveData.getValue().getChanges().isEmpty());
+        changeSet = liveData.getValue();
+        Assert.assertEquals(Collections.singletonList(changeSet.getResults().indexOf(result)), changeSet.getChanges());
+        Assert.assertTrue(changeSet.getInsertions().isEmpty());
+        Assert.assertTrue(changeSet.getRemovals().isEmpty());
+
+        // Removal of an existing element
+        em.remove(film1);
+        awaitCondition(() -> !liveData.getValue().getRemovals().isEmpty());
+        changeSet = liveData.getValue();
+        Assert.assertEquals(Collections.singletonList(result), changeSet.getResults());
+        Assert.assertTrue(changeSet.getInsertions().isEmpty());
+        Assert.assertTrue(changeSet.getChanges().isEmpty());
+
+        // Every change set is relative to the previously delivered one
+        for (int i = 1; i < emitted.size(); i++) {
+            ChangeSet<Film> previous = emitted.get(i - 1);
+            ChangeSet<Film> current = emitted.get(i);
+
+            Assert.assertEquals(previous.getResults().size() - current.getRemovals().size() + current.getInsertions().size(),
+                    current.getResults().size());
+        }
+
+        liveData.removeObserver(observer);
+    }
+
+    /**
+     * Wait for the live data to assume the expected value.
+     *
+     * @param liveData  live data
+     * @param expected  expected value
+     * @param <T>       data type
+     */
+    private static <T> void awaitValue(LiveData<T> liveData, T expected) {
+        awaitCondition(() -> expected.equals(liveData.getValue()));
+        Assert.assertEquals(expected, liveData.getValue());
+    }
+
+    /**
+     * Wait for a condition to be satisfied, or for the {@link #TIMEOUT} to expire.
+     *
+     * @param condition     condition to be checked
+     */
+    private static void awaitCondition(Callable<Boolean> condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+
+        try {
+            while (!condition.call() && System.currentTimeMillis() < deadline) {
+                // Values are posted to the main thread by the background executions
+                ShadowLooper.idleMainLooper();
+                Thread.sleep(10);
+            }
+        } catch (Exception e) {
+            Assert.fail(e.getMessage());
+        }
     }
 
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.examples.films;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Map;
+
+import it.mscuttari.kaoldb.KaolDB;
+import it.mscuttari.kaoldb.examples.films.models.Country;
+import it.mscuttari.kaoldb.examples.films.models.Person;
+import it.mscuttari.kaoldb.interfaces.MetricsListener;
+import it.mscuttari.kaoldb.metrics.Histogram;
+import it.mscuttari.kaoldb.metrics.MetricsAggregator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest extends AbstractFilmTest {
+
+    private MetricsAggregator metrics;
+
+    @Before
+    public void registerMetrics() {
+        metrics = new MetricsAggregator();
+        KaolDB.getInstance().setMetricsListener(metrics);
+    }
+
+    @After
+    public void unregisterMetrics() {
+        KaolDB.getInstance().setMetricsListener(null);
+    }
+
+    @Test
+    public void writes() {
+        Country country = new Country("IT");
+        em.persist(country);
+        em.persist(new Person("Mario", "Rossi", getCalendar(1970, Calendar.JANUARY, 1), country));
+        em.remove(country);
+
+        assertEquals(1, metrics.getWriteTimes(MetricsListener.WriteType.INSERT, "countries").getCount());
+        assertEquals(1, metrics.getWriteTimes(MetricsListener.WriteType.INSERT, "people").getCount());
+        assertEquals(1, metrics.getWriteTimes(MetricsListener.WriteType.DELETE, "countries").getCount());
+
+        // Each operation runs in its own transaction
+        assertEquals(3, metrics.getTransactionTimes().getCount());
+        assertEquals(0, metrics.getFailedTransactions());
+    }
+
+    @Test
+    public void queries() {
+        Country country = new Country("IT");
+        em.persist(country);
+        em.persist(new Country("UK"));
+
+        assertEquals(2, em.getAll(Country.class).size());
+        assertEquals(2, em.getAll(Country.class).size());
+
+        // Both the executions have the same shape
+        Map<String, Histogram> rows = metrics.getQueryRows();
+        assertEquals(1, rows.size());
+
+        Histogram histogram = rows.values().iterator().next();
+        assertEquals(2, histogram.getCount());
+        assertEquals(2, histogram.getMax());
+
+        assertEquals(2, metrics.getQueryExecutionTimes().values().iterator().next().getCount());
+        assertEquals(2, metrics.getQueryHydrationTimes().values().iterator().next().getCount());
+    }
+
+    @Test
+    public void connections() {
+        em.persist(new Country("IT"));
+
+        assertTrue(metrics.getOpenedConnections() > 0);
+        assertEquals(metrics.getOpenedConnections(), metrics.getClosedConnections());
+    }
+
+}
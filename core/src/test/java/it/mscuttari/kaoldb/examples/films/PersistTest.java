@@ -17,9 +17,12 @@
 package it.mscuttari.kaoldb.examples.films;
 
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
 
 import java.util.Calendar;
 
+import it.mscuttari.kaoldb.StorageDriverType;
 import it.mscuttari.kaoldb.examples.films.models.Country;
 import it.mscuttari.kaoldb.examples.films.models.Country_;
 import it.mscuttari.kaoldb.examples.films.models.FantasyFilm;
@@ -39,8 +42,13 @@ import it.mscuttari.kaoldb.interfaces.Root;
 
 import static org.junit.Assert.assertEquals;
 
+@RunWith(ParameterizedRobolectricTestRunner.class)
 public class PersistTest extends AbstractFilmTest {
 
+    public PersistTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
     @Test
     public void persistCountry() {
         Country country = new Country("Italy");
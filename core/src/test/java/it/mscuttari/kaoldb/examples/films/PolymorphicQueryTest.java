@@ -0,0 +1,174 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.examples.films;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import it.mscuttari.kaoldb.StorageDriverType;
+import it.mscuttari.kaoldb.examples.films.models.ActionFilm;
+import it.mscuttari.kaoldb.examples.films.models.ActionFilm_;
+import it.mscuttari.kaoldb.examples.films.models.Country;
+import it.mscuttari.kaoldb.examples.films.models.FantasyFilm;
+import it.mscuttari.kaoldb.examples.films.models.Film;
+import it.mscuttari.kaoldb.examples.films.models.Film_;
+import it.mscuttari.kaoldb.examples.films.models.Genre;
+import it.mscuttari.kaoldb.examples.films.models.Person;
+import it.mscuttari.kaoldb.examples.films.models.ThrillerFilm;
+import it.mscuttari.kaoldb.exceptions.QueryException;
+import it.mscuttari.kaoldb.interfaces.Query;
+import it.mscuttari.kaoldb.interfaces.QueryBuilder;
+import it.mscuttari.kaoldb.interfaces.Root;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(ParameterizedRobolectricTestRunner.class)
+public class PolymorphicQueryTest extends AbstractFilmTest {
+
+    public PolymorphicQueryTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
+    private ActionFilm actionFilm;
+    private FantasyFilm fantasyFilm;
+    private ThrillerFilm thrillerFilm;
+
+    @Before
+    public void persistFilms() {
+        Person director = new Person("Christopher", "Nolan", getCalendar(1970, Calendar.JULY, 30), new Country("UK"));
+        em.persist(director.country);
+        em.persist(director);
+
+        actionFilm = new ActionFilm("The Dark Knight", 2008, director, 152, null);
+        fantasyFilm = new FantasyFilm("The Prestige", 2006, director, 130, null);
+        thrillerFilm = new ThrillerFilm("Memento", 2000, director, 113, null);
+
+        for (Film film : Arrays.asList(actionFilm, fantasyFilm, thrillerFilm)) {
+            em.persist(film.genre);
+            em.persist(film);
+        }
+    }
+
+    @Test
+    public void allChildrenJoined() {
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<Film> root = qb.getRoot(Film.class);
+        qb.from(root);
+
+        Query<Film> query = qb.build(root);
+        assertJoinedTables(query, "action_films", "fantasy_films", "thriller_films");
+        assertEquals(new HashSet<>(Arrays.asList(actionFilm, fantasyFilm, thrillerFilm)), new HashSet<>(query.getResults()));
+    }
+
+    @Test
+    public void discriminatorPredicatePrunesSiblings() {
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<Film> root = qb.getRoot(Film.class);
+        qb.from(root).where(root.eq(Film_.genre, new Genre("Action")).and(root.gt(Film_.year, 2000)));
+
+        Query<Film> query = qb.build(root);
+        assertJoinedTables(query, "action_films");
+        assertNotJoinedTables(query, "fantasy_films", "thriller_films");
+        assertEquals(Collections.singletonList(actionFilm), query.getResults());
+    }
+
+    @Test
+    public void disjunctionNotPruned() {
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<Film> root = qb.getRoot(Film.class);
+        qb.from(root).where(root.eq(Film_.genre, new Genre("Action")).or(root.eq(Film_.year, 2000)));
+
+        Query<Film> query = qb.build(root);
+        assertJoinedTables(query, "action_films", "fantasy_films", "thriller_films");
+        assertEquals(new HashSet<>(Arrays.asList(actionFilm, thrillerFilm)), new HashSet<>(query.getResults()));
+    }
+
+    @Test
+    public void treatAs() {
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<ActionFilm> root = qb.getRoot(Film.class).treatAs(ActionFilm.class);
+        qb.from(root).where(root.gt(ActionFilm_.length, 120));
+
+        Query<Film> query = qb.build(root);
+        assertJoinedTables(query, "action_films", "films");
+        assertNotJoinedTables(query, "fantasy_films", "thriller_films");
+
+        List<Film> results = query.getResults();
+        assertEquals(Collections.singletonList(actionFilm), results);
+    }
+
+    @Test(expected = QueryException.class)
+    public void treatAsNotSubclass() {
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<ActionFilm> root = qb.getRoot(ActionFilm.class);
+
+        //noinspection unchecked
+        root.treatAs((Class) FantasyFilm.class);
+    }
+
+    @Test
+    public void twoPhaseLoading() {
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<Film> root = qb.getRoot(Film.class);
+        qb.from(root).where(root.gt(Film_.year, 2000));
+
+        Query<Film> query = qb.build(root).setTwoPhaseLoading(true);
+        List<Film> results = query.getResults();
+
+        assertEquals(2, results.size());
+        assertEquals(new HashSet<>(Arrays.asList(actionFilm, fantasyFilm)), new HashSet<>(results));
+
+        // The loading plans are reused by the following executions
+        assertEquals(results, query.getResults());
+    }
+
+    @Test
+    public void twoPhaseLoadingWithChunks() {
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<Film> root = qb.getRoot(Film.class);
+        qb.from(root);
+
+        Query<Film> query = qb.build(root).setTwoPhaseLoading(true).setChunkSize(2);
+        List<Film> results = query.getResults();
+
+        assertEquals(3, results.size());
+        assertEquals(new HashSet<>(Arrays.asList(actionFilm, fantasyFilm, thrillerFilm)), new HashSet<>(results));
+    }
+
+    private static void assertJoinedTables(Query<?> query, String... tables) {
+        for (String table : tables) {
+            assertTrue(query.toString(), query.toString().contains("\"" + table + "\""));
+        }
+    }
+
+    private static void assertNotJoinedTables(Query<?> query, String... tables) {
+        for (String table : tables) {
+            assertFalse(query.toString(), query.toString().contains("\"" + table + "\""));
+        }
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.examples.films;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import it.mscuttari.kaoldb.KaolDB;
+import it.mscuttari.kaoldb.StorageDriverType;
+import it.mscuttari.kaoldb.examples.films.models.Country;
+import it.mscuttari.kaoldb.examples.films.models.Person;
+import it.mscuttari.kaoldb.examples.films.models.Person_;
+import it.mscuttari.kaoldb.exceptions.QueryException;
+import it.mscuttari.kaoldb.interfaces.Expression;
+import it.mscuttari.kaoldb.interfaces.Query;
+import it.mscuttari.kaoldb.interfaces.QueryBuilder;
+import it.mscuttari.kaoldb.interfaces.QueryPlan;
+import it.mscuttari.kaoldb.interfaces.Root;
+import it.mscuttari.kaoldb.query.QueryPlanInspector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(ParameterizedRobolectricTestRunner.class)
+public class QueryTest extends AbstractFilmTest {
+
+    public QueryTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
+    @Test
+    public void chunkedResults() {
+        List<Person> persons = persistPersons();
+
+        // People with the same first name test the comparison of the second key column
+        Query<Person> query = buildPersonsQuery();
+        query.setChunkSize(2);
+
+        // Each row must be fetched exactly once
+        List<Person> results = query.getResults();
+        assertEquals(persons.size(), results.size());
+        assertEquals(new HashSet<>(persons), new HashSet<>(results));
+    }
+
+
+    @Test
+    public void chunkedResultsMultipleOfChunkSize() {
+        List<Person> persons = persistPersons();
+
+        Query<Person> query = buildPersonsQuery();
+        query.setChunkSize(persons.size());
+
+        assertEquals(persons.size(), query.getResults().size());
+    }
+
+
+    @Test
+    public void cursorWindowSize() {
+        List<Person> persons = persistPersons();
+
+        Query<Person> query = buildPersonsQuery();
+        query.setCursorWindowSize(64 * 1024);
+
+        List<Person> results = query.getResults();
+        assertEquals(persons.size(), results.size());
+        assertTrue(results.containsAll(persons));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeChunkSize() {
+        persistPersons();
+        buildPersonsQuery().setChunkSize(-1);
+    }
+
+
+    @Test
+    public void queryPlanUsesPrimaryKey() {
+        persistPersons();
+
+        QueryBuilder<Person> qb = em.getQueryBuilder(Person.class);
+        Root<Person> root = qb.getRoot(Person.class);
+        qb.from(root).where(root.eq(Person_.firstName, "Mario").and(root.eq(Person_.lastName, "Rossi")));
+
+        QueryPlan plan = qb.build(root).getQueryPlan();
+        assertTrue(plan.toString(), plan.usesIndex());
+        assertTrue(plan.getFullScans().isEmpty());
+    }
+
+
+    @Test
+    public void queryPlanFullScan() {
+        persistPersons();
+        KaolDB.getInstance().setFullScanThreshold(0);
+
+        try {
+            QueryPlan plan = buildPersonsQuery().getQueryPlan();
+            assertFalse(plan.usesIndex());
+            assertEquals(Collections.singletonList("people"), plan.getFullScans());
+
+        } finally {
+            KaolDB.getInstance().setFullScanThreshold(QueryPlanInspector.DEFAULT_FULL_SCAN_THRESHOLD);
+        }
+    }
+
+
+    @Test
+    public void queryPlanFullScanBelowThreshold() {
+        persistPersons();
+
+        QueryPlan plan = buildPersonsQuery().getQueryPlan();
+        assertFalse(plan.usesIndex());
+        assertTrue(plan.getFullScans().isEmpty());
+    }
+
+
+    @Test
+    public void queryPlanListenerCalledOncePerShape() {
+        persistPersons();
+
+        List<QueryPlan> plans = new ArrayList<>();
+        KaolDB.getInstance().setQueryPlanListener(plans::add);
+
+        try {
+            // Same query shape, with different literal values
+            List<String> statements = new ArrayList<>();
+
+            for (String firstName : new String[]{"Mario", "Luigi"}) {
+                QueryBuilder<Person> qb = em.getQueryBuilder(Person.class);
+                Root<Person> root = qb.getRoot(Person.class);
+                qb.from(root).where(root.eq(Person_.firstName, firstName));
+
+                Query<Person> query = qb.build(root);
+                statements.add(query.toString());
+                assertFalse(query.getResults().isEmpty());
+            }
+
+            // Loading the results may run further queries, which must be ignored
+            long count = plans.stream().filter(plan -> statements.contains(plan.getSql())).count();
+            assertEquals(1, count);
+
+        } finally {
+            KaolDB.getInstance().setQueryPlanListener(null);
+        }
+    }
+
+
+    @Test
+    public void inValues() {
+        List<Person> persons = persistPersons();
+
+        QueryBuilder<Person> qb = em.getQueryBuilder(Person.class);
+        Root<Person> root = qb.getRoot(Person.class);
+        qb.from(root).where(root.in(Person_.firstName, Arrays.asList("Luigi", "Anna", "Nobody")));
+
+        assertEquals(new HashSet<>(Arrays.asList(persons.get(2), persons.get(3))), new HashSet<>(qb.build(root).getResults()));
+    }
+
+
+    @Test
+    public void notInValues() {
+        List<Person> persons = persistPersons();
+
+        QueryBuilder<Person> qb = em.getQueryBuilder(Person.class);
+        Root<Person> root = qb.getRoot(Person.class);
+        qb.from(root).where(root.notIn(Person_.firstName, Arrays.asList("Mario", "Luigi")));
+
+        assertEquals(new HashSet<>(Arrays.asList(persons.get(3), persons.get(5))), new HashSet<>(qb.build(root).getResults()));
+    }
+
+
+    @Test
+    public void inEmptyValues() {
+        persistPersons();
+
+        QueryBuilder<Person> qb = em.getQueryBuilder(Person.class);
+        Root<Person> root = qb.getRoot(Person.class);
+        qb.from(root).where(root.in(Person_.firstName, Collections.emptyList()));
+
+        assertTrue(qb.build(root).getResults().isEmpty());
+    }
+
+
+    @Test(expected = QueryException.class)
+    public void inNullValue() {
+        QueryBuilder<Person> qb = em.getQueryBuilder(Person.class);
+        Root<Person> root = qb.getRoot(Person.class);
+        root.in(Person_.firstName, Arrays.asList("Mario", null));
+    }
+
+
+    @Test(expected = QueryException.class)
+    public void notInNullValue() {
+        QueryBuilder<Person> qb = em.getQueryBuilder(Person.class);
+        Root<Person> root = qb.getRoot(Person.class);
+        root.notIn(Person_.firstName, Arrays.asList("Mario", null));
+    }
+
+
+    @Test
+    public void inSubquery() {
+        List<Person> persons = persistPersons();
+
+        // Last names of the people named Mario
+        QueryBuilder<Person> subqueryBuilder = em.getQueryBuilder(Person.class);
+        Root<Person> subqueryRoot = subqueryBuilder.getRoot(Person.class);
+        subqueryBuilder.from(subqueryRoot).where(subqueryRoot.eq(Person_.firstName, "Mario"));
+        Query<Person> subquery = subqueryBuilder.build(subqueryRoot);
+
+        QueryBuilder<Person> qb = em.getQueryBuilder(Person.class);
+        Root<Person> root = qb.getRoot(Person.class);
+        qb.from(root).where(root.in(Person_.lastName, subquery, Person_.lastName).and(root.notIn(Person_.firstName, subquery, Person_.firstName)));
+
+        assertEquals(new HashSet<>(Arrays.asList(persons.get(3), persons.get(5))), new HashSet<>(qb.build(root).getResults()));
+    }
+
+
+    @Test
+    public void disjunctionFlattened() {
+        List<Person> persons = persistPersons();
+
+        QueryBuilder<Person> qb = em.getQueryBuilder(Person.class);
+        Root<Person> root = qb.getRoot(Person.class);
+        Expression where = root.eq(Person_.firstName, "Luigi");
+
+        for (int i = 0; i < 300; i++) {
+            where = where.or(root.eq(Person_.firstName, "Name" + i));
+        }
+
+        qb.from(root).where(where);
+        Query<Person> query = qb.build(root);
+
+        // The chain is rendered without nesting the parentheses
+        assertFalse(query.toString().contains("(("));
+        assertEquals(Collections.singletonList(persons.get(2)), query.getResults());
+    }
+
+
+    private List<Person> persistPersons() {
+        Country country = new Country("IT");
+        em.persist(country);
+
+        List<Person> persons = new ArrayList<>();
+        persons.add(new Person("Mario", "Rossi", getCalendar(1970, Calendar.JANUARY, 1), country));
+        persons.add(new Person("Mario", "Bianchi", getCalendar(1971, Calendar.FEBRUARY, 2), country));
+        persons.add(new Person("Luigi", "Verdi", getCalendar(1972, Calendar.MARCH, 3), country));
+        persons.add(new Person("Anna", "Rossi", getCalendar(1973, Calendar.APRIL, 4), country));
+        persons.add(new Person("Mario", "Neri", getCalendar(1974, Calendar.MAY, 5), country));
+        persons.add(new Person("Giulia", "Bianchi", getCalendar(1975, Calendar.JUNE, 6), country));
+
+        for (Person person : persons) {
+            em.persist(person);
+        }
+
+        return persons;
+    }
+
+
+    private Query<Person> buildPersonsQuery() {
+        QueryBuilder<Person> qb = em.getQueryBuilder(Person.class);
+        Root<Person> root = qb.getRoot(Person.class);
+        qb.from(root);
+        return qb.build(root);
+    }
+
+}
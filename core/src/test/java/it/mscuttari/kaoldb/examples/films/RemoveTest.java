@@ -17,9 +17,12 @@
 package it.mscuttari.kaoldb.examples.films;
 
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
 
 import java.util.Calendar;
 
+import it.mscuttari.kaoldb.StorageDriverType;
 import it.mscuttari.kaoldb.examples.films.models.Country;
 import it.mscuttari.kaoldb.examples.films.models.Person;
 import it.mscuttari.kaoldb.examples.films.models.Person_;
@@ -28,8 +31,13 @@ import it.mscuttari.kaoldb.interfaces.Root;
 
 import static org.junit.Assert.assertNull;
 
+@RunWith(ParameterizedRobolectricTestRunner.class)
 public class RemoveTest extends AbstractFilmTest {
 
+    public RemoveTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
     @Test
     public void removePerson() {
         Person person = new Person("Robert", "Downey Jr.", getCalendar(1965, Calendar.APRIL, 4), new Country("USA"));
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.examples.films;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import it.mscuttari.kaoldb.KaolDB;
+import it.mscuttari.kaoldb.SlowOperationLog;
+import it.mscuttari.kaoldb.examples.films.models.Country;
+import it.mscuttari.kaoldb.interfaces.SlowOperation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SlowOperationsTest extends AbstractFilmTest {
+
+    @After
+    public void disableLog() {
+        for (SlowOperation.Type type : SlowOperation.Type.values()) {
+            KaolDB.getInstance().setSlowOperationThreshold(type, 0);
+        }
+
+        KaolDB.getInstance().clearSlowOperations();
+    }
+
+    @Test
+    public void slowInsert() {
+        // Any operation is slow enough
+        SlowOperationLog.setThreshold(SlowOperation.Type.INSERT, 1, TimeUnit.NANOSECONDS);
+        em.persist(new Country("IT"));
+
+        List<SlowOperation> entries = KaolDB.getInstance().getSlowOperations();
+        assertEquals(1, entries.size());
+
+        SlowOperation entry = entries.get(0);
+        assertEquals(SlowOperation.Type.INSERT, entry.getType());
+        assertEquals("films", entry.getDatabase());
+        assertEquals("countries", entry.getShape());
+        assertEquals(1, entry.getArgumentsCount());
+        assertEquals(1, entry.getRows());
+        assertTrue(entry.isMainThread());
+    }
+
+    @Test
+    public void slowQuery() {
+        em.persist(new Country("IT"));
+        em.persist(new Country("UK"));
+
+        SlowOperationLog.setThreshold(SlowOperation.Type.QUERY, 1, TimeUnit.NANOSECONDS);
+        em.getAll(Country.class);
+
+        List<SlowOperation> entries = KaolDB.getInstance().getSlowOperations();
+        assertEquals(1, entries.size());
+        assertEquals(SlowOperation.Type.QUERY, entries.get(0).getType());
+        assertEquals(2, entries.get(0).getRows());
+    }
+
+    @Test
+    public void fastOperationsNotLogged() {
+        KaolDB.getInstance().setSlowOperationThreshold(SlowOperation.Type.TRANSACTION, TimeUnit.MINUTES.toMillis(1));
+        em.persist(new Country("IT"));
+
+        assertTrue(KaolDB.getInstance().getSlowOperations().isEmpty());
+    }
+
+}
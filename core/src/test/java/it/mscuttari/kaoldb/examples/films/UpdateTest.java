@@ -17,9 +17,12 @@
 package it.mscuttari.kaoldb.examples.films;
 
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
 
 import java.util.Calendar;
 
+import it.mscuttari.kaoldb.StorageDriverType;
 import it.mscuttari.kaoldb.examples.films.models.Country;
 import it.mscuttari.kaoldb.examples.films.models.FantasyFilm;
 import it.mscuttari.kaoldb.examples.films.models.Film;
@@ -34,8 +37,13 @@ import it.mscuttari.kaoldb.interfaces.Root;
 
 import static org.junit.Assert.assertEquals;
 
+@RunWith(ParameterizedRobolectricTestRunner.class)
 public class UpdateTest extends AbstractFilmTest {
 
+    public UpdateTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
     @Test
     public void updatePerson() {
         Person person = new Person("Robert", "Downey Jr.", getCalendar(1965, Calendar.APRIL, 4), new Country("USA"));
@@ -74,6 +82,33 @@ public class UpdateTest extends AbstractFilmTest {
         assertEquals(film, result);
     }
 
+    @Test
+    public void updateOnlyChangedColumns() {
+        FantasyFilm film = new FantasyFilm("Test", 2020, null, 160, null);
+
+        em.persist(film.genre);
+        em.persist(film);
+
+        QueryBuilder<Film> qb = em.getQueryBuilder(Film.class);
+        Root<Film> root = qb.getRoot(Film.class);
+        Query<Film> query = qb.from(root).where(root.eq(Film_.title, "Test")).build(root);
+
+        // Two different instances of the same film
+        Film first = query.getSingleResult();
+        Film second = query.getSingleResult();
+
+        first.length = 170;
+        em.update(first);
+
+        // The length must not be overwritten with the stale value of the second instance
+        second.restriction = FilmRestriction.MIN14;
+        em.update(second);
+
+        Film result = query.getSingleResult();
+        assertEquals(Integer.valueOf(170), result.length);
+        assertEquals(FilmRestriction.MIN14, result.restriction);
+    }
+
     @Test
     public void changeFilm() {
         Film film = new FantasyFilm("Test", 2020, null, 160, null);
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.mapping;
+
+import android.content.ContentValues;
+import android.database.MatrixCursor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.annotations.Column;
+import it.mscuttari.kaoldb.annotations.Entity;
+import it.mscuttari.kaoldb.annotations.Id;
+import it.mscuttari.kaoldb.annotations.Table;
+import it.mscuttari.kaoldb.exceptions.PojoException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GeneratedAccessorTest extends AbstractTest {
+
+    // Two nested entities with the same simple name, in the same package
+
+    public static class First {
+
+        @Entity
+        @Table(name = "first_items")
+        public static class Item {
+
+            @Id
+            @Column(name = "id")
+            public Integer id;
+
+            @Column(name = "quantity")
+            public int quantity;
+
+            @Column(name = "price")
+            public double price;
+
+        }
+
+    }
+
+    public static class Second {
+
+        @Entity
+        @Table(name = "second_items")
+        public static class Item {
+
+            @Id
+            @Column(name = "id")
+            public Integer id;
+
+        }
+
+    }
+
+    private DatabaseObject db;
+
+    @Before
+    public void setUp() {
+        db = new DatabaseObject();
+        db.setName("Test");
+        db.setVersion(1);
+
+        db.addEntityClass(First.Item.class);
+        db.addEntityClass(Second.Item.class);
+
+        db.mapEntities();
+        db.waitUntilReady();
+    }
+
+    @Test
+    public void accessorsOfNestedClasses() {
+        assertTrue(db.getEntity(First.Item.class).getAccessor() instanceof GeneratedAccessorTest_First_Item_Accessor);
+        assertTrue(db.getEntity(Second.Item.class).getAccessor() instanceof GeneratedAccessorTest_Second_Item_Accessor);
+    }
+
+    @Test
+    public void fieldsAccessedThroughAccessor() {
+        EntityObject<First.Item> entity = db.getEntity(First.Item.class);
+        BaseColumnObject column = entity.columns.get("quantity");
+
+        First.Item item = entity.newInstance();
+        column.setValue(item, 5);
+        assertEquals(5, item.quantity);
+        assertEquals(5, column.getValue(item));
+    }
+
+    @Test
+    public void primitiveSetters() {
+        GeneratedAccessorTest_First_Item_Accessor accessor = new GeneratedAccessorTest_First_Item_Accessor();
+        First.Item item = new First.Item();
+
+        accessor.setInt(item, accessor.getFieldIndex("quantity"), 7);
+        accessor.setDouble(item, accessor.getFieldIndex("price"), 2.5);
+
+        assertEquals(7, item.quantity);
+        assertEquals(2.5, item.price, 0);
+    }
+
+    @Test
+    public void primitiveFieldsHydratedThroughAccessor() {
+        EntityObject<First.Item> entity = db.getEntity(First.Item.class);
+
+        MatrixCursor c = new MatrixCursor(new String[] {"i.id", "i.quantity", "i.price"});
+        c.addRow(new Object[] {1, 3, 2.5});
+        c.moveToFirst();
+
+        First.Item item = new HydrationPlan<>(entity, c, "i").hydrate(c);
+        assertEquals(1, (int) item.id);
+        assertEquals(3, item.quantity);
+        assertEquals(2.5, item.price, 0);
+
+        // The unboxed values are kept in the snapshot
+        assertEquals(0, entity.getChangedContentValues(item, null).size());
+
+        item.quantity = 4;
+        ContentValues cv = entity.getChangedContentValues(item, null);
+        assertEquals(1, cv.size());
+        assertEquals(4, cv.get("quantity"));
+    }
+
+    @Test(expected = PojoException.class)
+    public void nullIntoPrimitiveField() {
+        GeneratedAccessorTest_First_Item_Accessor accessor = new GeneratedAccessorTest_First_Item_Accessor();
+        accessor.setValue(new First.Item(), accessor.getFieldIndex("quantity"), null);
+    }
+
+}
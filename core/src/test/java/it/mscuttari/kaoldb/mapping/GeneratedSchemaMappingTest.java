@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.mapping;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.examples.films.models.ActionFilm;
+import it.mscuttari.kaoldb.examples.films.models.Country;
+import it.mscuttari.kaoldb.examples.films.models.FantasyFilm;
+import it.mscuttari.kaoldb.examples.films.models.Film;
+import it.mscuttari.kaoldb.examples.films.models.Genre;
+import it.mscuttari.kaoldb.examples.films.models.Person;
+import it.mscuttari.kaoldb.examples.films.models.ThrillerFilm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GeneratedSchemaMappingTest extends AbstractTest {
+
+    private static final List<Class<?>> classes = Arrays.asList(
+            ActionFilm.class,
+            Country.class,
+            FantasyFilm.class,
+            Film.class,
+            Genre.class,
+            Person.class,
+            ThrillerFilm.class
+    );
+
+    private DatabaseObject generated;
+    private DatabaseObject reflection;
+
+    @Before
+    public void setUp() {
+        generated = createDatabase("Generated", true);
+        reflection = createDatabase("Reflection", false);
+    }
+
+    private static DatabaseObject createDatabase(String name, boolean generatedSchemas) {
+        DatabaseObject db = new DatabaseObject();
+        db.setName(name);
+        db.setVersion(1);
+        db.setGeneratedSchemasEnabled(generatedSchemas);
+
+        for (Class<?> clazz : classes) {
+            db.addEntityClass(clazz);
+        }
+
+        db.mapEntities();
+        db.waitUntilReady();
+
+        return db;
+    }
+
+    @Test
+    public void generatedSchemasLoaded() {
+        assertNotNull(generated.getEntity(Film.class).getSchema());
+        assertNull(reflection.getEntity(Film.class).getSchema());
+    }
+
+    @Test
+    public void mappedSynchronously() {
+        DatabaseObject db = new DatabaseObject();
+        db.setName("Synchronous");
+        db.setVersion(1);
+
+        for (Class<?> clazz : classes) {
+            db.addEntityClass(clazz);
+        }
+
+        // The whole schema is mapped by the calling thread on first use
+        db.getEntity(Film.class);
+        assertTrue(db.isMapped());
+        assertTrue(db.isReady());
+    }
+
+    @Test
+    public void sameEntities() {
+        for (Class<?> clazz : classes) {
+            EntityObject<?> expected = reflection.getEntity(clazz);
+            EntityObject<?> actual = generated.getEntity(clazz);
+
+            String message = clazz.getSimpleName();
+
+            assertEquals(message, expected.tableName, actual.tableName);
+            assertEquals(message, expected.hasOwnTable(), actual.hasOwnTable());
+            assertEquals(message, getClassName(expected.getParent()), getClassName(actual.getParent()));
+            assertEquals(message, getClassNames(expected.children), getClassNames(actual.children));
+            assertEquals(message, expected.discriminatorValue, actual.discriminatorValue);
+            assertEquals(message, getName(expected.discriminatorColumn), getName(actual.discriminatorColumn));
+            assertEquals(message, getColumns(expected.columns), getColumns(actual.columns));
+            assertEquals(message, getNames(expected.columns.getPrimaryKeys()), getNames(actual.columns.getPrimaryKeys()));
+            assertEquals(message, getJoinTablesSQL(expected), getJoinTablesSQL(actual));
+        }
+    }
+
+    private static String getClassName(EntityObject<?> entity) {
+        return entity == null ? null : entity.clazz.getName();
+    }
+
+    private static Set<String> getClassNames(Iterable<? extends EntityObject<?>> entities) {
+        Set<String> result = new TreeSet<>();
+
+        for (EntityObject<?> entity : entities) {
+            result.add(entity.clazz.getName());
+        }
+
+        return result;
+    }
+
+    private static String getName(BaseColumnObject column) {
+        return column == null ? null : column.name;
+    }
+
+    private static Set<String> getNames(Iterable<? extends BaseColumnObject> columns) {
+        Set<String> result = new TreeSet<>();
+
+        for (BaseColumnObject column : columns) {
+            result.add(column.name);
+        }
+
+        return result;
+    }
+
+    private static Map<String, String> getColumns(Columns columns) {
+        Map<String, String> result = new TreeMap<>();
+
+        for (BaseColumnObject column : columns) {
+            result.put(column.name,
+                    "type: " + column.type.getName() + ", " +
+                    "definition: " + column.customColumnDefinition + ", " +
+                    "nullable: " + column.nullable + ", " +
+                    "primary key: " + column.primaryKey + ", " +
+                    "unique: " + column.unique + ", " +
+                    "default: " + column.defaultValue);
+        }
+
+        return result;
+    }
+
+    private static List<String> getJoinTablesSQL(EntityObject<?> entity) {
+        List<String> result = new ArrayList<>();
+
+        for (JoinTableObject joinTable : entity.getJoinTables()) {
+            joinTable.map();
+            joinTable.waitUntilMapped();
+
+            result.add(joinTable.getSQL());
+            result.addAll(joinTable.getIndexesSQL());
+        }
+
+        return result;
+    }
+
+}
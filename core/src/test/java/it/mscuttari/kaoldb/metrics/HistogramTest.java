@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import it.mscuttari.kaoldb.AbstractTest;
+
+import static org.junit.Assert.assertEquals;
+
+public class HistogramTest extends AbstractTest {
+
+    private Histogram histogram;
+
+    @Before
+    public void setUp() {
+        histogram = new Histogram();
+    }
+
+    @Test
+    public void empty() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean(), 0);
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(10, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(10, histogram.getMax());
+        assertEquals(5.5, histogram.getMean(), 0);
+        assertEquals(5, histogram.getPercentile(50));
+        assertEquals(9, histogram.getPercentile(90));
+        assertEquals(10, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void percentilesRelativeError() {
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            double expected = percentile * 1000 * 1000;
+            double error = Math.abs(histogram.getPercentile(percentile) - expected) / expected;
+            assertEquals("p" + percentile, 0, error, 1.0 / 16);
+        }
+    }
+
+    @Test
+    public void percentileLimitedToMax() {
+        histogram.record(1000);
+        assertEquals(1000, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void hugeValues() {
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(50));
+    }
+
+    @Test
+    public void reset() {
+        histogram.record(10);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidPercentile() {
+        histogram.getPercentile(101);
+    }
+
+}
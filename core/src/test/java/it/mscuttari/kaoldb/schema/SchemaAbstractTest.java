@@ -17,52 +17,68 @@
 package it.mscuttari.kaoldb.schema;
 
 import android.content.Context;
-import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 
 import androidx.test.core.app.ApplicationProvider;
 
 import org.junit.After;
 import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+
+import java.util.Collection;
 
 import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.StorageDriverType;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+import it.mscuttari.kaoldb.interfaces.StorageDriver;
 
+@RunWith(ParameterizedRobolectricTestRunner.class)
 public abstract class SchemaAbstractTest extends AbstractTest {
 
     protected static final String DB_NAME = "db_actions_test";
-    protected SQLiteDatabase db;
+
+    private final StorageDriverType driverType;
+    private StorageDriver driver;
+
+    /** Connection to be used to run the schema actions */
+    protected StorageConnection connection;
+
+    /**
+     * Constructor.
+     *
+     * @param driverType    driver the database is accessed through
+     */
+    public SchemaAbstractTest(StorageDriverType driverType) {
+        this.driverType = driverType;
+    }
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "{0}")
+    public static Collection<Object[]> drivers() {
+        return StorageDriverType.parameters();
+    }
 
     /**
      * Called when the database has to be created and populated.
      *
-     * @param db    writable database
+     * @param db    connection to the database
      */
-    protected abstract void createDb(SQLiteDatabase db);
+    protected abstract void createDb(StorageConnection db);
 
     /**
-     * Create the database and get a writable instance.
+     * Create the database and open a connection to it.
      */
     @Before
     public final void setUp() {
         Context context = ApplicationProvider.getApplicationContext();
+        driver = driverType.create(context);
+        connection = driver.open(DB_NAME);
 
-        SQLiteOpenHelper dbHelper = new SQLiteOpenHelper(context, DB_NAME, null, 1) {
-            @Override
-            public void onCreate(SQLiteDatabase db) {
-                db.beginTransaction();
-                createDb(db);
-                db.setTransactionSuccessful();
-                db.endTransaction();
-            }
-
-            @Override
-            public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        connection.beginTransaction();
+        createDb(connection);
+        connection.setTransactionSuccessful();
+        connection.endTransaction();
 
-            }
-        };
-
-        db = dbHelper.getWritableDatabase();
-        db.beginTransaction();
+        connection.beginTransaction();
     }
 
     /**
@@ -70,15 +86,13 @@ public abstract class SchemaAbstractTest extends AbstractTest {
      */
     @After
     public final void tearDown() {
-        db.setTransactionSuccessful();
-        db.endTransaction();
-
-        if (db != null && db.isOpen()) {
-            db.close();
+        if (connection != null && connection.isOpen()) {
+            connection.setTransactionSuccessful();
+            connection.endTransaction();
+            connection.close();
         }
 
-        Context context = ApplicationProvider.getApplicationContext();
-        context.deleteDatabase(DB_NAME);
+        driver.delete(DB_NAME);
     }
 
 }
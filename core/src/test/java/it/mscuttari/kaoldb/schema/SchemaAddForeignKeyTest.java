@@ -16,14 +16,19 @@
 
 package it.mscuttari.kaoldb.schema;
 
-import android.database.sqlite.SQLiteDatabase;
-
 import org.junit.Test;
 
+import it.mscuttari.kaoldb.StorageDriverType;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+
 public class SchemaAddForeignKeyTest extends SchemaAbstractTest {
 
+    public SchemaAddForeignKeyTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
     @Override
-    protected void createDb(SQLiteDatabase db) {
+    protected void createDb(StorageConnection db) {
         db.execSQL("CREATE TABLE table_0 (id INTEGER PRIMARY KEY, col_1 INTEGER)");
 
         db.execSQL("CREATE TABLE table_1 (" +
@@ -16,14 +16,14 @@
 
 package it.mscuttari.kaoldb.schema;
 
-import android.database.sqlite.SQLiteDatabase;
-
 import org.junit.Test;
 
 import java.util.List;
 
+import it.mscuttari.kaoldb.StorageDriverType;
 import it.mscuttari.kaoldb.dump.TableDumpImpl;
 import it.mscuttari.kaoldb.interfaces.RowDump;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 import it.mscuttari.kaoldb.interfaces.TableDump;
 
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTableColumns;
@@ -33,8 +33,12 @@ import static org.junit.Assert.assertTrue;
 
 public class SchemaAddPrimaryColumnTest extends SchemaAbstractTest {
 
+    public SchemaAddPrimaryColumnTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
     @Override
-    protected void createDb(SQLiteDatabase db) {
+    protected void createDb(StorageConnection db) {
         db.execSQL("CREATE TABLE table_1(" +
                 "id INTEGER PRIMARY KEY," +
                 "col_1 INTEGER NOT NULL DEFAULT '1'," +
@@ -47,19 +51,19 @@ public class SchemaAddPrimaryColumnTest extends SchemaAbstractTest {
     @Test
     public void add() {
         // Check that the column doesn't exist
-        assertTrue(getTableColumns(db, "table_1").stream().noneMatch(c -> c.name.equals("col_add_1")));
+        assertTrue(getTableColumns(connection, "table_1").stream().noneMatch(c -> c.name.equals("col_add_1")));
 
-        new SchemaAddColumn("table_1", "col_add_1", String.class, null, true, true, false).run(db);
+        new SchemaAddColumn("table_1", "col_add_1", String.class, null, true, true, false).run(connection);
 
         // Check that the column now exists
-        assertTrue(getTableColumns(db, "table_1").stream().anyMatch(c -> c.name.equals("col_add_1")));
+        assertTrue(getTableColumns(connection, "table_1").stream().anyMatch(c -> c.name.equals("col_add_1")));
     }
 
     @Test
     public void dataPersistence() {
-        new SchemaAddColumn("table_1", "col_add_1", String.class, null, true, true, false).run(db);
+        new SchemaAddColumn("table_1", "col_add_1", String.class, null, true, true, false).run(connection);
 
-        TableDump tableDump = new TableDumpImpl(db, "table_1");
+        TableDump tableDump = new TableDumpImpl(connection, "table_1");
         List<RowDump> tableRows = tableDump.getRows();
 
         assertEquals(1, (long) tableRows.get(0).getColumnValue("id"));
@@ -73,9 +77,9 @@ public class SchemaAddPrimaryColumnTest extends SchemaAbstractTest {
 
     @Test
     public void defaultValue() {
-        new SchemaAddColumn("table_1", "col_add_1", String.class, "Default", true, false, false).run(db);
+        new SchemaAddColumn("table_1", "col_add_1", String.class, "Default", true, false, false).run(connection);
 
-        TableDump tableDump = new TableDumpImpl(db, "table_1");
+        TableDump tableDump = new TableDumpImpl(connection, "table_1");
         List<RowDump> tableRows = tableDump.getRows();
 
         // Check that the already existing rows get the default value in the new column
@@ -85,7 +89,7 @@ public class SchemaAddPrimaryColumnTest extends SchemaAbstractTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void emptyTable() {
-        new SchemaAddColumn("", "col_add_1", String.class, null, true, false, false).run(db);
+        new SchemaAddColumn("", "col_add_1", String.class, null, true, false, false).run(connection);
     }
 
 }
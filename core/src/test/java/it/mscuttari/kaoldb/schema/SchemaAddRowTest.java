@@ -17,19 +17,24 @@
 package it.mscuttari.kaoldb.schema;
 
 import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
 
 import org.junit.Test;
 
+import it.mscuttari.kaoldb.StorageDriverType;
 import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 public class SchemaAddRowTest extends SchemaAbstractTest {
 
+    public SchemaAddRowTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
     @Override
-    protected void createDb(SQLiteDatabase db) {
+    protected void createDb(StorageConnection db) {
         db.execSQL("CREATE TABLE table_1(" +
                 "id INTEGER PRIMARY KEY," +
                 "col_1 INTEGER NOT NULL DEFAULT '1'," +
@@ -38,7 +43,7 @@ public class SchemaAddRowTest extends SchemaAbstractTest {
 
     @Test
     public void addRow() {
-        try (Cursor c = db.query("table_1", null, null, null, null, null, null)) {
+        try (Cursor c = connection.rawQuery("SELECT * FROM table_1", null)) {
             assertEquals(0, c.getCount());
         }
 
@@ -46,9 +51,9 @@ public class SchemaAddRowTest extends SchemaAbstractTest {
                 new String[] {"id", "col_1", "col_2"},
                 new Object[] {1, "test", null});
 
-        action.run(db);
+        action.run(connection);
 
-        try (Cursor c = db.query("table_1", null, null, null, null, null, null)) {
+        try (Cursor c = connection.rawQuery("SELECT * FROM table_1", null)) {
             assertEquals(1, c.getCount());
 
             c.moveToFirst();
@@ -60,17 +65,17 @@ public class SchemaAddRowTest extends SchemaAbstractTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void emptyTable() {
-        new SchemaAddRow("", new String[]{"id", "col_1"}, new Object[] {1, "test"}).run(db);
+        new SchemaAddRow("", new String[]{"id", "col_1"}, new Object[] {1, "test"}).run(connection);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void nullColumn() {
-        new SchemaAddRow("", new String[]{null, "col_1"}, new Object[] {1, "test"}).run(db);
+        new SchemaAddRow("", new String[]{null, "col_1"}, new Object[] {1, "test"}).run(connection);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void emptyColumn() {
-        new SchemaAddRow("", new String[]{"id", ""}, new Object[] {1, "test"}).run(db);
+        new SchemaAddRow("", new String[]{"id", ""}, new Object[] {1, "test"}).run(connection);
     }
 
 }
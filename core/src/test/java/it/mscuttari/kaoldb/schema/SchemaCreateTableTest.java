@@ -16,13 +16,14 @@
 
 package it.mscuttari.kaoldb.schema;
 
-import android.database.sqlite.SQLiteDatabase;
-
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Collection;
 
+import it.mscuttari.kaoldb.StorageDriverType;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTables;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
@@ -31,34 +32,38 @@ import static org.junit.Assert.assertTrue;
 
 public class SchemaCreateTableTest extends SchemaAbstractTest {
 
+    public SchemaCreateTableTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
     @Override
-    protected void createDb(SQLiteDatabase db) {
+    protected void createDb(StorageConnection db) {
         // No need to create any table
     }
 
     @Test
     public void createTable() {
-        assertThat(getTables(db), not(hasItem("table_new_1")));
+        assertThat(getTables(connection), not(hasItem("table_new_1")));
 
         Collection<Column> columns = new ArrayList<>();
         columns.add(new Column("id", Integer.class, null, true, false, false));
-        new SchemaCreateTable("table_1", columns, null).run(db);
+        new SchemaCreateTable("table_1", columns, null).run(connection);
 
-        assertTrue(getTables(db).contains("table_1"));
+        assertTrue(getTables(connection).contains("table_1"));
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void createTable_emptyTable() {
         Collection<Column> columns = new ArrayList<>();
         columns.add(new Column("id", Integer.class, null, true, false, false));
-        new SchemaCreateTable("", columns, null).run(db);
+        new SchemaCreateTable("", columns, null).run(connection);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void createTable_noPrimaryKey() {
         Collection<Column> columns = new ArrayList<>();
         columns.add(new Column("id", Integer.class, null, false, false, false));
-        new SchemaCreateTable("table_1", columns, null).run(db);
+        new SchemaCreateTable("table_1", columns, null).run(connection);
     }
 
 }
@@ -17,13 +17,18 @@
 package it.mscuttari.kaoldb.schema;
 
 import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
+import it.mscuttari.kaoldb.StorageDriverType;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTableColumns;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -31,8 +36,12 @@ import static org.junit.Assert.assertTrue;
 
 public class SchemaDeleteColumnTest extends SchemaAbstractTest {
 
+    public SchemaDeleteColumnTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
     @Override
-    protected void createDb(SQLiteDatabase db) {
+    protected void createDb(StorageConnection db) {
         db.execSQL("CREATE TABLE table_1(" +
                 "id INTEGER PRIMARY KEY," +
                 "col_1 INTEGER NOT NULL DEFAULT '1'," +
@@ -44,34 +53,47 @@ public class SchemaDeleteColumnTest extends SchemaAbstractTest {
 
     @Test
     public void deleteColumn() {
-        Collection<String> before = getTableColumns(db, "table_1").stream().map(column -> column.name).collect(Collectors.toList());
+        Collection<String> before = getTableColumns(connection, "table_1").stream().map(column -> column.name).collect(Collectors.toList());
         assertTrue(before.contains("col_1"));
 
         // Delete the column
-        new SchemaDeleteColumn("table_1", "col_1").run(db);
+        new SchemaDeleteColumn("table_1", "col_1").run(connection);
 
         // Check that the column has been deleted
-        Collection<String> after = getTableColumns(db, "table_1").stream().map(column -> column.name).collect(Collectors.toList());
+        Collection<String> after = getTableColumns(connection, "table_1").stream().map(column -> column.name).collect(Collectors.toList());
         assertFalse(after.contains("col_1"));
     }
 
     @Test
     public void dataPersistence() {
-        new SchemaDeleteColumn("table_1", "col_1").run(db);
+        new SchemaDeleteColumn("table_1", "col_1").run(connection);
 
-        try (Cursor c = db.query("table_1", null, "id = ?", new String[]{"1"}, null, null, null)) {
+        try (Cursor c = connection.rawQuery("SELECT * FROM table_1 WHERE id = ?", new String[]{"1"})) {
             c.moveToFirst();
             assertEquals(1, c.getInt(c.getColumnIndex("id")));
             assertEquals("Test1", c.getString(c.getColumnIndex("col_2")));
         }
 
-        try (Cursor c = db.query("table_1", null, "id = ?", new String[]{"2"}, null, null, null)) {
+        try (Cursor c = connection.rawQuery("SELECT * FROM table_1 WHERE id = ?", new String[]{"2"})) {
             c.moveToFirst();
             assertEquals(2, c.getInt(c.getColumnIndex("id")));
             assertTrue(c.isNull(c.getColumnIndex("col_2")));
         }
     }
 
+    @Test
+    public void indexesPersistence() {
+        connection.execSQL("CREATE INDEX index_1 ON table_1 (col_1)");
+        connection.execSQL("CREATE INDEX index_2 ON table_1 (col_2, id)");
+        connection.execSQL("CREATE INDEX index_3 ON table_1 (col_2) WHERE col_1 > 0");
+
+        new SchemaDeleteColumn("table_1", "col_1").run(connection);
+
+        assertTrue(getIndexColumns("index_1").isEmpty());
+        assertEquals(Arrays.asList("col_2", "id"), getIndexColumns("index_2"));
+        assertTrue(getIndexColumns("index_3").isEmpty());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void emptyTable() {
         new SchemaDeleteColumn("", "col_1");
@@ -82,4 +104,22 @@ public class SchemaDeleteColumnTest extends SchemaAbstractTest {
         new SchemaDeleteColumn("table_1", "");
     }
 
+    /**
+     * Get the columns of an index.
+     *
+     * @param index     index name
+     * @return indexed columns, in order
+     */
+    private List<String> getIndexColumns(String index) {
+        List<String> result = new ArrayList<>();
+
+        try (Cursor c = connection.rawQuery("PRAGMA index_info(\"" + index + "\")", null)) {
+            while (c.moveToNext()) {
+                result.add(c.getString(c.getColumnIndex("name")));
+            }
+        }
+
+        return result;
+    }
+
 }
@@ -16,10 +16,11 @@
 
 package it.mscuttari.kaoldb.schema;
 
-import android.database.sqlite.SQLiteDatabase;
-
 import org.junit.Test;
 
+import it.mscuttari.kaoldb.StorageDriverType;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTables;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
@@ -27,21 +28,25 @@ import static org.hamcrest.junit.MatcherAssert.assertThat;
 
 public class SchemaDeleteTableTest extends SchemaAbstractTest {
 
+    public SchemaDeleteTableTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
     @Override
-    protected void createDb(SQLiteDatabase db) {
+    protected void createDb(StorageConnection db) {
         db.execSQL("CREATE TABLE table_1(id INTEGER PRIMARY KEY)");
     }
 
     @Test
     public void delete() {
-        assertThat(getTables(db), hasItem("table_1"));
-        new SchemaDeleteTable("table_1").run(db);
-        assertThat(getTables(db), not(hasItem("table_1")));
+        assertThat(getTables(connection), hasItem("table_1"));
+        new SchemaDeleteTable("table_1").run(connection);
+        assertThat(getTables(connection), not(hasItem("table_1")));
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void emptyTable() {
-        new SchemaDeleteTable("").run(db);
+        new SchemaDeleteTable("").run(connection);
     }
 
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.schema;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteConstraintException;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import it.mscuttari.kaoldb.StorageDriverType;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.junit.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class SchemaIndexTest extends SchemaAbstractTest {
+
+    public SchemaIndexTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
+    @Override
+    protected void createDb(StorageConnection db) {
+        db.execSQL("CREATE TABLE table_1 (" +
+                "col_1 INTEGER PRIMARY KEY, " +
+                "col_2 REAL, " +
+                "col_3 TEXT)");
+
+        db.execSQL("INSERT INTO table_1 (col_1, col_2, col_3) VALUES (1, 2.3, 'Test')");
+    }
+
+    @Test
+    public void addIndex() {
+        new SchemaAddIndex("index_1", "table_1", "col_2", "col_3").run(connection);
+        assertThat(getIndexes(), hasItem("index_1"));
+
+        List<String> columns = new ArrayList<>();
+
+        try (Cursor c = connection.rawQuery("PRAGMA index_info(\"index_1\")", null)) {
+            while (c.moveToNext()) {
+                columns.add(c.getString(c.getColumnIndex("name")));
+            }
+        }
+
+        assertEquals(Arrays.asList("col_2", "col_3"), columns);
+    }
+
+    @Test(expected = SQLiteConstraintException.class)
+    public void addUniqueIndex() {
+        new SchemaAddIndex("index_1", "table_1", Collections.singletonList("col_3"), true, null).run(connection);
+        connection.execSQL("INSERT INTO table_1 (col_1, col_2, col_3) VALUES (2, 4.5, 'Test')");
+    }
+
+    @Test
+    public void deleteIndex() {
+        new SchemaAddIndex("index_1", "table_1", "col_2").run(connection);
+        new SchemaDeleteIndex("index_1").run(connection);
+
+        assertThat(getIndexes(), not(hasItem("index_1")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addIndex_emptyName() {
+        new SchemaAddIndex("", "table_1", "col_2").run(connection);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addIndex_noColumns() {
+        new SchemaAddIndex("index_1", "table_1").run(connection);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void deleteIndex_emptyName() {
+        new SchemaDeleteIndex("").run(connection);
+    }
+
+    /**
+     * Get the names of the indexes of the database.
+     *
+     * @return index names
+     */
+    private List<String> getIndexes() {
+        List<String> result = new ArrayList<>();
+
+        try (Cursor c = connection.rawQuery("SELECT name FROM sqlite_master WHERE type = 'index'", null)) {
+            while (c.moveToNext()) {
+                result.add(c.getString(0));
+            }
+        }
+
+        return result;
+    }
+
+}
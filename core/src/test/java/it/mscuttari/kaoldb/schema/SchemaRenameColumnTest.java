@@ -17,13 +17,19 @@
 package it.mscuttari.kaoldb.schema;
 
 import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Collectors;
 
+import it.mscuttari.kaoldb.StorageDriverType;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTableColumns;
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTableForeignKeys;
 import static org.hamcrest.Matchers.hasItem;
@@ -34,8 +40,12 @@ import static org.junit.Assert.assertTrue;
 
 public class SchemaRenameColumnTest extends SchemaAbstractTest {
 
+    public SchemaRenameColumnTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
     @Override
-    protected void createDb(SQLiteDatabase db) {
+    protected void createDb(StorageConnection db) {
         db.execSQL("CREATE TABLE table_0 (id INTEGER PRIMARY KEY)");
 
         db.execSQL("CREATE TABLE table_1 (" +
@@ -54,24 +64,24 @@ public class SchemaRenameColumnTest extends SchemaAbstractTest {
 
     @Test
     public void renameColumn() {
-        Collection<String> before = getTableColumns(db, "table_1").stream().map(column -> column.name).collect(Collectors.toList());
+        Collection<String> before = getTableColumns(connection, "table_1").stream().map(column -> column.name).collect(Collectors.toList());
         assertTrue(before.contains("col_1"));
         assertFalse(before.contains("col_1_renamed"));
 
         // Rename the column
-        new SchemaRenameColumn("table_1", "col_1", "col_1_renamed").run(db);
+        new SchemaRenameColumn("table_1", "col_1", "col_1_renamed").run(connection);
 
         // Check that the column has been renamed
-        Collection<String> after = getTableColumns(db, "table_1").stream().map(column -> column.name).collect(Collectors.toList());
+        Collection<String> after = getTableColumns(connection, "table_1").stream().map(column -> column.name).collect(Collectors.toList());
         assertFalse(after.contains("col_1"));
         assertTrue(after.contains("col_1_renamed"));
     }
 
     @Test
     public void dataPersistence() {
-        new SchemaRenameColumn("table_1", "col_1", "col_1_renamed").run(db);
+        new SchemaRenameColumn("table_1", "col_1", "col_1_renamed").run(connection);
 
-        try (Cursor c = db.query("table_1", null, "id = ?", new String[]{"1"}, null, null, null)) {
+        try (Cursor c = connection.rawQuery("SELECT * FROM table_1 WHERE id = ?", new String[]{"1"})) {
             c.moveToFirst();
             assertEquals(1, c.getInt(c.getColumnIndex("id")));
             assertEquals(1, c.getInt(c.getColumnIndex("col_1_renamed")));
@@ -80,7 +90,7 @@ public class SchemaRenameColumnTest extends SchemaAbstractTest {
             assertTrue(c.isNull(c.getColumnIndex("fk_int")));
         }
 
-        try (Cursor c = db.query("table_1", null, "id = ?", new String[]{"2"}, null, null, null)) {
+        try (Cursor c = connection.rawQuery("SELECT * FROM table_1 WHERE id = ?", new String[]{"2"})) {
             c.moveToFirst();
             assertEquals(2, c.getInt(c.getColumnIndex("id")));
             assertEquals(2, c.getInt(c.getColumnIndex("col_1_renamed")));
@@ -97,24 +107,58 @@ public class SchemaRenameColumnTest extends SchemaAbstractTest {
 
     @Test
     public void renameInternallyReferencedColumn() {
-        new SchemaRenameColumn("table_1", "col_2", "col_2_renamed").run(db);
-        Collection<ForeignKey> constraints = getTableForeignKeys(db, "table_1");
+        new SchemaRenameColumn("table_1", "col_2", "col_2_renamed").run(connection);
+        Collection<ForeignKey> constraints = getTableForeignKeys(connection, "table_1");
         assertThat(constraints, hasItem(new ForeignKey("table_1", "fk_int", "table_1", "col_2_renamed", "CASCADE", "CASCADE")));
     }
 
+    @Test
+    public void indexesPersistence() {
+        connection.execSQL("CREATE UNIQUE INDEX index_1 ON table_1 (col_1, col_2)");
+        connection.execSQL("CREATE INDEX index_2 ON table_1 (col_2) WHERE col_1 > 0");
+
+        new SchemaRenameColumn("table_1", "col_1", "col_1_renamed").run(connection);
+
+        assertEquals(Arrays.asList("col_1_renamed", "col_2"), getIndexColumns("index_1"));
+        assertEquals(Collections.singletonList("col_2"), getIndexColumns("index_2"));
+
+        try (Cursor c = connection.rawQuery("SELECT sql FROM sqlite_master WHERE name = 'index_2'", null)) {
+            assertTrue(c.moveToFirst());
+            assertTrue(c.getString(0), c.getString(0).contains("\"col_1_renamed\" > 0"));
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void emptyTable() {
-        new SchemaRenameColumn("", "col_1", "col_1_renamed").run(db);
+        new SchemaRenameColumn("", "col_1", "col_1_renamed").run(connection);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void emptyOldName() {
-        new SchemaRenameColumn("table_1", "", "col_1_renamed").run(db);
+        new SchemaRenameColumn("table_1", "", "col_1_renamed").run(connection);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void emptyNewName() {
-        new SchemaRenameColumn("table_1", "col_1", "").run(db);
+        new SchemaRenameColumn("table_1", "col_1", "").run(connection);
+    }
+
+    /**
+     * Get the columns of an index.
+     *
+     * @param index     index name
+     * @return indexed columns, in order
+     */
+    private List<String> getIndexColumns(String index) {
+        List<String> result = new ArrayList<>();
+
+        try (Cursor c = connection.rawQuery("PRAGMA index_info(\"" + index + "\")", null)) {
+            while (c.moveToNext()) {
+                result.add(c.getString(c.getColumnIndex("name")));
+            }
+        }
+
+        return result;
     }
 
 }
@@ -17,12 +17,14 @@
 package it.mscuttari.kaoldb.schema;
 
 import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
 
 import org.junit.Test;
 
 import java.util.Collection;
 
+import it.mscuttari.kaoldb.StorageDriverType;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+
 import static it.mscuttari.kaoldb.dump.SQLiteUtils.getTables;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
@@ -31,8 +33,12 @@ import static org.junit.Assert.assertEquals;
 
 public class SchemaRenameTableTest extends SchemaAbstractTest {
 
+    public SchemaRenameTableTest(StorageDriverType driverType) {
+        super(driverType);
+    }
+
     @Override
-    protected void createDb(SQLiteDatabase db) {
+    protected void createDb(StorageConnection db) {
         db.execSQL("CREATE TABLE table_1 (" +
                 "col_1 INTEGER PRIMARY KEY, " +
                 "col_2 REAL, " +
@@ -43,9 +49,9 @@ public class SchemaRenameTableTest extends SchemaAbstractTest {
 
     @Test
     public void renameTable() {
-        new SchemaRenameTable("table_1", "table_2").run(db);
+        new SchemaRenameTable("table_1", "table_2").run(connection);
 
-        Collection<String> tables = getTables(db);
+        Collection<String> tables = getTables(connection);
 
         assertThat(tables, not(hasItem("table_1")));
         assertThat(tables, hasItem("table_2"));
@@ -53,9 +59,9 @@ public class SchemaRenameTableTest extends SchemaAbstractTest {
 
     @Test
     public void dataPersistence() {
-        new SchemaRenameTable("table_1", "table_2").run(db);
+        new SchemaRenameTable("table_1", "table_2").run(connection);
 
-        try (Cursor c = db.query("table_2", null, "col_1 = ?", new String[]{"1"}, null, null, null)) {
+        try (Cursor c = connection.rawQuery("SELECT * FROM table_2 WHERE col_1 = ?", new String[]{"1"})) {
             c.moveToFirst();
 
             assertEquals(1, c.getInt(c.getColumnIndex("col_1")));
@@ -66,12 +72,12 @@ public class SchemaRenameTableTest extends SchemaAbstractTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void renameTable_emptyOldName() {
-        new SchemaRenameTable("", "table_2").run(db);
+        new SchemaRenameTable("", "table_2").run(connection);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void renameTable_emptyNewName() {
-        new SchemaRenameTable("table_1", "").run(db);
+        new SchemaRenameTable("table_1", "").run(connection);
     }
 
 }
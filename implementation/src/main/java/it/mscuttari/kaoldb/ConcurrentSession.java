@@ -23,7 +23,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -32,6 +31,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import it.mscuttari.kaoldb.exceptions.ConcurrenceException;
 import it.mscuttari.kaoldb.exceptions.KaolDBException;
+import it.mscuttari.kaoldb.interfaces.MetricsListener;
 
 /**
  * A concurrent session must be intended as a set of concurrently executing tasks that must all
@@ -47,7 +47,7 @@ import it.mscuttari.kaoldb.exceptions.KaolDBException;
 public class ConcurrentSession<T> implements Iterable<T> {
 
     /** Global thread pool */
-    private static ExecutorService executorService;
+    private static ThreadPoolExecutor executorService;
 
     /** Current session tasks */
     private final List<Future<T>> tasks = new ArrayList<>();
@@ -96,6 +96,7 @@ public class ConcurrentSession<T> implements Iterable<T> {
      * @param task  task to be executed
      */
     public synchronized void submit(Runnable task) {
+        checkSaturation();
         finished.set(false);
         Future<T> future = executorService.submit(task, null);
         tasks.add(future);
@@ -108,11 +109,28 @@ public class ConcurrentSession<T> implements Iterable<T> {
      * @param task  task to be executed
      */
     public synchronized void submit(Callable<T> task) {
+        checkSaturation();
         finished.set(false);
         Future<T> future = executorService.submit(task);
         tasks.add(future);
     }
 
+    /**
+     * Report the saturation of the thread pool, if all its core threads are busy.
+     */
+    private static void checkSaturation() {
+        MetricsListener metrics = MetricsUtils.getListener();
+
+        if (metrics != null) {
+            int active = executorService.getActiveCount();
+            int core = executorService.getCorePoolSize();
+
+            if (active >= core) {
+                metrics.onPoolSaturation(active, core);
+            }
+        }
+    }
+
     /**
      * Wait for all the tasks to be completed (or for one to fail).
      * If any of the tasks fails, all the others are cancelled.
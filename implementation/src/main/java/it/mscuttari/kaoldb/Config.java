@@ -18,6 +18,8 @@ package it.mscuttari.kaoldb;
 
 import android.content.res.XmlResourceParser;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.collection.ArrayMap;
 
 import org.xmlpull.v1.XmlPullParser;
@@ -27,10 +29,16 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import it.mscuttari.kaoldb.mapping.DatabaseObject;
 import it.mscuttari.kaoldb.exceptions.InvalidConfigException;
 import it.mscuttari.kaoldb.interfaces.DatabaseSchemaMigrator;
+import it.mscuttari.kaoldb.interfaces.LogSink;
+import it.mscuttari.kaoldb.interfaces.MetricsListener;
+import it.mscuttari.kaoldb.interfaces.QueryPlanListener;
+import it.mscuttari.kaoldb.interfaces.SlowOperation;
+import it.mscuttari.kaoldb.query.QueryPlanInspector;
 
 public class Config {
 
@@ -84,6 +92,75 @@ public class Config {
         }
     }
 
+    /**
+     * Set the listener to be notified, in debug mode, of the plan of each distinct query.
+     *
+     * @param listener      listener (<code>null</code> to remove the current one)
+     */
+    public void setQueryPlanListener(@Nullable QueryPlanListener listener) {
+        QueryPlanInspector.setListener(listener);
+    }
+
+    /**
+     * Set the minimum amount of rows a table must contain in order for its full scans to be
+     * reported in debug mode.
+     *
+     * @param rows      rows threshold (<code>0</code> to report all the full scans)
+     * @throws IllegalArgumentException if <code>rows</code> is negative
+     */
+    public void setFullScanThreshold(long rows) {
+        QueryPlanInspector.setFullScanThreshold(rows);
+    }
+
+    /**
+     * Set the listener to be notified of the instrumentation events.
+     *
+     * @param listener      listener (<code>null</code> to disable the metrics)
+     */
+    public void setMetricsListener(@Nullable MetricsListener listener) {
+        MetricsUtils.setListener(listener);
+    }
+
+    /**
+     * Set the minimum duration of the operations to be recorded into the slow operations log.
+     *
+     * @param type      operation type
+     * @param millis    threshold in milliseconds (<code>0</code> to disable the log)
+     *
+     * @throws IllegalArgumentException if <code>millis</code> is negative
+     */
+    public void setSlowOperationThreshold(@NonNull SlowOperation.Type type, long millis) {
+        SlowOperationLog.setThreshold(type, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Set the maximum amount of entries kept by the slow operations log.
+     *
+     * @param entries   log size
+     * @throws IllegalArgumentException if <code>entries</code> is not positive
+     */
+    public void setSlowOperationLogSize(int entries) {
+        SlowOperationLog.setCapacity(entries);
+    }
+
+    /**
+     * Set the minimum level of the debug messages to be written.
+     *
+     * @param level     minimum level
+     */
+    public void setLogLevel(@NonNull LogSink.Level level) {
+        LogUtils.setLevel(level);
+    }
+
+    /**
+     * Set the destination of the debug messages.
+     *
+     * @param sink      log sink
+     */
+    public void setLogSink(@NonNull LogSink sink) {
+        LogUtils.setSink(sink);
+    }
+
     /**
      * Parse the XML configuration file.
      *
@@ -177,10 +254,10 @@ public class Config {
             }
         }
 
-        LogUtils.i("Database found: [" +
-                "name = " + database.getName() + ", " +
-                "version = " + database.getVersion() + ", " +
-                "migrator = " + database.getSchemaMigrator().getSimpleName() + "]"
+        LogUtils.i("Database found: [name = {}, version = {}, migrator = {}]",
+                database.getName(),
+                database.getVersion(),
+                database.getSchemaMigrator().getSimpleName()
         );
 
         // Classes
@@ -14,36 +14,156 @@
  * limitations under the License.
  */
 
+
 package it.mscuttari.kaoldb;
 
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import it.mscuttari.kaoldb.interfaces.LogSink;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Logging facility of the framework.
+ *
+ * <p>
+ * Messages are built only if their level is enabled, so that disabled logs cost nothing more
+ * than a field read. Messages made of multiple parts should therefore not be concatenated by
+ * the caller, but either be passed as a format with <code>{}</code> placeholders, which are
+ * replaced by the string representations of the arguments, or as a {@link Supplier}:
+ * </p>
+ *
+ * <pre>
+ * LogUtils.d("[Database \"{}\"] insert into {}: {}", name, table, values);
+ * LogUtils.d(() -&gt; "[Entity \"" + name + "\"] " + getSQL());
+ * </pre>
+ */
 public class LogUtils {
 
     /** Log tag */
     private static final String LOG_TAG = "KaolDB";
 
-    public static boolean enabled = false;
+    /** Sink writing the logs to Logcat */
+    public static final LogSink LOGCAT = (level, tag, message) -> {
+        switch (level) {
+            case VERBOSE:   Log.v(tag, message);    break;
+            case DEBUG:     Log.d(tag, message);    break;
+            case INFO:      Log.i(tag, message);    break;
+            case WARN:      Log.w(tag, message);    break;
+            case ERROR:     Log.e(tag, message);    break;
+            case ASSERT:    Log.wtf(tag, message);  break;
+        }
+    };
+
+    /** Sink writing the logs directly to the standard output */
+    public static final LogSink STANDARD_OUTPUT = (level, tag, message) -> System.out.println(message);
 
-    /** Whether the logs should be sent to Logcat or directly to the standard output */
-    private static final boolean writeToLogcat = false;
+    /** Whether the logs are enabled at all */
+    public static volatile boolean enabled = false;
+
+    /** Minimum level of the messages to be written */
+    private static volatile LogSink.Level level = LogSink.Level.VERBOSE;
+
+    /** Destination of the messages */
+    private static volatile LogSink sink = STANDARD_OUTPUT;
 
     private LogUtils() {
 
     }
 
+    /**
+     * Set the minimum level of the messages to be written.
+     *
+     * @param level     minimum level
+     */
+    public static void setLevel(@NonNull LogSink.Level level) {
+        LogUtils.level = checkNotNull(level);
+    }
+
+    /**
+     * Set the destination of the messages.
+     *
+     * @param sink      log sink
+     */
+    public static void setSink(@NonNull LogSink sink) {
+        LogUtils.sink = checkNotNull(sink);
+    }
+
+    /**
+     * Check whether the messages of a given level are written.
+     *
+     * <p>Useful to skip expensive computations done just for logging purposes.</p>
+     *
+     * @param level     message level
+     * @return <code>true</code> if the messages are written; <code>false</code> otherwise
+     */
+    public static boolean isLoggable(@NonNull LogSink.Level level) {
+        return enabled && level.compareTo(LogUtils.level) >= 0;
+    }
+
     /**
      * Log verbose message.
      *
      * @param message   message
      */
     public static void v(String message) {
-        if (enabled) {
-            if (writeToLogcat) {
-                Log.v(LOG_TAG, message);
-            } else {
-                System.out.println(message);
-            }
+        if (isLoggable(LogSink.Level.VERBOSE)) {
+            sink.log(LogSink.Level.VERBOSE, LOG_TAG, message);
+        }
+    }
+
+    /**
+     * Log verbose message, built only if the level is enabled.
+     *
+     * @param message   message supplier
+     */
+    public static void v(Supplier<String> message) {
+        if (isLoggable(LogSink.Level.VERBOSE)) {
+            sink.log(LogSink.Level.VERBOSE, LOG_TAG, message.get());
+        }
+    }
+
+    /**
+     * Log verbose message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg       argument
+     */
+    public static void v(String format, Object arg) {
+        if (isLoggable(LogSink.Level.VERBOSE)) {
+            sink.log(LogSink.Level.VERBOSE, LOG_TAG, format(format, arg));
+        }
+    }
+
+    /**
+     * Log verbose message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg1      first argument
+     * @param arg2      second argument
+     */
+    public static void v(String format, Object arg1, Object arg2) {
+        if (isLoggable(LogSink.Level.VERBOSE)) {
+            sink.log(LogSink.Level.VERBOSE, LOG_TAG, format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Log verbose message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg1      first argument
+     * @param arg2      second argument
+     * @param arg3      third argument
+     */
+    public static void v(String format, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(LogSink.Level.VERBOSE)) {
+            sink.log(LogSink.Level.VERBOSE, LOG_TAG, format(format, arg1, arg2, arg3));
         }
     }
 
@@ -53,12 +173,58 @@ public class LogUtils {
      * @param message   message
      */
     public static void d(String message) {
-        if (enabled) {
-            if (writeToLogcat) {
-                Log.d(LOG_TAG, message);
-            } else {
-                System.out.println(message);
-            }
+        if (isLoggable(LogSink.Level.DEBUG)) {
+            sink.log(LogSink.Level.DEBUG, LOG_TAG, message);
+        }
+    }
+
+    /**
+     * Log debug message, built only if the level is enabled.
+     *
+     * @param message   message supplier
+     */
+    public static void d(Supplier<String> message) {
+        if (isLoggable(LogSink.Level.DEBUG)) {
+            sink.log(LogSink.Level.DEBUG, LOG_TAG, message.get());
+        }
+    }
+
+    /**
+     * Log debug message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg       argument
+     */
+    public static void d(String format, Object arg) {
+        if (isLoggable(LogSink.Level.DEBUG)) {
+            sink.log(LogSink.Level.DEBUG, LOG_TAG, format(format, arg));
+        }
+    }
+
+    /**
+     * Log debug message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg1      first argument
+     * @param arg2      second argument
+     */
+    public static void d(String format, Object arg1, Object arg2) {
+        if (isLoggable(LogSink.Level.DEBUG)) {
+            sink.log(LogSink.Level.DEBUG, LOG_TAG, format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Log debug message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg1      first argument
+     * @param arg2      second argument
+     * @param arg3      third argument
+     */
+    public static void d(String format, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(LogSink.Level.DEBUG)) {
+            sink.log(LogSink.Level.DEBUG, LOG_TAG, format(format, arg1, arg2, arg3));
         }
     }
 
@@ -68,12 +234,58 @@ public class LogUtils {
      * @param message   message
      */
     public static void i(String message) {
-        if (enabled) {
-            if (writeToLogcat) {
-                Log.i(LOG_TAG, message);
-            } else {
-                System.out.println(message);
-            }
+        if (isLoggable(LogSink.Level.INFO)) {
+            sink.log(LogSink.Level.INFO, LOG_TAG, message);
+        }
+    }
+
+    /**
+     * Log information message, built only if the level is enabled.
+     *
+     * @param message   message supplier
+     */
+    public static void i(Supplier<String> message) {
+        if (isLoggable(LogSink.Level.INFO)) {
+            sink.log(LogSink.Level.INFO, LOG_TAG, message.get());
+        }
+    }
+
+    /**
+     * Log information message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg       argument
+     */
+    public static void i(String format, Object arg) {
+        if (isLoggable(LogSink.Level.INFO)) {
+            sink.log(LogSink.Level.INFO, LOG_TAG, format(format, arg));
+        }
+    }
+
+    /**
+     * Log information message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg1      first argument
+     * @param arg2      second argument
+     */
+    public static void i(String format, Object arg1, Object arg2) {
+        if (isLoggable(LogSink.Level.INFO)) {
+            sink.log(LogSink.Level.INFO, LOG_TAG, format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Log information message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg1      first argument
+     * @param arg2      second argument
+     * @param arg3      third argument
+     */
+    public static void i(String format, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(LogSink.Level.INFO)) {
+            sink.log(LogSink.Level.INFO, LOG_TAG, format(format, arg1, arg2, arg3));
         }
     }
 
@@ -83,12 +295,58 @@ public class LogUtils {
      * @param message   message
      */
     public static void w(String message) {
-        if (enabled) {
-            if (writeToLogcat) {
-                Log.w(LOG_TAG, message);
-            } else {
-                System.out.println(message);
-            }
+        if (isLoggable(LogSink.Level.WARN)) {
+            sink.log(LogSink.Level.WARN, LOG_TAG, message);
+        }
+    }
+
+    /**
+     * Log warning message, built only if the level is enabled.
+     *
+     * @param message   message supplier
+     */
+    public static void w(Supplier<String> message) {
+        if (isLoggable(LogSink.Level.WARN)) {
+            sink.log(LogSink.Level.WARN, LOG_TAG, message.get());
+        }
+    }
+
+    /**
+     * Log warning message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg       argument
+     */
+    public static void w(String format, Object arg) {
+        if (isLoggable(LogSink.Level.WARN)) {
+            sink.log(LogSink.Level.WARN, LOG_TAG, format(format, arg));
+        }
+    }
+
+    /**
+     * Log warning message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg1      first argument
+     * @param arg2      second argument
+     */
+    public static void w(String format, Object arg1, Object arg2) {
+        if (isLoggable(LogSink.Level.WARN)) {
+            sink.log(LogSink.Level.WARN, LOG_TAG, format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Log warning message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg1      first argument
+     * @param arg2      second argument
+     * @param arg3      third argument
+     */
+    public static void w(String format, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(LogSink.Level.WARN)) {
+            sink.log(LogSink.Level.WARN, LOG_TAG, format(format, arg1, arg2, arg3));
         }
     }
 
@@ -98,12 +356,58 @@ public class LogUtils {
      * @param message   message
      */
     public static void e(String message) {
-        if (enabled) {
-            if (writeToLogcat) {
-                Log.e(LOG_TAG, message);
-            } else {
-                System.out.println(message);
-            }
+        if (isLoggable(LogSink.Level.ERROR)) {
+            sink.log(LogSink.Level.ERROR, LOG_TAG, message);
+        }
+    }
+
+    /**
+     * Log error message, built only if the level is enabled.
+     *
+     * @param message   message supplier
+     */
+    public static void e(Supplier<String> message) {
+        if (isLoggable(LogSink.Level.ERROR)) {
+            sink.log(LogSink.Level.ERROR, LOG_TAG, message.get());
+        }
+    }
+
+    /**
+     * Log error message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg       argument
+     */
+    public static void e(String format, Object arg) {
+        if (isLoggable(LogSink.Level.ERROR)) {
+            sink.log(LogSink.Level.ERROR, LOG_TAG, format(format, arg));
+        }
+    }
+
+    /**
+     * Log error message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg1      first argument
+     * @param arg2      second argument
+     */
+    public static void e(String format, Object arg1, Object arg2) {
+        if (isLoggable(LogSink.Level.ERROR)) {
+            sink.log(LogSink.Level.ERROR, LOG_TAG, format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Log error message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg1      first argument
+     * @param arg2      second argument
+     * @param arg3      third argument
+     */
+    public static void e(String format, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(LogSink.Level.ERROR)) {
+            sink.log(LogSink.Level.ERROR, LOG_TAG, format(format, arg1, arg2, arg3));
         }
     }
 
@@ -113,13 +417,96 @@ public class LogUtils {
      * @param message   message
      */
     public static void wtf(String message) {
-        if (enabled) {
-            if (writeToLogcat) {
-                Log.wtf(LOG_TAG, message);
+        if (isLoggable(LogSink.Level.ASSERT)) {
+            sink.log(LogSink.Level.ASSERT, LOG_TAG, message);
+        }
+    }
+
+    /**
+     * Log critical message, built only if the level is enabled.
+     *
+     * @param message   message supplier
+     */
+    public static void wtf(Supplier<String> message) {
+        if (isLoggable(LogSink.Level.ASSERT)) {
+            sink.log(LogSink.Level.ASSERT, LOG_TAG, message.get());
+        }
+    }
+
+    /**
+     * Log critical message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg       argument
+     */
+    public static void wtf(String format, Object arg) {
+        if (isLoggable(LogSink.Level.ASSERT)) {
+            sink.log(LogSink.Level.ASSERT, LOG_TAG, format(format, arg));
+        }
+    }
+
+    /**
+     * Log critical message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg1      first argument
+     * @param arg2      second argument
+     */
+    public static void wtf(String format, Object arg1, Object arg2) {
+        if (isLoggable(LogSink.Level.ASSERT)) {
+            sink.log(LogSink.Level.ASSERT, LOG_TAG, format(format, arg1, arg2));
+        }
+    }
+
+    /**
+     * Log critical message, formatted only if the level is enabled.
+     *
+     * @param format    message format
+     * @param arg1      first argument
+     * @param arg2      second argument
+     * @param arg3      third argument
+     */
+    public static void wtf(String format, Object arg1, Object arg2, Object arg3) {
+        if (isLoggable(LogSink.Level.ASSERT)) {
+            sink.log(LogSink.Level.ASSERT, LOG_TAG, format(format, arg1, arg2, arg3));
+        }
+    }
+
+    /**
+     * Replace the <code>{}</code> placeholders of a format with the string representations of
+     * the arguments, in order.
+     *
+     * <p>Arrays are represented by their content. Placeholders exceeding the arguments are
+     * kept as they are.</p>
+     *
+     * @param format    message format
+     * @param args      arguments
+     *
+     * @return formatted message
+     */
+    static String format(String format, Object... args) {
+        StringBuilder sb = new StringBuilder(format.length() + 16 * args.length);
+
+        int start = 0;
+        int argIndex = 0;
+        int placeholder;
+
+        while (argIndex < args.length && (placeholder = format.indexOf("{}", start)) >= 0) {
+            sb.append(format, start, placeholder);
+
+            Object arg = args[argIndex++];
+
+            if (arg instanceof Object[]) {
+                sb.append(Arrays.deepToString((Object[]) arg));
             } else {
-                System.out.println(message);
+                sb.append(arg);
             }
+
+            start = placeholder + 2;
         }
+
+        sb.append(format, start, format.length());
+        return sb.toString();
     }
 
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb;
+
+import androidx.annotation.Nullable;
+
+import it.mscuttari.kaoldb.interfaces.MetricsListener;
+
+/**
+ * Holder of the metrics listener registered by the user.
+ *
+ * <p>
+ * The instrumented code has to check for a listener to be present before collecting the data
+ * to be reported, so that no overhead is introduced when the metrics are not needed.
+ * </p>
+ */
+public class MetricsUtils {
+
+    @Nullable private static volatile MetricsListener listener;
+
+    private MetricsUtils() {
+
+    }
+
+    /**
+     * Get the current listener.
+     *
+     * @return listener (<code>null</code> if the metrics are disabled)
+     */
+    @Nullable
+    public static MetricsListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Set the listener to be notified of the instrumentation events.
+     *
+     * @param listener  listener (<code>null</code> to disable the metrics)
+     */
+    public static void setListener(@Nullable MetricsListener listener) {
+        MetricsUtils.listener = listener;
+    }
+
+}
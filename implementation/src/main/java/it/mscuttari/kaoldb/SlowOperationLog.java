@@ -0,0 +1,286 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import it.mscuttari.kaoldb.interfaces.SlowOperation;
+
+/**
+ * Bounded in-memory log of the database operations exceeding the configured thresholds.
+ *
+ * <p>
+ * The log is a ring buffer: once full, each new entry replaces the oldest one. It is disabled
+ * by default and, differently from the debug logs, it is meant to stay enabled in production
+ * in order to diagnose intermittent latency spikes.
+ * </p>
+ */
+public class SlowOperationLog {
+
+    /** Default amount of entries kept in memory */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    /** Thresholds in nanoseconds, indexed by operation type ordinal (0 to disable the log) */
+    private static final long[] thresholds = new long[SlowOperation.Type.values().length];
+
+    private static SlowOperation[] entries = new SlowOperation[DEFAULT_CAPACITY];
+
+    /** Position of the next entry to be written */
+    private static int next = 0;
+
+    /** Whether the buffer has been filled at least once */
+    private static boolean full = false;
+
+    private SlowOperationLog() {
+
+    }
+
+    /**
+     * Set the minimum duration of the operations to be logged.
+     *
+     * @param type          operation type
+     * @param threshold     threshold (<code>0</code> to disable the log for such operations)
+     * @param unit          threshold time unit
+     *
+     * @throws IllegalArgumentException if <code>threshold</code> is negative
+     */
+    public static void setThreshold(@NonNull SlowOperation.Type type, long threshold, @NonNull TimeUnit unit) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Slow operation threshold can't be negative");
+        }
+
+        synchronized (thresholds) {
+            thresholds[type.ordinal()] = unit.toNanos(threshold);
+        }
+    }
+
+    /**
+     * Check whether the operations of a given type are being logged.
+     *
+     * @param type      operation type
+     * @return <code>true</code> if a threshold is set; <code>false</code> otherwise
+     */
+    public static boolean isEnabled(@NonNull SlowOperation.Type type) {
+        synchronized (thresholds) {
+            return thresholds[type.ordinal()] > 0;
+        }
+    }
+
+    /**
+     * Set the maximum amount of entries to be kept in memory.
+     *
+     * <p>The current entries are discarded.</p>
+     *
+     * @param capacity      log size
+     * @throws IllegalArgumentException if <code>capacity</code> is not positive
+     */
+    public static synchronized void setCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Slow operation log size must be positive");
+        }
+
+        entries = new SlowOperation[capacity];
+        next = 0;
+        full = false;
+    }
+
+    /**
+     * Log an operation, if its duration exceeds the threshold of its type.
+     *
+     * <p>The operation is assumed to have been executed by the current thread.</p>
+     *
+     * @param type              operation type
+     * @param database          database name
+     * @param shape             operation description
+     * @param argumentsCount    amount of arguments bound to the statement
+     * @param rows              amount of rows read or written
+     * @param duration          operation duration, in nanoseconds
+     */
+    public static void record(@NonNull SlowOperation.Type type,
+                              @NonNull String database,
+                              @NonNull String shape,
+                              int argumentsCount,
+                              int rows,
+                              long duration) {
+
+        long threshold;
+
+        synchronized (thresholds) {
+            threshold = thresholds[type.ordinal()];
+        }
+
+        if (threshold == 0 || duration < threshold) {
+            return;
+        }
+
+        Thread thread = Thread.currentThread();
+        boolean mainThread = Looper.myLooper() != null && Looper.myLooper() == Looper.getMainLooper();
+
+        Entry entry = new Entry(type, database, shape, argumentsCount, rows, duration,
+                System.currentTimeMillis(), thread.getName(), mainThread);
+
+        LogUtils.w("[Database \"{}\"] slow operation: {}", database, entry);
+
+        synchronized (SlowOperationLog.class) {
+            entries[next] = entry;
+            next = (next + 1) % entries.length;
+            full |= next == 0;
+        }
+    }
+
+    /**
+     * Get the logged operations.
+     *
+     * @return entries, from the oldest to the newest
+     */
+    @NonNull
+    public static synchronized List<SlowOperation> getEntries() {
+        List<SlowOperation> result = new ArrayList<>(entries.length);
+
+        if (full) {
+            for (int i = next; i < entries.length; i++) {
+                result.add(entries[i]);
+            }
+        }
+
+        for (int i = 0; i < next; i++) {
+            result.add(entries[i]);
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Discard all the logged operations.
+     */
+    public static synchronized void clear() {
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = null;
+        }
+
+        next = 0;
+        full = false;
+    }
+
+    /**
+     * Immutable log entry.
+     */
+    private static final class Entry implements SlowOperation {
+
+        @NonNull private final Type type;
+        @NonNull private final String database;
+        @NonNull private final String shape;
+        private final int argumentsCount;
+        private final int rows;
+        private final long duration;
+        private final long timestamp;
+        @NonNull private final String threadName;
+        private final boolean mainThread;
+
+        Entry(@NonNull Type type,
+              @NonNull String database,
+              @NonNull String shape,
+              int argumentsCount,
+              int rows,
+              long duration,
+              long timestamp,
+              @NonNull String threadName,
+              boolean mainThread) {
+
+            this.type = type;
+            this.database = database;
+            this.shape = shape;
+            this.argumentsCount = argumentsCount;
+            this.rows = rows;
+            this.duration = duration;
+            this.timestamp = timestamp;
+            this.threadName = threadName;
+            this.mainThread = mainThread;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "[" +
+                    "type = " + type + ", " +
+                    "duration = " + TimeUnit.NANOSECONDS.toMillis(duration) + "ms, " +
+                    "rows = " + rows + ", " +
+                    "arguments = " + argumentsCount + ", " +
+                    "thread = " + threadName + (mainThread ? " (main)" : "") + ", " +
+                    "shape = " + shape + "]";
+        }
+
+        @NonNull
+        @Override
+        public Type getType() {
+            return type;
+        }
+
+        @NonNull
+        @Override
+        public String getDatabase() {
+            return database;
+        }
+
+        @NonNull
+        @Override
+        public String getShape() {
+            return shape;
+        }
+
+        @Override
+        public int getArgumentsCount() {
+            return argumentsCount;
+        }
+
+        @Override
+        public int getRows() {
+            return rows;
+        }
+
+        @Override
+        public long getDuration() {
+            return duration;
+        }
+
+        @Override
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        @NonNull
+        @Override
+        public String getThreadName() {
+            return threadName;
+        }
+
+        @Override
+        public boolean isMainThread() {
+            return mainThread;
+        }
+
+    }
+
+}
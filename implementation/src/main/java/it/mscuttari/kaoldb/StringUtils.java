@@ -78,6 +78,38 @@ public class StringUtils {
         return sb.toString();
     }
 
+    /**
+     * Quote a string so that it can be used as an SQL string literal.
+     *
+     * @param str   string to be quoted
+     * @return quoted string (<code>null</code> if <code>str</code> is <code>null</code>)
+     */
+    @CheckResult
+    public static String quote(String str) {
+        if (str == null) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        sb.append('\'');
+
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+
+            if (c == '\'') {
+                sb.append('\'');
+            }
+
+            sb.append(c);
+        }
+
+        sb.append('\'');
+
+        return sb.toString();
+    }
+
     /**
      * String wrapper class used to indicate that the contained string is already escaped.
      *
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.driver;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+import it.mscuttari.kaoldb.interfaces.StorageStatement;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Connection backed by an Android {@link SQLiteDatabase}.
+ */
+public final class AndroidStorageConnection implements StorageConnection {
+
+    @NonNull private final SQLiteDatabase db;
+
+    /**
+     * Constructor.
+     *
+     * @param db    opened database
+     */
+    public AndroidStorageConnection(@NonNull SQLiteDatabase db) {
+        this.db = checkNotNull(db);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return db.isOpen();
+    }
+
+    @Override
+    public void close() {
+        db.close();
+    }
+
+    @Override
+    public int getVersion() {
+        return db.getVersion();
+    }
+
+    @Override
+    public void setVersion(int version) {
+        db.setVersion(version);
+    }
+
+    @Override
+    public void execSQL(@NonNull String sql) {
+        db.execSQL(sql);
+    }
+
+    @Override
+    public void execSQL(@NonNull String sql, @NonNull Object[] bindArgs) {
+        db.execSQL(sql, bindArgs);
+    }
+
+    @NonNull
+    @Override
+    public Cursor rawQuery(@NonNull String sql, @Nullable String[] selectionArgs) {
+        return db.rawQuery(sql, selectionArgs);
+    }
+
+    @NonNull
+    @Override
+    public StorageStatement compileStatement(@NonNull String sql) {
+        return new AndroidStorageStatement(db.compileStatement(sql));
+    }
+
+    @Override
+    public long insert(@NonNull String table, @NonNull ContentValues values) {
+        return db.insert(table, null, values);
+    }
+
+    @Override
+    public int update(@NonNull String table, @NonNull ContentValues values, @Nullable String whereClause, @Nullable String[] whereArgs) {
+        return db.update(table, values, whereClause, whereArgs);
+    }
+
+    @Override
+    public int delete(@NonNull String table, @Nullable String whereClause, @Nullable String[] whereArgs) {
+        return db.delete(table, whereClause, whereArgs);
+    }
+
+    @Override
+    public void beginTransaction() {
+        db.beginTransaction();
+    }
+
+    @Override
+    public void setTransactionSuccessful() {
+        db.setTransactionSuccessful();
+    }
+
+    @Override
+    public void endTransaction() {
+        db.endTransaction();
+    }
+
+    @Override
+    public boolean inTransaction() {
+        return db.inTransaction();
+    }
+
+}
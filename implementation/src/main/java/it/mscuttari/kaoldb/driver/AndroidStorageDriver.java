@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.driver;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteCursor;
+
+import androidx.annotation.NonNull;
+
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+import it.mscuttari.kaoldb.interfaces.StorageDriver;
+import it.mscuttari.kaoldb.query.CachedCursor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Driver storing the databases into the private directory of the application, through the
+ * SQLite library bundled with Android.
+ */
+public final class AndroidStorageDriver implements StorageDriver {
+
+    @NonNull private final Context context;
+
+    /**
+     * Constructor.
+     *
+     * @param context   context (only its application context is retained)
+     */
+    public AndroidStorageDriver(@NonNull Context context) {
+        this.context = checkNotNull(context).getApplicationContext();
+    }
+
+    @NonNull
+    @Override
+    public StorageConnection open(@NonNull String name) {
+        return new AndroidStorageConnection(context.openOrCreateDatabase(
+                name,
+                Context.MODE_PRIVATE,
+                (db, masterQuery, editTable, query) -> new CachedCursor(new SQLiteCursor(masterQuery, editTable, query))
+        ));
+    }
+
+    @Override
+    public boolean delete(@NonNull String name) {
+        return context.deleteDatabase(name);
+    }
+
+}
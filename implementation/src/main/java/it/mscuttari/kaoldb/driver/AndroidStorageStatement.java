@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.driver;
+
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import it.mscuttari.kaoldb.interfaces.StorageStatement;
+
+/**
+ * Statement backed by an Android {@link SQLiteStatement}.
+ */
+final class AndroidStorageStatement implements StorageStatement {
+
+    @NonNull private final SQLiteStatement statement;
+
+    /**
+     * Constructor.
+     *
+     * @param statement     compiled statement
+     */
+    AndroidStorageStatement(@NonNull SQLiteStatement statement) {
+        this.statement = statement;
+    }
+
+    @Override
+    public void bindNull(int index) {
+        statement.bindNull(index);
+    }
+
+    @Override
+    public void bindLong(int index, long value) {
+        statement.bindLong(index, value);
+    }
+
+    @Override
+    public void bindDouble(int index, double value) {
+        statement.bindDouble(index, value);
+    }
+
+    @Override
+    public void bindString(int index, @NonNull String value) {
+        statement.bindString(index, value);
+    }
+
+    @Override
+    public void bindBlob(int index, @NonNull byte[] value) {
+        statement.bindBlob(index, value);
+    }
+
+    @Override
+    public void clearBindings() {
+        statement.clearBindings();
+    }
+
+    @Override
+    public void execute() {
+        statement.execute();
+    }
+
+    @Override
+    public long executeInsert() {
+        return statement.executeInsert();
+    }
+
+    @Override
+    public int executeUpdateDelete() {
+        return statement.executeUpdateDelete();
+    }
+
+    @Override
+    public long simpleQueryForLong() {
+        return statement.simpleQueryForLong();
+    }
+
+    @Nullable
+    @Override
+    public String simpleQueryForString() {
+        return statement.simpleQueryForString();
+    }
+
+    @Override
+    public void close() {
+        statement.close();
+    }
+
+}
@@ -0,0 +1,470 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.driver;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteConstraintException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+import it.mscuttari.kaoldb.interfaces.StorageStatement;
+import it.mscuttari.kaoldb.query.CachedCursor;
+
+/**
+ * Connection backed by a JDBC {@link Connection} to a SQLite database.
+ *
+ * <p>
+ * The behaviour of the Android database is emulated: a transaction is owned by the thread that
+ * began it, and the other threads wait for it to end before accessing the database. The nested
+ * transactions are joined into the outermost one, which is rolled back if any of them has not
+ * been marked as successful.
+ * </p>
+ */
+final class JdbcStorageConnection implements StorageConnection {
+
+    /** SQLite result code of the constraint violations */
+    private static final int SQLITE_CONSTRAINT = 19;
+
+    @NonNull private final Connection connection;
+
+    /** Lock held during each operation and for the whole duration of the transactions */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Amount of nested transactions currently running */
+    private int transactionDepth = 0;
+
+    /** Whether the innermost running transaction has been marked as successful */
+    private boolean transactionSuccessful;
+
+    /** Whether any of the ended nested transactions has not been marked as successful */
+    private boolean transactionFailed;
+
+    /**
+     * Constructor.
+     *
+     * @param connection    JDBC connection
+     */
+    JdbcStorageConnection(@NonNull Connection connection) {
+        this.connection = connection;
+    }
+
+    @Override
+    public boolean isOpen() {
+        try {
+            return !connection.isClosed();
+
+        } catch (java.sql.SQLException e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+
+        try {
+            // A transaction left running by the current thread is rolled back, and the lock
+            // holds acquired by its levels are released
+            if (transactionDepth > 0) {
+                connection.rollback();
+
+                for (; transactionDepth > 0; transactionDepth--) {
+                    lock.unlock();
+                }
+            }
+
+            connection.close();
+
+        } catch (java.sql.SQLException e) {
+            throw wrap(e);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getVersion() {
+        try (Cursor c = rawQuery("PRAGMA user_version", null)) {
+            return c.moveToFirst() ? c.getInt(0) : 0;
+        }
+    }
+
+    @Override
+    public void setVersion(int version) {
+        execSQL("PRAGMA user_version = " + version);
+    }
+
+    @Override
+    public void execSQL(@NonNull String sql) {
+        lock.lock();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+
+        } catch (java.sql.SQLException e) {
+            throw wrap(e);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void execSQL(@NonNull String sql, @NonNull Object[] bindArgs) {
+        lock.lock();
+
+        try (PreparedStatement statement = prepare(sql, bindArgs)) {
+            statement.execute();
+
+        } catch (java.sql.SQLException e) {
+            throw wrap(e);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @NonNull
+    @Override
+    public Cursor rawQuery(@NonNull String sql, @Nullable String[] selectionArgs) {
+        lock.lock();
+
+        try (PreparedStatement statement = prepare(sql, selectionArgs)) {
+            // The results are materialized, so that the statement can be released immediately
+            // and the cursor can be read without holding the lock
+            try (ResultSet rs = statement.executeQuery()) {
+                ResultSetMetaData metadata = rs.getMetaData();
+                String[] columns = new String[metadata.getColumnCount()];
+
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = metadata.getColumnLabel(i + 1);
+                }
+
+                MatrixCursor cursor = new MatrixCursor(columns);
+
+                while (rs.next()) {
+                    Object[] row = new Object[columns.length];
+
+                    for (int i = 0; i < columns.length; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+
+                    cursor.addRow(row);
+                }
+
+                return new CachedCursor(cursor);
+            }
+
+        } catch (java.sql.SQLException e) {
+            throw wrap(e);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @NonNull
+    @Override
+    public StorageStatement compileStatement(@NonNull String sql) {
+        lock.lock();
+
+        try {
+            return new JdbcStorageStatement(this, connection.prepareStatement(sql));
+
+        } catch (java.sql.SQLException e) {
+            throw wrap(e);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long insert(@NonNull String table, @NonNull ContentValues values) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table);
+        List<Object> args = new ArrayList<>(values.size());
+
+        if (values.size() == 0) {
+            sql.append(" DEFAULT VALUES");
+
+        } else {
+            StringBuilder placeholders = new StringBuilder();
+            String separator = "";
+            sql.append(" (");
+
+            for (Map.Entry<String, Object> value : values.valueSet()) {
+                sql.append(separator).append(value.getKey());
+                placeholders.append(separator).append("?");
+                args.add(value.getValue());
+                separator = ",";
+            }
+
+            sql.append(") VALUES (").append(placeholders).append(")");
+        }
+
+        lock.lock();
+
+        try (PreparedStatement statement = prepare(sql.toString(), args.toArray())) {
+            return statement.executeUpdate() > 0 ? getLastInsertRowId() : -1;
+
+        } catch (java.sql.SQLException e) {
+            // Same behaviour of the Android database, which logs the error and returns -1
+            return -1;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int update(@NonNull String table, @NonNull ContentValues values, @Nullable String whereClause, @Nullable String[] whereArgs) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        List<Object> args = new ArrayList<>(values.size() + (whereArgs == null ? 0 : whereArgs.length));
+        String separator = "";
+
+        for (Map.Entry<String, Object> value : values.valueSet()) {
+            sql.append(separator).append(value.getKey()).append("=?");
+            args.add(value.getValue());
+            separator = ",";
+        }
+
+        appendWhere(sql, args, whereClause, whereArgs);
+        return executeUpdate(sql.toString(), args.toArray());
+    }
+
+    @Override
+    public int delete(@NonNull String table, @Nullable String whereClause, @Nullable String[] whereArgs) {
+        StringBuilder sql = new StringBuilder("DELETE FROM ").append(table);
+        List<Object> args = new ArrayList<>(whereArgs == null ? 0 : whereArgs.length);
+
+        appendWhere(sql, args, whereClause, whereArgs);
+        return executeUpdate(sql.toString(), args.toArray());
+    }
+
+    @Override
+    public void beginTransaction() {
+        lock.lock();
+
+        try {
+            if (transactionDepth == 0) {
+                connection.setAutoCommit(false);
+                transactionFailed = false;
+            }
+
+            transactionDepth++;
+            transactionSuccessful = false;
+
+        } catch (java.sql.SQLException e) {
+            // The lock is kept only while a transaction is running
+            lock.unlock();
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public void setTransactionSuccessful() {
+        checkTransactionOwner();
+        transactionSuccessful = true;
+    }
+
+    @Override
+    public void endTransaction() {
+        checkTransactionOwner();
+
+        transactionFailed |= !transactionSuccessful;
+        transactionSuccessful = false;
+
+        try {
+            if (--transactionDepth == 0) {
+                try {
+                    if (transactionFailed) {
+                        connection.rollback();
+                    } else {
+                        connection.commit();
+                    }
+
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            }
+
+        } catch (java.sql.SQLException e) {
+            throw wrap(e);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean inTransaction() {
+        lock.lock();
+
+        try {
+            return transactionDepth > 0;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acquire the lock to be held while executing a compiled statement.
+     */
+    void lock() {
+        lock.lock();
+    }
+
+    /**
+     * Release the lock acquired through {@link #lock()}.
+     */
+    void unlock() {
+        lock.unlock();
+    }
+
+    /**
+     * Get the ID of the last inserted row.
+     *
+     * <p>The lock must be held by the caller.</p>
+     *
+     * @return row ID
+     * @throws java.sql.SQLException if the query fails
+     */
+    long getLastInsertRowId() throws java.sql.SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT last_insert_rowid()")) {
+
+            return rs.next() ? rs.getLong(1) : -1;
+        }
+    }
+
+    /**
+     * Execute an <code>UPDATE</code> or <code>DELETE</code> statement.
+     *
+     * @param sql       SQL statement
+     * @param args      arguments
+     *
+     * @return amount of affected rows
+     */
+    private int executeUpdate(String sql, Object[] args) {
+        lock.lock();
+
+        try (PreparedStatement statement = prepare(sql, args)) {
+            return statement.executeUpdate();
+
+        } catch (java.sql.SQLException e) {
+            throw wrap(e);
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Prepare a statement and bind its arguments.
+     *
+     * @param sql       SQL statement
+     * @param args      arguments (<code>null</code> if there are none)
+     *
+     * @return prepared statement
+     * @throws java.sql.SQLException if the statement is not valid
+     */
+    private PreparedStatement prepare(String sql, @Nullable Object[] args) throws java.sql.SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                Object arg = args[i];
+
+                if (arg instanceof Boolean) {
+                    // Booleans are stored as integers, as done by Android
+                    statement.setLong(i + 1, (Boolean) arg ? 1 : 0);
+                } else {
+                    statement.setObject(i + 1, arg);
+                }
+            }
+        }
+
+        return statement;
+    }
+
+    /**
+     * Append the selection clause to a statement.
+     *
+     * @param sql           SQL statement
+     * @param args          statement arguments the selection arguments are added to
+     * @param whereClause   selection clause
+     * @param whereArgs     selection arguments
+     */
+    private static void appendWhere(StringBuilder sql, List<Object> args, @Nullable String whereClause, @Nullable String[] whereArgs) {
+        if (whereClause != null && !whereClause.isEmpty()) {
+            sql.append(" WHERE ").append(whereClause);
+        }
+
+        if (whereArgs != null) {
+            for (String arg : whereArgs) {
+                args.add(arg);
+            }
+        }
+    }
+
+    /**
+     * Check that the current thread is running a transaction.
+     *
+     * @throws IllegalStateException if the current thread doesn't own any transaction
+     */
+    private void checkTransactionOwner() {
+        if (transactionDepth == 0 || !lock.isHeldByCurrentThread()) {
+            throw new IllegalStateException("No transaction running in the current thread");
+        }
+    }
+
+    /**
+     * Convert a JDBC exception to the one thrown by the Android database.
+     *
+     * <p>The constraint violations are reported as {@link SQLiteConstraintException}, according
+     * to the primary SQLite result code exposed as vendor code by the driver.</p>
+     *
+     * @param e     JDBC exception
+     * @return unchecked exception to be thrown
+     */
+    static SQLException wrap(java.sql.SQLException e) {
+        SQLException exception = (e.getErrorCode() & 0xff) == SQLITE_CONSTRAINT ?
+                new SQLiteConstraintException(e.getMessage()) :
+                new SQLException(e.getMessage());
+
+        exception.initCause(e);
+        return exception;
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.driver;
+
+import android.database.SQLException;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.sql.DriverManager;
+
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+import it.mscuttari.kaoldb.interfaces.StorageDriver;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Driver storing the databases as SQLite files accessed through JDBC.
+ *
+ * <p>
+ * It allows to run the framework on a plain JVM, such as in unit tests, and requires a SQLite
+ * JDBC driver (i.e. <code>org.xerial:sqlite-jdbc</code>) to be available at runtime.
+ * </p>
+ */
+public final class JdbcStorageDriver implements StorageDriver {
+
+    /** Suffixes of the auxiliary files SQLite may create next to the database */
+    private static final String[] AUXILIARY_FILES = {"-journal", "-wal", "-shm"};
+
+    @NonNull private final File directory;
+
+    /**
+     * Constructor.
+     *
+     * @param directory     directory the database files are stored into
+     */
+    public JdbcStorageDriver(@NonNull File directory) {
+        this.directory = checkNotNull(directory);
+    }
+
+    @NonNull
+    @Override
+    public StorageConnection open(@NonNull String name) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new SQLException("Can't create directory " + directory);
+        }
+
+        String url = "jdbc:sqlite:" + new File(directory, name).getAbsolutePath();
+
+        try {
+            return new JdbcStorageConnection(DriverManager.getConnection(url));
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+        }
+    }
+
+    @Override
+    public boolean delete(@NonNull String name) {
+        File file = new File(directory, name);
+        boolean result = file.delete();
+
+        for (String suffix : AUXILIARY_FILES) {
+            //noinspection ResultOfMethodCallIgnored
+            new File(directory, name + suffix).delete();
+        }
+
+        return result;
+    }
+
+}
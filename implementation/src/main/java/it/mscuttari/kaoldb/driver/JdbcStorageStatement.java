@@ -0,0 +1,200 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.driver;
+
+import android.database.sqlite.SQLiteDoneException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import it.mscuttari.kaoldb.interfaces.StorageStatement;
+
+/**
+ * Statement backed by a JDBC {@link PreparedStatement}.
+ */
+final class JdbcStorageStatement implements StorageStatement {
+
+    @NonNull private final JdbcStorageConnection connection;
+    @NonNull private final PreparedStatement statement;
+
+    /**
+     * Constructor.
+     *
+     * @param connection    connection the statement belongs to
+     * @param statement     prepared statement
+     */
+    JdbcStorageStatement(@NonNull JdbcStorageConnection connection, @NonNull PreparedStatement statement) {
+        this.connection = connection;
+        this.statement = statement;
+    }
+
+    @Override
+    public void bindNull(int index) {
+        try {
+            statement.setObject(index, null);
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+        }
+    }
+
+    @Override
+    public void bindLong(int index, long value) {
+        try {
+            statement.setLong(index, value);
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+        }
+    }
+
+    @Override
+    public void bindDouble(int index, double value) {
+        try {
+            statement.setDouble(index, value);
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+        }
+    }
+
+    @Override
+    public void bindString(int index, @NonNull String value) {
+        try {
+            statement.setString(index, value);
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+        }
+    }
+
+    @Override
+    public void bindBlob(int index, @NonNull byte[] value) {
+        try {
+            statement.setBytes(index, value);
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+        }
+    }
+
+    @Override
+    public void clearBindings() {
+        try {
+            statement.clearParameters();
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+        }
+    }
+
+    @Override
+    public void execute() {
+        connection.lock();
+
+        try {
+            statement.execute();
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+
+        } finally {
+            connection.unlock();
+        }
+    }
+
+    @Override
+    public long executeInsert() {
+        connection.lock();
+
+        try {
+            return statement.executeUpdate() > 0 ? connection.getLastInsertRowId() : -1;
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+
+        } finally {
+            connection.unlock();
+        }
+    }
+
+    @Override
+    public int executeUpdateDelete() {
+        connection.lock();
+
+        try {
+            return statement.executeUpdate();
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+
+        } finally {
+            connection.unlock();
+        }
+    }
+
+    @Override
+    public long simpleQueryForLong() {
+        connection.lock();
+
+        try (ResultSet rs = statement.executeQuery()) {
+            if (!rs.next())
+                throw new SQLiteDoneException();
+
+            return rs.getLong(1);
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+
+        } finally {
+            connection.unlock();
+        }
+    }
+
+    @Nullable
+    @Override
+    public String simpleQueryForString() {
+        connection.lock();
+
+        try (ResultSet rs = statement.executeQuery()) {
+            if (!rs.next())
+                throw new SQLiteDoneException();
+
+            return rs.getString(1);
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+
+        } finally {
+            connection.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            statement.close();
+
+        } catch (java.sql.SQLException e) {
+            throw JdbcStorageConnection.wrap(e);
+        }
+    }
+
+}
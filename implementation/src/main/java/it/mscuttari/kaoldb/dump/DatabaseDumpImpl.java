@@ -16,8 +16,6 @@
 
 package it.mscuttari.kaoldb.dump;
 
-import android.database.sqlite.SQLiteDatabase;
-
 import androidx.annotation.NonNull;
 
 import java.util.Collection;
@@ -28,6 +26,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 import it.mscuttari.kaoldb.interfaces.DatabaseDump;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 import it.mscuttari.kaoldb.interfaces.TableDump;
 
 public class DatabaseDumpImpl implements DatabaseDump {
@@ -43,7 +42,7 @@ public class DatabaseDumpImpl implements DatabaseDump {
      *
      * @param db    readable database
      */
-    public DatabaseDumpImpl(SQLiteDatabase db) {
+    public DatabaseDumpImpl(StorageConnection db) {
         version = db.getVersion();
 
         List<String> tablesNames = SQLiteUtils.getTables(db);
@@ -17,7 +17,6 @@
 package it.mscuttari.kaoldb.dump;
 
 import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
 
 import androidx.annotation.Nullable;
 
@@ -27,6 +26,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 import it.mscuttari.kaoldb.schema.Column;
 import it.mscuttari.kaoldb.schema.ForeignKey;
 
@@ -44,7 +44,7 @@ public class SQLiteUtils {
      * @param db    readable database
      * @return database tables
      */
-    public static List<String> getTables(SQLiteDatabase db) {
+    public static List<String> getTables(StorageConnection db) {
         try (Cursor c = db.rawQuery("SELECT name FROM sqlite_master WHERE type='table'", null)) {
             List<String> tables = new ArrayList<>(c.getCount());
 
@@ -66,7 +66,7 @@ public class SQLiteUtils {
      *
      * @throws IllegalArgumentException if the table doesn't exist
      */
-    public static Collection<Column> getTableColumns(SQLiteDatabase db, String table) {
+    public static Collection<Column> getTableColumns(StorageConnection db, String table) {
         try (Cursor c = db.rawQuery("PRAGMA table_info(" + escape(table) + ")", null)) {
             if (c.getCount() == 0) {
                 throw new IllegalArgumentException("Table \"" + table + "\" not found");
@@ -145,7 +145,7 @@ public class SQLiteUtils {
      *
      * @throws IllegalArgumentException if the table doesn't exist
      */
-    public static List<String> getTablePrimaryKeys(SQLiteDatabase db, String table) {
+    public static List<String> getTablePrimaryKeys(StorageConnection db, String table) {
         try (Cursor c = db.rawQuery("PRAGMA table_info(" + escape(table) + ")", null)) {
             int nameIndex = c.getColumnIndex("name");
             int primaryKeyIndex = c.getColumnIndex("pk");
@@ -174,7 +174,7 @@ public class SQLiteUtils {
      *
      * @return foreign keys constraints
      */
-    public static Collection<ForeignKey> getTableForeignKeys(SQLiteDatabase db, String table) {
+    public static Collection<ForeignKey> getTableForeignKeys(StorageConnection db, String table) {
         try (Cursor c = db.rawQuery("PRAGMA foreign_key_list(" + table + ")", null)) {
             int idIndex = c.getColumnIndex("id");
             int tableIndex = c.getColumnIndex("table");
@@ -221,7 +221,7 @@ public class SQLiteUtils {
      * @throws IllegalArgumentException if the table doesn't exist
      * @throws IllegalArgumentException if the column doesn't exist
      */
-    public static String getColumnStatement(SQLiteDatabase db, String table, String column) {
+    public static String getColumnStatement(StorageConnection db, String table, String column) {
         try (Cursor c = db.rawQuery("PRAGMA table_info(" + escape(table) + ")", null)) {
             if (c.getCount() == 0) {
                 throw new IllegalArgumentException("Table \"" + table + "\" not found");
@@ -265,7 +265,7 @@ public class SQLiteUtils {
      * @throws IllegalArgumentException if the table doesn't exist
      * @throws IllegalArgumentException if the column doesn't exist
      */
-    public static boolean isColumnNullable(SQLiteDatabase db, String table, String column) {
+    public static boolean isColumnNullable(StorageConnection db, String table, String column) {
         try (Cursor c = db.rawQuery("PRAGMA table_info(" + escape(table) + ")", null)) {
             if (c.getCount() == 0) {
                 throw new IllegalArgumentException("Table \"" + table + "\" not found");
@@ -297,7 +297,7 @@ public class SQLiteUtils {
      * @throws IllegalArgumentException if the column doesn't exist
      */
     @Nullable
-    public static String getColumnDefaultValue(SQLiteDatabase db, String table, String column) {
+    public static String getColumnDefaultValue(StorageConnection db, String table, String column) {
         try (Cursor c = db.rawQuery("PRAGMA table_info(" + escape(table) + ")", null)) {
             if (c.getCount() == 0) {
                 throw new IllegalArgumentException("Table \"" + table + "\" not found");
@@ -337,7 +337,7 @@ public class SQLiteUtils {
      * @throws IllegalArgumentException if the table doesn't exist
      * @throws IllegalArgumentException if the column doesn't exist
      */
-    public static boolean isColumnPrimaryKey(SQLiteDatabase db, String table, String column) {
+    public static boolean isColumnPrimaryKey(StorageConnection db, String table, String column) {
         try (Cursor c = db.rawQuery("PRAGMA table_info(" + escape(table) + ")", null)) {
             if (c.getCount() == 0) {
                 throw new IllegalArgumentException("Table \"" + table + "\" not found");
@@ -17,7 +17,6 @@
 package it.mscuttari.kaoldb.dump;
 
 import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
 
 import androidx.annotation.NonNull;
 
@@ -27,6 +26,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import it.mscuttari.kaoldb.interfaces.RowDump;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 import it.mscuttari.kaoldb.interfaces.TableDump;
 import it.mscuttari.kaoldb.query.CachedCursor;
 
@@ -50,11 +50,11 @@ public class TableDumpImpl implements TableDump {
      * @param db        readable database
      * @param tableName name of the table to be dumped
      */
-    public TableDumpImpl(SQLiteDatabase db, String tableName) {
+    public TableDumpImpl(StorageConnection db, String tableName) {
         this.name = tableName;
 
         // Get create SQL
-        try (Cursor cSql = db.query("sqlite_master", new String[] {"sql"}, "name = ?", new String[] {tableName}, null, null, null)) {
+        try (Cursor cSql = db.rawQuery("SELECT sql FROM sqlite_master WHERE name = ?", new String[] {tableName})) {
             cSql.moveToFirst();
             sql = cSql.getString(0);
         }
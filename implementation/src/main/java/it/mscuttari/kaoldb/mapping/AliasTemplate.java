@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.mapping;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static it.mscuttari.kaoldb.StringUtils.escape;
+
+/**
+ * SQL fragment whose table aliases are not known in advance.
+ *
+ * <p>
+ * The fragment is stored as a sequence of literal parts, already escaped, interleaved with
+ * the slots where the alias has to be inserted. Rendering it just requires a concatenation,
+ * without walking again the entity mapping or escaping the identifiers.
+ * </p>
+ */
+public final class AliasTemplate {
+
+    /** Literal parts, with an alias slot between each couple of them */
+    private final String[] parts;
+
+    /** Total length of the literal parts */
+    private final int length;
+
+    /**
+     * Constructor.
+     *
+     * @param parts     literal parts
+     */
+    private AliasTemplate(List<String> parts) {
+        this.parts = parts.toArray(new String[0]);
+
+        int length = 0;
+
+        for (String part : this.parts) {
+            length += part.length();
+        }
+
+        this.length = length;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return render("?");
+    }
+
+    /**
+     * Get the SQL fragment for a specific alias.
+     *
+     * @param alias     alias of the root table
+     * @return SQL fragment
+     */
+    public String render(@NonNull String alias) {
+        StringBuilder sb = new StringBuilder(length + (parts.length - 1) * (alias.length() + 2));
+        appendTo(sb, alias);
+        return sb.toString();
+    }
+
+    /**
+     * Append the SQL fragment for a specific alias to a string builder.
+     *
+     * @param sb        string builder
+     * @param alias     alias of the root table
+     */
+    public void appendTo(@NonNull StringBuilder sb, @NonNull String alias) {
+        // The alias is always placed inside a quoted identifier
+        String escapedAlias = alias.indexOf('"') < 0 ? alias : alias.replace("\"", "\"\"");
+
+        sb.append(parts[0]);
+
+        for (int i = 1; i < parts.length; i++) {
+            sb.append(escapedAlias).append(parts[i]);
+        }
+    }
+
+    /**
+     * Template builder.
+     */
+    public static final class Builder {
+
+        private final List<String> parts = new ArrayList<>();
+        private final StringBuilder current = new StringBuilder();
+
+        /**
+         * Append a literal SQL fragment.
+         *
+         * @param sql   SQL fragment
+         * @return builder
+         */
+        public Builder append(@NonNull String sql) {
+            current.append(checkNotNull(sql));
+            return this;
+        }
+
+        /**
+         * Append a quoted identifier made of the alias followed by a suffix.
+         *
+         * <p>It is the equivalent of <code>escape(alias + suffix)</code>.</p>
+         *
+         * @param suffix    suffix to be appended to the alias (i.e. entity name)
+         * @return builder
+         */
+        public Builder appendAlias(@NonNull String suffix) {
+            String escaped = escape(checkNotNull(suffix));
+
+            current.append('"');
+            parts.add(current.toString());
+            current.setLength(0);
+            current.append(escaped, 1, escaped.length());
+
+            return this;
+        }
+
+        /**
+         * Append a column reference.
+         *
+         * <p>It is the equivalent of <code>escape(alias + suffix) + "." + escape(column)</code>.</p>
+         *
+         * @param suffix    suffix to be appended to the alias
+         * @param column    column name
+         * @return builder
+         */
+        public Builder appendColumn(@NonNull String suffix, @NonNull String column) {
+            return appendAlias(suffix).append(".").append(escape(column));
+        }
+
+        /**
+         * Build the template.
+         *
+         * @return template
+         */
+        public AliasTemplate build() {
+            List<String> result = new ArrayList<>(parts);
+            result.add(current.toString());
+            return new AliasTemplate(result);
+        }
+
+    }
+
+}
@@ -31,8 +31,11 @@ import it.mscuttari.kaoldb.ConcurrentSession;
 import it.mscuttari.kaoldb.exceptions.MappingException;
 import it.mscuttari.kaoldb.exceptions.PojoException;
 import it.mscuttari.kaoldb.interfaces.EntityManager;
+import it.mscuttari.kaoldb.interfaces.TypeConverter;
 
+import static it.mscuttari.kaoldb.ConcurrentSession.doAndNotifyAll;
 import static it.mscuttari.kaoldb.StringUtils.escape;
+import static it.mscuttari.kaoldb.StringUtils.quote;
 
 /**
  * Representation of the basic properties of a column.
@@ -54,6 +57,12 @@ public abstract class BaseColumnObject implements ColumnsContainer {
     /** Mapping session */
     private final ConcurrentSession<?> mappingSession = new ConcurrentSession<>();
 
+    /**
+     * Whether the mapping has been started by a synchronous mapping of the entities, which
+     * may map the column on demand before its own entity does.
+     */
+    private boolean mappingStarted = false;
+
     /** Column name */
     public String name;
 
@@ -73,10 +82,13 @@ public abstract class BaseColumnObject implements ColumnsContainer {
     /** Unique column property */
     public Boolean unique;
 
-    /** Default value */
+    /** Default value, as SQL literal of the data stored in the column */
     @Nullable
     public String defaultValue;
 
+    /** Converter between the field values and the column data */
+    public TypeConverter<Object> converter;
+
     /**
      * Constructor.
      *
@@ -118,24 +130,114 @@ public abstract class BaseColumnObject implements ColumnsContainer {
 
     @Override
     public final void map() {
-        mappingSession.submit(() -> {
+        Runnable task = () -> {
             loadCustomColumnDefinition();
             loadType();
+            loadConverter();
             loadNullableProperty();
             loadPrimaryKeyProperty();
             loadUniqueProperty();
             loadDefaultValue();
             mapAsync();
-        });
+        };
+
+        if (db.isMappingSynchronously()) {
+            // The tasks would wait for the calling thread, so the column is mapped in place.
+            // The columns referenced by the join columns are mapped on demand.
+            if (!mappingStarted) {
+                mappingStarted = true;
+                task.run();
+            }
+
+        } else if (isMappedSynchronously()) {
+            task.run();
+        } else {
+            mappingSession.submit(task);
+        }
+    }
+
+    /**
+     * Check whether the column properties can be loaded directly on the calling thread.
+     *
+     * <p>This is the case when they are already known (i.e. precomputed by the annotation
+     * processor) and don't depend on other entities, so that spawning a task would only add
+     * overhead.</p>
+     *
+     * @return <code>true</code> to map the column synchronously; <code>false</code> to map it
+     *         in background
+     */
+    protected boolean isMappedSynchronously() {
+        return false;
     }
 
     protected abstract void loadCustomColumnDefinition();
     protected abstract void loadType();
+
+    /**
+     * Determine the {@link #converter} of the column.
+     *
+     * <p>By default, the built-in converter of the column {@link #type} is used.</p>
+     *
+     * @throws MappingException if the column type is not supported
+     */
+    @SuppressWarnings("unchecked")
+    protected void loadConverter() {
+        TypeConverter<?> result = TypeConverters.get(type);
+
+        if (result == null) {
+            throw new MappingException("[Column \"" + name + "\"] unsupported type " + type.getSimpleName() + ": a converter must be specified");
+        }
+
+        doAndNotifyAll(this, () -> converter = (TypeConverter<Object>) result);
+    }
     protected abstract void loadNullableProperty();
     protected abstract void loadPrimaryKeyProperty();
     protected abstract void loadUniqueProperty();
     protected abstract void loadDefaultValue();
 
+    /**
+     * Convert a default value, as specified in the annotations, into the SQL literal of the data
+     * the column {@link #converter} stores for it.
+     *
+     * <p>
+     * The value is parsed according to the column {@link #type} (see
+     * {@link TypeConverters#parse(Class, String)}). If the type has no string representation,
+     * as it happens for the custom ones, the value is parsed according to the column data type.
+     * </p>
+     *
+     * @param value     default value (<code>null</code> if not specified)
+     * @return SQL literal, or <code>null</code> if no default value has been specified
+     * @throws MappingException if the default value is not compatible with the column
+     */
+    @Nullable
+    protected final String getDefaultValueLiteral(@Nullable String value) {
+        if (value == null)
+            return null;
+
+        try {
+            Object parsed = TypeConverters.parse(type, value);
+
+            if (parsed != null)
+                return toSqlLiteral(parsed);
+
+            switch (TypeConverters.getCursorType(converter)) {
+                case Cursor.FIELD_TYPE_INTEGER:
+                    return storedValueToSqlLiteral(Long.parseLong(value));
+
+                case Cursor.FIELD_TYPE_FLOAT:
+                    return storedValueToSqlLiteral(Double.parseDouble(value));
+
+                case Cursor.FIELD_TYPE_STRING:
+                    return storedValueToSqlLiteral(value);
+            }
+
+        } catch (IllegalArgumentException | PojoException e) {
+            throw new MappingException("[Column \"" + name + "\"] default value \"" + value + "\" is incompatible with type " + type.getSimpleName(), e);
+        }
+
+        throw new MappingException("[Column \"" + name + "\"] default values are not supported for type " + type.getSimpleName());
+    }
+
     /**
      * Actions that are executed asynchronously in order to load the column properties.
      */
@@ -200,67 +302,79 @@ public abstract class BaseColumnObject implements ColumnsContainer {
      * @param c     cursor
      * @param alias alias of the table
      * @return column value
-     * @throws PojoException if the data type is not compatible with the one found in the cursor
+     * @throws PojoException if the data type of the value is not compatible with the column
      */
-    @SuppressWarnings("unchecked")
     public final Object parseCursor(Cursor c, String alias) {
-        String columnName = alias + "." + name;
-        int columnIndex = c.getColumnIndexOrThrow(columnName);
-        int columnType = c.getType(columnIndex);
-
-        Object value = null;
-
-        if (columnType == Cursor.FIELD_TYPE_INTEGER) {
-            if (type.equals(Boolean.class) || type.equals(boolean.class)) {
-                value = c.getInt(columnIndex) != 0;
-
-            } else if (type.equals(Integer.class) || type.equals(int.class)) {
-                value = c.getInt(columnIndex);
-
-            } else if (type.equals(Long.class) || type.equals(long.class)) {
-                value = c.getLong(columnIndex);
+        int columnIndex = c.getColumnIndexOrThrow(alias + "." + name);
+        return TypeConverters.read(c, columnIndex, converter, TypeConverters.getCursorType(converter));
+    }
 
-            } else if (type.equals(Date.class)) {
-                value = new Date(c.getLong(columnIndex));
+    /**
+     * Insert a value of this column into {@link ContentValues}, by using the column
+     * {@link #converter}.
+     *
+     * <p>Passing a <code>null</code> value will result in a <code>NULL</code> table column.</p>
+     *
+     * @param cv     content values
+     * @param value  value
+     */
+    public final void putValue(ContentValues cv, Object value) {
+        if (value == null) {
+            cv.putNull(name);
+        } else {
+            converter.write(cv, name, value);
+        }
+    }
 
-            } else if (type.equals(Calendar.class)) {
-                value = Calendar.getInstance();
-                ((Calendar) value).setTimeInMillis(c.getLong(columnIndex));
+    /**
+     * Get the SQL literal representing a value, as it would be stored in this column.
+     *
+     * <p>The value is converted by the column {@link #converter}, so that the comparison is
+     * done against the same data that is saved in the database.</p>
+     *
+     * @param value     value
+     * @return SQL literal
+     */
+    public final String toSqlLiteral(Object value) {
+        ContentValues cv = new ContentValues();
+        putValue(cv, value);
+        return storedValueToSqlLiteral(cv.get(name));
+    }
 
-            } else {
-                throw new PojoException("Incompatible data type for column '" + columnName + "': expected " + type.getSimpleName() + ", found Integer");
-            }
+    /**
+     * Get the SQL literal representing a value that is already in the form it is stored in the
+     * database (that is, as it has been put into {@link ContentValues}).
+     *
+     * @param data      stored value
+     * @return SQL literal
+     */
+    public static String storedValueToSqlLiteral(Object data) {
+        if (data == null) {
+            return "NULL";
 
-        } else if (columnType == Cursor.FIELD_TYPE_FLOAT) {
-            if (type.equals(Float.class) || type.equals(float.class)) {
-                value = c.getFloat(columnIndex);
+        } else if (data instanceof Number) {
+            return String.valueOf(data);
 
-            } else if (type.equals(Double.class) || type.equals(double.class)) {
-                value = c.getDouble(columnIndex);
+        } else if (data instanceof byte[]) {
+            StringBuilder sb = new StringBuilder("X'");
 
-            } else {
-                throw new PojoException("Incompatible data type for column '" + columnName + "': expected " + type.getSimpleName() + ", found Float");
+            for (byte b : (byte[]) data) {
+                sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
             }
 
-        } else if (columnType == Cursor.FIELD_TYPE_STRING) {
-            if (type.isEnum()) {
-                value = Enum.valueOf((Class<Enum>) type, c.getString(columnIndex));
-
-            } else if (String.class.isAssignableFrom(type)) {
-                value = c.getString(columnIndex);
-
-            } else {
-                throw new PojoException("Incompatible data type for column '" + columnName + "': expected " + type.getSimpleName() + ", found String");
-            }
+            return sb.append("'").toString();
         }
 
-        return value;
+        return quote(String.valueOf(data));
     }
 
     /**
      * Insert a value into {@link ContentValues}.
      *
      * <p>
+     * The value is converted with the built-in converter of its class. When the column is
+     * known, {@link #putValue(ContentValues, Object)} should be used instead, so that the
+     * converter doesn't need to be searched again and any custom one is respected.
      * The conversion of the <code>value</code> follows these rules:
      * <ul>
      *      <li>If the column name is already in use, its value is replaced with the newer one</li>
@@ -278,40 +392,23 @@ public abstract class BaseColumnObject implements ColumnsContainer {
      * @param cv     content values
      * @param column column name
      * @param value  value
+     *
+     * @throws PojoException if the value class is not supported
      */
+    @SuppressWarnings("unchecked")
     public static void insertIntoContentValues(ContentValues cv, String column, Object value) {
         if (value == null) {
             cv.putNull(column);
+            return;
+        }
 
-        } else {
-            if (value instanceof Enum) {
-                cv.put(column, ((Enum<?>) value).name());
-
-            } else if (value instanceof Integer) {
-                cv.put(column, (int) value);
-
-            } else if (value instanceof Long) {
-                cv.put(column, (long) value);
-
-            } else if (value instanceof Float) {
-                cv.put(column, (float) value);
-
-            } else if (value instanceof Double) {
-                cv.put(column, (double) value);
-
-            } else if (value instanceof String) {
-                cv.put(column, (String) value);
-
-            } else if (value instanceof Boolean) {
-                cv.put(column, ((boolean) value) ? 1 : 0);
-
-            } else if (value instanceof Date) {
-                cv.put(column, ((Date) value).getTime());
+        TypeConverter<Object> converter = (TypeConverter<Object>) TypeConverters.get(value.getClass());
 
-            } else if (value instanceof Calendar) {
-                cv.put(column, ((Calendar) value).getTimeInMillis());
-            }
+        if (converter == null) {
+            throw new PojoException("Unsupported data type " + value.getClass().getSimpleName() + " for column \"" + column + "\"");
         }
+
+        converter.write(cv, column, value);
     }
 
     /**
@@ -322,19 +419,7 @@ public abstract class BaseColumnObject implements ColumnsContainer {
      * <ul>
      *      <li><b>Name</b></li>
      *      <li><b>Column definition</b>: if specified, the following parameters are skipped</li>
-     *      <li><b>Type</b>: the column type determination is based on the field type and with respect of
-     *            the following associations:
-     *            <ul>
-     *                  <li>int, Integer   => INTEGER</li>
-     *                  <li>long, Long     => INTEGER</li>
-     *                  <li>float, Float   => REAL</li>
-     *                  <li>double, Double => REAL</li>
-     *                  <li>String         => TEXT</li>
-     *                  <li>Date, Calendar => INTEGER (date is stored as milliseconds from epoch)</li>
-     *                  <li>Enum           => TEXT (enum constant name)</li>
-     *                  <li>Anything else  => BLOB</li>
-     *           </ul>
-     *      </li>
+     *      <li><b>Type</b>: the column type is determined by the column {@link #converter}</li>
      *      <li><b>Nullability</b></li>
      *      <li><b>Uniqueness</b></li>
      *      <li><b>Default value</b></li>
@@ -357,7 +442,7 @@ public abstract class BaseColumnObject implements ColumnsContainer {
         }
 
         // Column type
-        result.append(" ").append(classToDbType(type));
+        result.append(" ").append(converter.getColumnType());
 
         // Nullable
         if (!nullable) {
@@ -370,39 +455,13 @@ public abstract class BaseColumnObject implements ColumnsContainer {
         }
 
         // Default value
-        if (defaultValue != null && !defaultValue.isEmpty()) {
-            result.append(" DEFAULT '").append(escape(defaultValue)).append("'");
+        if (defaultValue != null) {
+            result.append(" DEFAULT ").append(defaultValue);
         }
 
         return result.toString();
     }
 
-    /**
-     * Get the database column type corresponding to a given Java class
-     *
-     * @param clazz Java class
-     * @return column type
-     */
-    public static String classToDbType(Class<?> clazz) {
-        if (clazz.equals(int.class) || clazz.equals(Integer.class)) {
-            return "INTEGER";
-        } else if (clazz.equals(long.class) || clazz.equals(Long.class)) {
-            return "INTEGER";
-        } else if (clazz.equals(float.class) || clazz.equals(Float.class)) {
-            return "REAL";
-        } else if (clazz.equals(double.class) || clazz.equals(Double.class)) {
-            return "REAL";
-        } else if (clazz.equals(String.class)) {
-            return "TEXT";
-        } else if (clazz.equals(Date.class) || clazz.equals(Calendar.class)) {
-            return "INTEGER";
-        } else if (clazz.isEnum()) {
-            return "TEXT";
-        } else {
-            return "BLOB";
-        }
-    }
-
     /**
      * Fake iterator to be used to iterate on a single column.
      */
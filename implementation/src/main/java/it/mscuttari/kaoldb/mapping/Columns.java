@@ -202,7 +202,7 @@ public class Columns implements ColumnsContainer {
                         primaryKeys.add(fieldColumn);
                 }
 
-                LogUtils.d("[Entity \"" + entity.getName() + "\"] added column " + column);
+                LogUtils.d("[Entity \"{}\"] added column {}", entity.getName(), column);
             }
 
             return columns.add(container);
@@ -17,8 +17,8 @@
 package it.mscuttari.kaoldb.mapping;
 
 import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
 
+import androidx.annotation.Nullable;
 import androidx.collection.ArrayMap;
 import androidx.collection.ArraySet;
 
@@ -26,17 +26,24 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import it.mscuttari.kaoldb.ConcurrentSession.SynchCondition;
 import it.mscuttari.kaoldb.LogUtils;
 import it.mscuttari.kaoldb.annotations.Entity;
-import it.mscuttari.kaoldb.annotations.JoinTable;
 import it.mscuttari.kaoldb.dump.DatabaseDumpImpl;
 import it.mscuttari.kaoldb.exceptions.DatabaseManagementException;
+import it.mscuttari.kaoldb.exceptions.MappingException;
 import it.mscuttari.kaoldb.interfaces.DatabaseDump;
 import it.mscuttari.kaoldb.interfaces.DatabaseSchemaMigrator;
+import it.mscuttari.kaoldb.interfaces.EntitySchema;
 import it.mscuttari.kaoldb.interfaces.SchemaAction;
+import it.mscuttari.kaoldb.interfaces.SchemaRegistry;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
 import it.mscuttari.kaoldb.interfaces.TableDump;
 
 import static it.mscuttari.kaoldb.ConcurrentSession.doAndNotifyAll;
@@ -47,6 +54,9 @@ import static it.mscuttari.kaoldb.ConcurrentSession.waitWhile;
  */
 public class DatabaseObject {
 
+    /** Simple name of the schema registries generated by the annotation processor */
+    private static final String SCHEMA_REGISTRY_NAME = "KaolDB_Schemas";
+
     /** Database name */
     private String name;
 
@@ -65,12 +75,25 @@ public class DatabaseObject {
     /** Whether the database version is being changed */
     private boolean updating = false;
 
-    /** Whether the mapping process has been started at least once (it may be still running) */
-    private boolean mappedOnce = false;
-
-    /** Used to track the entities mapping. When 0, it means that all the entities have been mapped */
+    /** Number of entities whose mapping is in progress. When 0, all the requested entities have been mapped */
     private int mappingStatus = 0;
 
+    /** Error occurred while mapping an entity. Once set, the mapping can't be completed anymore */
+    private volatile MappingException mappingFailure;
+
+    /** Whether the entities schemas generated by the annotation processor can be used */
+    private volatile boolean generatedSchemasEnabled = true;
+
+    /** Schemas generated by the annotation processor, by entity class */
+    private final Map<Class<?>, EntitySchema> schemas = new HashMap<>();
+
+    /** Packages whose schema registry has already been looked up */
+    private final Set<String> schemaPackages = new HashSet<>();
+
+    /** Thread mapping the entities on its own, through their generated schemas (null if none) */
+    @Nullable
+    private volatile Thread synchronousMappingThread;
+
     /**
      * Get database name.
      *
@@ -92,7 +115,7 @@ public class DatabaseObject {
      * @throws IllegalArgumentException if the name is null or empty
      */
     public void setName(String name) {
-        LogUtils.d("[Database] setting name \"" + name + "\"");
+        LogUtils.d("[Database] setting name \"{}\"", name);
 
         if (name == null) {
             throw new IllegalArgumentException("Database name can't be null");
@@ -124,7 +147,7 @@ public class DatabaseObject {
      * @throws IllegalArgumentException if the version is null or < 0
      */
     public void setVersion(Integer version) {
-        LogUtils.d("[Database \"" + name + "\"] setting version " + version);
+        LogUtils.d("[Database \"{}\"] setting version {}", name, version);
 
         if (version == null) {
             throw new IllegalArgumentException("Database version can't be null");
@@ -162,10 +185,127 @@ public class DatabaseObject {
             throw new IllegalArgumentException("Database schema migrator can't be abstract");
         }
 
-        LogUtils.d("[Database \"" + name + "\"] setting schema migrator " + migrator.getSimpleName());
+        LogUtils.d("[Database \"{}\"] setting schema migrator {}", name, migrator.getSimpleName());
         this.migrator = migrator;
     }
 
+    /**
+     * Check whether the entities schemas generated by the annotation processor can be used.
+     *
+     * @return <code>true</code> if the generated schemas are used; <code>false</code> if all
+     *         the entities are mapped through reflection
+     */
+    boolean isGeneratedSchemasEnabled() {
+        return generatedSchemasEnabled;
+    }
+
+    /**
+     * Set whether the entities schemas generated by the annotation processor can be used.
+     *
+     * <p>Only the entities whose mapping has not been started yet are affected.</p>
+     *
+     * @param enabled   <code>false</code> to map all the entities through reflection
+     */
+    void setGeneratedSchemasEnabled(boolean enabled) {
+        generatedSchemasEnabled = enabled;
+    }
+
+    /**
+     * Get the schema generated by the annotation processor for an entity.
+     *
+     * <p>The registry of the package of the entity is loaded on first use, together with the
+     * schemas of all the other entities of the same package.</p>
+     *
+     * @param clazz     entity class
+     * @return schema, or <code>null</code> if the entity has to be mapped through reflection
+     */
+    @Nullable
+    synchronized EntitySchema getGeneratedSchema(Class<?> clazz) {
+        if (!generatedSchemasEnabled) {
+            return null;
+        }
+
+        String className = clazz.getName();
+        String packageName = className.substring(0, className.lastIndexOf('.') + 1);
+
+        if (schemaPackages.add(packageName)) {
+            String registryName = packageName + SCHEMA_REGISTRY_NAME;
+
+            try {
+                Class<?> registryClass = Class.forName(registryName, true, clazz.getClassLoader());
+                schemas.putAll(((SchemaRegistry) registryClass.newInstance()).getSchemas());
+
+            } catch (ClassNotFoundException e) {
+                LogUtils.d("[Database \"{}\"] no schema registry in package \"{}\"", name, packageName);
+
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                LogUtils.w("Can't load generated class \"{}\": {}", registryName, e.getMessage());
+            }
+        }
+
+        return schemas.get(clazz);
+    }
+
+    /**
+     * Check whether the entities can be mapped directly on the calling thread, that is when
+     * all of them have a generated schema and no other mapping is in progress.
+     *
+     * @return <code>true</code> if the entities can be mapped synchronously
+     */
+    private synchronized boolean canMapSynchronously() {
+        if (isMapping()) {
+            return false;
+        }
+
+        for (Class<?> clazz : classes) {
+            if (getGeneratedSchema(clazz) == null) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Check whether the calling thread is mapping the entities on its own.
+     *
+     * <p>In that case, the properties of the other entities are never waited for, as nobody
+     * else is going to determine them: the entities they belong to are mapped first.</p>
+     *
+     * @return <code>true</code> if the calling thread is performing a synchronous mapping
+     */
+    boolean isMappingSynchronously() {
+        return synchronousMappingThread == Thread.currentThread();
+    }
+
+    /**
+     * Map, on the calling thread, all the entities that have not been mapped yet.
+     *
+     * <p>All the entities objects are created before starting the mapping, so that they can
+     * reference each other without waiting.</p>
+     */
+    private synchronized void mapSynchronously() {
+        List<EntityObject<?>> created = new ArrayList<>();
+
+        for (Class<?> clazz : classes) {
+            if (!entities.containsKey(clazz)) {
+                EntityObject<?> entity = EntityObject.create(this, clazz);
+                entities.put(clazz, entity);
+                created.add(entity);
+            }
+        }
+
+        synchronousMappingThread = Thread.currentThread();
+
+        try {
+            EntityObject.mapSynchronously(this, created);
+        } finally {
+            synchronousMappingThread = null;
+        }
+
+        LogUtils.d("[Database \"{}\"] {} entities mapped", name, entities.size());
+    }
+
     /**
      * Add entity class.
      *
@@ -176,7 +316,7 @@ public class DatabaseObject {
         if (clazz == null)
             return;
 
-        LogUtils.d("[Database \"" + name + "\"] adding class \"" + clazz.getSimpleName() + "\"");
+        LogUtils.d("[Database \"{}\"] adding class \"{}\"", name, clazz.getSimpleName());
 
         if (!clazz.isAnnotationPresent(Entity.class)) {
             throw new IllegalArgumentException("Class \"" + clazz.getSimpleName() + "\" doesn't have @Entity annotation");
@@ -196,54 +336,113 @@ public class DatabaseObject {
     }
 
     /**
-     * Get {@link EntityObject} corresponding to an entity class.
+     * Get the {@link EntityObject} corresponding to an entity class.
+     *
+     * <p>
+     * The entity is mapped on first use, together with the entities it depends on (ancestors,
+     * descendants and relationships targets). The calling thread is blocked until the mapping
+     * is completed. If all the entities have a generated schema, they are all mapped at once
+     * by the calling thread.
+     * </p>
      *
      * @param clazz     entity class
      * @return entity object
-     * @throws IllegalArgumentException if the entities have not been mapped yet and the entity class
-     *                                  doesn't belong to this database
+     * @throws IllegalArgumentException if the entity class doesn't belong to this database
+     * @throws MappingException if the mapping of an entity has failed
      */
-    @SuppressWarnings("unchecked")
     public <T> EntityObject<T> getEntity(Class<T> clazz) {
-        // Check if the entity should exists and eventually wait for it to be discovered, but only
-        // if the mapping process has not completed yet.
-        // When the mapping process is finished, all the constraint should be consistent by design
-        // and therefore this check is not needed.
+        EntityObject<T> result = mapEntity(clazz);
+        waitWhile(this, this::isMapping);
+        checkMappingFailure();
+        return result;
+    }
 
-        if (!isMapped()) {
+    /**
+     * Get the {@link EntityObject} corresponding to an entity class, eventually starting its
+     * mapping process, without waiting for it to be completed.
+     *
+     * <p>To be used during the mapping process, where the properties of the other entities must
+     * be waited for individually.</p>
+     *
+     * @param clazz     entity class
+     * @return entity object
+     * @throws IllegalArgumentException if the entity class doesn't belong to this database
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <T> EntityObject<T> mapEntity(Class<T> clazz) {
+        EntityObject<T> result = (EntityObject<T>) entities.get(clazz);
+
+        if (result == null) {
             // Check if the class is an entity of this database
             if (!contains(clazz)) {
                 throw new IllegalArgumentException("Entity \"" + clazz.getSimpleName() + "\" not found");
             }
 
-            // Wait for the entity to be mapped
-            waitWhile(this, () -> entities.get(clazz) == null);
+            if (canMapSynchronously()) {
+                mapSynchronously();
+                return (EntityObject<T>) entities.get(clazz);
+            }
+
+            mappingStatus++;
+            result = EntityObject.map(this, clazz);
+            entities.put(clazz, result);
         }
 
-        return (EntityObject<T>) entities.get(clazz);
+        return result;
+    }
+
+    /**
+     * Get the classes whose nearest superclass belonging to the database is a given one.
+     *
+     * @param clazz     entity class
+     * @return children classes
+     */
+    synchronized Collection<Class<?>> getChildClasses(Class<?> clazz) {
+        Collection<Class<?>> result = new ArrayList<>();
+
+        for (Class<?> candidate : classes) {
+            Class<?> superClass = candidate.getSuperclass();
+
+            while (superClass != null && superClass != Object.class && !classes.contains(superClass)) {
+                superClass = superClass.getSuperclass();
+            }
+
+            if (clazz.equals(superClass)) {
+                result.add(candidate);
+            }
+        }
+
+        return result;
     }
 
     /**
      * Get an unmodifiable {@link Collection} of all the entity objects.
      *
+     * <p>The entities that have not been used yet are mapped, and the calling thread is blocked
+     * until the whole schema is mapped.</p>
+     *
      * @return mapped entities
+     * @throws MappingException if the mapping of an entity has failed
      */
     public Collection<EntityObject<?>> getEntities() {
         if (!isMapped()) {
-            waitWhile(this, () -> entities.size() != classes.size());
+            mapEntities();
+            waitWhile(this, () -> !isMapped());
         }
 
+        checkMappingFailure();
+
         return Collections.unmodifiableCollection(entities.values());
     }
 
     /**
-     * Check whether the entities have been mapped.
+     * Check whether all the entities have been mapped.
      *
-     * @return <code>true</code> if the entities have been mapped at least once;
+     * @return <code>true</code> if all the entities have been completely mapped;
      *         <code>false</code> otherwise
      */
-    public boolean isMapped() {
-        return mappedOnce && !isMapping();
+    public synchronized boolean isMapped() {
+        return entities.size() == classes.size() && !isMapping();
     }
 
     /**
@@ -263,72 +462,142 @@ public class DatabaseObject {
     public void entityMapped() {
         doAndNotifyAll(this, () -> {
             if (--mappingStatus == 0) {
-                LogUtils.d("[Database \"" + name + "\"] " + entities.size() + " entities mapped");
+                LogUtils.d("[Database \"{}\"] {} entities mapped", name, entities.size());
             }
         });
     }
 
+    /**
+     * Register the failure of the mapping of an entity.
+     *
+     * <p>
+     * The threads waiting for a property of any entity are woken up, so that they can fail too
+     * instead of waiting for a value that will never be set. Only the first failure is kept,
+     * as the following ones are usually a consequence of it.
+     * </p>
+     *
+     * @param entity    entity whose mapping has failed
+     * @param e         cause
+     */
+    void mappingFailed(EntityObject<?> entity, RuntimeException e) {
+        List<EntityObject<?>> mapped;
+
+        synchronized (this) {
+            if (mappingFailure == null) {
+                mappingFailure = new MappingException("Entity \"" + entity.getName() + "\": mapping failed", e);
+            }
+
+            mapped = new ArrayList<>(entities.values());
+        }
+
+        for (EntityObject<?> current : mapped) {
+            doAndNotifyAll(current, () -> {});
+
+            List<BaseColumnObject> columns = new ArrayList<>();
+
+            synchronized (current.columns) {
+                for (BaseColumnObject column : current.columns) {
+                    columns.add(column);
+                }
+            }
+
+            doAndNotifyAll(current.columns, () -> {});
+
+            for (BaseColumnObject column : columns) {
+                doAndNotifyAll(column, () -> {});
+            }
+        }
+    }
+
+    /**
+     * Block the calling thread, during the mapping process, until a property of an entity has
+     * been determined.
+     *
+     * @param lock          object to be locked
+     * @param condition     condition to be checked (the thread is blocked while it is satisfied)
+     *
+     * @throws MappingException if the mapping of an entity has failed in the meanwhile, or if
+     *                          the property can't be determined during a synchronous mapping
+     */
+    void waitForMapping(Object lock, SynchCondition condition) {
+        if (isMappingSynchronously()) {
+            // Nobody else would determine the property, so the thread would be blocked forever
+            if (mappingFailure == null && condition.check()) {
+                throw new MappingException("Circular dependency between the mapping of the entities");
+            }
+
+            checkMappingFailure();
+            return;
+        }
+
+        waitWhile(lock, () -> mappingFailure == null && condition.check());
+        checkMappingFailure();
+    }
+
+    /**
+     * Check whether the mapping of an entity has failed.
+     *
+     * @throws MappingException if the mapping has failed
+     */
+    private void checkMappingFailure() {
+        MappingException failure = mappingFailure;
+
+        if (failure != null) {
+            throw new MappingException(failure.getMessage(), failure.getCause());
+        }
+    }
+
     /**
      * Check whether the database is ready for use.
      *
-     * <p>The database is considered ready if the mapping process has finished and the
-     * database version is not being upgraded or downgraded</p>
+     * <p>The database is considered ready if no entity is being mapped and the database
+     * version is not being upgraded or downgraded. The entities that have never been used
+     * don't need to be mapped.</p>
      *
      * @return <code>true</code> if the database is ready; <code>false</code> otherwise
      */
     public boolean isReady() {
-        return isMapped() && !updating;
+        return !isMapping() && !updating;
     }
 
     /**
      * Block the calling thread until the database becomes ready.
+     *
+     * @throws MappingException if the mapping of an entity has failed
      */
     public void waitUntilReady() {
         waitWhile(this, () -> !isReady());
+        checkMappingFailure();
     }
 
     /**
-     * Create an {@link EntityObject} for each class contained in {@link #classes}.
+     * Start the mapping of all the classes contained in {@link #classes} that have not been
+     * mapped yet.
+     *
+     * <p>The entities are otherwise mapped on first use, so this is needed only when the whole
+     * schema is required (i.e. to create or upgrade the database).</p>
      */
     public void mapEntities() {
         if (isMapped()) {
-            LogUtils.w("[Database \"" + name + "\"] entities already mapped");
-
-        } else if (isMapping()) {
-            LogUtils.w("[Database \"" + name + "\"] entities are already being mapped");
-
-        } else {
-            mappingStatus = classes.size();
-
-            doAndNotifyAll(this, () -> {
-                for (Class<?> clazz : classes) {
-                    entities.put(clazz, EntityObject.map(this, clazz));
-                }
-
-                mappedOnce = true;
-            });
+            LogUtils.w("[Database \"{}\"] entities already mapped", name);
+            return;
         }
+
+        doAndNotifyAll(this, () -> {
+            for (Class<?> clazz : classes) {
+                mapEntity(clazz);
+            }
+        });
     }
 
     /**
      * Create the database.
      *
+     * <p>All the entities are mapped, if not already done, before creating the tables.</p>
+     *
      * @param db    writable database
-     * @throws IllegalStateException if the entities have not been mapped yet and there is no
-     *                               mapping process going on
      */
-    public void create(SQLiteDatabase db) {
-        if (!isMapped()) {
-            if (isMapping()) {
-                // Wait for the mapping process to end
-                waitWhile(this, () -> !this.isMapped());
-
-            } else {
-                // There is no mapping process going on
-                throw new IllegalStateException("Database not mapped");
-            }
-        }
-
+    public void create(StorageConnection db) {
         try {
             db.beginTransaction();
 
@@ -337,24 +606,30 @@ public class DatabaseObject {
                 String entityTableCreateSQL = entity.getSQL();
 
                 if (entityTableCreateSQL != null) {
-                    LogUtils.d("[Entity \"" + entity.getName() + "\"] " + entityTableCreateSQL);
+                    LogUtils.d("[Entity \"{}\"] {}", entity.getName(), entityTableCreateSQL);
                     db.execSQL(entityTableCreateSQL);
-                    LogUtils.i("[Entity \"" + entity.getName() + "\"] table created");
+                    LogUtils.i("[Entity \"{}\"] table created", entity.getName());
+
+                    for (String indexCreateSQL : entity.getIndexesSQL()) {
+                        LogUtils.d("[Entity \"{}\"] {}", entity.getName(), indexCreateSQL);
+                        db.execSQL(indexCreateSQL);
+                    }
                 }
 
                 // Join tables
-                for (Relationship relationship : entity.relationships) {
-                    if (!relationship.field.isAnnotationPresent(JoinTable.class))
-                        continue;
-
-                    JoinTableObject joinTableObject = new JoinTableObject(this, entity, relationship.field);
+                for (JoinTableObject joinTableObject : entity.getJoinTables()) {
                     joinTableObject.map();
                     joinTableObject.waitUntilMapped();
 
                     String joinTableCreateSQL = joinTableObject.getSQL();
-                    LogUtils.d("[Entity \"" + entity.getName() + "\"] " + joinTableCreateSQL);
+                    LogUtils.d("[Entity \"{}\"] {}", entity.getName(), joinTableCreateSQL);
                     db.execSQL(joinTableCreateSQL);
-                    LogUtils.i("[Entity \"" + entity.getName() + "\"] join table created");
+                    LogUtils.i("[Entity \"{}\"] join table created", entity.getName());
+
+                    for (String indexCreateSQL : joinTableObject.getIndexesSQL()) {
+                        LogUtils.d("[Entity \"{}\"] {}", entity.getName(), indexCreateSQL);
+                        db.execSQL(indexCreateSQL);
+                    }
                 }
             }
 
@@ -377,8 +652,11 @@ public class DatabaseObject {
      * @param oldVersion    old version
      * @param newVersion    new version
      */
-    public void upgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        LogUtils.d("[Database \"" + getName() + "\"] upgrading from version " + oldVersion + " to version " + newVersion);
+    public void upgrade(StorageConnection db, int oldVersion, int newVersion) {
+        LogUtils.d("[Database \"{}\"] upgrading from version {} to version {}", getName(), oldVersion, newVersion);
+
+        // The schema changes must be applied with the whole schema mapped
+        getEntities();
 
         doAndNotifyAll(this, () -> updating = true);
         db.beginTransaction();
@@ -411,7 +689,7 @@ public class DatabaseObject {
             doAndNotifyAll(this, () -> updating = false);
         }
 
-        LogUtils.i("[Database \"" + getName() + "\"] upgraded from version " + oldVersion + " to version " + newVersion);
+        LogUtils.i("[Database \"{}\"] upgraded from version {} to version {}", getName(), oldVersion, newVersion);
     }
 
     /**
@@ -421,8 +699,11 @@ public class DatabaseObject {
      * @param oldVersion    old version
      * @param newVersion    new version
      */
-    public void downgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        LogUtils.d("[Database \"" + getName() + "\"] downgrading from version " + oldVersion + " to version " + newVersion);
+    public void downgrade(StorageConnection db, int oldVersion, int newVersion) {
+        LogUtils.d("[Database \"{}\"] downgrading from version {} to version {}", getName(), oldVersion, newVersion);
+
+        // The schema changes must be applied with the whole schema mapped
+        getEntities();
 
         doAndNotifyAll(this, () -> updating = true);
         db.beginTransaction();
@@ -454,7 +735,7 @@ public class DatabaseObject {
             doAndNotifyAll(this, () -> updating = false);
         }
 
-        LogUtils.i("[Database \"" + getName() + "\"] downgraded from version " + oldVersion + " to version " + newVersion);
+        LogUtils.i("[Database \"{}\"] downgraded from version {} to version {}", getName(), oldVersion, newVersion);
     }
 
     /**
@@ -463,7 +744,7 @@ public class DatabaseObject {
      * @param db    readable database
      * @return database dump
      */
-    public DatabaseDump getDump(SQLiteDatabase db) {
+    public DatabaseDump getDump(StorageConnection db) {
         return new DatabaseDumpImpl(db);
     }
 
@@ -472,14 +753,8 @@ public class DatabaseObject {
      *
      * @param db    writable database
      * @param dump  database dump
-     *
-     * @throws DatabaseManagementException if the database is read-only
      */
-    public void restore(SQLiteDatabase db, DatabaseDump dump) {
-        if (db.isReadOnly()) {
-            throw new DatabaseManagementException("Database not writable");
-        }
-
+    public void restore(StorageConnection db, DatabaseDump dump) {
         deleteAllTables(db);
 
         for (TableDump table : dump.getTables()) {
@@ -491,13 +766,8 @@ public class DatabaseObject {
      * Delete all the database tables.
      *
      * @param db    writable database
-     * @throws DatabaseManagementException if the database is read-only
      */
-    private void deleteAllTables(SQLiteDatabase db) {
-        if (db.isReadOnly()) {
-            throw new DatabaseManagementException("Database not writable");
-        }
-
+    private void deleteAllTables(StorageConnection db) {
         try (Cursor c = db.rawQuery("SELECT name FROM sqlite_master WHERE type='table'", null)) {
             List<String> tables = new ArrayList<>(c.getCount());
 
@@ -511,7 +781,7 @@ public class DatabaseObject {
                 }
 
                 db.execSQL("DROP TABLE IF EXISTS " + table);
-                LogUtils.i("[Table \"" + table + "\"] dropped");
+                LogUtils.i("[Table \"{}\"] dropped", table);
             }
         }
     }
@@ -21,9 +21,9 @@ import android.content.ContentValues;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import it.mscuttari.kaoldb.annotations.DiscriminatorColumn;
 import it.mscuttari.kaoldb.annotations.DiscriminatorType;
 import it.mscuttari.kaoldb.interfaces.EntityManager;
+import it.mscuttari.kaoldb.interfaces.EntitySchema;
 
 import static it.mscuttari.kaoldb.ConcurrentSession.doAndNotifyAll;
 
@@ -33,27 +33,25 @@ import static it.mscuttari.kaoldb.ConcurrentSession.doAndNotifyAll;
  */
 final class DiscriminatorColumnObject extends BaseColumnObject {
 
-    /** Discriminator column annotation */
-    private final DiscriminatorColumn annotation;
+    /** Discriminator column properties */
+    @NonNull
+    private final EntitySchema.DiscriminatorColumn properties;
 
     /**
      * Constructor to create a column that is not linked to a field.
      *
-     * @param db        database
-     * @param entity    entity the column belongs to
+     * @param db            database
+     * @param entity        entity the column belongs to
+     * @param properties    discriminator column properties
      */
     public DiscriminatorColumnObject(@NonNull DatabaseObject db,
-                                     @NonNull EntityObject<?> entity) {
+                                     @NonNull EntityObject<?> entity,
+                                     @NonNull EntitySchema.DiscriminatorColumn properties) {
 
         super(db, entity);
 
-        this.annotation = entity.clazz.getAnnotation(DiscriminatorColumn.class);
-
-        if (this.annotation == null) {
-            throw new IllegalArgumentException("Entitiy \"" + entity.getName() + "\" has no discriminator column");
-        }
-
-        this.name = annotation.name();
+        this.properties = properties;
+        this.name = properties.name;
     }
 
     @Override
@@ -74,11 +72,11 @@ final class DiscriminatorColumnObject extends BaseColumnObject {
     @Override
     protected void loadType() {
         doAndNotifyAll(this, () -> {
-            if (annotation.discriminatorType() == DiscriminatorType.CHAR) {
+            if (properties.type == DiscriminatorType.CHAR) {
                 type = Character.class;
-            } else if (annotation.discriminatorType() == DiscriminatorType.STRING) {
+            } else if (properties.type == DiscriminatorType.STRING) {
                 type = String.class;
-            } else if (annotation.discriminatorType() == DiscriminatorType.INTEGER) {
+            } else if (properties.type == DiscriminatorType.INTEGER) {
                 type = Integer.class;
             }
         });
@@ -140,7 +138,7 @@ final class DiscriminatorColumnObject extends BaseColumnObject {
 
         for (EntityObject<?> child : entity.children) {
             if (child.clazz.isAssignableFrom(clazz)) {
-                insertIntoContentValues(cv, name, child.discriminatorValue);
+                putValue(cv, child.discriminatorValue);
                 break;
             }
         }
@@ -24,16 +24,24 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.collection.ArraySet;
 
+import com.google.common.collect.MapMaker;
+
 import org.objenesis.Objenesis;
 import org.objenesis.ObjenesisStd;
 import org.objenesis.instantiator.ObjectInstantiator;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
@@ -44,7 +52,11 @@ import it.mscuttari.kaoldb.annotations.Column;
 import it.mscuttari.kaoldb.annotations.DiscriminatorColumn;
 import it.mscuttari.kaoldb.annotations.DiscriminatorValue;
 import it.mscuttari.kaoldb.annotations.Entity;
+import it.mscuttari.kaoldb.annotations.Index;
+import it.mscuttari.kaoldb.annotations.Inheritance;
+import it.mscuttari.kaoldb.annotations.InheritanceType;
 import it.mscuttari.kaoldb.annotations.JoinColumn;
+import it.mscuttari.kaoldb.annotations.JoinTable;
 import it.mscuttari.kaoldb.annotations.ManyToMany;
 import it.mscuttari.kaoldb.annotations.ManyToOne;
 import it.mscuttari.kaoldb.annotations.OneToMany;
@@ -55,11 +67,12 @@ import it.mscuttari.kaoldb.exceptions.InvalidConfigException;
 import it.mscuttari.kaoldb.exceptions.MappingException;
 import it.mscuttari.kaoldb.exceptions.PojoException;
 import it.mscuttari.kaoldb.exceptions.QueryException;
+import it.mscuttari.kaoldb.interfaces.EntityAccessor;
 import it.mscuttari.kaoldb.interfaces.EntityManager;
+import it.mscuttari.kaoldb.interfaces.EntitySchema;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static it.mscuttari.kaoldb.ConcurrentSession.doAndNotifyAll;
-import static it.mscuttari.kaoldb.ConcurrentSession.waitWhile;
 import static it.mscuttari.kaoldb.StringUtils.escape;
 import static it.mscuttari.kaoldb.mapping.Propagation.Action.CASCADE;
 
@@ -68,6 +81,9 @@ import static it.mscuttari.kaoldb.mapping.Propagation.Action.CASCADE;
  */
 public class EntityObject<T> {
 
+    /** Suffix of the accessor classes generated by the annotation processor */
+    private static final String ACCESSOR_SUFFIX = "_Accessor";
+
     /** Database the entity belongs to */
     public final DatabaseObject db;
 
@@ -77,6 +93,14 @@ public class EntityObject<T> {
     /** Entity class instantiator */
     private final ObjectInstantiator<T> instantiator;
 
+    /** Accessor generated by the annotation processor (null if not available) */
+    @Nullable
+    private final EntityAccessor<T> accessor;
+
+    /** Mapping metadata generated by the annotation processor (null if reflection must be used) */
+    @Nullable
+    private final EntitySchema schema;
+
     /**
      * Parent entity.
      * <p><code>Null</code> if the entity has no parent.</p>
@@ -108,15 +132,33 @@ public class EntityObject<T> {
     @NonNull
     public Collection<EntityObject<? extends T>> children = new ArraySet<>();
 
+    /**
+     * Children entities whose mapping has been started by this entity.
+     * <p>Used, during the mapping process, to wait for them to be added to {@link #children}.</p>
+     *
+     * @see #loadChildren()
+     */
+    private final Collection<EntityObject<?>> childrenMapping = new ArrayList<>();
+
     /**
      * Table name.
      * <p><code>Null</code> if the entity doesn't require a real table.</p>
+     * <p>In case of {@link InheritanceType#SINGLE_TABLE} inheritance, all the entities of the
+     * hierarchy share the table of the root entity.</p>
      *
      * @see #loadTableName()
      */
     @Nullable
     public String tableName;
 
+    /**
+     * Whether the entity has its own table or it is stored in the table of the root entity of
+     * a {@link InheritanceType#SINGLE_TABLE} hierarchy.
+     *
+     * @see #loadTableName()
+     */
+    private volatile boolean ownTable = true;
+
     /**
      * Columns of the table.
      *
@@ -130,6 +172,14 @@ public class EntityObject<T> {
     /** Whether, during the mapping process, the parent columns have already been added or not */
     private final AtomicBoolean parentColumnsInherited = new AtomicBoolean(false);
 
+    /**
+     * Whether the loading of the columns has been started by a synchronous mapping.
+     * <p>Accessed only by the thread performing the mapping.</p>
+     *
+     * @see #loadColumnsSynchronously()
+     */
+    private boolean columnsLoadingStarted = false;
+
     /**
      * Discriminator column.
      *
@@ -149,6 +199,31 @@ public class EntityObject<T> {
      */
     public Relationships relationships = new Relationships();
 
+    /**
+     * SQL fragments of the entity, built once the mapping has been completed.
+     */
+    public final SqlTemplates templates = new SqlTemplates(this);
+
+    /**
+     * Columns of the fields of {@link #clazz} (inherited ones included), resolved the first time
+     * they are referenced by a query.
+     *
+     * @see #getPropertyColumns(String)
+     */
+    private final Map<String, PropertyColumns> propertyColumns = new ConcurrentHashMap<>();
+
+    /**
+     * Column values of the objects loaded from or saved into the entity table, as they are
+     * stored in the database.
+     *
+     * <p>Objects are compared by identity and weakly referenced, so that the snapshots are
+     * discarded together with the objects they belong to. The discriminator column is not
+     * tracked, as it can't change without changing the object class.</p>
+     *
+     * @see #getChangedContentValues(Object, EntityManager)
+     */
+    private final Map<Object, Snapshot> snapshots = new MapMaker().weakKeys().makeMap();
+
     /**
      * Constructor.
      *
@@ -161,6 +236,61 @@ public class EntityObject<T> {
 
         Objenesis objenesis = new ObjenesisStd();
         this.instantiator = objenesis.getInstantiatorOf(clazz);
+
+        this.accessor = loadGenerated(clazz, ACCESSOR_SUFFIX);
+        this.schema = db.getGeneratedSchema(clazz);
+    }
+
+    /**
+     * Load a class generated by the annotation processor for an entity class and create
+     * its instance.
+     *
+     * @param clazz     entity class
+     * @param suffix    suffix of the generated class name
+     * @param <G>       generated class
+     *
+     * @return instance, or <code>null</code> if the class has not been generated
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static <G> G loadGenerated(Class<?> clazz, String suffix) {
+        // The classes generated for nested classes are top level classes of the same package,
+        // named after the enclosing classes too (i.e. Outer_Inner_Accessor)
+        String name = clazz.getName();
+        int packageLength = name.lastIndexOf('.') + 1;
+        String className = name.substring(0, packageLength) + name.substring(packageLength).replace('$', '_') + suffix;
+
+        try {
+            Class<?> generatedClass = Class.forName(className, true, clazz.getClassLoader());
+            return (G) generatedClass.newInstance();
+
+        } catch (ClassNotFoundException e) {
+            return null;
+
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            LogUtils.w("Can't load generated class \"{}\": {}", className, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Get the accessor generated by the annotation processor.
+     *
+     * @return accessor, or <code>null</code> if the fields have to be accessed through reflection
+     */
+    @Nullable
+    EntityAccessor<T> getAccessor() {
+        return accessor;
+    }
+
+    /**
+     * Get the mapping metadata generated by the annotation processor.
+     *
+     * @return schema, or <code>null</code> if the entity is mapped through reflection
+     */
+    @Nullable
+    EntitySchema getSchema() {
+        return schema;
     }
 
     /**
@@ -176,21 +306,88 @@ public class EntityObject<T> {
         EntityObject<T> result = new EntityObject<>(db, clazz);
 
         ConcurrentSession.singleTask(() -> {
-            LogUtils.d("[Database \"" + db.getName() + "\"] mapping class \"" + clazz.getSimpleName() + "\"");
-
-            result.loadTableName();
-            result.loadParent();
-            result.loadDiscriminatorValue();
-            result.loadRelationships();
-            result.loadColumns();
-
-            // Tell the database that the entity has been completely mapped
-            db.entityMapped();
+            try {
+                LogUtils.d("[Database \"{}\"] mapping class \"{}\"{}",
+                        db.getName(), clazz.getSimpleName(), result.schema == null ? " through reflection" : "");
+
+                result.loadTableName();
+                result.loadChildren();
+                result.loadParent();
+                result.loadDiscriminatorValue();
+                result.loadRelationships();
+                result.loadColumns();
+
+            } catch (RuntimeException e) {
+                LogUtils.e("[Entity \"{}\"] mapping failed: {}", result.getName(), e.getMessage());
+
+                // The entity is left partially mapped: the failure is reported to whoever needs
+                // the entity, and to the mapping tasks waiting for its properties
+                db.mappingFailed(result, e);
+
+            } finally {
+                // Tell the database that the entity mapping has ended, so that the threads
+                // waiting for it are not blocked forever
+                db.entityMapped();
+            }
         });
 
         return result;
     }
 
+    /**
+     * Create the {@link EntityObject} linked to an entity class, without starting the mapping
+     * process.
+     *
+     * @param db        database
+     * @param clazz     entity class
+     * @param <T>       entity class
+     *
+     * @return entity object
+     * @see #mapSynchronously(DatabaseObject, Collection)
+     */
+    static <T> EntityObject<T> create(@NonNull DatabaseObject db, @NonNull Class<T> clazz) {
+        return new EntityObject<>(db, clazz);
+    }
+
+    /**
+     * Map a group of entities on the calling thread.
+     *
+     * <p>
+     * The entities must have a generated schema and must already be known by the database, so
+     * that their properties never have to be waited for. Each step is performed for all the
+     * entities before moving to the next one. The columns are loaded last, as they need the
+     * hierarchy to be known: the columns of the parents and of the entities referenced by the
+     * join columns are loaded on demand, before the ones depending on them.
+     * </p>
+     *
+     * @param db        database
+     * @param entities  entities to be mapped
+     */
+    static void mapSynchronously(@NonNull DatabaseObject db, @NonNull Collection<EntityObject<?>> entities) {
+        EntityObject<?> current = null;
+
+        try {
+            for (EntityObject<?> entity : entities) {
+                current = entity;
+                LogUtils.d("[Database \"{}\"] mapping class \"{}\"", db.getName(), entity.getName());
+
+                entity.loadTableName();
+                entity.loadParent();
+                entity.loadDiscriminatorValue();
+                entity.loadRelationships();
+            }
+
+            for (EntityObject<?> entity : entities) {
+                current = entity;
+                entity.loadColumnsSynchronously();
+            }
+
+        } catch (RuntimeException e) {
+            LogUtils.e("[Entity \"{}\"] mapping failed: {}", current.getName(), e.getMessage());
+            db.mappingFailed(current, e);
+        }
+    }
+
     @NonNull
     @Override
     public String toString() {
@@ -239,10 +436,42 @@ public class EntityObject<T> {
      *                                anyway not supported)
      */
     private void loadTableName() {
+        // The entities of a single table hierarchy are stored in the table of the root entity
+        Class<?> tableOwner = getSingleTableRoot();
+
+        if (tableOwner != null) {
+            EntityObject<?> root = db.mapEntity(tableOwner);
+            String rootTableName;
+
+            if (root.schema != null) {
+                // The table name of the root is already known, without waiting for its mapping
+                rootTableName = root.schema.getTableName();
+            } else {
+                db.waitForMapping(root, () -> root.tableName == null);
+                rootTableName = root.tableName;
+            }
+
+            Table annotation = clazz.getAnnotation(Table.class);
+
+            if (annotation != null && !annotation.name().isEmpty()) {
+                LogUtils.w("[Class \"{}\"] table name ignored, as the entity is stored in the table of its hierarchy", clazz.getSimpleName());
+            }
+
+            doAndNotifyAll(this, () -> {
+                tableName = rootTableName;
+                ownTable = false;
+            });
+
+            return;
+        }
+
         String result;
-        Table annotation = clazz.getAnnotation(Table.class);
+        Table annotation = schema == null ? clazz.getAnnotation(Table.class) : null;
+
+        if (schema != null) {
+            result = schema.getTableName();
 
-        if (annotation == null) {
+        } else if (annotation == null) {
             throw new InvalidConfigException("Class " + clazz.getSimpleName() + " doesn't have the @Table annotation");
 
         } else if (!annotation.name().isEmpty()) {
@@ -251,7 +480,7 @@ public class EntityObject<T> {
 
         } else {
             // Default table name
-            LogUtils.w("[Class \"" + clazz.getSimpleName() + "\"] table name not specified, using the default one based on class name");
+            LogUtils.w("[Class \"{}\"] table name not specified, using the default one based on class name", clazz.getSimpleName());
 
             String className = clazz.getSimpleName();
             char[] c = className.toCharArray();
@@ -263,20 +492,179 @@ public class EntityObject<T> {
         doAndNotifyAll(this, () -> tableName = result);
     }
 
+    /**
+     * Get the root entity of the hierarchy, if the hierarchy uses the
+     * {@link InheritanceType#SINGLE_TABLE} strategy.
+     *
+     * <p>The root entity is the farthest superclass belonging to the database. The hierarchy
+     * is scanned through reflection, as the parent entity is not known yet.</p>
+     *
+     * @return root entity class, or <code>null</code> if the entity has its own table (because
+     *         it is the root itself or because its hierarchy uses the
+     *         {@link InheritanceType#JOINED} strategy)
+     */
+    @Nullable
+    private Class<?> getSingleTableRoot() {
+        Class<?> root = null;
+
+        for (Class<?> superClass = clazz.getSuperclass(); superClass != null && superClass != Object.class; superClass = superClass.getSuperclass()) {
+            if (db.contains(superClass)) {
+                root = superClass;
+            }
+        }
+
+        if (root == null)
+            return null;
+
+        Inheritance inheritance = root.getAnnotation(Inheritance.class);
+        return inheritance != null && inheritance.strategy() == InheritanceType.SINGLE_TABLE ? root : null;
+    }
+
+    /**
+     * Check whether the entity has its own table.
+     *
+     * @return <code>false</code> if the entity is stored in the table of its parent
+     *         ({@link InheritanceType#SINGLE_TABLE} inheritance); <code>true</code> otherwise
+     */
+    public boolean hasOwnTable() {
+        return ownTable;
+    }
+
+    /**
+     * Get the entities whose columns are stored in the table of this entity.
+     *
+     * @return this entity, followed by its descendants sharing the same table (empty list if
+     *         the entity doesn't have its own table)
+     */
+    public List<EntityObject<?>> getTableEntities() {
+        if (!hasOwnTable()) {
+            return Collections.emptyList();
+        }
+
+        List<EntityObject<?>> result = new ArrayList<>();
+        result.add(this);
+
+        for (int i = 0; i < result.size(); i++) {
+            for (EntityObject<?> child : result.get(i).children) {
+                if (!child.hasOwnTable()) {
+                    result.add(child);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the descendant entities whose tables have to be joined by a query.
+     *
+     * <p>
+     * The hierarchy is scanned depth first. If a restriction is set, only its ancestors and its
+     * subtree are included.
+     * </p>
+     *
+     * @param restriction   descendant entity all the rows are known to belong to
+     *                      (<code>null</code> to get all the descendants)
+     *
+     * @return descendant entities
+     */
+    public List<EntityObject<? extends T>> getDescendants(@Nullable EntityObject<?> restriction) {
+        List<EntityObject<? extends T>> result = new ArrayList<>();
+        Stack<EntityObject<? extends T>> children = new Stack<>();
+        children.push(this);
+
+        while (!children.empty()) {
+            EntityObject<? extends T> node = children.pop();
+
+            for (EntityObject<? extends T> child : node.children) {
+                if (restriction == null || child.isAncestorOf(restriction) || restriction.isAncestorOf(child)) {
+                    result.add(child);
+                }
+
+                // Depth first scan
+                if (child.children.size() != 0) {
+                    children.push(child);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Check whether this entity is an ancestor of another one.
+     *
+     * @param entity    entity
+     * @return <code>true</code> if this is the entity itself or one of its parents;
+     *         <code>false</code> otherwise
+     */
+    public boolean isAncestorOf(@NonNull EntityObject<?> entity) {
+        for (EntityObject<?> current = entity; current != null; current = current.getParent()) {
+            if (current == this) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the alias of the table containing the columns of this entity, when the entity is
+     * part of the hierarchy of an entity referenced by a query.
+     *
+     * <p>The tables of the parents and children are joined using the alias of the referenced
+     * entity followed by their entity name, unless they are stored in the same table of the
+     * referenced entity.</p>
+     *
+     * @param referenced    entity referenced by the query
+     * @param alias         alias of the referenced entity
+     *
+     * @return table alias
+     */
+    public String getTableAlias(@NonNull EntityObject<?> referenced, @NonNull String alias) {
+        return Objects.equals(tableName, referenced.tableName) ? alias : alias + getName();
+    }
+
+    /**
+     * Start the mapping of the children entities.
+     *
+     * <p>The children are required in order to determine the discriminator column and to load
+     * the polymorphic results. Each of them will add itself to {@link #children} as soon as it
+     * determines its parent.</p>
+     */
+    private void loadChildren() {
+        for (Class<?> childClass : db.getChildClasses(clazz)) {
+            childrenMapping.add(db.mapEntity(childClass));
+        }
+    }
+
     /**
      * Determine the parent entity and eventually add this entity to its children.
      */
+    @SuppressWarnings("unchecked")
     private void loadParent() {
         EntityObject<? super T> parent = null;
         Class<? super T> superClass = clazz.getSuperclass();
 
+        // The parent found by the annotation processor can be used only if it belongs to the
+        // same database, as otherwise the hierarchy has to be walked further up
+        Class<?> schemaParent = schema == null ? null : schema.getParent();
+
+        if (schema != null && (schemaParent == null || db.contains(schemaParent))) {
+            superClass = null;
+
+            if (schemaParent != null) {
+                parent = db.mapEntity((Class<? super T>) schemaParent);
+            }
+        }
+
         while (superClass != null && superClass != Object.class && parent == null) {
             // We need to check if the current class is one of the mapped classes,
             // because there could be non-entity classes between the child and the
             // parent entities.
 
             if (db.contains(superClass)) {
-                parent = db.getEntity(superClass);
+                parent = db.mapEntity(superClass);
             }
 
             // Go up in the class hierarchy (which can be, as explained before,
@@ -285,7 +673,7 @@ public class EntityObject<T> {
         }
 
         if (parent != null) {
-            LogUtils.d("[Entity \"" + getName() + "\"] found parent \"" + parent.getName() + "\"");
+            LogUtils.d("[Entity \"{}\"] found parent \"{}\"", getName(), parent.getName());
             parent.addChild(this);
         }
 
@@ -304,7 +692,7 @@ public class EntityObject<T> {
      */
     private void addChild(EntityObject<? extends T> child) {
         doAndNotifyAll(this, () -> {
-            LogUtils.d("[Entity \"" + getName() + "\"] found child \"" + child.getName() + "\"");
+            LogUtils.d("[Entity \"{}\"] found child \"{}\"", getName(), child.getName());
             children.add(child);
         });
     }
@@ -315,7 +703,7 @@ public class EntityObject<T> {
      * @see #loadParent()
      */
     private void waitUntilParentLoaded() {
-        waitWhile(this, () -> !parentLoaded.get());
+        db.waitForMapping(this, () -> !parentLoaded.get());
     }
 
     /**
@@ -334,8 +722,15 @@ public class EntityObject<T> {
      * Determine the discriminator value.
      */
     private void loadDiscriminatorValue() {
-        DiscriminatorValue annotation = clazz.getAnnotation(DiscriminatorValue.class);
-        Object value = annotation == null ? null : annotation.value();
+        Object value;
+
+        if (schema != null) {
+            value = schema.getDiscriminatorValue();
+        } else {
+            DiscriminatorValue annotation = clazz.getAnnotation(DiscriminatorValue.class);
+            value = annotation == null ? null : annotation.value();
+        }
+
         doAndNotifyAll(this, () -> discriminatorValue = value);
     }
 
@@ -368,6 +763,15 @@ public class EntityObject<T> {
      * {@link OneToMany}, {@link ManyToMany} or {@link ManyToMany}.
      */
     private void loadRelationships() {
+        if (schema != null) {
+            for (String fieldName : schema.getRelationships()) {
+                Relationship relationship = new Relationship(db, getDeclaredField(fieldName));
+                doAndNotifyAll(this, () -> relationships.add(relationship));
+            }
+
+            return;
+        }
+
         for (Field field : clazz.getDeclaredFields()) {
             field.setAccessible(true);
 
@@ -433,84 +837,102 @@ public class EntityObject<T> {
     public void loadColumns() {
         // Normal and join columns
 
-        for (Field field : clazz.getDeclaredFields()) {
-            if (field.isAnnotationPresent(Column.class)) {
-                columns.addAll(Columns.entityFieldToColumns(db, this, field));
+        if (schema != null) {
+            for (EntitySchema.SimpleColumn column : schema.getColumns()) {
+                columns.add(new SimpleColumnObject(db, this, getDeclaredField(column.field), column));
+            }
 
-            } else if (field.isAnnotationPresent(OneToOne.class)) {
-                OneToOne annotation = field.getAnnotation(OneToOne.class);
+            for (String fieldName : schema.getJoinColumns()) {
+                columns.addAll(Columns.entityFieldToColumns(db, this, getDeclaredField(fieldName)));
+            }
 
-                if (!annotation.mappedBy().isEmpty())
-                    continue;
+        } else {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Column.class)) {
+                    columns.addAll(Columns.entityFieldToColumns(db, this, field));
 
-                columns.addAll(Columns.entityFieldToColumns(db, this, field));
+                } else if (field.isAnnotationPresent(OneToOne.class)) {
+                    OneToOne annotation = field.getAnnotation(OneToOne.class);
 
-            } else if (field.isAnnotationPresent(ManyToOne.class)) {
-                columns.addAll(Columns.entityFieldToColumns(db, this, field));
-            }
+                    if (!annotation.mappedBy().isEmpty())
+                        continue;
+
+                    columns.addAll(Columns.entityFieldToColumns(db, this, field));
+
+                } else if (field.isAnnotationPresent(ManyToOne.class)) {
+                    columns.addAll(Columns.entityFieldToColumns(db, this, field));
+                }
 
-            // Fields annotated with @OneToMany and @ManyToMany are skipped because they don't lead to new columns.
-            // In fact, those annotations should only map the existing table columns to the join table ones.
+                // Fields annotated with @OneToMany and @ManyToMany are skipped because they don't lead to new columns.
+                // In fact, those annotations should only map the existing table columns to the join table ones.
+            }
         }
 
         columns.map();
         columns.waitUntilMapped();
 
-        LogUtils.i("[Entity \"" + getName() + "\"] own columns mapped");
+        LogUtils.i("[Entity \"{}\"] own columns mapped", getName());
 
-        // Wait until all the hierarchies are determined
-        Collection<EntityObject<?>> entities = db.getEntities();
+        // The rows of the other entities of a single table hierarchy don't have values for
+        // the own columns of this entity
+        if (!hasOwnTable()) {
+            for (BaseColumnObject column : columns) {
+                doAndNotifyAll(column, () -> column.nullable = true);
+            }
+        }
 
-        for (EntityObject<?> entity : entities) {
-            entity.waitUntilParentLoaded();
+        // Wait until all the children have been determined
+        for (EntityObject<?> child : childrenMapping) {
+            child.waitUntilParentLoaded();
         }
 
         // Parent inherited primary keys
         EntityObject<? super T> parent = getParent();
 
         if (parent != null) {
-            waitWhile(parent, () -> !parent.parentColumnsInherited.get());
+            if (db.isMappingSynchronously()) {
+                parent.loadColumnsSynchronously();
+            }
+
+            db.waitForMapping(parent, () -> !parent.parentColumnsInherited.get());
             columns.addAll(parent.columns.getPrimaryKeys());
         }
 
         doAndNotifyAll(this, () -> parentColumnsInherited.set(true));
-        LogUtils.i("[Entity \"" + getName() + "\"] inherited columns added");
+        LogUtils.i("[Entity \"{}\"] inherited columns added", getName());
 
         // Discriminator column
 
         if (children.size() != 0) {
-            if (!clazz.isAnnotationPresent(DiscriminatorColumn.class))
-                throw new InvalidConfigException("Class " + getName() + " has no @DiscriminatorColumn");
-
-            DiscriminatorColumn discriminatorColumnAnnotation = clazz.getAnnotation(DiscriminatorColumn.class);
+            EntitySchema.DiscriminatorColumn discriminatorColumnProperties = getDiscriminatorColumnProperties();
 
-            if (discriminatorColumnAnnotation == null) {
-                // Security check. Normally not reachable.
-                throw new MappingException("Class " + getName() + " doesn't have @DiscriminatorColumn annotation");
-            }
+            if (discriminatorColumnProperties == null)
+                throw new InvalidConfigException("Class " + getName() + " has no @DiscriminatorColumn");
 
-            if (discriminatorColumnAnnotation.name().isEmpty())
+            if (discriminatorColumnProperties.name.isEmpty())
                 throw new InvalidConfigException("Class " + getName() + ": empty discriminator column");
 
-            discriminatorColumn = columns.get(discriminatorColumnAnnotation.name());
+            discriminatorColumn = columns.get(discriminatorColumnProperties.name);
 
             // Create the discriminator column if it doesn't exist
             if (discriminatorColumn == null) {
-                discriminatorColumn = new DiscriminatorColumnObject(db, this);
+                discriminatorColumn = new DiscriminatorColumnObject(db, this, discriminatorColumnProperties);
                 discriminatorColumn.map();
                 discriminatorColumn.waitUntilMapped();
 
                 columns.add(discriminatorColumn);
             }
 
-            doAndNotifyAll(discriminatorColumn, () -> discriminatorColumn.nullable = false);
+            // The rows of the sibling entities stored in the same table don't have a value
+            boolean nullable = !hasOwnTable();
+            doAndNotifyAll(discriminatorColumn, () -> discriminatorColumn.nullable = nullable);
 
             // Fix the discriminator value type
             for (EntityObject<? extends T> child : children) {
                 doAndNotifyAll(child, () -> {
                     assert child.discriminatorValue != null;
 
-                    switch (discriminatorColumnAnnotation.discriminatorType()) {
+                    switch (discriminatorColumnProperties.type) {
                         case CHAR:
                             child.discriminatorValue = ((String) child.discriminatorValue).charAt(0);
                             break;
@@ -523,7 +945,95 @@ public class EntityObject<T> {
             }
         }
 
-        LogUtils.d("[Entity \"" + getName() + "\"] all columns loaded");
+        LogUtils.d("[Entity \"{}\"] all columns loaded", getName());
+    }
+
+    /**
+     * Load the columns during a synchronous mapping, if not already done or in progress.
+     *
+     * @see #mapSynchronously(DatabaseObject, Collection)
+     */
+    void loadColumnsSynchronously() {
+        if (!columnsLoadingStarted) {
+            columnsLoadingStarted = true;
+            loadColumns();
+        }
+    }
+
+    /**
+     * Get the properties of the discriminator column declared by the entity.
+     *
+     * @return discriminator column properties, or <code>null</code> if the entity doesn't have
+     *         the {@link DiscriminatorColumn} annotation
+     */
+    @Nullable
+    private EntitySchema.DiscriminatorColumn getDiscriminatorColumnProperties() {
+        if (schema != null) {
+            return schema.getDiscriminatorColumn();
+        }
+
+        DiscriminatorColumn annotation = clazz.getAnnotation(DiscriminatorColumn.class);
+        return annotation == null ? null : new EntitySchema.DiscriminatorColumn(annotation.name(), annotation.discriminatorType());
+    }
+
+    /**
+     * Get the join tables of the relationships declared by the entity, that is the ones whose
+     * field is annotated with {@link JoinTable}.
+     *
+     * <p>The join tables are not stored in the entity: new objects are created, and have to be
+     * mapped, at each call.</p>
+     *
+     * @return join tables
+     */
+    List<JoinTableObject> getJoinTables() {
+        List<JoinTableObject> result = new ArrayList<>();
+
+        if (schema != null) {
+            for (EntitySchema.JoinTable joinTable : schema.getJoinTables()) {
+                result.add(new JoinTableObject(db, this, getDeclaredField(joinTable.field), joinTable));
+            }
+
+        } else {
+            for (Relationship relationship : relationships) {
+                if (relationship.field.isAnnotationPresent(JoinTable.class)) {
+                    result.add(new JoinTableObject(db, this, relationship.field));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get a field declared by the entity class, given its name.
+     *
+     * @param fieldName     field name
+     * @return accessible field
+     * @throws MappingException if the class doesn't declare the field (i.e. the generated schema
+     *                          is out of date)
+     */
+    private Field getDeclaredField(String fieldName) {
+        try {
+            Field field = clazz.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return field;
+
+        } catch (NoSuchFieldException e) {
+            throw new MappingException("Field \"" + fieldName + "\" not found in class \"" + getName() + "\"", e);
+        }
+    }
+
+    /**
+     * Get the columns linked to a field of the entity class.
+     *
+     * <p>The annotations of the field are read just once and then cached.</p>
+     *
+     * @param fieldName     field name (the field may be inherited from a superclass)
+     * @return field columns
+     * @throws IllegalArgumentException if there is no field in the class with the specified name
+     */
+    public PropertyColumns getPropertyColumns(String fieldName) {
+        return propertyColumns.computeIfAbsent(fieldName, key -> new PropertyColumns(getField(key)));
     }
 
     /**
@@ -568,17 +1078,25 @@ public class EntityObject<T> {
      * @return object having a class equal to {@link #clazz}
      */
     public T newInstance() {
+        if (accessor != null) {
+            T result = accessor.newInstance();
+
+            if (result != null) {
+                return result;
+            }
+        }
+
         return instantiator.newInstance();
     }
 
     /**
      * Convert cursor to POJO.
      *
-     * <p>The conversion automatically search for the child class according to the discriminator value.<br>
-     * In fact, the method starts with a first part with the aim of going down through the hierarchy
-     * tree in order to retrieve the leaf class representing the real object class.<br>
-     * Then, the second part creates an instance of that class and populates its basic fields with
-     * the data contained in the cursor.</p>
+     * <p>The conversion automatically search for the child class according to the discriminator
+     * value, and then populates the basic fields of the object with the data contained in the
+     * cursor.<br>
+     * When converting multiple rows of the same query, a {@link HydrationPlan} should be used
+     * instead, in order to avoid resolving the columns again for each row.</p>
      *
      * @param c             cursor
      * @param alias         result class alias
@@ -589,58 +1107,7 @@ public class EntityObject<T> {
      *                       if it can not be instantiated
      */
     public T parseCursor(Cursor c, String alias) {
-        // The result class may be abstract, so we need to determine the real class of the result,
-        // which will be a subclass of the requested one.
-
-        EntityObject<? extends T> resultEntity = this;
-        String fullAlias = alias;
-
-        // Go down to the child class.
-        // Each iteration will go one step down through the hierarchy tree.
-
-        while (resultEntity.children.size() != 0) {
-            // Get the discriminator value
-            assert resultEntity.discriminatorColumn != null;
-            String discriminatorColumnName = fullAlias + "." + resultEntity.discriminatorColumn.name;
-            int columnIndex = c.getColumnIndexOrThrow(discriminatorColumnName);
-            Object discriminatorValue = null;
-
-            if (resultEntity.discriminatorColumn.type.equals(Integer.class)) {
-                discriminatorValue = c.getInt(columnIndex);
-            } else if (resultEntity.discriminatorColumn.type.equals(String.class)) {
-                discriminatorValue = c.getString(columnIndex);
-            }
-
-            // Determine the child class according to the discriminator value specified
-            resultEntity = resultEntity.getChild(discriminatorValue);
-            fullAlias = alias + resultEntity.getName();
-        }
-
-        T result = resultEntity.newInstance();
-
-        // We are now in the leaf entity. Go back up in the hierarchy tree and populate
-        // the fields of each parent entity.
-
-        EntityObject<?> entity = resultEntity;
-
-        while (entity != null) {
-            for (BaseColumnObject column : entity.columns) {
-                if (column.hasRelationship()) {
-                    // Relationships are loaded separately
-                    continue;
-                }
-
-                // The parents and the children entities have their entity name appended
-                // to their root aliases.
-
-                Object fieldValue = column.parseCursor(c, entity.clazz.equals(clazz) ? alias: alias + entity.getName());
-                column.setValue(result, fieldValue);
-            }
-
-            entity = entity.getParent();
-        }
-
-        return result;
+        return new HydrationPlan<>(this, c, alias).hydrate(c);
     }
 
     /**
@@ -674,6 +1141,110 @@ public class EntityObject<T> {
         return cv;
     }
 
+    /**
+     * Prepare the data to be updated in a particular entity table.
+     *
+     * <p>If the object has been loaded from or saved into the database, only the columns whose
+     * value has changed since then are considered, and only their data existence is checked.
+     * Otherwise, the result is the same of {@link #toContentValues(Object, EntityManager)}.<br>
+     * An empty result means that the table doesn't need to be updated.</p>
+     *
+     * @param entityManager     entity manager
+     * @param obj               object to be converted
+     *
+     * @return changed data ready to be saved in the database
+     *
+     * @throws QueryException if the object of a changed column doesn't exist in the database
+     */
+    @NonNull
+    public ContentValues getChangedContentValues(Object obj, EntityManager entityManager) {
+        Snapshot snapshot = snapshots.get(obj);
+
+        if (snapshot == null) {
+            return toContentValues(obj, entityManager);
+        }
+
+        ContentValues cv = new ContentValues();
+        int position = 0;
+
+        for (BaseColumnObject column : columns) {
+            int index = snapshot.indexOf(column, position++);
+
+            if (column instanceof DiscriminatorColumnObject) {
+                continue;
+            }
+
+            column.addToContentValues(cv, obj);
+
+            // Blobs are compared by content
+            if (index >= 0 && Objects.deepEquals(snapshot.getStoredValue(index), cv.get(column.name))) {
+                cv.remove(column.name);
+                continue;
+            }
+
+            if (!column.isDataExisting(obj, entityManager)) {
+                throw new QueryException("Object of column \"" + column.name + "\" doesn't exist in the database. Persist it first!");
+            }
+        }
+
+        return cv;
+    }
+
+    /**
+     * Check whether the column values of an object, as stored in the entity table, are known.
+     *
+     * @param obj   object
+     * @return <code>true</code> if the object has been loaded from or saved into the database;
+     *         <code>false</code> otherwise
+     */
+    public boolean hasSnapshot(Object obj) {
+        return snapshots.containsKey(obj);
+    }
+
+    /**
+     * Save the column values of an object, as they have just been read from the entity table.
+     *
+     * @param obj       object
+     * @param snapshot  column values
+     */
+    void putSnapshot(Object obj, Snapshot snapshot) {
+        snapshots.put(obj, snapshot);
+    }
+
+    /**
+     * Save the current column values of an object, as they have just been stored in the
+     * entity table.
+     *
+     * @param obj   object
+     */
+    public void takeSnapshot(Object obj) {
+        List<BaseColumnObject> snapshotColumns = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        ContentValues cv = new ContentValues();
+
+        // The discriminator column is kept, with no value, so that the snapshot is aligned
+        // with the entity columns
+        for (BaseColumnObject column : columns) {
+            if (!(column instanceof DiscriminatorColumnObject)) {
+                column.addToContentValues(cv, obj);
+            }
+
+            snapshotColumns.add(column);
+            values.add(cv.get(column.name));
+        }
+
+        snapshots.put(obj, new Snapshot(snapshotColumns.toArray(new BaseColumnObject[0]), values.toArray(), true));
+    }
+
+    /**
+     * Forget the column values of an object, as it has been removed from the entity table.
+     *
+     * @param obj   object
+     */
+    public void discardSnapshot(Object obj) {
+        snapshots.remove(obj);
+    }
+
     /**
      * Get the SQL query to create the entity table.
      *
@@ -681,10 +1252,19 @@ public class EntityObject<T> {
      * Optional join tables that are related to eventual internal fields must be managed
      * separately and in a second moment (after the creation of all the normal tables).</p>
      *
-     * @return SQL query for table creation
+     * <p>In case of {@link InheritanceType#SINGLE_TABLE} inheritance, the table of the root
+     * entity contains also the columns and the constraints of all its descendants.</p>
+     *
+     * @return SQL query for table creation (<code>null</code> if the entity doesn't have its
+     *         own table)
      */
     @Nullable
     public String getSQL() {
+        if (!hasOwnTable()) {
+            return null;
+        }
+
+        List<EntityObject<?>> tableEntities = getTableEntities();
         StringBuilder result = new StringBuilder();
 
         // Table name
@@ -693,10 +1273,28 @@ public class EntityObject<T> {
                 .append(" (");
 
         // Columns
-        String columnSql = columns.getSQL();
+        if (tableEntities.size() == 1) {
+            String columnSql = columns.getSQL();
 
-        if (columnSql != null && !columnSql.isEmpty())
-            result.append(columnSql);
+            if (columnSql != null && !columnSql.isEmpty())
+                result.append(columnSql);
+
+        } else {
+            // The inherited primary keys and the columns declared by more entities are
+            // created just once
+            Collection<String> names = new HashSet<>();
+            List<String> columnsSql = new ArrayList<>();
+
+            for (EntityObject<?> entity : tableEntities) {
+                for (BaseColumnObject column : entity.columns) {
+                    if (names.add(column.name)) {
+                        columnsSql.add(column.getSQL());
+                    }
+                }
+            }
+
+            result.append(columnsSql.stream().collect(Collectors.joining(", ")));
+        }
 
         // Primary keys
         String primaryKeysSql = getTablePrimaryKeysSql(columns.getPrimaryKeys());
@@ -706,7 +1304,13 @@ public class EntityObject<T> {
         }
 
         // Unique keys (multiple columns)
-        String uniqueKeysSql = getTableUniquesSql(getMultipleUniqueColumns());
+        Collection<Collection<BaseColumnObject>> uniqueColumns = new ArrayList<>();
+
+        for (EntityObject<?> entity : tableEntities) {
+            uniqueColumns.addAll(entity.getMultipleUniqueColumns());
+        }
+
+        String uniqueKeysSql = getTableUniquesSql(uniqueColumns);
 
         if (!uniqueKeysSql.isEmpty()) {
             result.append(", ").append(uniqueKeysSql);
@@ -724,6 +1328,93 @@ public class EntityObject<T> {
         return result.toString();
     }
 
+    /**
+     * Get the SQL statements to create the indexes of the table.
+     *
+     * <p>
+     * Beside the indexes declared in the {@link Table} annotation, the following ones are
+     * automatically created:
+     * <ul>
+     *     <li>One for each group of join columns, unless disabled through
+     *     {@link JoinColumn#index()}</li>
+     *     <li>One for the discriminator column, if the entity has children</li>
+     * </ul>
+     * The automatic indexes whose columns are a prefix of the primary key or of another index
+     * are skipped, as the database can already use them for the same lookups.
+     * </p>
+     *
+     * <p>In case of {@link InheritanceType#SINGLE_TABLE} inheritance, the indexes of all the
+     * entities of the hierarchy are created on the table of the root entity.</p>
+     *
+     * @return SQL statements (empty list if the entity doesn't have its own table)
+     * @throws InvalidConfigException if an indexed column doesn't exist
+     */
+    public List<String> getIndexesSQL() {
+        List<EntityObject<?>> tableEntities = getTableEntities();
+
+        List<IndexObject> indexes = new ArrayList<>();
+        Collection<List<String>> covered = new ArrayList<>();
+
+        covered.add(columns.getPrimaryKeys().stream().map(column -> column.name).collect(Collectors.toList()));
+
+        // Declared indexes
+        for (EntityObject<?> entity : tableEntities) {
+            Table table = entity.clazz.getAnnotation(Table.class);
+
+            if (table == null)
+                continue;
+
+            for (Index index : table.indexes()) {
+                for (String columnName : index.columnNames()) {
+                    if (tableEntities.stream().allMatch(tableEntity -> tableEntity.columns.get(columnName) == null)) {
+                        throw new InvalidConfigException("Index: column \"" + columnName + "\" not found");
+                    }
+                }
+
+                IndexObject indexObject = new IndexObject(
+                        index.name().isEmpty() ? null : index.name(),
+                        tableName,
+                        Arrays.asList(index.columnNames()),
+                        index.unique(),
+                        index.where().isEmpty() ? null : index.where());
+
+                indexes.add(indexObject);
+
+                if (indexObject.where == null) {
+                    covered.add(indexObject.columns);
+                }
+            }
+        }
+
+        // Automatic indexes
+        Collection<List<String>> automatic = new ArrayList<>();
+
+        for (EntityObject<?> entity : tableEntities) {
+            for (ColumnsContainer container : entity.columns.getColumnsContainers()) {
+                List<String> indexed = container.accept(new AutomaticIndexVisitor());
+
+                if (!indexed.isEmpty()) {
+                    automatic.add(indexed);
+                }
+            }
+
+            if (entity.discriminatorColumn != null && !entity.children.isEmpty()) {
+                automatic.add(Collections.singletonList(entity.discriminatorColumn.name));
+            }
+        }
+
+        for (List<String> indexed : automatic) {
+            IndexObject indexObject = new IndexObject(null, tableName, indexed, false, null);
+
+            if (!indexObject.isCoveredBy(covered)) {
+                indexes.add(indexObject);
+                covered.add(indexObject.columns);
+            }
+        }
+
+        return indexes.stream().map(IndexObject::getSQL).collect(Collectors.toList());
+    }
+
     /**
      * Get primary keys SQL statement to be inserted in the create table query.
      *
@@ -791,10 +1482,12 @@ public class EntityObject<T> {
         }
 
         // Relationships
-        String relationshipsSql = getTableRelationshipsConstraints();
+        for (EntityObject<?> entity : getTableEntities()) {
+            String relationshipsSql = entity.getTableRelationshipsConstraints();
 
-        if (relationshipsSql != null && !relationshipsSql.isEmpty()) {
-            constraints.add(relationshipsSql);
+            if (relationshipsSql != null && !relationshipsSql.isEmpty()) {
+                constraints.add(relationshipsSql);
+            }
         }
 
         // Create SQL statement
@@ -871,6 +1564,50 @@ public class EntityObject<T> {
         return constraints.stream().collect(Collectors.joining(", "));
     }
 
+    /**
+     * Get the names of the columns that have to be indexed automatically, that is the join
+     * columns whose index has not been disabled.
+     */
+    private static class AutomaticIndexVisitor implements ColumnsContainer.Visitor<List<String>> {
+
+        @Override
+        public List<String> visit(Columns container) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> visit(DiscriminatorColumnObject column) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> visit(JoinColumnObject column) {
+            return column.isIndexed() ? Collections.singletonList(column.name) : Collections.emptyList();
+        }
+
+        @Override
+        public List<String> visit(JoinColumnsObject container) {
+            List<String> result = new ArrayList<>();
+
+            for (BaseColumnObject column : container) {
+                JoinColumnObject joinColumn = (JoinColumnObject) column;
+
+                if (!joinColumn.isIndexed()) {
+                    return Collections.emptyList();
+                }
+
+                result.add(joinColumn.name);
+            }
+
+            return result;
+        }
+
+        @Override
+        public List<String> visit(SimpleColumnObject column) {
+            return Collections.emptyList();
+        }
+    }
+
     private static class RelationshipsContraintsVisitor implements ColumnsContainer.Visitor<Collection<String>> {
 
         private final DatabaseObject db;
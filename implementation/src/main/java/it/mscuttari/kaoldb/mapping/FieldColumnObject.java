@@ -20,10 +20,9 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.lang.reflect.Field;
-import java.util.Calendar;
-import java.util.Date;
 
 import it.mscuttari.kaoldb.exceptions.PojoException;
+import it.mscuttari.kaoldb.interfaces.EntityAccessor;
 import it.mscuttari.kaoldb.interfaces.EntityManager;
 import it.mscuttari.kaoldb.interfaces.Expression;
 import it.mscuttari.kaoldb.interfaces.QueryBuilder;
@@ -39,6 +38,13 @@ public abstract class FieldColumnObject extends BaseColumnObject {
     @NonNull
     public final Field field;
 
+    /** Generated accessor of the class declaring the field (null if reflection must be used) */
+    @Nullable
+    private final EntityAccessor<Object> accessor;
+
+    /** Index of the field within the {@link #accessor} */
+    private final int accessorIndex;
+
     /**
      * Constructor.
      *
@@ -53,6 +59,17 @@ public abstract class FieldColumnObject extends BaseColumnObject {
         super(db, entity);
 
         this.field = field;
+        this.field.setAccessible(true);
+
+        // Use the generated accessor, if any, only for fields it is able to reach
+        @SuppressWarnings("unchecked")
+        EntityAccessor<Object> entityAccessor = field.getDeclaringClass() == entity.clazz ?
+                (EntityAccessor<Object>) entity.getAccessor() : null;
+
+        int index = entityAccessor == null ? -1 : entityAccessor.getFieldIndex(field.getName());
+
+        this.accessor = index < 0 ? null : entityAccessor;
+        this.accessorIndex = index;
     }
 
     @Nullable
@@ -62,7 +79,9 @@ public abstract class FieldColumnObject extends BaseColumnObject {
             return null;
         }
 
-        field.setAccessible(true);
+        if (accessor != null) {
+            return accessor.getValue(obj, accessorIndex);
+        }
 
         try {
             return field.get(obj);
@@ -73,17 +92,48 @@ public abstract class FieldColumnObject extends BaseColumnObject {
 
     @Override
     public final void setValue(Object obj, Object value) {
-        field.setAccessible(true);
+        if (accessor != null) {
+            accessor.setValue(obj, accessorIndex, value);
+            return;
+        }
 
         try {
             field.set(obj, value);
-        } catch (IllegalAccessException e) {
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            // Null values can't be assigned to primitive fields
             throw new PojoException(e);
         }
     }
 
+    /**
+     * Get the generated accessor used to read and write the field.
+     *
+     * @return accessor, or <code>null</code> if the field is accessed through reflection
+     */
+    @Nullable
+    final EntityAccessor<Object> getFieldAccessor() {
+        return accessor;
+    }
+
+    /**
+     * Get the index of the field within its generated accessor.
+     *
+     * @return field index, or <code>-1</code> if the field is accessed through reflection
+     */
+    final int getFieldAccessorIndex() {
+        return accessorIndex;
+    }
+
     @Override
     public boolean isDataExisting(Object obj, EntityManager entityManager) {
+        // Basic data can't be stored alone in the database because they have no table associated.
+        // Therefore, their existence check should be skipped (this way it is always
+        // considered successful)
+
+        if (!hasRelationship()) {
+            return true;
+        }
+
         Object fieldValue = getValue(obj);
 
         // Null data is considered to be existing
@@ -93,14 +143,6 @@ public abstract class FieldColumnObject extends BaseColumnObject {
 
         Class<?> clazz = fieldValue.getClass();
 
-        // Primitive data can't be stored alone in the database because they have no table associated.
-        // Therefore, primitive data existence check should be skipped (this way it is always
-        // considered successful)
-
-        if (isPrimitiveType(clazz)) {
-            return true;
-        }
-
         // Non-primitive data existence must be checked and so a select query is executed
         // The select query is based on the primary keys of the entity
         EntityObject<?> entity = db.getEntity(clazz);
@@ -126,36 +168,6 @@ public abstract class FieldColumnObject extends BaseColumnObject {
         return queryResult != null;
     }
 
-    /**
-     * Check if the data class can be stored in the database as if it is a primitive type.
-     *
-     * @param clazz     data class
-     * @return <code>true</code> if a "primitive-compatible class" is found;
-     *         <code>false</code> otherwise
-     */
-    private static boolean isPrimitiveType(Class<?> clazz) {
-        return  Enum.class.isAssignableFrom(clazz) ||
-                boolean.class.isAssignableFrom(clazz) ||
-                Boolean.class.isAssignableFrom(clazz) ||
-                byte.class.isAssignableFrom(clazz) ||
-                Byte.class.isAssignableFrom(clazz) ||
-                char.class.isAssignableFrom(clazz) ||
-                Character.class.isAssignableFrom(clazz) ||
-                short.class.isAssignableFrom(clazz) ||
-                Short.class.isAssignableFrom(clazz) ||
-                int.class.isAssignableFrom(clazz) ||
-                Integer.class.isAssignableFrom(clazz) ||
-                long.class.isAssignableFrom(clazz) ||
-                Long.class.isAssignableFrom(clazz) ||
-                float.class.isAssignableFrom(clazz) ||
-                Float.class.isAssignableFrom(clazz) ||
-                double.class.isAssignableFrom(clazz) ||
-                Double.class.isAssignableFrom(clazz) ||
-                String.class.isAssignableFrom(clazz) ||
-                Date.class.isAssignableFrom(clazz) ||
-                Calendar.class.isAssignableFrom(clazz);
-    }
-
     /**
      * Get the default name for a column.
      *
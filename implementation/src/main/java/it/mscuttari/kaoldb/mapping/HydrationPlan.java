@@ -0,0 +1,447 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.mapping;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import it.mscuttari.kaoldb.exceptions.PojoException;
+import it.mscuttari.kaoldb.interfaces.EntityAccessor;
+import it.mscuttari.kaoldb.interfaces.TypeConverter;
+
+/**
+ * Plan for the conversion of the rows of a query result into objects of an entity.
+ *
+ * <p>
+ * The plan is bound to the columns layout of the query it is created for: the cursor index of
+ * each column, the converters of the column values and the discriminator value - child entity
+ * lookup tables are resolved just once, so that the conversion of each row doesn't involve
+ * any string operation or column name lookup.
+ * </p>
+ *
+ * <p>
+ * The data type of each column is checked against the one written by its converter only once
+ * per cursor, on the first row having a non <code>NULL</code> value. The primitive fields
+ * covered by the generated accessors are then populated without boxing their values.
+ * </p>
+ *
+ * @param <T>   entity class
+ */
+public final class HydrationPlan<T> {
+
+    /** Node of the requested entity */
+    @NonNull
+    private final Node root;
+
+    /**
+     * Constructor.
+     *
+     * @param entity    requested entity
+     * @param c         cursor of the query results
+     * @param alias     alias of the requested entity in the query
+     */
+    public HydrationPlan(@NonNull EntityObject<T> entity, @NonNull Cursor c, @NonNull String alias) {
+        this.root = new Node(entity, entity, c, alias);
+    }
+
+    /**
+     * Convert the current row of a cursor to a POJO.
+     *
+     * <p>The discriminator columns are used to go down through the hierarchy tree until the
+     * leaf class representing the real object class is found. Then, an instance of that class
+     * is created and its basic fields, together with the ones of its parents, are populated
+     * with the data contained in the cursor.</p>
+     *
+     * @param c     cursor positioned on the row to be converted. Its columns must be the same
+     *              of the cursor used to create the plan
+     *
+     * @return populated object
+     *
+     * @throws PojoException if the child class is not found (wrong discriminator column value),
+     *                       if it can not be instantiated or if a value has a data type not
+     *                       compatible with its column
+     */
+    @SuppressWarnings("unchecked")
+    public T hydrate(@NonNull Cursor c) {
+        Node node = root;
+
+        while (node.children != null) {
+            node = node.getChild(c);
+        }
+
+        Object result = node.entity.newInstance();
+
+        for (Level level : node.levels) {
+            level.populate(c, result);
+        }
+
+        return (T) result;
+    }
+
+    /**
+     * Entity of the hierarchy tree, starting from the requested one.
+     */
+    private static final class Node {
+
+        /** Entity */
+        @NonNull
+        private final EntityObject<?> entity;
+
+        /** Cursor index of the discriminator column (only for entities having children) */
+        private final int discriminatorIndex;
+
+        /** Name of the discriminator column in the cursor (only for entities having children) */
+        private final String discriminatorName;
+
+        /** Converter of the discriminator column (only for entities having children) */
+        private final TypeConverter<Object> discriminatorConverter;
+
+        /** Children nodes, by discriminator value (<code>null</code> for leaf entities) */
+        private final Map<Object, Node> children;
+
+        /** Columns to be populated, from the entity up to the hierarchy root (only for leaf entities) */
+        private final Level[] levels;
+
+        /**
+         * Constructor.
+         *
+         * @param requested     requested entity
+         * @param entity        entity
+         * @param c             cursor of the query results
+         * @param alias         alias of the requested entity
+         */
+        Node(@NonNull EntityObject<?> requested,
+             @NonNull EntityObject<?> entity,
+             @NonNull Cursor c,
+             @NonNull String alias) {
+
+            this.entity = entity;
+
+            if (entity.children.size() == 0) {
+                // Leaf entity. Its columns and the ones of its parents have to be populated.
+                this.discriminatorIndex = -1;
+                this.discriminatorName = null;
+                this.discriminatorConverter = null;
+                this.children = null;
+
+                List<Level> levels = new ArrayList<>();
+
+                for (EntityObject<?> current = entity; current != null; current = current.getParent()) {
+                    // The parents and the children entities have their entity name appended
+                    // to their root aliases.
+                    String tableAlias = current.getTableAlias(requested, alias);
+                    levels.add(new Level(current, c, tableAlias));
+                }
+
+                this.levels = levels.toArray(new Level[0]);
+
+            } else {
+                assert entity.discriminatorColumn != null;
+
+                String tableAlias = entity.getTableAlias(requested, alias);
+                this.discriminatorName = tableAlias + "." + entity.discriminatorColumn.name;
+                this.discriminatorIndex = c.getColumnIndex(discriminatorName);
+                this.discriminatorConverter = entity.discriminatorColumn.converter;
+                this.levels = null;
+                this.children = new HashMap<>(entity.children.size());
+
+                for (EntityObject<?> child : entity.children) {
+                    // Children discriminator values should not be null by definition
+                    assert child.discriminatorValue != null : "Entity \"" + child.clazz.getSimpleName() + "\" should not have a null discriminator value";
+                    children.put(child.discriminatorValue, new Node(requested, child, c, alias));
+                }
+            }
+        }
+
+        /**
+         * Get the child node the current row of the cursor belongs to.
+         *
+         * @param c     cursor
+         * @return child node
+         * @throws NoSuchElementException if there is no child with the discriminator value found
+         *                                in the cursor
+         */
+        @NonNull
+        Node getChild(Cursor c) {
+            checkColumnIndex(discriminatorIndex, discriminatorName);
+            Object discriminatorValue = c.isNull(discriminatorIndex) ? null : discriminatorConverter.read(c, discriminatorIndex);
+            Node child = discriminatorValue == null ? null : children.get(discriminatorValue);
+
+            if (child == null) {
+                throw new NoSuchElementException("Entity \"" + entity.clazz.getSimpleName() + "\" has no child with discriminator value \"" + discriminatorValue + "\"");
+            }
+
+            return child;
+        }
+
+    }
+
+    /**
+     * Columns of a single entity table, together with their cursor indexes and readers.
+     */
+    private static final class Level {
+
+        /** Entity */
+        @NonNull
+        private final EntityObject<?> entity;
+
+        /** Columns */
+        @NonNull
+        private final BaseColumnObject[] columns;
+
+        /** Names of the columns in the cursor */
+        @NonNull
+        private final String[] names;
+
+        /** Indexes of the columns in the cursor */
+        @NonNull
+        private final int[] indexes;
+
+        /** Converters of the columns values */
+        @NonNull
+        private final TypeConverter<Object>[] converters;
+
+        /** Cursor data types of the columns values */
+        @NonNull
+        private final int[] types;
+
+        /** Whether the values of the columns have to be assigned to the object fields */
+        @NonNull
+        private final boolean[] assigned;
+
+        /**
+         * Primitive types of the fields populated without boxing their values
+         * (<code>null</code> if there are no such fields)
+         */
+        @Nullable
+        private final PrimitiveType[] primitiveTypes;
+
+        /** Accessors of the fields populated without boxing their values */
+        @NonNull
+        private final EntityAccessor<Object>[] accessors;
+
+        /** Indexes of the fields within their {@link #accessors} */
+        @NonNull
+        private final int[] accessorIndexes;
+
+        /** Cursor whose data types have been checked */
+        @Nullable
+        private Cursor checkedCursor;
+
+        /** Whether the data types of the columns have been checked for {@link #checkedCursor} */
+        @NonNull
+        private final boolean[] checked;
+
+        /**
+         * Constructor.
+         *
+         * @param entity    entity
+         * @param c         cursor of the query results
+         * @param alias     alias of the entity table
+         */
+        @SuppressWarnings("unchecked")
+        Level(@NonNull EntityObject<?> entity, @NonNull Cursor c, @NonNull String alias) {
+            this.entity = entity;
+
+            List<BaseColumnObject> columns = new ArrayList<>();
+
+            for (BaseColumnObject column : entity.columns) {
+                columns.add(column);
+            }
+
+            int size = columns.size();
+            this.columns = columns.toArray(new BaseColumnObject[size]);
+            this.names = new String[size];
+            this.indexes = new int[size];
+            this.converters = new TypeConverter[size];
+            this.types = new int[size];
+            this.assigned = new boolean[size];
+            this.accessors = new EntityAccessor[size];
+            this.accessorIndexes = new int[size];
+            this.checked = new boolean[size];
+
+            PrimitiveType[] primitiveTypes = new PrimitiveType[size];
+            boolean primitives = false;
+
+            for (int i = 0; i < size; i++) {
+                names[i] = alias + "." + this.columns[i].name;
+                indexes[i] = c.getColumnIndex(names[i]);
+                converters[i] = this.columns[i].converter;
+                types[i] = TypeConverters.getCursorType(converters[i]);
+                assigned[i] = !this.columns[i].hasRelationship();
+
+                if (assigned[i] && this.columns[i] instanceof FieldColumnObject) {
+                    FieldColumnObject column = (FieldColumnObject) this.columns[i];
+                    accessors[i] = column.getFieldAccessor();
+                    accessorIndexes[i] = column.getFieldAccessorIndex();
+
+                    if (accessors[i] != null) {
+                        primitiveTypes[i] = PrimitiveType.of(column.field.getType());
+                        primitives |= primitiveTypes[i] != null;
+                    }
+                }
+            }
+
+            this.primitiveTypes = primitives ? primitiveTypes : null;
+        }
+
+        /**
+         * Populate the fields of an object with the data of the current row.
+         *
+         * <p>Relationship columns are not assigned, as relationships are loaded separately, but
+         * their values are kept, together with the other ones, in the snapshot used to later
+         * detect the changed columns. The snapshot values are kept as read, and converted to
+         * their stored form only if the object gets updated.</p>
+         *
+         * @param c     cursor
+         * @param obj   object to be populated
+         *
+         * @throws PojoException if a value has a data type not compatible with its column
+         */
+        void populate(Cursor c, Object obj) {
+            if (c != checkedCursor) {
+                checkedCursor = c;
+                Arrays.fill(checked, false);
+            }
+
+            Object[] values = new Object[columns.length];
+            long[] primitiveValues = primitiveTypes == null ? null : new long[columns.length];
+
+            for (int i = 0; i < columns.length; i++) {
+                int index = indexes[i];
+                checkColumnIndex(index, names[i]);
+
+                boolean isNull;
+
+                if (checked[i]) {
+                    isNull = c.isNull(index);
+                } else {
+                    isNull = TypeConverters.isNull(c, index, types[i]);
+                    checked[i] = !isNull;
+                }
+
+                if (isNull) {
+                    if (assigned[i]) {
+                        // Null values can't be assigned to primitive fields
+                        columns[i].setValue(obj, null);
+                    }
+
+                } else if (primitiveTypes != null && primitiveTypes[i] != null) {
+                    assert primitiveValues != null;
+                    primitiveValues[i] = readPrimitive(c, i, obj);
+
+                } else {
+                    Object value = converters[i].read(c, index);
+                    values[i] = value;
+
+                    if (assigned[i]) {
+                        columns[i].setValue(obj, value);
+                    }
+                }
+            }
+
+            entity.putSnapshot(obj, new Snapshot(columns, values, primitiveTypes, primitiveValues));
+        }
+
+        /**
+         * Read a primitive value and assign it to its field, without boxing it.
+         *
+         * @param c     cursor
+         * @param i     position of the column
+         * @param obj   object to be populated
+         *
+         * @return raw bits of the value, to be kept in the snapshot
+         */
+        private long readPrimitive(Cursor c, int i, Object obj) {
+            assert primitiveTypes != null;
+
+            TypeConverter<Object> converter = converters[i];
+            EntityAccessor<Object> accessor = accessors[i];
+            int index = indexes[i];
+            int fieldIndex = accessorIndexes[i];
+
+            switch (primitiveTypes[i]) {
+                case BOOLEAN: {
+                    boolean value = converter.readBoolean(c, index);
+                    accessor.setBoolean(obj, fieldIndex, value);
+                    return value ? 1 : 0;
+                }
+
+                case BYTE: {
+                    byte value = (byte) converter.readInt(c, index);
+                    accessor.setByte(obj, fieldIndex, value);
+                    return value;
+                }
+
+                case SHORT: {
+                    short value = (short) converter.readInt(c, index);
+                    accessor.setShort(obj, fieldIndex, value);
+                    return value;
+                }
+
+                case INT: {
+                    int value = converter.readInt(c, index);
+                    accessor.setInt(obj, fieldIndex, value);
+                    return value;
+                }
+
+                case LONG: {
+                    long value = converter.readLong(c, index);
+                    accessor.setLong(obj, fieldIndex, value);
+                    return value;
+                }
+
+                case FLOAT: {
+                    float value = converter.readFloat(c, index);
+                    accessor.setFloat(obj, fieldIndex, value);
+                    return Float.floatToRawIntBits(value);
+                }
+
+                default: {
+                    double value = converter.readDouble(c, index);
+                    accessor.setDouble(obj, fieldIndex, value);
+                    return Double.doubleToRawLongBits(value);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Check that a column has been found in the cursor.
+     *
+     * @param index     column index
+     * @param name      column name
+     *
+     * @throws IllegalArgumentException if the column is not present
+     */
+    private static void checkColumnIndex(int index, String name) {
+        if (index < 0) {
+            throw new IllegalArgumentException("Column \"" + name + "\" not found");
+        }
+    }
+
+}
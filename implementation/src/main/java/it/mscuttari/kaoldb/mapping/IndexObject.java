@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.mapping;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import it.mscuttari.kaoldb.StringUtils;
+import it.mscuttari.kaoldb.annotations.Index;
+
+import static it.mscuttari.kaoldb.StringUtils.escape;
+
+/**
+ * Index of a table, either declared through the {@link Index} annotation or automatically
+ * created by the framework.
+ */
+final class IndexObject {
+
+    /** Index name */
+    @NonNull
+    public final String name;
+
+    /** Table name */
+    @NonNull
+    public final String table;
+
+    /** Indexed columns names, in order */
+    @NonNull
+    public final List<String> columns;
+
+    /** Whether the index is unique */
+    public final boolean unique;
+
+    /** Condition of the partial index (null if the index covers all the rows) */
+    @Nullable
+    public final String where;
+
+    /**
+     * Constructor.
+     *
+     * @param name      index name (<code>null</code> to use the default one)
+     * @param table     table name
+     * @param columns   indexed columns names
+     * @param unique    whether the index is unique
+     * @param where     condition of the partial index (<code>null</code> if not partial)
+     */
+    IndexObject(@Nullable String name,
+                @NonNull String table,
+                @NonNull List<String> columns,
+                boolean unique,
+                @Nullable String where) {
+
+        this.name = name == null ? "index_" + table + "_" + String.join("_", columns) : name;
+        this.table = table;
+        this.columns = Collections.unmodifiableList(columns);
+        this.unique = unique;
+        this.where = where;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Check whether the index would be redundant, because the database can already perform
+     * the same lookups through a primary key or another index starting with the same columns.
+     *
+     * @param others    columns of the primary key and of the other indexes
+     * @return <code>true</code> if the columns are a prefix of any other columns list;
+     *         <code>false</code> otherwise
+     */
+    boolean isCoveredBy(Collection<List<String>> others) {
+        for (List<String> other : others) {
+            if (other.size() >= columns.size() && other.subList(0, columns.size()).equals(columns)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the SQL statement to create the index.
+     *
+     * <p>Example: <code>CREATE UNIQUE INDEX IF NOT EXISTS "index_name" ON "table" ("column_1", "column_2") WHERE condition</code></p>
+     *
+     * @return SQL statement
+     */
+    public String getSQL() {
+        StringBuilder result = new StringBuilder();
+
+        result.append("CREATE ");
+
+        if (unique) {
+            result.append("UNIQUE ");
+        }
+
+        result.append("INDEX IF NOT EXISTS ").append(escape(name))
+                .append(" ON ").append(escape(table))
+                .append(" (").append(columns.stream().map(StringUtils::escape).collect(Collectors.joining(", "))).append(")");
+
+        if (where != null) {
+            result.append(" WHERE ").append(where);
+        }
+
+        return result.toString();
+    }
+
+}
@@ -24,14 +24,13 @@ import java.lang.reflect.Field;
 
 import it.mscuttari.kaoldb.annotations.Id;
 import it.mscuttari.kaoldb.annotations.JoinColumn;
-import it.mscuttari.kaoldb.annotations.JoinColumns;
 import it.mscuttari.kaoldb.annotations.JoinTable;
 import it.mscuttari.kaoldb.annotations.ManyToOne;
 import it.mscuttari.kaoldb.annotations.OneToOne;
 import it.mscuttari.kaoldb.exceptions.InvalidConfigException;
+import it.mscuttari.kaoldb.interfaces.EntitySchema;
 
 import static it.mscuttari.kaoldb.ConcurrentSession.doAndNotifyAll;
-import static it.mscuttari.kaoldb.ConcurrentSession.waitWhile;
 import static it.mscuttari.kaoldb.mapping.Propagation.Action.CASCADE;
 import static it.mscuttari.kaoldb.mapping.Propagation.Action.RESTRICT;
 import static it.mscuttari.kaoldb.mapping.Propagation.Action.SET_NULL;
@@ -43,9 +42,13 @@ import static it.mscuttari.kaoldb.mapping.Propagation.Action.SET_NULL;
  */
 final class JoinColumnObject extends FieldColumnObject {
 
-    /** The {@link JoinColumn} annotation that is responsible of this column properties */
+    /** Column properties, read from the {@link JoinColumn} annotation or generated by the annotation processor */
     @NonNull
-    private final JoinColumn annotation;
+    private final EntitySchema.JoinColumn properties;
+
+    /** Class of the entity the referenced column belongs to */
+    @NonNull
+    private final Class<?> linkedClass;
 
     /** Foreign key constraints */
     public Propagation propagation;
@@ -53,6 +56,9 @@ final class JoinColumnObject extends FieldColumnObject {
     /** Linked column */
     public BaseColumnObject linkedColumn;
 
+    /** Column the type is taken from (determined together with the type) */
+    private BaseColumnObject referencedColumn;
+
     /**
      * Constructor.
      *
@@ -66,10 +72,50 @@ final class JoinColumnObject extends FieldColumnObject {
                             @NonNull Field field,
                             @NonNull JoinColumn annotation) {
 
+        this(db, entity, field, getProperties(field, annotation), field.getType());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param db            database
+     * @param entity        entity the column belongs to
+     * @param field         field the column is generated from
+     * @param properties    column properties
+     * @param linkedClass   class of the entity the referenced column belongs to (in case of
+     *                      join tables, the join class or the inverse join class)
+     */
+    public JoinColumnObject(@NonNull DatabaseObject db,
+                            @NonNull EntityObject<?> entity,
+                            @NonNull Field field,
+                            @NonNull EntitySchema.JoinColumn properties,
+                            @NonNull Class<?> linkedClass) {
+
         super(db, entity, field);
 
-        this.annotation = annotation;
-        this.name = annotation.name().isEmpty() ? getDefaultName(field) : annotation.name();
+        this.properties = properties;
+        this.linkedClass = linkedClass;
+        this.name = properties.name;
+    }
+
+    /**
+     * Read the properties of a join column from its annotation.
+     *
+     * @param field         field the column is generated from
+     * @param annotation    {@link JoinColumn} annotation
+     *
+     * @return column properties, with the default values applied
+     */
+    static EntitySchema.JoinColumn getProperties(@NonNull Field field, @NonNull JoinColumn annotation) {
+        return new EntitySchema.JoinColumn(
+                annotation.name().isEmpty() ? getDefaultName(field) : annotation.name(),
+                annotation.referencedColumnName(),
+                annotation.columnDefinition().isEmpty() ? null : annotation.columnDefinition(),
+                annotation.nullable(),
+                annotation.unique(),
+                annotation.defaultValue().isEmpty() ? null : annotation.defaultValue(),
+                annotation.index()
+        );
     }
 
     @Override
@@ -85,67 +131,29 @@ final class JoinColumnObject extends FieldColumnObject {
 
     @Override
     protected void loadCustomColumnDefinition() {
-        String result = annotation.columnDefinition().isEmpty() ? null : annotation.columnDefinition();
+        String result = properties.columnDefinition;
         doAndNotifyAll(this, () -> customColumnDefinition = result);
     }
 
     @Override
     protected void loadType() {
-        Class<?> referencedClass = null;
-        String referencedColumnName = null;
-
-        if (field.isAnnotationPresent(JoinColumn.class) || field.isAnnotationPresent(JoinColumns.class)) {
-            // The linked column directly belongs to the linked entity class, so to determine the
-            // column type is sufficient to search for that foreign key and get its type
-
-            referencedClass = field.getType();
-            referencedColumnName = annotation.referencedColumnName();
-
-        } else if (field.isAnnotationPresent(JoinTable.class)) {
-            // The linked column belongs to a middle join table, so to determine the column type
-            // we need to first determine that column class. Its class is indeed derived from the
-            // foreign key of the second entity
-
-            referencedColumnName = annotation.referencedColumnName();
-            JoinTable joinTableAnnotation = field.getAnnotation(JoinTable.class);
-
-            // We need to determine if the column is a direct or inverse join column.
-            // If it is a direct join column, the column type is the same of the field enclosing class.
-            // If it is an inverse join column, the column type is the field one.
-
-            boolean direct = false;
-
-            // Search in the direct join columns.
-            // If not found, then the column must be an inverse join one.
-
-            for (JoinColumn joinColumn : joinTableAnnotation.joinColumns()) {
-                if (joinColumn.equals(annotation)) {
-                    direct = true;
-                    break;
-                }
-            }
-
-            if (direct) {
-                referencedClass = joinTableAnnotation.joinClass();
-            } else {
-                referencedClass = joinTableAnnotation.inverseJoinClass();
-            }
-        }
-
-        if (referencedClass == null) {
-            // Security check. Normally not reachable.
-            throw new InvalidConfigException("Field \"" + field.getName() + "\": can't determine the referenced class");
-        }
-
-        EntityObject<?> referencedEntity = db.getEntity(referencedClass);
+        // The column type is the same of the referenced one, which belongs to the linked entity
+        // or to one of its ancestors
+        String referencedColumnName = properties.referencedColumnName;
+        EntityObject<?> referencedEntity = db.mapEntity(linkedClass);
         BaseColumnObject referencedColumn = null;
 
         while (referencedEntity != null && referencedColumn == null) {
             EntityObject<?> refEntity = referencedEntity;
-            String refColName = referencedColumnName;
 
-            // Wait for the referenced column to be mapped
-            waitWhile(referencedEntity.columns, () -> !refEntity.columns.contains(refColName));
+            if (db.isMappingSynchronously()) {
+                // Nobody else is going to load the columns of the referenced entity
+                refEntity.loadColumnsSynchronously();
+            } else {
+                // Wait for the referenced column to be mapped
+                db.waitForMapping(referencedEntity.columns, () -> !refEntity.columns.contains(referencedColumnName));
+            }
+
             referencedColumn = refEntity.columns.get(referencedColumnName);
 
             // Go up in entity hierarchy
@@ -158,18 +166,33 @@ final class JoinColumnObject extends FieldColumnObject {
 
         BaseColumnObject column = referencedColumn;
 
+        if (db.isMappingSynchronously()) {
+            column.map();
+        }
+
         // Wait for the referenced column type to be determined
-        waitWhile(column, () -> column.type == null);
+        db.waitForMapping(column, () -> column.type == null);
 
         // Save the current column type
-        doAndNotifyAll(this, () -> type = column.type);
+        doAndNotifyAll(this, () -> {
+            this.referencedColumn = column;
+            type = column.type;
+        });
+    }
+
+    @Override
+    protected void loadConverter() {
+        // The values are the same of the referenced column, so they must be converted the same way
+        BaseColumnObject column = referencedColumn;
+        db.waitForMapping(column, () -> column.converter == null);
+        doAndNotifyAll(this, () -> converter = column.converter);
     }
 
     @Override
     protected void loadNullableProperty() {
         boolean result;
 
-        if (annotation.nullable()) {
+        if (properties.nullable) {
             // If the columns is nullable by itself, then the relationship optionality doesn't matter
             result = true;
 
@@ -198,13 +221,14 @@ final class JoinColumnObject extends FieldColumnObject {
 
     @Override
     protected void loadUniqueProperty() {
-        boolean result = annotation.unique();
+        boolean result = properties.unique;
         doAndNotifyAll(this, () -> unique = result);
     }
 
     @Override
     protected void loadDefaultValue() {
-        String result = annotation.defaultValue().isEmpty() ? null : annotation.defaultValue();
+        // Stored the same way as the referenced column values
+        String result = getDefaultValueLiteral(properties.defaultValue);
         doAndNotifyAll(this, () -> defaultValue = result);
     }
 
@@ -212,7 +236,7 @@ final class JoinColumnObject extends FieldColumnObject {
      * Determine the propagation property.
      */
     private void loadPropagationProperty() {
-        waitWhile(this, () -> nullable == null);
+        db.waitForMapping(this, () -> nullable == null);
 
         if (nullable) {
             propagation = new Propagation(CASCADE, SET_NULL);
@@ -225,32 +249,27 @@ final class JoinColumnObject extends FieldColumnObject {
      * Determine the linked column.
      */
     private void loadLinkedColumn() {
-        EntityObject<?> linkedEntity;
-
-        if (field.isAnnotationPresent(JoinTable.class)) {
-            JoinTable joinTableAnnotation = field.getAnnotation(JoinTable.class);
-
-            // Determine if the join column is a direct or inverse one
-            boolean direct = false;
-
-            for (JoinColumn joinColumn : joinTableAnnotation.joinColumns()) {
-                if (joinColumn.equals(annotation)) {
-                    direct = true;
-                    break;
-                }
-            }
-
-            Class<?> linkedEntityClass = direct ? joinTableAnnotation.joinClass() : joinTableAnnotation.inverseJoinClass();
-            linkedEntity = db.getEntity(linkedEntityClass);
+        EntityObject<?> linkedEntity = db.mapEntity(linkedClass);
 
+        if (db.isMappingSynchronously()) {
+            linkedEntity.loadColumnsSynchronously();
         } else {
-            linkedEntity = db.getEntity(field.getType());
+            // Wait for the linked column to be mapped
+            db.waitForMapping(linkedEntity.columns, () -> !linkedEntity.columns.contains(properties.referencedColumnName));
         }
 
-        // Wait for the linked column to be mapped
-        waitWhile(linkedEntity.columns, () -> !linkedEntity.columns.contains(annotation.referencedColumnName()));
+        linkedColumn = linkedEntity.columns.get(properties.referencedColumnName);
+    }
 
-        linkedColumn = linkedEntity.columns.get(annotation.referencedColumnName());
+    /**
+     * Check whether the column has to be indexed.
+     *
+     * @return <code>true</code> if an index has to be created on the column;
+     *         <code>false</code> otherwise
+     * @see JoinColumn#index()
+     */
+    boolean isIndexed() {
+        return properties.index;
     }
 
     @Override
@@ -263,13 +282,13 @@ final class JoinColumnObject extends FieldColumnObject {
         Object sourceObject = getValue(obj);
 
         if (sourceObject == null) {
-            insertIntoContentValues(cv, name, null);
+            putValue(cv, null);
         } else {
             EntityObject<?> destinationEntity = db.getEntity(sourceObject.getClass());
-            BaseColumnObject destinationColumn = destinationEntity.columns.get(annotation.referencedColumnName());
-            assert destinationColumn != null : "Column \"" + annotation.referencedColumnName() + "\" not found in entity \"" + destinationEntity.getName() + "\"";
+            BaseColumnObject destinationColumn = destinationEntity.columns.get(properties.referencedColumnName);
+            assert destinationColumn != null : "Column \"" + properties.referencedColumnName + "\" not found in entity \"" + destinationEntity.getName() + "\"";
             Object value = destinationColumn.getValue(sourceObject);
-            insertIntoContentValues(cv, name, value);
+            putValue(cv, value);
         }
     }
 
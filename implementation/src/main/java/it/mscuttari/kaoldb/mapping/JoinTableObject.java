@@ -21,6 +21,7 @@ import androidx.annotation.Nullable;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -31,6 +32,7 @@ import it.mscuttari.kaoldb.LogUtils;
 import it.mscuttari.kaoldb.StringUtils;
 import it.mscuttari.kaoldb.annotations.JoinColumn;
 import it.mscuttari.kaoldb.annotations.JoinTable;
+import it.mscuttari.kaoldb.interfaces.EntitySchema;
 
 import static it.mscuttari.kaoldb.ConcurrentSession.doAndNotifyAll;
 import static it.mscuttari.kaoldb.StringUtils.escape;
@@ -52,6 +54,9 @@ final class JoinTableObject implements Iterable<BaseColumnObject> {
     /** Field annotated with {@link JoinTable} */
     @NonNull private final Field field;
 
+    /** Table properties, read from the {@link JoinTable} annotation or generated by the annotation processor */
+    @NonNull private final EntitySchema.JoinTable properties;
+
     /**
      * Direct join columns.
      *
@@ -85,24 +90,76 @@ final class JoinTableObject implements Iterable<BaseColumnObject> {
                             @NonNull EntityObject<?> entity,
                             @NonNull Field field) {
 
+        this(db, entity, field, getProperties(field));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param db            database
+     * @param entity        entity that owns the relationship
+     * @param field         field the table and its columns are generated from
+     * @param properties    table properties
+     */
+    public JoinTableObject(@NonNull DatabaseObject db,
+                            @NonNull EntityObject<?> entity,
+                            @NonNull Field field,
+                            @NonNull EntitySchema.JoinTable properties) {
+
         this.db                 = db;
         this.entity             = entity;
         this.field              = field;
+        this.properties         = properties;
         this.directJoinColumns  = new Columns(entity);
         this.inverseJoinColumns = new Columns(entity);
         this.joinColumns        = new Columns(entity);
     }
 
     /**
-     * Start the mapping process.
+     * Read the properties of a join table from the {@link JoinTable} annotation of a field.
+     *
+     * @param field     field annotated with {@link JoinTable}
+     * @return table properties, with the default values applied
      */
-    public void map() {
+    private static EntitySchema.JoinTable getProperties(@NonNull Field field) {
         JoinTable annotation = field.getAnnotation(JoinTable.class);
 
-        LogUtils.d("[Table \"" + annotation.name() + "\"] adding direct join columns");
+        return new EntitySchema.JoinTable(
+                field.getName(),
+                annotation.name(),
+                annotation.joinClass(),
+                annotation.inverseJoinClass(),
+                getProperties(field, annotation.joinColumns()),
+                getProperties(field, annotation.inverseJoinColumns())
+        );
+    }
+
+    /**
+     * Read the properties of the join columns of a join table.
+     *
+     * @param field         field annotated with {@link JoinTable}
+     * @param annotations   join columns annotations
+     *
+     * @return columns properties
+     */
+    private static List<EntitySchema.JoinColumn> getProperties(@NonNull Field field, @NonNull JoinColumn[] annotations) {
+        List<EntitySchema.JoinColumn> result = new ArrayList<>(annotations.length);
+
+        for (JoinColumn annotation : annotations) {
+            result.add(JoinColumnObject.getProperties(field, annotation));
+        }
+
+        return result;
+    }
+
+    /**
+     * Start the mapping process.
+     */
+    public void map() {
+        LogUtils.d("[Table \"{}\"] adding direct join columns", properties.name);
 
-        for (JoinColumn directJoinColumn : annotation.joinColumns()) {
-            BaseColumnObject column = new JoinColumnObject(db, entity, field, directJoinColumn);
+        for (EntitySchema.JoinColumn directJoinColumn : properties.joinColumns) {
+            BaseColumnObject column = new JoinColumnObject(db, entity, field, directJoinColumn, properties.joinClass);
 
             doAndNotifyAll(this, () -> {
                 directJoinColumns.add(column);
@@ -112,10 +169,10 @@ final class JoinTableObject implements Iterable<BaseColumnObject> {
             column.map();
         }
 
-        LogUtils.d("[Table \"" + annotation.name() + "\"] adding inverse join columns");
+        LogUtils.d("[Table \"{}\"] adding inverse join columns", properties.name);
 
-        for (JoinColumn inverseJoinColumn : annotation.inverseJoinColumns()) {
-            BaseColumnObject column = new JoinColumnObject(db, entity, field, inverseJoinColumn);
+        for (EntitySchema.JoinColumn inverseJoinColumn : properties.inverseJoinColumns) {
+            BaseColumnObject column = new JoinColumnObject(db, entity, field, inverseJoinColumn, properties.inverseJoinClass);
 
             doAndNotifyAll(this, () -> {
                 inverseJoinColumns.add(column);
@@ -151,12 +208,11 @@ final class JoinTableObject implements Iterable<BaseColumnObject> {
      * @return SQL query
      */
     public String getSQL() {
-        JoinTable annotation = field.getAnnotation(JoinTable.class);
         StringBuilder result = new StringBuilder();
 
         // Table name
         result.append("CREATE TABLE IF NOT EXISTS ")
-                .append(escape(annotation.name()))
+                .append(escape(properties.name))
                 .append(" (");
 
         // Columns
@@ -178,6 +234,46 @@ final class JoinTableObject implements Iterable<BaseColumnObject> {
         return result.toString();
     }
 
+    /**
+     * Get the SQL statements to create the indexes of the join table.
+     *
+     * <p>The direct and the inverse join columns are indexed separately, unless disabled
+     * through {@link JoinColumn#index()} or already covered by the primary key.</p>
+     *
+     * @return SQL statements
+     */
+    public List<String> getIndexesSQL() {
+        Collection<List<String>> covered = new ArrayList<>();
+        covered.add(joinColumns.getPrimaryKeys().stream().map(column -> column.name).collect(Collectors.toList()));
+
+        List<String> result = new ArrayList<>(2);
+
+        for (Columns group : Arrays.asList(directJoinColumns, inverseJoinColumns)) {
+            List<String> indexed = new ArrayList<>();
+
+            for (BaseColumnObject column : group) {
+                if (!((JoinColumnObject) column).isIndexed()) {
+                    indexed.clear();
+                    break;
+                }
+
+                indexed.add(column.name);
+            }
+
+            if (indexed.isEmpty())
+                continue;
+
+            IndexObject index = new IndexObject(null, properties.name, indexed, false, null);
+
+            if (!index.isCoveredBy(covered)) {
+                result.add(index.getSQL());
+                covered.add(index.columns);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Get the columns SQL statement to be inserted in the table creation query.
      *
@@ -210,11 +306,10 @@ final class JoinTableObject implements Iterable<BaseColumnObject> {
         List<String> local = new ArrayList<>();         // Local columns
         List<String> referenced = new ArrayList<>();    // Referenced columns
 
-        JoinTable annotation = field.getAnnotation(JoinTable.class);
         Propagation propagation = new Propagation(CASCADE, CASCADE);
 
         // Direct join columns
-        EntityObject<?> directJoinEntity = db.getEntity(annotation.joinClass());
+        EntityObject<?> directJoinEntity = db.getEntity(properties.joinClass);
 
         for (BaseColumnObject column : directJoinColumns) {
             JoinColumnObject joinColumn = (JoinColumnObject) column;
@@ -233,7 +328,7 @@ final class JoinTableObject implements Iterable<BaseColumnObject> {
         referenced.clear();
 
         // Inverse join columns
-        EntityObject<?> inverseJoinEntity = db.getEntity(annotation.inverseJoinClass());
+        EntityObject<?> inverseJoinEntity = db.getEntity(properties.inverseJoinClass);
 
         for (BaseColumnObject column : inverseJoinColumns) {
             JoinColumnObject joinColumn = (JoinColumnObject) column;
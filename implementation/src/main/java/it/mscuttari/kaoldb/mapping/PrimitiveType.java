@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.mapping;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Primitive field types that can be populated without boxing their values.
+ *
+ * <p>
+ * The values read for the snapshots are kept as raw <code>long</code> bits (floating point
+ * values through their IEEE 754 representation), and boxed only when they have to be compared.
+ * <code>char</code> fields are not included, as their values are stored as text.
+ * </p>
+ */
+enum PrimitiveType {
+
+    BOOLEAN,
+    BYTE,
+    SHORT,
+    INT,
+    LONG,
+    FLOAT,
+    DOUBLE;
+
+    /**
+     * Get the primitive type corresponding to a field type.
+     *
+     * @param type      field type
+     * @return primitive type, or <code>null</code> if the values of the field have to be boxed
+     */
+    @Nullable
+    static PrimitiveType of(@NonNull Class<?> type) {
+        if (type == boolean.class) {
+            return BOOLEAN;
+        } else if (type == byte.class) {
+            return BYTE;
+        } else if (type == short.class) {
+            return SHORT;
+        } else if (type == int.class) {
+            return INT;
+        } else if (type == long.class) {
+            return LONG;
+        } else if (type == float.class) {
+            return FLOAT;
+        } else if (type == double.class) {
+            return DOUBLE;
+        }
+
+        return null;
+    }
+
+    /**
+     * Box a value kept as raw bits.
+     *
+     * @param bits      raw bits of the value
+     * @return boxed value
+     */
+    @NonNull
+    Object box(long bits) {
+        switch (this) {
+            case BOOLEAN:
+                return bits != 0;
+
+            case BYTE:
+                return (byte) bits;
+
+            case SHORT:
+                return (short) bits;
+
+            case INT:
+                return (int) bits;
+
+            case FLOAT:
+                return Float.intBitsToFloat((int) bits);
+
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+
+            default:
+                return bits;
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.mapping;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import it.mscuttari.kaoldb.annotations.Column;
+import it.mscuttari.kaoldb.annotations.JoinColumn;
+import it.mscuttari.kaoldb.annotations.JoinColumns;
+import it.mscuttari.kaoldb.annotations.JoinTable;
+
+/**
+ * Columns linked to a field, as declared by its column annotation.
+ *
+ * <p>
+ * The annotations are read just once, so that the queries referencing the field don't need
+ * any further reflection access.
+ * </p>
+ *
+ * <p>
+ * Each local column is paired with the linked column at the same position:
+ * <pre>
+ *              | Local columns                        | Linked columns
+ * Column       | column                               | (none)
+ * JoinColumn   | join column                          | referenced column
+ * JoinColumns  | join columns                         | referenced columns
+ * JoinTable    | direct join referenced columns       | direct join columns (in the join table)</pre>
+ * </p>
+ */
+public final class PropertyColumns {
+
+    /** Accessible field */
+    @NonNull public final Field field;
+
+    /**
+     * Column annotation class.
+     * It is one of {@link Column}, {@link JoinColumn}, {@link JoinColumns} and {@link JoinTable},
+     * or <code>null</code> if the field doesn't have any column annotation.
+     */
+    @Nullable public final Class<? extends Annotation> annotation;
+
+    /** Columns of the table of the entity declaring the field */
+    @NonNull public final List<String> localColumns;
+
+    /** Columns the local ones are linked to */
+    @NonNull public final List<String> linkedColumns;
+
+    /** Join table name (<code>null</code> if the field is not annotated with {@link JoinTable}) */
+    @Nullable public final String joinTable;
+
+    /** Inverse join columns, in the join table */
+    @NonNull public final List<String> inverseJoinColumns;
+
+    /** Columns of the linked entity table the inverse join columns are referencing */
+    @NonNull public final List<String> inverseLinkedColumns;
+
+    /**
+     * Constructor.
+     *
+     * @param field     field
+     */
+    public PropertyColumns(@NonNull Field field) {
+        field.setAccessible(true);
+        this.field = field;
+
+        List<String> localColumns = new ArrayList<>();
+        List<String> linkedColumns = new ArrayList<>();
+        List<String> inverseJoinColumns = new ArrayList<>();
+        List<String> inverseLinkedColumns = new ArrayList<>();
+        String joinTable = null;
+
+        if (field.isAnnotationPresent(Column.class)) {
+            annotation = Column.class;
+            localColumns.add(field.getAnnotation(Column.class).name());
+
+        } else if (field.isAnnotationPresent(JoinColumn.class)) {
+            annotation = JoinColumn.class;
+            JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+
+            localColumns.add(joinColumn.name());
+            linkedColumns.add(joinColumn.referencedColumnName());
+
+        } else if (field.isAnnotationPresent(JoinColumns.class)) {
+            annotation = JoinColumns.class;
+
+            for (JoinColumn joinColumn : field.getAnnotation(JoinColumns.class).value()) {
+                localColumns.add(joinColumn.name());
+                linkedColumns.add(joinColumn.referencedColumnName());
+            }
+
+        } else if (field.isAnnotationPresent(JoinTable.class)) {
+            annotation = JoinTable.class;
+            JoinTable joinTableAnnotation = field.getAnnotation(JoinTable.class);
+            joinTable = joinTableAnnotation.name();
+
+            for (JoinColumn joinColumn : joinTableAnnotation.joinColumns()) {
+                localColumns.add(joinColumn.referencedColumnName());
+                linkedColumns.add(joinColumn.name());
+            }
+
+            for (JoinColumn joinColumn : joinTableAnnotation.inverseJoinColumns()) {
+                inverseJoinColumns.add(joinColumn.name());
+                inverseLinkedColumns.add(joinColumn.referencedColumnName());
+            }
+
+        } else {
+            annotation = null;
+        }
+
+        this.localColumns = Collections.unmodifiableList(localColumns);
+        this.linkedColumns = Collections.unmodifiableList(linkedColumns);
+        this.joinTable = joinTable;
+        this.inverseJoinColumns = Collections.unmodifiableList(inverseJoinColumns);
+        this.inverseLinkedColumns = Collections.unmodifiableList(inverseLinkedColumns);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "Field: " + field.getName() + ", " +
+                "Local columns: " + localColumns + ", " +
+                "Linked columns: " + linkedColumns;
+    }
+
+    /**
+     * Get the field type.
+     *
+     * @return type
+     */
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+}
@@ -79,6 +79,9 @@ public class Relationship {
     /** Field that owns the relationship */
     @NonNull public final Field mappingField;
 
+    /** Columns declared by {@link #mappingField} */
+    @NonNull public final PropertyColumns mappingColumns;
+
     /**
      * Constructor.
      *
@@ -95,7 +98,7 @@ public class Relationship {
             type = ONE_TO_ONE;
             owning = annotation.mappedBy().isEmpty();
             linked = field.getType();
-            mappingField = owning ? field : db.getEntity(linked).getField(annotation.mappedBy());
+            mappingField = owning ? field : db.mapEntity(linked).getField(annotation.mappedBy());
 
         } else if (field.isAnnotationPresent(OneToMany.class)) {
             OneToMany annotation = field.getAnnotation(OneToMany.class);
@@ -103,7 +106,7 @@ public class Relationship {
             type = RelationshipType.ONE_TO_MANY;
             owning = false;
             linked = getCollectionType(field);
-            mappingField = db.getEntity(linked).getField(annotation.mappedBy());
+            mappingField = db.mapEntity(linked).getField(annotation.mappedBy());
 
         } else if (field.isAnnotationPresent(ManyToOne.class)) {
             type = RelationshipType.MANY_TO_ONE;
@@ -117,15 +120,17 @@ public class Relationship {
             type = RelationshipType.MANY_TO_MANY;
             owning = annotation.mappedBy().isEmpty();
             linked = getCollectionType(field);
-            mappingField = owning ? field : db.getEntity(linked).getField(annotation.mappedBy());
+            mappingField = owning ? field : db.mapEntity(linked).getField(annotation.mappedBy());
 
         } else {
             throw new MappingException("No relationship annotation found on field \"" + field.getName() + "\"");
         }
 
+        mappingColumns = new PropertyColumns(mappingField);
+
         // Print a warning if the field type is incompatible with lazy load
         if (!isLazilyInitializable()) {
-            LogUtils.w("[Relationship \"" + field.getName() + "\"] declared type " + field.getType().getSimpleName() + " is incompatible with lazy loading");
+            LogUtils.w("[Relationship \"{}\"] declared type {} is incompatible with lazy loading", field.getName(), field.getType().getSimpleName());
         }
     }
 
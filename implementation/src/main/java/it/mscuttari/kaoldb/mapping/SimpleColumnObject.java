@@ -19,14 +19,18 @@ package it.mscuttari.kaoldb.mapping;
 import android.content.ContentValues;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.lang.reflect.Field;
-import java.util.Calendar;
-import java.util.Date;
 
 import it.mscuttari.kaoldb.annotations.Column;
+import it.mscuttari.kaoldb.annotations.Convert;
+import it.mscuttari.kaoldb.annotations.EnumType;
+import it.mscuttari.kaoldb.annotations.Enumerated;
 import it.mscuttari.kaoldb.annotations.Id;
 import it.mscuttari.kaoldb.exceptions.MappingException;
+import it.mscuttari.kaoldb.interfaces.EntitySchema;
+import it.mscuttari.kaoldb.interfaces.TypeConverter;
 
 import static it.mscuttari.kaoldb.ConcurrentSession.doAndNotifyAll;
 
@@ -37,6 +41,10 @@ import static it.mscuttari.kaoldb.ConcurrentSession.doAndNotifyAll;
  */
 final class SimpleColumnObject extends FieldColumnObject {
 
+    /** Column properties generated by the annotation processor (null if they must be read from the annotations) */
+    @Nullable
+    private final EntitySchema.SimpleColumn schema;
+
     /**
      * Constructor.
      *
@@ -52,6 +60,31 @@ final class SimpleColumnObject extends FieldColumnObject {
 
         Column annotation = field.getAnnotation(Column.class);
         this.name = annotation.name().isEmpty() ? getDefaultName(field) : annotation.name();
+        this.schema = null;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param db        database
+     * @param entity    entity the column belongs to
+     * @param field     field the column is generated from
+     * @param schema    column properties generated by the annotation processor
+     */
+    public SimpleColumnObject(@NonNull DatabaseObject db,
+                              @NonNull EntityObject<?> entity,
+                              @NonNull Field field,
+                              @NonNull EntitySchema.SimpleColumn schema) {
+
+        super(db, entity, field);
+
+        this.name = schema.name;
+        this.schema = schema;
+    }
+
+    @Override
+    protected boolean isMappedSynchronously() {
+        return schema != null;
     }
 
     @Override
@@ -66,8 +99,15 @@ final class SimpleColumnObject extends FieldColumnObject {
 
     @Override
     protected void loadCustomColumnDefinition() {
-        Column annotation = field.getAnnotation(Column.class);
-        String result = annotation.columnDefinition().isEmpty() ? null : annotation.columnDefinition();
+        String result;
+
+        if (schema != null) {
+            result = schema.columnDefinition;
+        } else {
+            Column annotation = field.getAnnotation(Column.class);
+            result = annotation.columnDefinition().isEmpty() ? null : annotation.columnDefinition();
+        }
+
         doAndNotifyAll(this, () -> customColumnDefinition = result);
     }
 
@@ -77,65 +117,86 @@ final class SimpleColumnObject extends FieldColumnObject {
         doAndNotifyAll(this, () -> type = result);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void loadConverter() {
+        Class<?> converterClass;
+        EnumType enumType;
+        int scale;
+
+        if (schema != null) {
+            converterClass = schema.converter;
+            enumType = schema.enumType;
+            scale = schema.scale;
+
+        } else {
+            Convert convertAnnotation = field.getAnnotation(Convert.class);
+            Enumerated enumerated = field.getAnnotation(Enumerated.class);
+
+            converterClass = convertAnnotation == null ? null : convertAnnotation.value();
+            enumType = enumerated == null ? EnumType.STRING : enumerated.value();
+            scale = field.getAnnotation(Column.class).scale();
+        }
+
+        TypeConverter<?> result;
+
+        if (converterClass != null) {
+            if (!TypeConverter.class.isAssignableFrom(converterClass)) {
+                throw new MappingException("[Column \"" + name + "\"] converter " + converterClass.getSimpleName() + " doesn't implement the TypeConverter interface");
+            }
+
+            try {
+                result = (TypeConverter<?>) converterClass.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new MappingException("[Column \"" + name + "\"] can't instantiate converter " + converterClass.getSimpleName(), e);
+            }
+
+        } else if (Enum.class.isAssignableFrom(type)) {
+            result = TypeConverters.getEnum(type, enumType);
+
+        } else {
+            result = TypeConverters.get(type, scale);
+
+            if (result == null) {
+                throw new MappingException("[Column \"" + name + "\"] unsupported type " + type.getSimpleName() + ": a converter must be specified with the @Convert annotation");
+            }
+        }
+
+        TypeConverter<?> converter = result;
+        doAndNotifyAll(this, () -> this.converter = (TypeConverter<Object>) converter);
+    }
+
     @Override
     protected void loadNullableProperty() {
-        Column annotation = field.getAnnotation(Column.class);
-        boolean result = annotation.nullable();
+        boolean result = schema != null ? schema.nullable : field.getAnnotation(Column.class).nullable();
         doAndNotifyAll(this, () -> nullable = result);
     }
 
     @Override
     protected void loadPrimaryKeyProperty() {
-        boolean result = field.isAnnotationPresent(Id.class);
+        boolean result = schema != null ? schema.primaryKey : field.isAnnotationPresent(Id.class);
         doAndNotifyAll(this, () -> primaryKey = result);
     }
 
     @Override
     protected void loadUniqueProperty() {
-        Column annotation = field.getAnnotation(Column.class);
-        boolean result = annotation.unique();
+        boolean result = schema != null ? schema.unique : field.getAnnotation(Column.class).unique();
         doAndNotifyAll(this, () -> unique = result);
     }
 
     @Override
     protected void loadDefaultValue() {
-        Column annotation = field.getAnnotation(Column.class);
-        String def = annotation.defaultValue().isEmpty() ? null : annotation.defaultValue();
-
-        // Check data compatibility
-        if (def != null) {
-            try {
-                if (type.isAssignableFrom(Integer.class) || type.isAssignableFrom(int.class)) {
-                    def = String.valueOf(Integer.parseInt(def));
-
-                } else if (type.isAssignableFrom(Long.class) || type.isAssignableFrom(long.class)) {
-                    def = String.valueOf(Long.parseLong(def));
+        String def;
 
-                } else if (type.isAssignableFrom(Float.class) || type.isAssignableFrom(float.class)) {
-                    def = String.valueOf(Float.parseFloat(def));
-
-                } else if (type.isAssignableFrom(Double.class) || type.isAssignableFrom(double.class)) {
-                    def = String.valueOf(Double.parseDouble(def));
-
-                } else if (type.isAssignableFrom(Boolean.class) || type.isAssignableFrom(boolean.class)) {
-                    boolean value = Boolean.parseBoolean(def);
-                    def = value ? "1" : "0";
-
-                } else if (type.isAssignableFrom(Date.class)) {
-                    // Need to be a timestamp
-                    def = String.valueOf(Long.parseLong(def));
-
-                } else if (type.isAssignableFrom(Calendar.class)) {
-                    // Need to be a timestamp
-                    def = String.valueOf(Long.parseLong(def));
-                }
-
-            } catch (Exception e) {
-                throw new MappingException("[Column \"" + name + "\"] default value is incompatible with type " + type.getSimpleName());
-            }
+        if (schema != null) {
+            def = schema.defaultValue;
+        } else {
+            Column annotation = field.getAnnotation(Column.class);
+            def = annotation.defaultValue().isEmpty() ? null : annotation.defaultValue();
         }
 
-        String result = def;
+        // Stored the same way as the field values
+        String result = getDefaultValueLiteral(def);
         doAndNotifyAll(this, () -> defaultValue = result);
     }
 
@@ -146,8 +207,7 @@ final class SimpleColumnObject extends FieldColumnObject {
 
     @Override
     public void addToContentValues(@NonNull ContentValues cv, Object obj) {
-        Object value = getValue(obj);
-        insertIntoContentValues(cv, name, value);
+        putValue(cv, getValue(obj));
     }
 
     @Override
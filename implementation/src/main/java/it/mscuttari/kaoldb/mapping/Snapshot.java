@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.mapping;
+
+import android.content.ContentValues;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Column values of an object, as they have been read from or written into an entity table.
+ *
+ * <p>
+ * The values are kept in an array aligned with the columns, so that taking a snapshot while
+ * reading a row doesn't involve any map operation. The values read from a cursor are kept as
+ * returned by the column converters and are converted to their stored form only when they have
+ * to be compared, that is when the object gets updated. The values of the primitive fields are
+ * kept unboxed in a separate array, as raw bits.
+ * </p>
+ */
+final class Snapshot {
+
+    /** Columns. The same array is shared by all the snapshots taken by the same hydration plan */
+    @NonNull
+    private final BaseColumnObject[] columns;
+
+    /** Values, aligned with {@link #columns} */
+    @NonNull
+    private final Object[] values;
+
+    /** Whether the values are in the stored form, or still have to be converted */
+    private final boolean stored;
+
+    /** Primitive types of the columns whose values are kept unboxed (null if there are none) */
+    @Nullable
+    private final PrimitiveType[] primitiveTypes;
+
+    /** Raw bits of the unboxed values, aligned with {@link #columns} */
+    @Nullable
+    private final long[] primitiveValues;
+
+    /**
+     * Constructor.
+     *
+     * @param columns   columns
+     * @param values    values, aligned with the columns
+     * @param stored    whether the values are in the same form they are stored in the database
+     *                  (<code>true</code>) or in the form returned by the column converters
+     *                  (<code>false</code>)
+     */
+    Snapshot(@NonNull BaseColumnObject[] columns, @NonNull Object[] values, boolean stored) {
+        this.columns = columns;
+        this.values = values;
+        this.stored = stored;
+        this.primitiveTypes = null;
+        this.primitiveValues = null;
+    }
+
+    /**
+     * Constructor for the values read from a cursor.
+     *
+     * @param columns           columns
+     * @param values            values returned by the column converters, aligned with the columns
+     * @param primitiveTypes    primitive types of the columns whose values are kept unboxed
+     *                          (<code>null</code> elements for the other ones)
+     * @param primitiveValues   raw bits of the unboxed values, aligned with the columns
+     */
+    Snapshot(@NonNull BaseColumnObject[] columns,
+             @NonNull Object[] values,
+             @Nullable PrimitiveType[] primitiveTypes,
+             @Nullable long[] primitiveValues) {
+
+        this.columns = columns;
+        this.values = values;
+        this.stored = false;
+        this.primitiveTypes = primitiveTypes;
+        this.primitiveValues = primitiveValues;
+    }
+
+    /**
+     * Get the position of a column.
+     *
+     * @param column    column
+     * @param hint      expected position
+     *
+     * @return position of the column, or <code>-1</code> if the column is not part of the snapshot
+     */
+    int indexOf(BaseColumnObject column, int hint) {
+        if (hint >= 0 && hint < columns.length && columns[hint] == column) {
+            return hint;
+        }
+
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] == column) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Get the value of a column, as it is stored in the database.
+     *
+     * @param index     position of the column
+     * @return stored value
+     */
+    Object getStoredValue(int index) {
+        if (stored) {
+            return values[index];
+        }
+
+        Object value = values[index];
+
+        if (primitiveTypes != null && primitiveTypes[index] != null) {
+            assert primitiveValues != null;
+            value = primitiveTypes[index].box(primitiveValues[index]);
+        }
+
+        BaseColumnObject column = columns[index];
+        ContentValues cv = new ContentValues(1);
+        column.putValue(cv, value);
+        return cv.get(column.name);
+    }
+
+}
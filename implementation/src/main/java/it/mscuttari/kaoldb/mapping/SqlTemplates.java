@@ -0,0 +1,444 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.mapping;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import it.mscuttari.kaoldb.exceptions.QueryException;
+
+import static it.mscuttari.kaoldb.StringUtils.escape;
+
+/**
+ * SQL fragments of an entity that don't depend on the query they are used in, except for the
+ * alias assigned to the entity table.
+ *
+ * <p>
+ * The fragments are built on first use, once the entity has been mapped, and are then reused
+ * by every query referencing the entity. As the tables of the descendants may be pruned
+ * according to the query restrictions, the fragments involving them are cached for each
+ * restriction.
+ * </p>
+ */
+public final class SqlTemplates {
+
+    /** Alias of the entity table in the primary key lookup statements */
+    public static final String LOOKUP_ALIAS = "a0";
+
+    @NonNull private final EntityObject<?> entity;
+
+    /** <code>SELECT</code> clauses, mapped by restriction */
+    private final Map<EntityObject<?>, AliasTemplate> selectClauses = new ConcurrentHashMap<>();
+
+    /** <code>SELECT</code> clauses of the discriminator columns, mapped by restriction */
+    private final Map<EntityObject<?>, AliasTemplate> discriminatorSelectClauses = new ConcurrentHashMap<>();
+
+    /** <code>FROM</code> clauses, mapped by restriction */
+    private final Map<EntityObject<?>, AliasTemplate> fromClauses = new ConcurrentHashMap<>();
+
+    /** Primary key selection clause */
+    private volatile String primaryKeyClause;
+
+    /** Primary key lookup statements, mapped by number of looked up objects */
+    private final Map<Integer, String> lookupStatements = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param entity    entity the fragments belong to
+     */
+    SqlTemplates(@NonNull EntityObject<?> entity) {
+        this.entity = entity;
+    }
+
+    /**
+     * Get the <code>SELECT</code> clause loading the columns of the entity, of its parents and
+     * of its descendants.
+     *
+     * <p>Each column is labelled with its table alias followed by the column name.</p>
+     *
+     * @param restriction   descendant entity all the rows belong to (<code>null</code> if all
+     *                      the descendants have to be loaded)
+     *
+     * @return clause template
+     * @see EntityObject#getDescendants(EntityObject)
+     */
+    public AliasTemplate getSelectClause(@Nullable EntityObject<?> restriction) {
+        return selectClauses.computeIfAbsent(restriction == null ? entity : restriction, key -> {
+            List<EntityObject<?>> entities = new ArrayList<>();
+
+            // Current entity and parents
+            for (EntityObject<?> current = entity; current != null; current = current.getParent()) {
+                entities.add(current);
+            }
+
+            // Children (the same ones joined by the FROM clause)
+            entities.addAll(entity.getDescendants(restriction));
+
+            // The entities sharing the same table also share their common columns
+            Collection<String> labels = new LinkedHashSet<>();
+            AliasTemplate.Builder builder = new AliasTemplate.Builder();
+
+            for (EntityObject<?> current : entities) {
+                String suffix = current.getTableAlias(entity, "");
+
+                for (BaseColumnObject column : current.columns) {
+                    if (labels.add(suffix + "." + column.name)) {
+                        appendLabelledColumn(builder, suffix, column.name, labels.size() > 1);
+                    }
+                }
+            }
+
+            return builder.build();
+        });
+    }
+
+    /**
+     * Get the <code>SELECT</code> clause loading just the primary keys of the entity and the
+     * discriminator columns needed to determine the concrete class of each row.
+     *
+     * @param restriction   descendant entity all the rows belong to (<code>null</code> if all
+     *                      the descendants have to be considered)
+     *
+     * @return clause template
+     */
+    public AliasTemplate getDiscriminatorSelectClause(@Nullable EntityObject<?> restriction) {
+        return discriminatorSelectClauses.computeIfAbsent(restriction == null ? entity : restriction, key -> {
+            Collection<String> labels = new LinkedHashSet<>();
+            AliasTemplate.Builder builder = new AliasTemplate.Builder();
+
+            for (BaseColumnObject column : entity.columns.getPrimaryKeys()) {
+                if (labels.add("." + column.name)) {
+                    appendLabelledColumn(builder, "", column.name, labels.size() > 1);
+                }
+            }
+
+            List<EntityObject<?>> entities = new ArrayList<>();
+            entities.add(entity);
+            entities.addAll(entity.getDescendants(restriction));
+
+            for (EntityObject<?> current : entities) {
+                if (current.children.isEmpty() || current.discriminatorColumn == null)
+                    continue;
+
+                String suffix = current.getTableAlias(entity, "");
+                String column = current.discriminatorColumn.name;
+
+                if (labels.add(suffix + "." + column)) {
+                    appendLabelledColumn(builder, suffix, column, labels.size() > 1);
+                }
+            }
+
+            return builder.build();
+        });
+    }
+
+    /**
+     * Get the <code>FROM</code> clause of the entity, with the tables of its parents and of
+     * its descendants already joined.
+     *
+     * <p>
+     * The parent tables are joined with <code>INNER JOIN</code>s, while the descendant ones
+     * with <code>LEFT JOIN</code>s, all on the primary keys. The entities stored in the table
+     * of their hierarchy root don't need any join: the rows of a subclass are selected through
+     * its discriminator values.
+     * </p>
+     *
+     * @param restriction   descendant entity all the rows belong to (<code>null</code> to
+     *                      join all the descendants)
+     *
+     * @return clause template
+     * @throws QueryException if the entities don't have primary keys to be joined on
+     */
+    public AliasTemplate getFromClause(@Nullable EntityObject<?> restriction) {
+        return fromClauses.computeIfAbsent(restriction == null ? entity : restriction, key -> {
+            List<EntityObject<?>> parents = new ArrayList<>();
+
+            if (entity.hasOwnTable()) {
+                for (EntityObject<?> parent = entity.getParent(); parent != null; parent = parent.getParent()) {
+                    parents.add(parent);
+                }
+            }
+
+            List<EntityObject<?>> children = new ArrayList<>();
+
+            for (EntityObject<?> child : entity.getDescendants(restriction)) {
+                // Rows stored in the same table don't need any join
+                if (child.hasOwnTable()) {
+                    children.add(child);
+                }
+            }
+
+            AliasTemplate.Builder builder = new AliasTemplate.Builder();
+
+            for (int i = 0; i < parents.size() + children.size(); i++) {
+                builder.append("(");
+            }
+
+            if (entity.hasOwnTable()) {
+                builder.append(escape(entity.tableName)).append(" AS ").appendAlias("");
+            } else {
+                builder.append("(SELECT * FROM ").append(escape(entity.tableName))
+                        .append(" WHERE ").append(getDiscriminatorCondition())
+                        .append(") AS ").appendAlias("");
+            }
+
+            // Merge parent tables
+            for (EntityObject<?> parent : parents) {
+                appendJoin(builder, "INNER JOIN", parent, parent.columns.getPrimaryKeys());
+            }
+
+            // Merge children tables
+            for (EntityObject<?> child : children) {
+                appendJoin(builder, "LEFT JOIN", child, entity.columns.getPrimaryKeys());
+            }
+
+            return builder.build();
+        });
+    }
+
+    /**
+     * Get the selection clause of a single row of the entity table, to be used with the values
+     * of the primary keys as arguments.
+     *
+     * @return selection clause (i.e. <code>id = ?</code>)
+     */
+    public String getPrimaryKeyClause() {
+        String result = primaryKeyClause;
+
+        if (result == null) {
+            StringBuilder where = new StringBuilder();
+
+            for (BaseColumnObject column : entity.columns.getPrimaryKeys()) {
+                if (where.length() > 0)
+                    where.append(" AND ");
+
+                where.append(column.name).append(" = ?");
+            }
+
+            primaryKeyClause = result = where.toString();
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the statement loading some objects of the entity (and of its descendants) by their
+     * primary keys, to be used with the values of the primary keys as arguments.
+     *
+     * <p>
+     * The entity table is referenced through the {@link #LOOKUP_ALIAS} alias. Single primary
+     * keys are listed in an <code>IN</code> clause, while multiple ones are compared one by one
+     * and the conditions of different objects are put in disjunction.
+     * </p>
+     *
+     * @param count     number of objects to be loaded
+     * @return statement (i.e. <code>SELECT ... FROM ... WHERE "a0"."id" IN (?, ?)</code>)
+     *
+     * @throws QueryException if the entity has no primary keys
+     */
+    public String getLookupStatement(int count) {
+        return lookupStatements.computeIfAbsent(count, key -> buildLookupStatement(count, null));
+    }
+
+    /**
+     * Get the statement selecting the objects with some given primary keys, with the values of
+     * the primary keys written directly in the statement.
+     *
+     * <p>
+     * To be used when some values can't be bound as string arguments (i.e. blobs). The statement
+     * is the same of {@link #getLookupStatement(int)}, but it is not cached.
+     * </p>
+     *
+     * @param literals  SQL literals of the primary keys, object by object and in the same order
+     *                  of the primary key columns
+     *
+     * @return statement
+     *
+     * @throws QueryException if the entity has no primary keys
+     */
+    public String getLookupStatement(List<String> literals) {
+        int primaryKeys = Math.max(1, entity.columns.getPrimaryKeys().size());
+        return buildLookupStatement(literals.size() / primaryKeys, literals);
+    }
+
+    /**
+     * Build the statement selecting the objects with some given primary keys.
+     *
+     * @param count     number of objects to be loaded
+     * @param literals  SQL literals of the primary keys (<code>null</code> to use placeholders)
+     *
+     * @return statement
+     *
+     * @throws QueryException if the entity has no primary keys
+     */
+    private String buildLookupStatement(int count, @Nullable List<String> literals) {
+        Collection<? extends BaseColumnObject> primaryKeys = entity.columns.getPrimaryKeys();
+
+        if (primaryKeys.isEmpty())
+            throw new QueryException("Entity \"" + entity.getName() + "\" has no primary keys");
+
+        Iterator<String> values = literals == null ? null : literals.iterator();
+
+        StringBuilder sb = new StringBuilder("SELECT ");
+        getSelectClause(null).appendTo(sb, LOOKUP_ALIAS);
+        sb.append(" FROM ");
+        getFromClause(null).appendTo(sb, LOOKUP_ALIAS);
+        sb.append(" WHERE ");
+
+        if (primaryKeys.size() == 1) {
+            String column = primaryKeys.iterator().next().name;
+            sb.append(escape(LOOKUP_ALIAS)).append(".").append(escape(column));
+
+            if (count == 1) {
+                return sb.append(" = ").append(values == null ? "?" : values.next()).toString();
+            }
+
+            sb.append(" IN (");
+
+            for (int i = 0; i < count; i++) {
+                if (i != 0) {
+                    sb.append(", ");
+                }
+
+                sb.append(values == null ? "?" : values.next());
+            }
+
+            return sb.append(")").toString();
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (i != 0) {
+                sb.append(" OR ");
+            }
+
+            sb.append("(");
+            boolean first = true;
+
+            for (BaseColumnObject column : primaryKeys) {
+                if (!first) {
+                    sb.append(" AND ");
+                }
+
+                sb.append(escape(LOOKUP_ALIAS)).append(".").append(escape(column.name))
+                        .append(" = ").append(values == null ? "?" : values.next());
+
+                first = false;
+            }
+
+            sb.append(")");
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Append a column labelled with its table alias to a <code>SELECT</code> clause.
+     *
+     * @param builder   template builder
+     * @param suffix    table alias suffix
+     * @param column    column name
+     * @param separator whether to prepend the columns separator
+     */
+    private static void appendLabelledColumn(AliasTemplate.Builder builder, String suffix, String column, boolean separator) {
+        if (separator) {
+            builder.append(", ");
+        }
+
+        builder.appendColumn(suffix, column).append(" AS ").appendAlias(suffix + "." + column);
+    }
+
+    /**
+     * Append the join of a hierarchy table to a <code>FROM</code> clause.
+     *
+     * @param builder       template builder
+     * @param type          join type
+     * @param joined        entity whose table has to be joined
+     * @param primaryKeys   primary keys to be used for the join
+     *
+     * @throws QueryException if there are no primary keys
+     */
+    private static void appendJoin(AliasTemplate.Builder builder, String type, EntityObject<?> joined, Collection<? extends BaseColumnObject> primaryKeys) {
+        if (primaryKeys.isEmpty())
+            throw new QueryException("Can't merge inherited tables");
+
+        String suffix = joined.getName();
+
+        builder.append(" ").append(type).append(" ")
+                .append(escape(joined.tableName)).append(" AS ").appendAlias(suffix)
+                .append(" ON ");
+
+        boolean first = true;
+
+        for (BaseColumnObject primaryKey : primaryKeys) {
+            if (!first) {
+                builder.append(" AND ");
+            }
+
+            if (primaryKeys.size() > 1) {
+                builder.append("(");
+            }
+
+            builder.appendColumn("", primaryKey.name).append("=").appendColumn(suffix, primaryKey.name);
+
+            if (primaryKeys.size() > 1) {
+                builder.append(")");
+            }
+
+            first = false;
+        }
+
+        builder.append(")");
+    }
+
+    /**
+     * Get the condition selecting, among the rows of the hierarchy table, the ones belonging
+     * to the entity or to one of its descendants.
+     *
+     * @return discriminator values equalities along the path from the hierarchy root
+     */
+    private String getDiscriminatorCondition() {
+        StringBuilder result = new StringBuilder();
+        EntityObject<?> child = entity;
+        EntityObject<?> parent = entity.getParent();
+
+        while (parent != null) {
+            if (result.length() != 0) {
+                result.append(" AND ");
+            }
+
+            result.append(escape(parent.discriminatorColumn.name))
+                    .append(" = ")
+                    .append(parent.discriminatorColumn.toSqlLiteral(child.discriminatorValue));
+
+            child = parent;
+            parent = parent.getParent();
+        }
+
+        return result.toString();
+    }
+
+}
@@ -0,0 +1,940 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.mapping;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import it.mscuttari.kaoldb.annotations.EnumCode;
+import it.mscuttari.kaoldb.annotations.EnumType;
+import it.mscuttari.kaoldb.exceptions.MappingException;
+import it.mscuttari.kaoldb.exceptions.PojoException;
+import it.mscuttari.kaoldb.interfaces.TypeConverter;
+
+/**
+ * Built-in {@link TypeConverter type converters}.
+ *
+ * <p>
+ * Each converter directly calls the typed getters of the cursor and the typed setters of the
+ * content values, so that the values don't have to be dispatched according to their class.
+ * </p>
+ */
+final class TypeConverters {
+
+    /** Converters of the types that don't need any additional information */
+    private static final Map<Class<?>, TypeConverter<?>> converters;
+
+    static {
+        Map<Class<?>, TypeConverter<?>> map = new HashMap<>();
+
+        map.put(boolean.class, BooleanConverter.INSTANCE);
+        map.put(Boolean.class, BooleanConverter.INSTANCE);
+        map.put(byte.class, ByteConverter.INSTANCE);
+        map.put(Byte.class, ByteConverter.INSTANCE);
+        map.put(short.class, ShortConverter.INSTANCE);
+        map.put(Short.class, ShortConverter.INSTANCE);
+        map.put(int.class, IntegerConverter.INSTANCE);
+        map.put(Integer.class, IntegerConverter.INSTANCE);
+        map.put(long.class, LongConverter.INSTANCE);
+        map.put(Long.class, LongConverter.INSTANCE);
+        map.put(float.class, FloatConverter.INSTANCE);
+        map.put(Float.class, FloatConverter.INSTANCE);
+        map.put(double.class, DoubleConverter.INSTANCE);
+        map.put(Double.class, DoubleConverter.INSTANCE);
+        map.put(char.class, CharacterConverter.INSTANCE);
+        map.put(Character.class, CharacterConverter.INSTANCE);
+        map.put(String.class, StringConverter.INSTANCE);
+        map.put(byte[].class, BlobConverter.INSTANCE);
+        map.put(Date.class, DateConverter.INSTANCE);
+        map.put(UUID.class, UuidConverter.INSTANCE);
+
+        converters = Collections.unmodifiableMap(map);
+    }
+
+    private TypeConverters() {
+
+    }
+
+    /**
+     * Get the built-in converter for a data type.
+     *
+     * @param type      data type
+     * @param scale     scale to be used for {@link BigDecimal} values
+     *
+     * @return converter, or <code>null</code> if the type is not supported
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static TypeConverter<?> get(@NonNull Class<?> type, int scale) {
+        TypeConverter<?> result = converters.get(type);
+
+        if (result != null) {
+            return result;
+        }
+
+        if (Calendar.class.isAssignableFrom(type)) {
+            return new CalendarConverter();
+
+        } else if (type.equals(BigDecimal.class)) {
+            return new BigDecimalConverter(scale);
+
+        } else if (Enum.class.isAssignableFrom(type)) {
+            return getEnum(type, EnumType.STRING);
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the built-in converter for a data type.
+     *
+     * @param type      data type
+     * @return converter, or <code>null</code> if the type is not supported
+     */
+    @Nullable
+    public static TypeConverter<?> get(@NonNull Class<?> type) {
+        return get(type, 0);
+    }
+
+    /**
+     * Get the cursor data type of the values written by a converter.
+     *
+     * @param converter     converter
+     * @return one of the <code>Cursor.FIELD_TYPE_*</code> constants, or <code>-1</code> if the
+     *         column type declared by the converter is not one of the SQLite storage classes
+     */
+    public static int getCursorType(@NonNull TypeConverter<?> converter) {
+        switch (converter.getColumnType().toUpperCase(Locale.ROOT)) {
+            case "INTEGER":
+                return Cursor.FIELD_TYPE_INTEGER;
+
+            case "REAL":
+                return Cursor.FIELD_TYPE_FLOAT;
+
+            case "TEXT":
+                return Cursor.FIELD_TYPE_STRING;
+
+            case "BLOB":
+                return Cursor.FIELD_TYPE_BLOB;
+
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Read a value from a cursor by means of a converter.
+     *
+     * <p>The data type of the value must be the one the converter writes, otherwise the typed
+     * getters of the cursor would silently convert it (i.e. a <code>TEXT</code> value would
+     * be read as <code>0</code> by {@link Cursor#getInt(int)}).</p>
+     *
+     * @param c             cursor
+     * @param columnIndex   column index
+     * @param converter     converter
+     * @param cursorType    expected data type, as returned by {@link #getCursorType(TypeConverter)}.
+     *                      If <code>-1</code>, any data type is accepted
+     *
+     * @return value, or <code>null</code> if the value is <code>NULL</code>
+     *
+     * @throws PojoException if the data type is not the expected one
+     */
+    @Nullable
+    public static Object read(@NonNull Cursor c, int columnIndex, @NonNull TypeConverter<Object> converter, int cursorType) {
+        if (isNull(c, columnIndex, cursorType)) {
+            return null;
+        }
+
+        return converter.read(c, columnIndex);
+    }
+
+    /**
+     * Check whether a value is <code>NULL</code> and, if not, whether its data type is the one
+     * expected by the column converter.
+     *
+     * @param c             cursor
+     * @param columnIndex   column index
+     * @param cursorType    expected data type, as returned by {@link #getCursorType(TypeConverter)}.
+     *                      If <code>-1</code>, any data type is accepted
+     *
+     * @return <code>true</code> if the value is <code>NULL</code>
+     *
+     * @throws PojoException if the data type is not the expected one
+     */
+    public static boolean isNull(@NonNull Cursor c, int columnIndex, int cursorType) {
+        int type = c.getType(columnIndex);
+
+        if (type == Cursor.FIELD_TYPE_NULL) {
+            return true;
+        }
+
+        if (cursorType != -1 && type != cursorType) {
+            throw new PojoException("Incompatible data type for column '" + c.getColumnName(columnIndex) + "': " +
+                    "expected " + getTypeName(cursorType) + ", found " + getTypeName(type));
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the name of a cursor data type.
+     *
+     * @param cursorType    one of the <code>Cursor.FIELD_TYPE_*</code> constants
+     * @return data type name
+     */
+    private static String getTypeName(int cursorType) {
+        switch (cursorType) {
+            case Cursor.FIELD_TYPE_INTEGER:
+                return "Integer";
+
+            case Cursor.FIELD_TYPE_FLOAT:
+                return "Float";
+
+            case Cursor.FIELD_TYPE_STRING:
+                return "String";
+
+            case Cursor.FIELD_TYPE_BLOB:
+                return "Blob";
+
+            default:
+                return "Null";
+        }
+    }
+
+    /**
+     * Get the converter for an enum.
+     *
+     * @param type      enum class, or class of an enum constant
+     * @param strategy  storage strategy
+     *
+     * @return converter
+     *
+     * @throws MappingException if the {@link EnumType#CODE} strategy is requested but the codes
+     *                          are missing or not unique
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public static TypeConverter<?> getEnum(@NonNull Class<?> type, @NonNull EnumType strategy) {
+        // Enum constants with a body are instances of anonymous subclasses
+        while (!type.isEnum()) {
+            type = type.getSuperclass();
+        }
+
+        Class<? extends Enum> enumClass = (Class<? extends Enum>) type;
+
+        switch (strategy) {
+            case ORDINAL:
+                return new OrdinalEnumConverter<>(enumClass);
+
+            case CODE:
+                return new CodeEnumConverter<>(enumClass);
+
+            default:
+                return new NameEnumConverter<>(enumClass);
+        }
+    }
+
+    /**
+     * Parse the string representation of a value, as it is specified in the annotations (i.e.
+     * the default values of the columns).
+     *
+     * <p>
+     * Dates and calendars are represented by their time in milliseconds, UUIDs by their
+     * canonical form and enums by the name of their constants.
+     * </p>
+     *
+     * @param type      data type
+     * @param value     string representation
+     *
+     * @return value, or <code>null</code> if the type is not supported
+     * @throws IllegalArgumentException if the string doesn't represent a value of the type
+     */
+    @Nullable
+    public static Object parse(@NonNull Class<?> type, @NonNull String value) {
+        if (type == boolean.class || type == Boolean.class) {
+            if (value.equalsIgnoreCase("true") || value.equals("1")) {
+                return true;
+            } else if (value.equalsIgnoreCase("false") || value.equals("0")) {
+                return false;
+            }
+
+            throw new IllegalArgumentException("Invalid boolean \"" + value + "\"");
+
+        } else if (type == byte.class || type == Byte.class) {
+            return Byte.parseByte(value);
+
+        } else if (type == short.class || type == Short.class) {
+            return Short.parseShort(value);
+
+        } else if (type == int.class || type == Integer.class) {
+            return Integer.parseInt(value);
+
+        } else if (type == long.class || type == Long.class) {
+            return Long.parseLong(value);
+
+        } else if (type == float.class || type == Float.class) {
+            return Float.parseFloat(value);
+
+        } else if (type == double.class || type == Double.class) {
+            return Double.parseDouble(value);
+
+        } else if (type == char.class || type == Character.class) {
+            if (value.length() != 1)
+                throw new IllegalArgumentException("Invalid character \"" + value + "\"");
+
+            return value.charAt(0);
+
+        } else if (type == String.class) {
+            return value;
+
+        } else if (type == Date.class) {
+            return new Date(Long.parseLong(value));
+
+        } else if (Calendar.class.isAssignableFrom(type)) {
+            Calendar result = Calendar.getInstance();
+            result.setTimeInMillis(Long.parseLong(value));
+            return result;
+
+        } else if (type == UUID.class) {
+            return UUID.fromString(value);
+
+        } else if (type == BigDecimal.class) {
+            return new BigDecimal(value);
+
+        } else if (Enum.class.isAssignableFrom(type)) {
+            while (!type.isEnum()) {
+                type = type.getSuperclass();
+            }
+
+            for (Object constant : type.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equals(value))
+                    return constant;
+            }
+
+            throw new IllegalArgumentException("Unknown enum constant \"" + value + "\"");
+        }
+
+        return null;
+    }
+
+    private static final class BooleanConverter implements TypeConverter<Boolean> {
+        static final BooleanConverter INSTANCE = new BooleanConverter();
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "INTEGER";
+        }
+
+        @NonNull
+        @Override
+        public Boolean read(@NonNull Cursor c, int columnIndex) {
+            return c.getInt(columnIndex) != 0;
+        }
+
+        @Override
+        public boolean readBoolean(@NonNull Cursor c, int columnIndex) {
+            return c.getInt(columnIndex) != 0;
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull Boolean value) {
+            cv.put(column, value ? 1 : 0);
+        }
+    }
+
+    private static final class ByteConverter implements TypeConverter<Byte> {
+        static final ByteConverter INSTANCE = new ByteConverter();
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "INTEGER";
+        }
+
+        @NonNull
+        @Override
+        public Byte read(@NonNull Cursor c, int columnIndex) {
+            return (byte) c.getInt(columnIndex);
+        }
+
+        @Override
+        public int readInt(@NonNull Cursor c, int columnIndex) {
+            return c.getInt(columnIndex);
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull Byte value) {
+            cv.put(column, value);
+        }
+    }
+
+    private static final class ShortConverter implements TypeConverter<Short> {
+        static final ShortConverter INSTANCE = new ShortConverter();
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "INTEGER";
+        }
+
+        @NonNull
+        @Override
+        public Short read(@NonNull Cursor c, int columnIndex) {
+            return c.getShort(columnIndex);
+        }
+
+        @Override
+        public int readInt(@NonNull Cursor c, int columnIndex) {
+            return c.getInt(columnIndex);
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull Short value) {
+            cv.put(column, value);
+        }
+    }
+
+    private static final class IntegerConverter implements TypeConverter<Integer> {
+        static final IntegerConverter INSTANCE = new IntegerConverter();
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "INTEGER";
+        }
+
+        @NonNull
+        @Override
+        public Integer read(@NonNull Cursor c, int columnIndex) {
+            return c.getInt(columnIndex);
+        }
+
+        @Override
+        public int readInt(@NonNull Cursor c, int columnIndex) {
+            return c.getInt(columnIndex);
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull Integer value) {
+            cv.put(column, value);
+        }
+    }
+
+    private static final class LongConverter implements TypeConverter<Long> {
+        static final LongConverter INSTANCE = new LongConverter();
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "INTEGER";
+        }
+
+        @NonNull
+        @Override
+        public Long read(@NonNull Cursor c, int columnIndex) {
+            return c.getLong(columnIndex);
+        }
+
+        @Override
+        public long readLong(@NonNull Cursor c, int columnIndex) {
+            return c.getLong(columnIndex);
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull Long value) {
+            cv.put(column, value);
+        }
+    }
+
+    private static final class FloatConverter implements TypeConverter<Float> {
+        static final FloatConverter INSTANCE = new FloatConverter();
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "REAL";
+        }
+
+        @NonNull
+        @Override
+        public Float read(@NonNull Cursor c, int columnIndex) {
+            return c.getFloat(columnIndex);
+        }
+
+        @Override
+        public float readFloat(@NonNull Cursor c, int columnIndex) {
+            return c.getFloat(columnIndex);
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull Float value) {
+            cv.put(column, value);
+        }
+    }
+
+    private static final class DoubleConverter implements TypeConverter<Double> {
+        static final DoubleConverter INSTANCE = new DoubleConverter();
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "REAL";
+        }
+
+        @NonNull
+        @Override
+        public Double read(@NonNull Cursor c, int columnIndex) {
+            return c.getDouble(columnIndex);
+        }
+
+        @Override
+        public double readDouble(@NonNull Cursor c, int columnIndex) {
+            return c.getDouble(columnIndex);
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull Double value) {
+            cv.put(column, value);
+        }
+    }
+
+    private static final class CharacterConverter implements TypeConverter<Character> {
+        static final CharacterConverter INSTANCE = new CharacterConverter();
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "TEXT";
+        }
+
+        @NonNull
+        @Override
+        public Character read(@NonNull Cursor c, int columnIndex) {
+            String value = c.getString(columnIndex);
+
+            if (value.isEmpty()) {
+                throw new PojoException("Empty string can't be converted to a character");
+            }
+
+            return value.charAt(0);
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull Character value) {
+            cv.put(column, String.valueOf(value.charValue()));
+        }
+    }
+
+    private static final class StringConverter implements TypeConverter<String> {
+        static final StringConverter INSTANCE = new StringConverter();
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "TEXT";
+        }
+
+        @NonNull
+        @Override
+        public String read(@NonNull Cursor c, int columnIndex) {
+            return c.getString(columnIndex);
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull String value) {
+            cv.put(column, value);
+        }
+    }
+
+    private static final class BlobConverter implements TypeConverter<byte[]> {
+        static final BlobConverter INSTANCE = new BlobConverter();
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "BLOB";
+        }
+
+        @NonNull
+        @Override
+        public byte[] read(@NonNull Cursor c, int columnIndex) {
+            return c.getBlob(columnIndex);
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull byte[] value) {
+            cv.put(column, value);
+        }
+    }
+
+    /**
+     * {@link Date} stored as milliseconds since epoch.
+     */
+    private static final class DateConverter implements TypeConverter<Date> {
+        static final DateConverter INSTANCE = new DateConverter();
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "INTEGER";
+        }
+
+        @NonNull
+        @Override
+        public Date read(@NonNull Cursor c, int columnIndex) {
+            return new Date(c.getLong(columnIndex));
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull Date value) {
+            cv.put(column, value.getTime());
+        }
+    }
+
+    /**
+     * {@link Calendar} stored as milliseconds since epoch.
+     *
+     * <p>The calendars are created for each read, so that they always use the current default
+     * time zone and locale.</p>
+     */
+    private static final class CalendarConverter implements TypeConverter<Calendar> {
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "INTEGER";
+        }
+
+        @NonNull
+        @Override
+        public Calendar read(@NonNull Cursor c, int columnIndex) {
+            Calendar result = Calendar.getInstance();
+            result.setTimeInMillis(c.getLong(columnIndex));
+            return result;
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull Calendar value) {
+            cv.put(column, value.getTimeInMillis());
+        }
+    }
+
+    /**
+     * {@link UUID} stored as a 16 bytes blob, most significant bits first.
+     */
+    private static final class UuidConverter implements TypeConverter<UUID> {
+        static final UuidConverter INSTANCE = new UuidConverter();
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "BLOB";
+        }
+
+        @NonNull
+        @Override
+        public UUID read(@NonNull Cursor c, int columnIndex) {
+            byte[] bytes = c.getBlob(columnIndex);
+
+            if (bytes.length != 16) {
+                throw new PojoException("Invalid UUID length: " + bytes.length + " bytes");
+            }
+
+            long msb = 0;
+            long lsb = 0;
+
+            for (int i = 0; i < 8; i++) {
+                msb = (msb << 8) | (bytes[i] & 0xff);
+                lsb = (lsb << 8) | (bytes[i + 8] & 0xff);
+            }
+
+            return new UUID(msb, lsb);
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull UUID value) {
+            byte[] bytes = new byte[16];
+            long msb = value.getMostSignificantBits();
+            long lsb = value.getLeastSignificantBits();
+
+            for (int i = 7; i >= 0; i--) {
+                bytes[i] = (byte) msb;
+                bytes[i + 8] = (byte) lsb;
+                msb >>>= 8;
+                lsb >>>= 8;
+            }
+
+            cv.put(column, bytes);
+        }
+    }
+
+    /**
+     * {@link BigDecimal} stored as its unscaled value with respect to a fixed scale.
+     */
+    private static final class BigDecimalConverter implements TypeConverter<BigDecimal> {
+        private final int scale;
+
+        BigDecimalConverter(int scale) {
+            this.scale = scale;
+        }
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "INTEGER";
+        }
+
+        @NonNull
+        @Override
+        public BigDecimal read(@NonNull Cursor c, int columnIndex) {
+            return BigDecimal.valueOf(c.getLong(columnIndex), scale);
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull BigDecimal value) {
+            try {
+                BigInteger unscaled = value.setScale(scale).unscaledValue();
+                cv.put(column, unscaled.longValueExact());
+
+            } catch (ArithmeticException e) {
+                throw new PojoException("Value " + value + " of column \"" + column + "\" can't be stored with scale " + scale, e);
+            }
+        }
+    }
+
+    /**
+     * Enum stored as the name of its constants.
+     *
+     * <p>The constants are looked up in a map built once, instead of going through
+     * {@link Enum#valueOf(Class, String)} for each row.</p>
+     */
+    private static final class NameEnumConverter<E extends Enum<E>> implements TypeConverter<E> {
+        private final Map<String, E> constants = new HashMap<>();
+
+        NameEnumConverter(Class<E> enumClass) {
+            for (E constant : enumClass.getEnumConstants()) {
+                constants.put(constant.name(), constant);
+            }
+        }
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "TEXT";
+        }
+
+        @NonNull
+        @Override
+        public E read(@NonNull Cursor c, int columnIndex) {
+            String name = c.getString(columnIndex);
+            E result = constants.get(name);
+
+            if (result == null) {
+                throw new PojoException("Unknown enum constant \"" + name + "\"");
+            }
+
+            return result;
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull E value) {
+            cv.put(column, value.name());
+        }
+    }
+
+    /**
+     * Enum stored as the ordinal of its constants.
+     */
+    private static final class OrdinalEnumConverter<E extends Enum<E>> implements TypeConverter<E> {
+        private final E[] constants;
+
+        OrdinalEnumConverter(Class<E> enumClass) {
+            this.constants = enumClass.getEnumConstants();
+        }
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "INTEGER";
+        }
+
+        @NonNull
+        @Override
+        public E read(@NonNull Cursor c, int columnIndex) {
+            int ordinal = c.getInt(columnIndex);
+
+            if (ordinal < 0 || ordinal >= constants.length) {
+                throw new PojoException("Unknown enum ordinal " + ordinal);
+            }
+
+            return constants[ordinal];
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull E value) {
+            cv.put(column, value.ordinal());
+        }
+    }
+
+    /**
+     * Enum stored as the codes specified through the {@link EnumCode} annotation.
+     *
+     * <p>The constants are looked up in an array indexed by the code offset with respect to
+     * the minimum one. If the codes are too sparse for that, the array is replaced by a binary
+     * search among the sorted codes.</p>
+     */
+    private static final class CodeEnumConverter<E extends Enum<E>> implements TypeConverter<E> {
+        /** Codes of the constants, indexed by ordinal */
+        private final int[] codes;
+
+        /** Minimum code */
+        private final int minCode;
+
+        /** Constants indexed by code offset (null if the codes are sparse) */
+        @Nullable
+        private final E[] constantsByOffset;
+
+        /** Sorted codes (null if the codes are dense) */
+        @Nullable
+        private final int[] sortedCodes;
+
+        /** Constants in the same order of {@link #sortedCodes} (null if the codes are dense) */
+        @Nullable
+        private final E[] sortedConstants;
+
+        @SuppressWarnings("unchecked")
+        CodeEnumConverter(Class<E> enumClass) {
+            E[] constants = enumClass.getEnumConstants();
+            this.codes = new int[constants.length];
+
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+
+            for (E constant : constants) {
+                EnumCode annotation;
+
+                try {
+                    annotation = enumClass.getField(constant.name()).getAnnotation(EnumCode.class);
+                } catch (NoSuchFieldException e) {
+                    throw new MappingException(e);
+                }
+
+                if (annotation == null) {
+                    throw new MappingException("Enum constant " + enumClass.getSimpleName() + "." + constant.name() + " has no code");
+                }
+
+                codes[constant.ordinal()] = annotation.value();
+                min = Math.min(min, annotation.value());
+                max = Math.max(max, annotation.value());
+            }
+
+            this.minCode = constants.length == 0 ? 0 : (int) min;
+            long range = constants.length == 0 ? 0 : max - min + 1;
+
+            if (range <= 2L * constants.length + 16) {
+                // Dense codes
+                this.constantsByOffset = (E[]) Array.newInstance(enumClass, (int) range);
+                this.sortedCodes = null;
+                this.sortedConstants = null;
+
+                for (E constant : constants) {
+                    int offset = codes[constant.ordinal()] - minCode;
+
+                    if (constantsByOffset[offset] != null) {
+                        throw new MappingException("Enum " + enumClass.getSimpleName() + " has duplicated code " + codes[constant.ordinal()]);
+                    }
+
+                    constantsByOffset[offset] = constant;
+                }
+
+            } else {
+                // Sparse codes
+                this.constantsByOffset = null;
+                this.sortedCodes = codes.clone();
+                Arrays.sort(sortedCodes);
+                this.sortedConstants = (E[]) Array.newInstance(enumClass, constants.length);
+
+                for (E constant : constants) {
+                    int position = Arrays.binarySearch(sortedCodes, codes[constant.ordinal()]);
+
+                    if ((position > 0 && sortedCodes[position - 1] == sortedCodes[position]) ||
+                            (position < sortedCodes.length - 1 && sortedCodes[position + 1] == sortedCodes[position])) {
+                        throw new MappingException("Enum " + enumClass.getSimpleName() + " has duplicated code " + codes[constant.ordinal()]);
+                    }
+
+                    sortedConstants[position] = constant;
+                }
+            }
+        }
+
+        @NonNull
+        @Override
+        public String getColumnType() {
+            return "INTEGER";
+        }
+
+        @NonNull
+        @Override
+        public E read(@NonNull Cursor c, int columnIndex) {
+            int code = c.getInt(columnIndex);
+            E result = null;
+
+            if (constantsByOffset != null) {
+                long offset = (long) code - minCode;
+
+                if (offset >= 0 && offset < constantsByOffset.length) {
+                    result = constantsByOffset[(int) offset];
+                }
+
+            } else {
+                int position = Arrays.binarySearch(sortedCodes, code);
+
+                if (position >= 0) {
+                    result = sortedConstants[position];
+                }
+            }
+
+            if (result == null) {
+                throw new PojoException("Unknown enum code " + code);
+            }
+
+            return result;
+        }
+
+        @Override
+        public void write(@NonNull ContentValues cv, @NonNull String column, @NonNull E value) {
+            cv.put(column, codes[value.ordinal()]);
+        }
+    }
+
+}
@@ -17,9 +17,11 @@
 package it.mscuttari.kaoldb.query;
 
 import android.content.ContentResolver;
+import android.database.AbstractWindowedCursor;
 import android.database.CharArrayBuffer;
 import android.database.ContentObserver;
 import android.database.Cursor;
+import android.database.CursorWindow;
 import android.database.DataSetObserver;
 import android.database.sqlite.SQLiteCursor;
 import android.net.Uri;
@@ -290,4 +292,24 @@ public class CachedCursor implements Cursor {
         return c.respond(extras);
     }
 
+    /**
+     * Replace the window of the original cursor with a new one of a specific size.
+     *
+     * <p>The window must be set before the cursor is filled for the first time, that is before
+     * any data or the rows count are requested.</p>
+     *
+     * @param bytes     window size in bytes
+     * @return <code>true</code> if the window has been set; <code>false</code> if the original
+     *         cursor doesn't support windows
+     */
+    @RequiresApi(Build.VERSION_CODES.P)
+    public boolean setWindowSize(long bytes) {
+        if (!(c instanceof AbstractWindowedCursor)) {
+            return false;
+        }
+
+        ((AbstractWindowedCursor) c).setWindow(new CursorWindow(null, bytes));
+        return true;
+    }
+
 }
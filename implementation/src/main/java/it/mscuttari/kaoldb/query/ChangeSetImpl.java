@@ -0,0 +1,233 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.query;
+
+import android.util.Pair;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import it.mscuttari.kaoldb.interfaces.ChangeSet;
+
+/**
+ * Differences between two results lists, computed by matching the elements keys.
+ *
+ * <p>
+ * Insertions, removals and changes are found in linear time. Moves are found by searching the
+ * longest increasing subsequence of the previous positions of the matched elements, taken in
+ * the order of the new results: every matched element outside such subsequence has been moved.
+ * </p>
+ *
+ * @param <M>   result objects class
+ */
+final class ChangeSetImpl<M> implements ChangeSet<M> {
+
+    @NonNull private final List<M> results;
+    @NonNull private final List<Integer> insertions = new ArrayList<>();
+    @NonNull private final List<Integer> removals = new ArrayList<>();
+    @NonNull private final List<Pair<Integer, Integer>> moves = new ArrayList<>();
+    @NonNull private final List<Integer> changes = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param previous      previous results
+     * @param results       new results
+     * @param key           function returning the key of an element
+     * @param sameContent   predicate telling whether two elements with the same key also have
+     *                      the same content
+     */
+    ChangeSetImpl(@NonNull List<M> previous,
+                  @NonNull List<M> results,
+                  @NonNull Function<? super M, ?> key,
+                  @NonNull BiPredicate<? super M, ? super M> sameContent) {
+
+        this(previous, results, results, key, sameContent);
+    }
+
+    /**
+     * Constructor.
+     *
+     * <p>The elements are compared by means of their states, so that the comparison is not
+     * affected by the changes done to the result objects after the previous results have
+     * been emitted.</p>
+     *
+     * @param previous      states of the previous results
+     * @param current       states of the new results, in the same order of the results
+     * @param results       new results
+     * @param key           function returning the key of a state
+     * @param sameContent   predicate telling whether two states with the same key also have
+     *                      the same content
+     * @param <S>           state class
+     */
+    <S> ChangeSetImpl(@NonNull List<S> previous,
+                      @NonNull List<S> current,
+                      @NonNull List<M> results,
+                      @NonNull Function<? super S, ?> key,
+                      @NonNull BiPredicate<? super S, ? super S> sameContent) {
+
+        this.results = Collections.unmodifiableList(results);
+
+        // Previous position of each key. Duplicated keys are matched just once, while the other
+        // occurrences are considered to be removed.
+        Map<Object, Integer> previousPositions = new HashMap<>(previous.size());
+
+        for (int i = previous.size() - 1; i >= 0; i--) {
+            previousPositions.put(key.apply(previous.get(i)), i);
+        }
+
+        boolean[] matched = new boolean[previous.size()];
+
+        // Previous positions of the matched elements, in the order of the new results
+        int[] sequence = new int[current.size()];
+        int[] sequencePositions = new int[current.size()];
+        int sequenceLength = 0;
+
+        for (int i = 0; i < current.size(); i++) {
+            S element = current.get(i);
+            Integer previousPosition = previousPositions.remove(key.apply(element));
+
+            if (previousPosition == null) {
+                insertions.add(i);
+                continue;
+            }
+
+            matched[previousPosition] = true;
+            sequence[sequenceLength] = previousPosition;
+            sequencePositions[sequenceLength] = i;
+            sequenceLength++;
+
+            if (!sameContent.test(previous.get(previousPosition), element)) {
+                changes.add(i);
+            }
+        }
+
+        for (int i = 0; i < matched.length; i++) {
+            if (!matched[i]) {
+                removals.add(i);
+            }
+        }
+
+        boolean[] stable = getLongestIncreasingSubsequence(sequence, sequenceLength);
+
+        for (int i = 0; i < sequenceLength; i++) {
+            if (!stable[i]) {
+                moves.add(new Pair<>(sequence[i], sequencePositions[i]));
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "Insertions: " + insertions + ", " +
+                "Removals: " + removals + ", " +
+                "Moves: " + moves + ", " +
+                "Changes: " + changes;
+    }
+
+    @NonNull
+    @Override
+    public List<M> getResults() {
+        return results;
+    }
+
+    @NonNull
+    @Override
+    public List<Integer> getInsertions() {
+        return Collections.unmodifiableList(insertions);
+    }
+
+    @NonNull
+    @Override
+    public List<Integer> getRemovals() {
+        return Collections.unmodifiableList(removals);
+    }
+
+    @NonNull
+    @Override
+    public List<Pair<Integer, Integer>> getMoves() {
+        return Collections.unmodifiableList(moves);
+    }
+
+    @NonNull
+    @Override
+    public List<Integer> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return insertions.isEmpty() && removals.isEmpty() && moves.isEmpty() && changes.isEmpty();
+    }
+
+    /**
+     * Find the longest strictly increasing subsequence (patience sorting, O(n log n)).
+     *
+     * @param sequence  values
+     * @param length    number of values to be considered
+     *
+     * @return for each value, whether it belongs to the subsequence
+     */
+    private static boolean[] getLongestIncreasingSubsequence(int[] sequence, int length) {
+        // Index of the smallest tail of all the increasing subsequences of length i + 1
+        int[] tails = new int[length];
+
+        // Index of the predecessor of each value in its subsequence
+        int[] predecessors = new int[length];
+
+        int size = 0;
+
+        for (int i = 0; i < length; i++) {
+            int low = 0;
+            int high = size;
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+
+                if (sequence[tails[middle]] < sequence[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            predecessors[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+
+            if (low == size) {
+                size++;
+            }
+        }
+
+        boolean[] result = new boolean[length];
+
+        for (int i = size > 0 ? tails[size - 1] : -1; i >= 0; i = predecessors[i]) {
+            result[i] = true;
+        }
+
+        return result;
+    }
+
+}
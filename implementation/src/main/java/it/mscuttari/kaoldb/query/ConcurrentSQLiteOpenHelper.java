@@ -17,16 +17,23 @@
 package it.mscuttari.kaoldb.query;
 
 import android.content.ContentValues;
-import android.content.Context;
 import android.database.Cursor;
-import android.database.sqlite.SQLiteCursor;
-import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
+import android.database.CursorWrapper;
+import android.os.Build;
 
 import androidx.annotation.NonNull;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+import it.mscuttari.kaoldb.MetricsUtils;
+import it.mscuttari.kaoldb.SlowOperationLog;
+import it.mscuttari.kaoldb.interfaces.MetricsListener;
+import it.mscuttari.kaoldb.interfaces.SlowOperation;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+import it.mscuttari.kaoldb.interfaces.StorageDriver;
 import it.mscuttari.kaoldb.mapping.DatabaseObject;
-import it.mscuttari.kaoldb.query.CachedCursor;
 import it.mscuttari.kaoldb.exceptions.DatabaseManagementException;
 
 /**
@@ -34,40 +41,39 @@ import it.mscuttari.kaoldb.exceptions.DatabaseManagementException;
  */
 final class ConcurrentSQLiteOpenHelper {
 
-    private final SQLiteOpenHelper helper;
-    private SQLiteDatabase db;
+    /** Maximum time to wait, in milliseconds, for the queries still running when force closing */
+    private static final long FORCE_CLOSE_TIMEOUT = 5000;
+
+    private final String name;
+    private final StorageDriver driver;
+    private final DatabaseObject database;
+    private StorageConnection db;
     private int dbConnections = 0;
 
+    /** Amount of cursors returned by {@link #select(String, String[])} and not closed yet */
+    private int openCursors = 0;
+
+    /** Cursors returned by {@link #select(String, String[])} and not closed yet */
+    private final Set<Cursor> cursors = new HashSet<>();
+
+    /** Start time of the running transaction, in nanoseconds */
+    private long transactionStart;
+
+    /** Whether the running transaction has been marked as successful */
+    private boolean transactionSuccessful;
+
     /**
      * Constructor.
      *
-     * @param context   application context
+     * @param driver    storage driver
      * @param db        database
      */
-    public ConcurrentSQLiteOpenHelper(@NonNull Context context,
+    public ConcurrentSQLiteOpenHelper(@NonNull StorageDriver driver,
                                       @NonNull DatabaseObject db) {
 
-        this.helper = new SQLiteOpenHelper(
-                context.getApplicationContext(),
-                db.getName(),
-                (sqliteDb, masterQuery, editTable, query) -> new CachedCursor(new SQLiteCursor(sqliteDb, masterQuery, editTable, query)),
-                db.getVersion())
-        {
-            @Override
-            public void onCreate(SQLiteDatabase sqliteDb) {
-                db.create(sqliteDb);
-            }
-
-            @Override
-            public void onUpgrade(SQLiteDatabase sqliteDb, int oldVersion, int newVersion) {
-                db.upgrade(sqliteDb, oldVersion, newVersion);
-            }
-
-            @Override
-            public void onDowngrade(SQLiteDatabase sqliteDb, int oldVersion, int newVersion) {
-                db.downgrade(sqliteDb, oldVersion, newVersion);
-            }
-        };
+        this.name = db.getName();
+        this.driver = driver;
+        this.database = db;
     }
 
     /**
@@ -75,7 +81,22 @@ final class ConcurrentSQLiteOpenHelper {
      */
     public synchronized void open() {
         if (db == null || !db.isOpen()) {
-            db = helper.getWritableDatabase();
+            db = driver.open(name);
+
+            try {
+                migrate(db);
+
+            } catch (RuntimeException e) {
+                db.close();
+                db = null;
+                throw e;
+            }
+
+            MetricsListener metrics = MetricsUtils.getListener();
+
+            if (metrics != null) {
+                metrics.onConnectionOpened(name);
+            }
         }
 
         dbConnections++;
@@ -86,21 +107,65 @@ final class ConcurrentSQLiteOpenHelper {
      */
     public synchronized void close() {
         if (--dbConnections == 0) {
-            helper.close();
+            db.close();
             db = null;
+
+            MetricsListener metrics = MetricsUtils.getListener();
+
+            if (metrics != null) {
+                metrics.onConnectionClosed(name);
+            }
         }
     }
 
     /**
      * Close the database independently from its current usage.
+     *
+     * <p>The cursors that have not been closed yet are closed, while the queries still running are
+     * given some time to complete.</p>
+     *
+     * @throws DatabaseManagementException if the running queries don't complete in time
      */
     public synchronized void forceClose() {
+        long deadline = System.currentTimeMillis() + FORCE_CLOSE_TIMEOUT;
+
+        while (openCursors > 0) {
+            // The cursors are closed also if they are still being read, as their owners may have
+            // leaked them or may be waiting for this method to return.
+            for (Cursor c : new ArrayList<>(cursors)) {
+                c.close();
+            }
+
+            if (openCursors == 0)
+                break;
+
+            // The remaining connection references are held by queries whose cursor has not been
+            // returned yet
+            long timeout = deadline - System.currentTimeMillis();
+
+            if (timeout <= 0)
+                throw new DatabaseManagementException("Timeout while waiting for the running queries to complete");
+
+            try {
+                wait(timeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DatabaseManagementException(e);
+            }
+        }
+
         if (db != null) {
             if (db.isOpen()) {
                 if (db.inTransaction())
                     endTransaction();
 
                 db.close();
+
+                MetricsListener metrics = MetricsUtils.getListener();
+
+                if (metrics != null) {
+                    metrics.onConnectionClosed(name);
+                }
             }
         }
 
@@ -122,6 +187,9 @@ final class ConcurrentSQLiteOpenHelper {
             throw new DatabaseManagementException("A transaction is already running");
 
         db.beginTransaction();
+
+        transactionStart = System.nanoTime();
+        transactionSuccessful = false;
     }
 
     /**
@@ -138,6 +206,7 @@ final class ConcurrentSQLiteOpenHelper {
             throw new DatabaseManagementException("There is no transaction running");
 
         db.setTransactionSuccessful();
+        transactionSuccessful = true;
     }
 
     /**
@@ -154,40 +223,151 @@ final class ConcurrentSQLiteOpenHelper {
             throw new DatabaseManagementException("There is no transaction running");
 
         db.endTransaction();
+
+        long duration = System.nanoTime() - transactionStart;
+        MetricsListener metrics = MetricsUtils.getListener();
+
+        if (metrics != null) {
+            metrics.onTransaction(name, duration, transactionSuccessful);
+        }
+
+        SlowOperationLog.record(SlowOperation.Type.TRANSACTION, name, "", 0, 0, duration);
     }
 
     /**
      * Perform a SELECT query.
      *
+     * <p>The connection is kept open until the returned cursor is closed, so that a concurrent
+     * {@link #close()} or {@link #forceClose()} can't release it while the results are read.</p>
+     *
      * @param sql               query
      * @param selectionArgs     selection args
      *
      * @return cursor containing the data
      */
-    public synchronized Cursor select(String sql, String[] selectionArgs) {
-        if (db == null)
-            throw new DatabaseManagementException("Database must be opened first");
+    public Cursor select(String sql, String[] selectionArgs) {
+        return select(sql, selectionArgs, 0);
+    }
+
+    /**
+     * Perform a SELECT query reading the results through a window of a specific size.
+     *
+     * <p>The window size is ignored on Android versions prior to 9 (API 28).</p>
+     *
+     * @param sql               query
+     * @param selectionArgs     selection args
+     * @param windowSize        cursor window size in bytes (<code>0</code> for the default one)
+     *
+     * @return cursor containing the data
+     */
+    public Cursor select(String sql, String[] selectionArgs, long windowSize) {
+        StorageConnection db;
+
+        // The lock is released before running the query: the database connection may be held
+        // by a transaction running in another thread, which in turn may need the lock to proceed.
+        synchronized (this) {
+            if (this.db == null)
+                throw new DatabaseManagementException("Database must be opened first");
+
+            db = this.db;
+            dbConnections++;
+            openCursors++;
+        }
+
+        Cursor c;
+
+        try {
+            c = db.rawQuery(sql, selectionArgs);
+
+        } catch (RuntimeException e) {
+            releaseCursor(null);
+            throw e;
+        }
+
+        if (windowSize > 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.P && c instanceof CachedCursor) {
+            ((CachedCursor) c).setWindowSize(windowSize);
+        }
+
+        Cursor cursor = new SelectCursor(c);
+
+        synchronized (this) {
+            cursors.add(cursor);
+        }
+
+        return cursor;
+    }
+
+    /**
+     * Release the connection reference held by a cursor returned by {@link #select(String, String[])}.
+     *
+     * @param cursor    cursor being closed (<code>null</code> if the query failed)
+     */
+    private synchronized void releaseCursor(Cursor cursor) {
+        if (cursor != null)
+            cursors.remove(cursor);
+
+        openCursors--;
+        close();
+        notifyAll();
+    }
+
+    /**
+     * Cursor returned by {@link #select(String, String[])}, releasing its connection reference
+     * once closed.
+     */
+    private final class SelectCursor extends CursorWrapper {
+
+        private boolean released = false;
+
+        /**
+         * Constructor.
+         *
+         * @param cursor    cursor of the query
+         */
+        SelectCursor(Cursor cursor) {
+            super(cursor);
+        }
+
+        @Override
+        public void close() {
+            boolean release;
+
+            synchronized (this) {
+                release = !released;
+                released = true;
+            }
+
+            try {
+                super.close();
+
+            } finally {
+                if (release)
+                    releaseCursor(this);
+            }
+        }
 
-        return db.rawQuery(sql, selectionArgs);
     }
 
     /**
      * Perform an insertion into the database.
      *
-     * @param table             table name
-     * @param nullColumnHack    see {@link SQLiteDatabase#insert(String, String, ContentValues)}
-     * @param values            data to be inserted
+     * @param table     table name
+     * @param values    data to be inserted
      *
      * @return row ID
      */
-    public synchronized long insert(String table, String nullColumnHack, ContentValues values) {
+    public synchronized long insert(String table, ContentValues values) {
         boolean shortRun = db == null;
 
         if (shortRun)
             open();
 
         try {
-            return db.insert(table, nullColumnHack, values);
+            long start = System.nanoTime();
+            long rowId = db.insert(table, values);
+            onWrite(MetricsListener.WriteType.INSERT, table, start, values.size(), rowId == -1 ? 0 : 1);
+            return rowId;
+
         } finally {
             if (shortRun)
                 close();
@@ -211,7 +391,11 @@ final class ConcurrentSQLiteOpenHelper {
             open();
 
         try {
-            return db.update(table, values, whereClause, whereArgs);
+            long start = System.nanoTime();
+            int rows = db.update(table, values, whereClause, whereArgs);
+            onWrite(MetricsListener.WriteType.UPDATE, table, start, values.size() + (whereArgs == null ? 0 : whereArgs.length), rows);
+            return rows;
+
         } finally {
             if (shortRun)
                 close();
@@ -234,11 +418,68 @@ final class ConcurrentSQLiteOpenHelper {
             open();
 
         try {
-            return db.delete(table, whereClause, whereArgs);
+            long start = System.nanoTime();
+            int rows = db.delete(table, whereClause, whereArgs);
+            onWrite(MetricsListener.WriteType.DELETE, table, start, whereArgs == null ? 0 : whereArgs.length, rows);
+            return rows;
+
         } finally {
             if (shortRun)
                 close();
         }
     }
 
+    /**
+     * Bring the schema of a just opened database to the mapped version.
+     *
+     * <p>The database is created if empty, or upgraded or downgraded otherwise.</p>
+     *
+     * @param db    opened database
+     */
+    private void migrate(StorageConnection db) {
+        int version = db.getVersion();
+        int newVersion = database.getVersion();
+
+        if (version == newVersion)
+            return;
+
+        db.beginTransaction();
+
+        try {
+            if (version == 0) {
+                database.create(db);
+            } else if (version < newVersion) {
+                database.upgrade(db, version, newVersion);
+            } else {
+                database.downgrade(db, version, newVersion);
+            }
+
+            db.setVersion(newVersion);
+            db.setTransactionSuccessful();
+
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Report a write operation to the metrics listener, if any, and to the slow operations log.
+     *
+     * @param type              operation type
+     * @param table             table name
+     * @param start             start time of the operation, in nanoseconds
+     * @param argumentsCount    amount of values bound to the statement
+     * @param rows              amount of affected rows
+     */
+    private void onWrite(MetricsListener.WriteType type, String table, long start, int argumentsCount, int rows) {
+        long duration = System.nanoTime() - start;
+        MetricsListener metrics = MetricsUtils.getListener();
+
+        if (metrics != null) {
+            metrics.onWrite(name, type, table, duration, rows);
+        }
+
+        SlowOperationLog.record(SlowOperation.Type.valueOf(type.name()), name, table, argumentsCount, rows, duration);
+    }
+
 }
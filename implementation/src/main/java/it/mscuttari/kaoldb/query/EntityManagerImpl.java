@@ -22,6 +22,7 @@ import android.database.Cursor;
 import android.util.Pair;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.collection.ArrayMap;
 import androidx.collection.ArraySet;
 import androidx.lifecycle.LiveData;
@@ -30,20 +31,25 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import it.mscuttari.kaoldb.LogUtils;
+import it.mscuttari.kaoldb.driver.AndroidStorageDriver;
 import it.mscuttari.kaoldb.exceptions.QueryException;
 import it.mscuttari.kaoldb.interfaces.EntityManager;
 import it.mscuttari.kaoldb.interfaces.PostActionListener;
 import it.mscuttari.kaoldb.interfaces.PreActionListener;
 import it.mscuttari.kaoldb.interfaces.QueryBuilder;
 import it.mscuttari.kaoldb.interfaces.Root;
+import it.mscuttari.kaoldb.interfaces.StorageDriver;
 import it.mscuttari.kaoldb.mapping.BaseColumnObject;
 import it.mscuttari.kaoldb.mapping.DatabaseObject;
 import it.mscuttari.kaoldb.mapping.EntityObject;
+import it.mscuttari.kaoldb.mapping.FieldColumnObject;
+import it.mscuttari.kaoldb.mapping.SqlTemplates;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -54,30 +60,40 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class EntityManagerImpl implements EntityManager {
 
+    /** Maximum amount of objects loaded by each statement of {@link #findAll(Class, Collection)} */
+    private static final int FIND_BATCH_SIZE = 250;
+
+    /** Maximum amount of arguments of a statement supported by SQLite */
+    private static final int MAX_ARGUMENTS = 999;
+
     /** Unique entity manager for each database */
     private static Map<DatabaseObject, EntityManagerImpl> entityManagers = new ArrayMap<>();
 
-    /** Android application context */
-    private final WeakReference<Context> context;
+    /** Driver of the storage the database is stored into */
+    @NonNull private final StorageDriver driver;
 
     /** The database managed by this entity manager */
     @NonNull private final DatabaseObject database;
 
     public final ConcurrentSQLiteOpenHelper dbHelper;
 
+    /** Explains the executed queries when running in debug mode */
+    final QueryPlanInspector queryPlanInspector;
+
     /** Map between the observed entities and the queries to be executed when they are modified */
-    private final Map<EntityObject<?>, Collection<WeakReference<LiveQuery<?>>>> observers = new ArrayMap<>();
+    private final Map<EntityObject<?>, Collection<WeakReference<LiveQuery<?, ?>>>> observers = new ArrayMap<>();
 
     /**
      * Constructor.
      *
-     * @param context  application context
+     * @param driver   storage driver
      * @param database database
      */
-    private EntityManagerImpl(@NonNull Context context, @NonNull DatabaseObject database) {
-        this.context = new WeakReference<>(checkNotNull(context));
+    private EntityManagerImpl(@NonNull StorageDriver driver, @NonNull DatabaseObject database) {
+        this.driver = checkNotNull(driver);
         this.database = database;
-        this.dbHelper = new ConcurrentSQLiteOpenHelper(context, database);
+        this.dbHelper = new ConcurrentSQLiteOpenHelper(driver, database);
+        this.queryPlanInspector = new QueryPlanInspector(database, dbHelper);
     }
 
     /**
@@ -93,10 +109,26 @@ public class EntityManagerImpl implements EntityManager {
      * @return singleton instance
      */
     public static EntityManagerImpl getEntityManager(@NonNull Context context, @NonNull DatabaseObject database) {
+        return getEntityManager(new AndroidStorageDriver(context), database);
+    }
+
+    /**
+     * Get singleton instance.
+     *
+     * <p>
+     * The driver is used only when the entity manager is created: the following calls return
+     * the existing instance, independently from the driver they specify.
+     * </p>
+     *
+     * @param driver   storage driver
+     * @param database database object
+     * @return singleton instance
+     */
+    public static EntityManagerImpl getEntityManager(@NonNull StorageDriver driver, @NonNull DatabaseObject database) {
         EntityManagerImpl entityManager = entityManagers.get(database);
 
         if (entityManager == null) {
-            entityManager = new EntityManagerImpl(context, database);
+            entityManager = new EntityManagerImpl(driver, database);
             entityManagers.put(database, entityManager);
         }
 
@@ -106,12 +138,15 @@ public class EntityManagerImpl implements EntityManager {
     @Override
     public boolean deleteDatabase() {
         dbHelper.forceClose();
-        boolean result = getContext().deleteDatabase(database.getName());
+        boolean result = driver.delete(database.getName());
+
+        // The schema of the new database may be different
+        queryPlanInspector.clear();
 
         if (result) {
-            LogUtils.i("[Database \"" + database.getName() + "\"] database deleted");
+            LogUtils.i("[Database \"{}\"] database deleted", database.getName());
         } else {
-            LogUtils.e("[Database \"" + database.getName() + "\"] can't delete the database");
+            LogUtils.e("[Database \"{}\"] can't delete the database", database.getName());
         }
 
         return result;
@@ -136,6 +171,130 @@ public class EntityManagerImpl implements EntityManager {
         return qb.build(root).getResults();
     }
 
+    @Nullable
+    @Override
+    public <T> T find(@NonNull Class<T> entityClass, @NonNull Object id) {
+        List<T> results = findAll(entityClass, Collections.singletonList(id));
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    @NonNull
+    @Override
+    public <T> List<T> findAll(@NonNull Class<T> entityClass, @NonNull Collection<?> ids) {
+        database.waitUntilReady();
+
+        EntityObject<T> entity = database.getEntity(entityClass);
+        List<FieldColumnObject> primaryKeys = new ArrayList<>(entity.columns.getPrimaryKeys());
+
+        if (primaryKeys.isEmpty()) {
+            throw new QueryException("Entity \"" + entity.getName() + "\" has no primary keys");
+        }
+
+        int batchSize = Math.min(FIND_BATCH_SIZE, MAX_ARGUMENTS / primaryKeys.size());
+
+        List<T> result = new ArrayList<>(ids.size());
+        Iterator<?> iterator = ids.iterator();
+
+        while (iterator.hasNext()) {
+            List<Object> values = new ArrayList<>(batchSize * primaryKeys.size());
+            int count = 0;
+
+            while (count < batchSize && iterator.hasNext()) {
+                if (addLookupValues(values, entity, primaryKeys, checkNotNull(iterator.next()))) {
+                    count++;
+                }
+            }
+
+            if (count == 0)
+                continue;
+
+            boolean blobs = false;
+
+            for (Object value : values) {
+                blobs |= value instanceof byte[];
+            }
+
+            QueryImpl<T> query;
+
+            if (blobs) {
+                // Blobs can't be bound as string arguments, so the values are written in the statement
+                List<String> literals = new ArrayList<>(values.size());
+
+                for (Object value : values) {
+                    literals.add(BaseColumnObject.storedValueToSqlLiteral(value));
+                }
+
+                String sql = entity.templates.getLookupStatement(literals);
+                query = new QueryImpl<>(database, this, entityClass, SqlTemplates.LOOKUP_ALIAS, sql, null);
+
+            } else {
+                String[] args = new String[values.size()];
+
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = String.valueOf(values.get(i));
+                }
+
+                String sql = entity.templates.getLookupStatement(count);
+                query = new QueryImpl<>(database, this, entityClass, SqlTemplates.LOOKUP_ALIAS, sql, null, args);
+            }
+
+            result.addAll(query.getResults());
+        }
+
+        return result;
+    }
+
+    /**
+     * Add the primary key values of an object to the values of the lookup statement.
+     *
+     * <p>The values are added in the same form they are stored in the database. The ones of an
+     * object of the entity are extracted as when the object is saved, so that the primary keys
+     * that are also join columns are resolved to the key of the linked object.</p>
+     *
+     * @param values        values list
+     * @param entity        entity
+     * @param primaryKeys   primary keys of the entity
+     * @param id            primary key value, or object with the primary keys set
+     *
+     * @return <code>true</code> if the values have been added; <code>false</code> if the
+     *         identifier can't match any object (i.e. one of its primary keys is <code>null</code>)
+     *
+     * @throws QueryException if the identifier is not an object of the entity and the entity
+     *                        has multiple primary keys
+     */
+    private static boolean addLookupValues(List<Object> values,
+                                           EntityObject<?> entity,
+                                           List<FieldColumnObject> primaryKeys,
+                                           Object id) {
+
+        ContentValues cv = new ContentValues(primaryKeys.size());
+
+        if (entity.clazz.isInstance(id)) {
+            for (FieldColumnObject primaryKey : primaryKeys) {
+                primaryKey.addToContentValues(cv, id);
+            }
+
+        } else if (primaryKeys.size() == 1) {
+            primaryKeys.get(0).putValue(cv, id);
+
+        } else {
+            throw new QueryException("Entity \"" + entity.getName() + "\" has multiple primary keys: the identifier must be an object of the entity");
+        }
+
+        Object[] keyValues = new Object[primaryKeys.size()];
+
+        for (int i = 0; i < keyValues.length; i++) {
+            keyValues[i] = cv.get(primaryKeys.get(i).name);
+
+            if (keyValues[i] == null) {
+                return false;
+            }
+        }
+
+        values.addAll(Arrays.asList(keyValues));
+        return true;
+    }
+
     @NonNull
     @Override
     public <T> LiveData<List<T>> getAllLive(@NonNull Class<T> entityClass) {
@@ -163,7 +322,7 @@ public class EntityManagerImpl implements EntityManager {
         }
 
         // Keep track of observers that should be notified
-        Collection<WeakReference<LiveQuery<?>>> touchedObservers = new ArraySet<>();
+        Collection<WeakReference<LiveQuery<?, ?>>> touchedObservers = new ArraySet<>();
 
         // Current working entity and the previous child entity
         EntityObject<?> currentEntity = database.getEntity(obj.getClass());
@@ -173,20 +332,25 @@ public class EntityManagerImpl implements EntityManager {
         dbHelper.beginTransaction();
 
         try {
+            ContentValues cv = new ContentValues();
+
             while (currentEntity != null) {
                 // Save the observers for this entity
-                Collection<WeakReference<LiveQuery<?>>> obs = observers.get(currentEntity);
+                Collection<WeakReference<LiveQuery<?, ?>>> obs = observers.get(currentEntity);
 
                 if (obs != null) {
                     touchedObservers.addAll(obs);
                 }
 
                 // Extract the current entity data from the object to be persisted
-                ContentValues cv = currentEntity.toContentValues(obj, this);
+                cv.putAll(currentEntity.toContentValues(obj, this));
 
-                // Persist
-                LogUtils.d("[Database \"" + database.getName() + "\"] insert into " + currentEntity.tableName + ": " + cv.toString());
-                dbHelper.insert(currentEntity.tableName, null, cv);
+                // Persist. The entities stored in the table of their parent are saved together with it.
+                if (currentEntity.hasOwnTable()) {
+                    LogUtils.d("[Database \"{}\"] insert into {}: {}", database.getName(), currentEntity.tableName, cv);
+                    dbHelper.insert(currentEntity.tableName, cv);
+                    cv = new ContentValues();
+                }
 
                 // Go up in the entity hierarchy
                 currentEntity = currentEntity.getParent();
@@ -203,14 +367,19 @@ public class EntityManagerImpl implements EntityManager {
             dbHelper.close();
         }
 
+        // Keep track of the saved data, in order to later detect the changed one
+        for (EntityObject<?> entity = database.getEntity(obj.getClass()); entity != null; entity = entity.getParent()) {
+            entity.takeSnapshot(obj);
+        }
+
         // Post persist actions
         if (postPersist != null) {
             postPersist.run(obj);
         }
 
         // Notify the observers
-        for (WeakReference<LiveQuery<?>> observer : touchedObservers) {
-            LiveQuery<?> query = observer.get();
+        for (WeakReference<LiveQuery<?, ?>> observer : touchedObservers) {
+            LiveQuery<?, ?> query = observer.get();
 
             if (query != null) {
                 query.refresh();
@@ -233,7 +402,7 @@ public class EntityManagerImpl implements EntityManager {
         }
 
         // Keep track of observers that should be notified
-        Collection<WeakReference<LiveQuery<?>>> touchedObservers = new ArraySet<>();
+        Collection<WeakReference<LiveQuery<?, ?>>> touchedObservers = new ArraySet<>();
 
         // Current working entity and the previous child entity
         EntityObject<?> currentEntity = database.getEntity(obj.getClass());
@@ -242,55 +411,108 @@ public class EntityManagerImpl implements EntityManager {
         dbHelper.open();
         dbHelper.beginTransaction();
 
+        // Whether the object data has been loaded from or saved into the database
+        boolean tracked = currentEntity.hasSnapshot(obj);
+
         try {
+            // Data of the entities stored in the table of their parent
+            ContentValues pending = new ContentValues();
+
             while (currentEntity != null) {
-                // Save the observers for this entity
-                Collection<WeakReference<LiveQuery<?>>> obs = observers.get(currentEntity);
+                // The entities stored in the table of their parent are saved together with it
+                if (!currentEntity.hasOwnTable()) {
+                    pending.putAll(tracked ? currentEntity.getChangedContentValues(obj, this) : currentEntity.toContentValues(obj, this));
+                    addObservers(currentEntity, touchedObservers);
+                    currentEntity = currentEntity.getParent();
+                    continue;
+                }
 
-                if (obs != null) {
-                    touchedObservers.addAll(obs);
+                List<EntityObject<?>> tableEntities = currentEntity.getTableEntities();
+
+                if (tableEntities.size() > 1 && !tracked) {
+                    // The row may belong to another entity of the hierarchy, so all its values
+                    // are overwritten and the columns of the other entities are cleared.
+                    ContentValues cv = currentEntity.toContentValues(obj, this);
+                    cv.putAll(pending);
+
+                    for (EntityObject<?> entity : tableEntities) {
+                        for (BaseColumnObject column : entity.columns) {
+                            if (!cv.containsKey(column.name)) {
+                                cv.putNull(column.name);
+                            }
+                        }
+
+                        addObservers(entity, touchedObservers);
+                    }
+
+                    Pair<String, String[]> where = getWhereFilter(currentEntity, obj);
+                    String table = currentEntity.tableName;
+                    LogUtils.d(() -> "[Database \"" + database.getName() + "\"] update into " + table + " where " + where.first + " (" + Arrays.toString(where.second) + "): " + cv);
+                    dbHelper.update(table, cv, where.first, where.second);
+
+                    currentEntity = currentEntity.getParent();
+                    continue;
                 }
 
-                // If the subclass is changed, we need to remove the entries of the old subclass tables
+                // If the subclass is changed, we need to remove the entries of the old subclass tables.
+                // An object whose data has been loaded from or saved into the current table is
+                // already known to belong to it, and so the check can be skipped.
                 boolean isSameChild = true;
 
-                if (currentEntity.getParent() != null) {
+                if (currentEntity.getParent() != null && !currentEntity.hasSnapshot(obj)) {
                     EntityObject<?> parent = currentEntity.getParent();
 
                     for (EntityObject<?> child : parent.children) {
-                        Pair<String, String[]> where = getWhereFilter(parent.columns.getPrimaryKeys(), obj);
+                        Pair<String, String[]> where = getWhereFilter(parent, obj);
 
                         if (child.equals(currentEntity)) {
                             try (Cursor c = dbHelper.select("SELECT * FROM " + child.tableName + " WHERE " + where.first, where.second)) {
                                 isSameChild = c.getCount() > 0;
                             }
                         } else {
-                            LogUtils.d("[Database \"" + database.getName() + "\"] delete from " + child.tableName + " where " + where.first + " (" + Arrays.toString(where.second) + ")");
+                            LogUtils.d(() -> "[Database \"" + database.getName() + "\"] delete from " + child.tableName + " where " + where.first + " (" + Arrays.toString(where.second) + ")");
                             int deleted = dbHelper.delete(child.tableName, where.first, where.second);
                             isSameChild &= deleted == 0;
 
-                            if (deleted > 0)
+                            if (deleted > 0) {
+                                child.discardSnapshot(obj);
+                                addObservers(child, touchedObservers);
                                 break;
+                            }
                         }
                     }
                 }
 
-                // Extract the current entity data from the object to be persisted
-                ContentValues cv = currentEntity.toContentValues(obj, this);
-
                 if (isSameChild) {
-                    Pair<String, String[]> where = getWhereFilter(currentEntity.columns.getPrimaryKeys(), obj);
-                    LogUtils.d("[Database \"" + database.getName() + "\"] update into " + currentEntity.tableName + " where " + where.first + " (" + Arrays.toString(where.second) + "): " + cv.toString());
+                    // Extract only the changed data of the current entity from the object to be updated
+                    ContentValues cv = currentEntity.getChangedContentValues(obj, this);
+                    cv.putAll(pending);
+
+                    if (cv.size() == 0) {
+                        LogUtils.d("[Database \"{}\"] no changes to be saved into {}", database.getName(), currentEntity.tableName);
+
+                    } else {
+                        Pair<String, String[]> where = getWhereFilter(currentEntity, obj);
+                        String table = currentEntity.tableName;
+                        LogUtils.d(() -> "[Database \"" + database.getName() + "\"] update into " + table + " where " + where.first + " (" + Arrays.toString(where.second) + "): " + cv);
 
-                    dbHelper.update(currentEntity.tableName,
-                            cv,
-                            where.first,
-                            where.second
-                    );
+                        dbHelper.update(currentEntity.tableName,
+                                cv,
+                                where.first,
+                                where.second
+                        );
+
+                        addObservers(currentEntity, touchedObservers);
+                    }
 
                 } else {
-                    LogUtils.d("[Database \"" + database.getName() + "\"] insert into " + currentEntity.tableName + ": " + cv.toString());
-                    dbHelper.insert(currentEntity.tableName, null, cv);
+                    // Extract the current entity data from the object to be persisted
+                    ContentValues cv = currentEntity.toContentValues(obj, this);
+
+                    LogUtils.d("[Database \"{}\"] insert into {}: {}", database.getName(), currentEntity.tableName, cv);
+                    dbHelper.insert(currentEntity.tableName, cv);
+
+                    addObservers(currentEntity, touchedObservers);
                 }
 
                 // Go up in the entity hierarchy
@@ -308,14 +530,19 @@ public class EntityManagerImpl implements EntityManager {
             dbHelper.close();
         }
 
+        // Keep track of the saved data, in order to later detect the changed one
+        for (EntityObject<?> entity = database.getEntity(obj.getClass()); entity != null; entity = entity.getParent()) {
+            entity.takeSnapshot(obj);
+        }
+
         // Post persist actions
         if (postUpdate != null) {
             postUpdate.run(obj);
         }
 
         // Notify the observers
-        for (WeakReference<LiveQuery<?>> observer : touchedObservers) {
-            LiveQuery<?> query = observer.get();
+        for (WeakReference<LiveQuery<?, ?>> observer : touchedObservers) {
+            LiveQuery<?, ?> query = observer.get();
 
             if (query != null) {
                 query.refresh();
@@ -338,7 +565,7 @@ public class EntityManagerImpl implements EntityManager {
         }
 
         // Keep track of observers that should be notified
-        Collection<WeakReference<LiveQuery<?>>> touchedObservers = new ArraySet<>();
+        Collection<WeakReference<LiveQuery<?, ?>>> touchedObservers = new ArraySet<>();
 
         // Current working entity and the previous child entity
         EntityObject<?> currentEntity = database.getEntity(obj.getClass());
@@ -350,16 +577,19 @@ public class EntityManagerImpl implements EntityManager {
         try {
             while (currentEntity != null) {
                 // Save the observers for this entity
-                Collection<WeakReference<LiveQuery<?>>> obs = observers.get(currentEntity);
+                Collection<WeakReference<LiveQuery<?, ?>>> obs = observers.get(currentEntity);
 
                 if (obs != null) {
                     touchedObservers.addAll(obs);
                 }
 
-                // Remove
-                Pair<String, String[]> where = getWhereFilter(currentEntity.columns.getPrimaryKeys(), obj);
-                LogUtils.d("[Database \"" + database.getName() + "\"] delete from " + currentEntity.tableName + " where " + where.first + " (" + Arrays.toString(where.second) + ")");
-                dbHelper.delete(currentEntity.tableName, where.first, where.second);
+                // Remove. The entities stored in the table of their parent are removed together with it.
+                if (currentEntity.hasOwnTable()) {
+                    Pair<String, String[]> where = getWhereFilter(currentEntity, obj);
+                    String table = currentEntity.tableName;
+                    LogUtils.d(() -> "[Database \"" + database.getName() + "\"] delete from " + table + " where " + where.first + " (" + Arrays.toString(where.second) + ")");
+                    dbHelper.delete(table, where.first, where.second);
+                }
 
                 // Go up in the entity hierarchy
                 currentEntity = currentEntity.getParent();
@@ -376,14 +606,19 @@ public class EntityManagerImpl implements EntityManager {
             dbHelper.close();
         }
 
+        // The saved data is not tracked anymore
+        for (EntityObject<?> entity = database.getEntity(obj.getClass()); entity != null; entity = entity.getParent()) {
+            entity.discardSnapshot(obj);
+        }
+
         // Post remove actions
         if (postRemove != null) {
             postRemove.run(obj);
         }
 
         // Notify the observers
-        for (WeakReference<LiveQuery<?>> observer : touchedObservers) {
-            LiveQuery<?> query = observer.get();
+        for (WeakReference<LiveQuery<?, ?>> observer : touchedObservers) {
+            LiveQuery<?, ?> query = observer.get();
 
             if (query != null) {
                 query.refresh();
@@ -391,23 +626,6 @@ public class EntityManagerImpl implements EntityManager {
         }
     }
 
-    /**
-     * Get the application context.
-     *
-     * @return context
-     * @throws IllegalStateException if the context is <code>null</code> (normally not happening
-     *                               when dealing with the application context)
-     */
-    private Context getContext() {
-        Context context = this.context.get();
-
-        if (context == null) {
-            throw new IllegalStateException("Application context is null");
-        }
-
-        return context;
-    }
-
     /**
      * Register a live query as an observer for the entities it covers.<br>
      * If any of its observed entities is affected by a change, the query is re-executed in order
@@ -415,14 +633,14 @@ public class EntityManagerImpl implements EntityManager {
      *
      * @param query live query
      */
-    public void registerLiveQuery(LiveQuery<?> query) {
+    public void registerLiveQuery(LiveQuery<?, ?> query) {
         // Weak references are used in order to avoid query execution when their result
         // would not be used by anyone (for example if the activity died).
 
-        WeakReference<LiveQuery<?>> weakReference = new WeakReference<>(query);
+        WeakReference<LiveQuery<?, ?>> weakReference = new WeakReference<>(query);
 
         for (EntityObject<?> entity : query.getObservedEntities()) {
-            Collection<WeakReference<LiveQuery<?>>> observers = this.observers.get(entity);
+            Collection<WeakReference<LiveQuery<?, ?>>> observers = this.observers.get(entity);
 
             if (observers == null) {
                 observers = new ArraySet<>();
@@ -433,7 +651,7 @@ public class EntityManagerImpl implements EntityManager {
             observers.add(weakReference);
 
             // Remove expired observers
-            Iterator<WeakReference<LiveQuery<?>>> iterator = observers.iterator();
+            Iterator<WeakReference<LiveQuery<?, ?>>> iterator = observers.iterator();
 
             while (iterator.hasNext()) {
                 if (iterator.next().get() == null)
@@ -443,25 +661,36 @@ public class EntityManagerImpl implements EntityManager {
     }
 
     /**
-     * Get the selection clause corresponding to a given object and columns.
+     * Add the observers of an entity to a collection.
+     *
+     * @param entity    entity whose observers have to be added
+     * @param observers collection to be populated
+     */
+    private void addObservers(EntityObject<?> entity, Collection<WeakReference<LiveQuery<?, ?>>> observers) {
+        Collection<WeakReference<LiveQuery<?, ?>>> obs = this.observers.get(entity);
+
+        if (obs != null) {
+            observers.addAll(obs);
+        }
+    }
+
+    /**
+     * Get the selection clause of the row corresponding to a given object.
      *
-     * @param columns columns to be used in the statement
+     * @param entity  entity whose primary keys have to be used in the statement
      * @param obj     object from which the values have to be extracted
      * @return pair composed by statement and arguments
      */
-    private static Pair<String, String[]> getWhereFilter(Collection<? extends BaseColumnObject> columns, Object obj) {
-        StringBuilder where = new StringBuilder();
-        List<String> whereArgs = new ArrayList<>(columns.size());
-
-        for (BaseColumnObject column : columns) {
-            if (where.length() > 0)
-                where.append(" AND ");
+    private static Pair<String, String[]> getWhereFilter(EntityObject<?> entity, Object obj) {
+        Collection<FieldColumnObject> primaryKeys = entity.columns.getPrimaryKeys();
+        String[] whereArgs = new String[primaryKeys.size()];
+        int i = 0;
 
-            where.append(column.name).append(" = ?");
-            whereArgs.add(String.valueOf(column.getValue(obj)));
+        for (BaseColumnObject column : primaryKeys) {
+            whereArgs[i++] = String.valueOf(column.getValue(obj));
         }
 
-        return new Pair<>(where.toString(), whereArgs.toArray(new String[columns.size()]));
+        return new Pair<>(entity.templates.getPrimaryKeyClause(), whereArgs);
     }
 
 }
@@ -16,12 +16,14 @@
 
 package it.mscuttari.kaoldb.query;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Stack;
 
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 import it.mscuttari.kaoldb.interfaces.Expression;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -40,6 +42,8 @@ final class ExpressionImpl implements ExpressionInt {
         OR   ("OR",  2);
 
         private final String operation;
+
+        /** Number of operands (minimum number, in case of associative operations) */
         public final int cardinality;
 
         ExpressionType(String operation, @IntRange(from = 1, to = 2) int cardinality) {
@@ -55,24 +59,30 @@ final class ExpressionImpl implements ExpressionInt {
 
     }
 
-    @NonNull  private final ExpressionType operation;
-    @NonNull  private final Expression x;
-    @Nullable private final Expression y;
+    @NonNull private final ExpressionType operation;
+
+    /**
+     * Operands.
+     *
+     * <p>
+     * The <code>AND</code> and <code>OR</code> operations are associative, so their chains are
+     * flattened into a single node having all the operands of the chain: long conjunctions or
+     * disjunctions are then rendered without nesting the parentheses.
+     * </p>
+     */
+    @NonNull private final List<Expression> operands;
 
     /**
      * Constructor.
      *
      * @param operation     operation
-     * @param x             first expression
-     * @param y             second expression
+     * @param operands      operands
      */
-    private ExpressionImpl(@NonNull  ExpressionType operation,
-                           @NonNull  Expression x,
-                           @Nullable Expression y) {
+    private ExpressionImpl(@NonNull ExpressionType operation,
+                           @NonNull List<Expression> operands) {
 
         this.operation = operation;
-        this.x =  checkNotNull(x);
-        this.y = operation.cardinality == 1 ? y : checkNotNull(y);
+        this.operands = Collections.unmodifiableList(operands);
     }
 
     /**
@@ -82,31 +92,74 @@ final class ExpressionImpl implements ExpressionInt {
      * @return expression
      */
     public static Expression not(Expression x) {
-        return new ExpressionImpl(ExpressionType.NOT, x, null);
+        return new ExpressionImpl(ExpressionType.NOT, Collections.singletonList(checkNotNull(x)));
     }
 
     /**
      * Create <code>AND</code> expression.
      *
      * @param x     first expression
-     * @param y     second expression
+     * @param y     other expressions
      *
      * @return expression
      */
-    public static Expression and(Expression x, Expression y) {
-        return new ExpressionImpl(ExpressionType.AND, x, y);
+    public static Expression and(Expression x, Expression... y) {
+        return combine(ExpressionType.AND, x, y);
     }
 
     /**
      * Create <code>OR</code> expression.
      *
      * @param x     first expression
-     * @param y     second expression
+     * @param y     other expressions
      *
      * @return expression
      */
-    public static Expression or(Expression x, Expression y) {
-        return new ExpressionImpl(ExpressionType.OR, x, y);
+    public static Expression or(Expression x, Expression... y) {
+        return combine(ExpressionType.OR, x, y);
+    }
+
+    /**
+     * Create an expression applying an associative operation to some expressions.
+     *
+     * <p>The operands being themselves expressions of the same operation are replaced by
+     * their own operands.</p>
+     *
+     * @param operation     <code>AND</code> or <code>OR</code> operation
+     * @param x             first expression
+     * @param y             other expressions
+     *
+     * @return expression (<code>x</code> itself if there are no other expressions)
+     */
+    private static Expression combine(ExpressionType operation, Expression x, Expression... y) {
+        if (y.length == 0)
+            return checkNotNull(x);
+
+        List<Expression> operands = new ArrayList<>(y.length + 1);
+        addOperand(operands, operation, x);
+
+        for (Expression expression : y) {
+            addOperand(operands, operation, expression);
+        }
+
+        return new ExpressionImpl(operation, operands);
+    }
+
+    /**
+     * Add an operand to the ones of an associative operation.
+     *
+     * @param operands      operands
+     * @param operation     operation
+     * @param operand       operand to be added
+     */
+    private static void addOperand(List<Expression> operands, ExpressionType operation, Expression operand) {
+        checkNotNull(operand);
+
+        if (operand instanceof ExpressionImpl && ((ExpressionImpl) operand).operation == operation) {
+            operands.addAll(((ExpressionImpl) operand).operands);
+        } else {
+            operands.add(operand);
+        }
     }
 
     /**
@@ -157,25 +210,116 @@ final class ExpressionImpl implements ExpressionInt {
         return x.xnor(y);
     }
 
+    /**
+     * Get the predicates that must all be satisfied for an expression to be true.
+     *
+     * <p>
+     * The predicates are the ones reachable from the expression by going through
+     * <code>AND</code> operators only: the predicates nested into <code>OR</code> or
+     * <code>NOT</code> expressions are not included.
+     * </p>
+     *
+     * @param expression    expression
+     * @return predicates of the top level conjunction
+     */
+    static List<PredicateImpl<?>> getConjunction(Expression expression) {
+        List<PredicateImpl<?>> result = new ArrayList<>();
+        Stack<Expression> stack = new Stack<>();
+        stack.push(expression);
+
+        while (!stack.empty()) {
+            Expression current = stack.pop();
+
+            if (current instanceof PredicateImpl) {
+                result.add((PredicateImpl<?>) current);
+
+            } else if (current instanceof ExpressionImpl && ((ExpressionImpl) current).operation == ExpressionType.AND) {
+                pushOperands(stack, (ExpressionImpl) current);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Get string representation to be used in SQL query.
      *
      * @return string representation
-     * @throws IllegalStateException if the {@link #operation} is unknown
      */
     @NonNull
     @Override
     public String toString() {
-        switch (operation) {
-            case NOT:
-                return operation + " (" + x + ")";
+        return new SqlWriter().append(this).toString();
+    }
 
-            case AND:
-            case OR:
-                return "(" + x + ") " + operation + " (" + y + ")";
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The expressions tree is visited using a stack, so that long chains of operators don't
+     * exhaust the call stack.
+     * </p>
+     *
+     * @throws IllegalStateException if the {@link #operation} is unknown
+     */
+    @Override
+    public void appendTo(SqlWriter writer) {
+        // Both the operands and the SQL fragments between them are pushed in reverse order
+        Stack<Object> stack = new Stack<>();
+        stack.push(this);
+
+        while (!stack.empty()) {
+            Object current = stack.pop();
+
+            if (current instanceof String) {
+                writer.append((String) current);
+
+            } else if (current instanceof ExpressionImpl) {
+                ExpressionImpl expression = (ExpressionImpl) current;
+                List<Expression> operands = expression.operands;
+
+                switch (expression.operation) {
+                    case NOT:
+                        stack.push(")");
+                        stack.push(operands.get(0));
+                        stack.push(expression.operation + " (");
+                        break;
+
+                    case AND:
+                    case OR:
+                        String separator = ") " + expression.operation + " (";
+                        stack.push(")");
+
+                        for (int i = operands.size() - 1; i > 0; i--) {
+                            stack.push(operands.get(i));
+                            stack.push(separator);
+                        }
+
+                        stack.push(operands.get(0));
+                        stack.push("(");
+                        break;
+
+                    default:
+                        throw new IllegalStateException("Unknown expression type: " + expression.operation);
+                }
+
+            } else {
+                writer.append((Expression) current);
+            }
         }
+    }
 
-        throw new IllegalStateException("Unknown expression type: " + operation);
+    /**
+     * Push the operands of an expression into a stack, so that they are popped in their
+     * original order.
+     *
+     * @param stack         stack
+     * @param expression    expression
+     */
+    private static void pushOperands(Stack<? super Expression> stack, ExpressionImpl expression) {
+        for (int i = expression.operands.size() - 1; i >= 0; i--) {
+            stack.push(expression.operands.get(i));
+        }
     }
 
     @NonNull
@@ -189,33 +333,21 @@ final class ExpressionImpl implements ExpressionInt {
     public Expression not() {
         // Double negation: NOT(NOT(expression)) = expression
         if (operation == ExpressionType.NOT)
-            return x;
+            return operands.get(0);
 
-        return new ExpressionImpl(ExpressionType.NOT, this, null);
+        return not(this);
     }
 
     @NonNull
     @Override
     public Expression and(@NonNull Expression... expressions) {
-        Expression result = this;
-
-        for (Expression expression : expressions) {
-            result = new ExpressionImpl(ExpressionType.AND, result, expression);
-        }
-
-        return result;
+        return and(this, expressions);
     }
 
     @NonNull
     @Override
     public Expression or(@NonNull Expression... expressions) {
-        Expression result = this;
-
-        for (Expression expression : expressions) {
-            result = new ExpressionImpl(ExpressionType.OR, result, expression);
-        }
-
-        return result;
+        return or(this, expressions);
     }
 
     @NonNull
@@ -267,11 +399,11 @@ final class ExpressionImpl implements ExpressionInt {
     }
 
     /**
-     * Iterator to be used to get the leaves of the expressions binary tree.
+     * Iterator to be used to get the leaves of the expressions tree.
      */
     private static class PredicatesIterator implements Iterator<PredicateImpl> {
 
-        private final Stack<ExpressionImpl> stack = new Stack<>();
+        private final Stack<Expression> stack = new Stack<>();
         private PredicateImpl next;
 
         /**
@@ -280,14 +412,8 @@ final class ExpressionImpl implements ExpressionInt {
          * @param expression    tree root
          */
         public PredicatesIterator(ExpressionImpl expression) {
-            stack.push(expression);
-
-            while (expression.x instanceof ExpressionImpl) {
-                stack.push((ExpressionImpl) expression.x);
-                expression = (ExpressionImpl) expression.x;
-            }
-
-            this.next = (PredicateImpl) expression.x;
+            pushOperands(stack, expression);
+            this.next = fetchNext();
         }
 
         @Override
@@ -303,30 +429,23 @@ final class ExpressionImpl implements ExpressionInt {
         }
 
         /**
-         * Fetch next node.
+         * Fetch next leaf, going down into the operands in depth-first order.
          *
-         * @return next node
+         * @return next leaf (<code>null</code> if there are no more leaves)
          */
         private PredicateImpl fetchNext() {
-            if (stack.empty())
-                return null;
-
-            ExpressionImpl expression = stack.pop();
+            while (!stack.empty()) {
+                Expression expression = stack.pop();
 
-            if (expression.y instanceof PredicateImpl)
-                return (PredicateImpl) expression.y;
+                if (expression instanceof PredicateImpl) {
+                    return (PredicateImpl) expression;
 
-            expression = (ExpressionImpl) expression.y;
-
-            while (expression instanceof ExpressionImpl) {
-                stack.push((ExpressionImpl) expression.x);
-                expression = (ExpressionImpl) expression.x;
+                } else if (expression instanceof ExpressionImpl) {
+                    pushOperands(stack, (ExpressionImpl) expression);
+                }
             }
 
-            if (expression == null)
-                return null;
-
-            return (PredicateImpl) expression.x;
+            return null;
         }
 
     }
@@ -20,4 +20,11 @@ import it.mscuttari.kaoldb.interfaces.Expression;
 
 interface ExpressionInt extends Expression, Iterable<PredicateImpl> {
 
+    /**
+     * Write the string representation to be used in SQL query.
+     *
+     * @param writer    writer
+     */
+    void appendTo(SqlWriter writer);
+
 }
@@ -18,21 +18,19 @@ package it.mscuttari.kaoldb.query;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Stack;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import it.mscuttari.kaoldb.mapping.DatabaseObject;
 import it.mscuttari.kaoldb.mapping.EntityObject;
-import it.mscuttari.kaoldb.mapping.FieldColumnObject;
 import it.mscuttari.kaoldb.exceptions.QueryException;
 import it.mscuttari.kaoldb.interfaces.Expression;
+import it.mscuttari.kaoldb.interfaces.Query;
 import it.mscuttari.kaoldb.interfaces.QueryBuilder;
 import it.mscuttari.kaoldb.interfaces.Root;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static it.mscuttari.kaoldb.StringUtils.escape;
 
 /**
  * @param   <X>     entity root
@@ -44,15 +42,12 @@ final class From<X> implements Root<X> {
     @NonNull private final EntityObject<X> entity;
     @NonNull private final String alias;
 
-    // Used during the SQL string build to keep track of the visited roots.
-    // The variable value is thread local because multiple queries may be concurrently building.
-
-    private ThreadLocal<Boolean> hierarchyVisited = new ThreadLocal<Boolean>() {
-        @Override
-        protected Boolean initialValue() {
-            return false;
-        }
-    };
+    /**
+     * Descendant entity the rows are known to belong to, according to the <code>WHERE</code>
+     * clause of the query being built. The tables of the descendants outside its path and
+     * subtree are not joined. <code>null</code> if all the descendants have to be joined.
+     */
+    @Nullable private EntityObject<?> restriction;
 
     /**
      * Constructor.
@@ -78,90 +73,21 @@ final class From<X> implements Root<X> {
      * The parent and children table are automatically joined.
      *
      * @return <code>FROM</code> clause
+     * @see it.mscuttari.kaoldb.mapping.SqlTemplates#getFromClause(EntityObject)
      */
     @Override
     public String toString() {
-        try {
-            // Resolve hierarchy joins if the hierarchy tree has not been visited yet
-
-            if (Boolean.valueOf(false).equals(hierarchyVisited.get()) && (entity.getParent() != null || entity.children.size() > 0)) {
-                hierarchyVisited.set(true);
-                Root<X> root = this;
-                EntityObject<X> entity = db.getEntity(getEntityClass());
-
-                // Merge parent tables
-                if (entity.getParent() != null) {
-                    EntityObject<? super X> parent = entity.getParent();
-
-                    while (parent != null) {
-                        From<?> parentRoot = new From<>(db, queryBuilder, parent.clazz, getAlias() + parent.getName());
-                        Expression on = null;
-
-                        for (FieldColumnObject primaryKey : parent.columns.getPrimaryKeys()) {
-                            Variable a = new Variable<>(alias, new SingleProperty<>(entity.clazz, primaryKey.type, primaryKey.field));
-                            Variable b = new Variable<>(parentRoot.getAlias(), new SingleProperty<>(parent.clazz, primaryKey.type, primaryKey.field));
-
-                            Expression onParent = PredicateImpl.eq(db, this, a, b);
-                            on = on == null ? onParent : on.and(onParent);
-                        }
-
-                        if (on == null)
-                            throw new QueryException("Can't merge inherited tables");
-
-                        parentRoot.hierarchyVisited.set(true);
-
-                        root = new Join<>(db, Join.JoinType.INNER, root, parentRoot, on);
-
-                        parent = parent.getParent();
-                    }
-                }
-
-                // Merge children tables
-                if (entity.children.size() != 0) {
-                    Stack<EntityObject<? extends X>> children = new Stack<>();
-                    children.push(entity);
-
-                    while (!children.empty()) {
-                        EntityObject<? extends X> node = children.pop();
-
-                        for (EntityObject<? extends X> child : node.children) {
-                            // Perform the join with the child table
-                            From<?> childRoot = new From<>(db, queryBuilder, child.clazz, getAlias() + child.getName());
-                            Expression on = null;
-
-                            for (FieldColumnObject primaryKey : entity.columns.getPrimaryKeys()) {
-                                Variable a = new Variable<>(alias, new SingleProperty<>(entity.clazz, primaryKey.type, primaryKey.field));
-                                Variable b = new Variable<>(childRoot.getAlias(), new SingleProperty<>(child.clazz, primaryKey.type, primaryKey.field));
-
-                                Expression onChild = PredicateImpl.eq(db, this, a, b);
-                                on = on == null ? onChild : on.and(onChild);
-                            }
-
-                            if (on == null)
-                                throw new QueryException("Can't merge inherited tables");
-
-                            childRoot.hierarchyVisited.set(true);
-
-                            root = new Join<>(db, Join.JoinType.LEFT, root, childRoot, on);
-
-                            // Depth first scan
-                            if (child.children.size() != 0) {
-                                children.push(child);
-                            }
-                        }
-                    }
-                }
-
-                return root.toString();
-            }
-
-            // Tree exploration not needed
-            return escape(entity.tableName) + " AS " + escape(getAlias());
+        return new SqlWriter().append(this).toString();
+    }
 
-        } finally {
-            // Reset the status ot allow a second expansion (even in the same query)
-            hierarchyVisited.set(false);
-        }
+    /**
+     * Write the <code>FROM</code> clause to be used in the query.
+     *
+     * @param writer    writer
+     * @see #toString()
+     */
+    void appendTo(SqlWriter writer) {
+        writer.append(entity.templates.getFromClause(restriction), alias);
     }
 
     @NonNull
@@ -188,6 +114,52 @@ final class From<X> implements Root<X> {
         return Collections.singletonList(this);
     }
 
+    @NonNull
+    @Override
+    public <S extends X> Root<S> treatAs(@NonNull Class<S> subclass) {
+        EntityObject<S> child = db.getEntity(checkNotNull(subclass));
+
+        if (child == entity || !entity.isAncestorOf(child))
+            throw new QueryException("Entity \"" + subclass.getSimpleName() + "\" is not a subclass of entity \"" + entity.getName() + "\"");
+
+        return new From<>(db, queryBuilder, subclass, alias);
+    }
+
+    /**
+     * Get the entity the root is linked to.
+     *
+     * @return entity
+     */
+    EntityObject<X> getEntity() {
+        return entity;
+    }
+
+    /**
+     * Restrict the joined descendants to the ones the rows may belong to.
+     *
+     * <p>
+     * It is set while building the query, before rendering the <code>SELECT</code> and
+     * <code>FROM</code> clauses, so that both of them skip the same tables.
+     * </p>
+     *
+     * @param restriction   descendant entity all the rows belong to (<code>null</code> to
+     *                      join all the descendants)
+     */
+    void setRestriction(@Nullable EntityObject<?> restriction) {
+        this.restriction = restriction;
+    }
+
+    /**
+     * Get the descendant entity the rows are known to belong to.
+     *
+     * @return restriction (<code>null</code> if all the descendants have to be joined)
+     * @see #setRestriction(EntityObject)
+     */
+    @Nullable
+    EntityObject<?> getRestriction() {
+        return restriction;
+    }
+
     @NonNull
     @Override
     public <T> Expression isNull(@NonNull SingleProperty<X, T> property) {
@@ -364,4 +336,36 @@ final class From<X> implements Root<X> {
         return PredicateImpl.like(db, this, a, b);
     }
 
+    @NonNull
+    @Override
+    public <T> Expression in(@NonNull SingleProperty<X, T> property, @NonNull Collection<? extends T> values) {
+        Variable<T> a = new Variable<>(alias, property);
+
+        return PredicateImpl.in(db, this, a, values);
+    }
+
+    @NonNull
+    @Override
+    public <Y, T> Expression in(@NonNull SingleProperty<X, T> property, @NonNull Query<Y> subquery, @NonNull SingleProperty<Y, T> selected) {
+        Variable<T> a = new Variable<>(alias, property);
+
+        return PredicateImpl.in(db, this, a, subquery, selected);
+    }
+
+    @NonNull
+    @Override
+    public <T> Expression notIn(@NonNull SingleProperty<X, T> property, @NonNull Collection<? extends T> values) {
+        Variable<T> a = new Variable<>(alias, property);
+
+        return PredicateImpl.notIn(db, this, a, values);
+    }
+
+    @NonNull
+    @Override
+    public <Y, T> Expression notIn(@NonNull SingleProperty<X, T> property, @NonNull Query<Y> subquery, @NonNull SingleProperty<Y, T> selected) {
+        Variable<T> a = new Variable<>(alias, property);
+
+        return PredicateImpl.notIn(db, this, a, subquery, selected);
+    }
+
 }
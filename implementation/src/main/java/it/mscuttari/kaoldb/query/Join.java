@@ -16,7 +16,6 @@
 
 package it.mscuttari.kaoldb.query;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -26,23 +25,15 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.collection.ArraySet;
 
-import it.mscuttari.kaoldb.annotations.JoinColumn;
-import it.mscuttari.kaoldb.annotations.JoinColumns;
-import it.mscuttari.kaoldb.annotations.JoinTable;
-import it.mscuttari.kaoldb.StringUtils;
 import it.mscuttari.kaoldb.mapping.DatabaseObject;
 import it.mscuttari.kaoldb.mapping.EntityObject;
+import it.mscuttari.kaoldb.mapping.PropertyColumns;
 import it.mscuttari.kaoldb.mapping.Relationship;
 import it.mscuttari.kaoldb.exceptions.QueryException;
 import it.mscuttari.kaoldb.interfaces.Expression;
+import it.mscuttari.kaoldb.interfaces.Query;
 import it.mscuttari.kaoldb.interfaces.Root;
 
-import static it.mscuttari.kaoldb.mapping.Relationship.RelationshipType.MANY_TO_MANY;
-import static it.mscuttari.kaoldb.mapping.Relationship.RelationshipType.MANY_TO_ONE;
-import static it.mscuttari.kaoldb.mapping.Relationship.RelationshipType.ONE_TO_MANY;
-import static it.mscuttari.kaoldb.mapping.Relationship.RelationshipType.ONE_TO_ONE;
-import static it.mscuttari.kaoldb.StringUtils.escape;
-
 /**
  * @param <L>   left side entity of the join
  * @param <R>   right side entity of the join
@@ -177,6 +168,24 @@ final class Join<L, R> implements Root<L> {
      */
     @Override
     public String toString() {
+        return new SqlWriter().append(this).toString();
+    }
+
+    /**
+     * Write the <code>FROM</code> clause to be used in the query.
+     *
+     * <p>
+     * The clauses are written while visiting the tree and the opening parentheses, whose
+     * number is known only at the end, are all inserted at once.
+     * </p>
+     *
+     * @param writer    writer
+     * @see #toString()
+     */
+    void appendTo(SqlWriter writer) {
+        int start = writer.length();
+        int clauses = 0;
+
         Stack<Join<?, ?>> stack = new Stack<>();
 
         // Go down to the left-most leaf.
@@ -190,7 +199,7 @@ final class Join<L, R> implements Root<L> {
             root = ((Join<?, ?>) root).left;
         }
 
-        StringBuilder result = new StringBuilder(root.toString());
+        writer.append(root);
 
         // Move to the right in the tree in order to discover the other leaves
 
@@ -201,11 +210,7 @@ final class Join<L, R> implements Root<L> {
                 // The join doesn't have a right subtree, so the join can be performed without further exploration.
                 // In the example, the nodes satisfying this condition are the 1 and 5.
 
-                List<String> clauses = getJoinClauses(db, join.type, root, join.right, join.property, join.on);
-
-                for (String clause : clauses) {
-                    result.insert(0, "(").append(clause).append(")");
-                }
+                clauses += appendJoinClauses(writer, db, join.type, root, join.right, join.property, join.on);
 
             } else if (join.right instanceof Join) {
                 // Subtree found (as in nodes 2 and 5)
@@ -220,18 +225,14 @@ final class Join<L, R> implements Root<L> {
                 }
 
                 // Perform the join (i.e. between 4 and 6)
-                List<String> clauses = getJoinClauses(db, join.type, root, rightRoot, join.property, join.on);
-
-                for (String clause : clauses) {
-                    result.insert(0, "(").append(clause).append(")");
-                }
+                clauses += appendJoinClauses(writer, db, join.type, root, rightRoot, join.property, join.on);
 
                 // Save the leaf as the new left-most leaf (the bigger tree analysis has already finished)
                 root = rightRoot;
             }
         }
 
-        return result.toString();
+        writer.insert(start, '(', clauses);
     }
 
     @NonNull
@@ -258,6 +259,12 @@ final class Join<L, R> implements Root<L> {
         return Collections.unmodifiableCollection(leaves);
     }
 
+    @NonNull
+    @Override
+    public <S extends L> Root<S> treatAs(@NonNull Class<S> subclass) {
+        throw new QueryException("Joins can't be treated as subclasses. Treat the entity root before joining it.");
+    }
+
     @NonNull
     @Override
     public <T> Expression isNull(@NonNull SingleProperty<L, T> property) {
@@ -372,9 +379,40 @@ final class Join<L, R> implements Root<L> {
         return left.glob(x, y);
     }
 
+    @NonNull
+    @Override
+    public <T> Expression in(@NonNull SingleProperty<L, T> property, @NonNull Collection<? extends T> values) {
+        return left.in(property, values);
+    }
+
+    @NonNull
+    @Override
+    public <Y, T> Expression in(@NonNull SingleProperty<L, T> property, @NonNull Query<Y> subquery, @NonNull SingleProperty<Y, T> selected) {
+        return left.in(property, subquery, selected);
+    }
+
+    @NonNull
+    @Override
+    public <T> Expression notIn(@NonNull SingleProperty<L, T> property, @NonNull Collection<? extends T> values) {
+        return left.notIn(property, values);
+    }
+
+    @NonNull
+    @Override
+    public <Y, T> Expression notIn(@NonNull SingleProperty<L, T> property, @NonNull Query<Y> subquery, @NonNull SingleProperty<Y, T> selected) {
+        return left.notIn(property, subquery, selected);
+    }
+
     /**
-     * Get the join clauses of a join.
+     * Write the join clauses of a join.
+     *
+     * <p>
+     * Each clause is in the form <code>" INNER JOIN table ON expression)"</code>, with the
+     * opening parenthesis left to the caller. The left table is not included and must have been
+     * already written by the caller.
+     * </p>
      *
+     * @param writer        writer
      * @param db            database
      * @param type          join type
      * @param local         local root root
@@ -382,283 +420,102 @@ final class Join<L, R> implements Root<L> {
      * @param property      linking property
      * @param on            <code>ON</code> custom clause
      *
-     * @return list of the clauses (in the form <code>" INNER JOIN table ON expression"</code>).
-     *         Note that the left table name is not included and must be added by the caller
+     * @return number of written clauses
      *
      * @see Relationship
      */
-    private static List<String> getJoinClauses(DatabaseObject db, JoinType type, Root<?> local, Root<?> joined, Property<?, ?> property, Expression on) {
+    private static int appendJoinClauses(SqlWriter writer, DatabaseObject db, JoinType type, Root<?> local, Root<?> joined, Property<?, ?> property, Expression on) {
         // Predefined ON clause
         if (on != null) {
-            return Collections.singletonList(" " + type + " " + joined.toString() + " ON " + on);
+            writer.append(" " + type + " ").append(joined).append(" ON ").append(on).append(")");
+            return 1;
         }
 
         // Get the relationship linked to the property
         EntityObject<?> leftEntity = db.getEntity(local.getEntityClass());
         Relationship relationship = leftEntity.relationships.get(property.fieldName);
 
-        if (relationship.type == ONE_TO_ONE) {
-            if (relationship.owning) {
-                if (property.columnAnnotation == JoinColumn.class) {
-                    on = getTwoTablesOnClause(db, local, joined, relationship.mappingField.getAnnotation(JoinColumn.class));
-                    String result = " " + type + " " + joined.toString() + " ON " + on;
-                    return Collections.singletonList(result);
-                }
-
-                if (property.columnAnnotation == JoinColumns.class) {
-                    on = getTwoTablesOnClause(db, local, joined, relationship.mappingField.getAnnotation(JoinColumns.class));
-                    String result = " " + type + " " + joined.toString() + " ON " + on;
-                    return Collections.singletonList(result);
-                }
-
-                if (property.columnAnnotation == JoinTable.class) {
-                    JoinTable annotation = relationship.mappingField.getAnnotation(JoinTable.class);
-                    String midTable = annotation.name() + " AS " + getJoinTableAlias(annotation.name(), local.getAlias(), joined.getAlias());
-
-                    Expression onLeft = getThreeTablesDirectOnClause(db, local, joined, annotation);
-                    Expression onRight = getThreeTablesInverseOnClause(db, local, joined, annotation);
-
-                    List<String> result = new ArrayList<>(2);
-
-                    result.add(" " + type + " " + midTable + " ON " + onLeft);
-                    result.add(" " + type + " " + joined   + " ON " + onRight);
-
-                    return result;
-                }
-            } else {
-                if (relationship.mappingField.isAnnotationPresent(JoinColumn.class)) {
-                    on = getTwoTablesOnClause(db, joined, local, relationship.mappingField.getAnnotation(JoinColumn.class));
-                    String result = " " + type + " " + joined.toString() + " ON " + on;
-                    return Collections.singletonList(result);
-                }
-
-                if (relationship.mappingField.isAnnotationPresent(JoinColumns.class)) {
-                    on = getTwoTablesOnClause(db, joined, local, relationship.mappingField.getAnnotation(JoinColumns.class));
-                    String result = " " + type + " " + joined.toString() + " ON " + on;
-                    return Collections.singletonList(result);
-                }
-
-                if (relationship.mappingField.isAnnotationPresent(JoinTable.class)) {
-                    JoinTable annotation = relationship.mappingField.getAnnotation(JoinTable.class);
-                    String midTable = annotation.name() + " AS " + getJoinTableAlias(annotation.name(), local.getAlias(), joined.getAlias());
-
-                    Expression onLeft = getThreeTablesInverseOnClause(db, local, joined, annotation);
-                    Expression onRight = getThreeTablesDirectOnClause(db, local, joined, annotation);
-
-                    List<String> result = new ArrayList<>(2);
-
-                    result.add(" " + type + " " + midTable + " ON " + onLeft);
-                    result.add(" " + type + " " + joined   + " ON " + onRight);
-
-                    return result;
-                }
-            }
+        if (relationship == null || relationship.mappingColumns.localColumns.isEmpty()) {
+            throw new QueryException("Invalid join field \"" + property.fieldName + "\"");
         }
 
-        if (relationship.type == ONE_TO_MANY) {
-            if (relationship.mappingField.isAnnotationPresent(JoinColumn.class)) {
-                on = getTwoTablesOnClause(db, joined, local, relationship.mappingField.getAnnotation(JoinColumn.class));
-                String result = " " + type + " " + joined.toString() + " ON " + on;
-                return Collections.singletonList(result);
-            }
+        PropertyColumns columns = relationship.mappingColumns;
 
-            if (relationship.mappingField.isAnnotationPresent(JoinColumns.class)) {
-                on = getTwoTablesOnClause(db, joined, local, relationship.mappingField.getAnnotation(JoinColumns.class));
-                String result = " " + type + " " + joined.toString() + " ON " + on;
-                return Collections.singletonList(result);
-            }
-
-            if (relationship.mappingField.isAnnotationPresent(JoinTable.class)) {
-                JoinTable annotation = relationship.mappingField.getAnnotation(JoinTable.class);
-                String midTable = annotation.name() + " AS " + getJoinTableAlias(annotation.name(), local.getAlias(), joined.getAlias());
-
-                Expression onLeft = getThreeTablesInverseOnClause(db, local, joined, annotation);
-                Expression onRight = getThreeTablesDirectOnClause(db, local, joined, annotation);
-
-                List<String> result = new ArrayList<>(2);
+        // Two tables: the owning side table contains the join columns
+        if (columns.joinTable == null) {
+            Root<?> owning = relationship.owning ? local : joined;
+            Root<?> referenced = relationship.owning ? joined : local;
 
-                result.add(" " + type + " " + midTable + " ON " + onLeft);
-                result.add(" " + type + " " + joined   + " ON " + onRight);
+            writer.append(" " + type + " ").append(joined).append(" ON ");
+            appendColumnsEquality(writer, owning.getAlias(), columns.localColumns, referenced.getAlias(), columns.linkedColumns);
+            writer.append(")");
 
-                return result;
-            }
+            return 1;
         }
 
-        if (relationship.type == MANY_TO_ONE) {
-            if (property.columnAnnotation == JoinColumn.class) {
-                on = getTwoTablesOnClause(db, local, joined, relationship.mappingField.getAnnotation(JoinColumn.class));
-                String result = " " + type + " " + joined.toString() + " ON " + on;
-                return Collections.singletonList(result);
-            }
-
-            if (property.columnAnnotation == JoinColumns.class) {
-                on = getTwoTablesOnClause(db, local, joined, relationship.mappingField.getAnnotation(JoinColumns.class));
-                String result = " " + type + " " + joined.toString() + " ON " + on;
-                return Collections.singletonList(result);
-            }
-
-            if (property.columnAnnotation == JoinTable.class) {
-                JoinTable annotation = relationship.mappingField.getAnnotation(JoinTable.class);
-                String midTable = annotation.name() + " AS " + getJoinTableAlias(annotation.name(), local.getAlias(), joined.getAlias());
-
-                Expression onLeft = getThreeTablesDirectOnClause(db, local, joined, annotation);
-                Expression onRight = getThreeTablesInverseOnClause(db, local, joined, annotation);
-
-                List<String> result = new ArrayList<>(2);
+        // Three tables: the direct join columns are linked to the owning side table and the
+        // inverse ones to the other side table.
+        String joinTableAlias = getJoinTableAlias(columns.joinTable, local.getAlias(), joined.getAlias());
 
-                result.add(" " + type + " " + midTable + " ON " + onLeft);
-                result.add(" " + type + " " + joined   + " ON " + onRight);
+        writer.append(" " + type + " " + columns.joinTable + " AS " + joinTableAlias + " ON ");
 
-                return result;
-            }
+        if (relationship.owning) {
+            appendColumnsEquality(writer, local.getAlias(), columns.localColumns, joinTableAlias, columns.linkedColumns);
+        } else {
+            appendColumnsEquality(writer, local.getAlias(), columns.inverseLinkedColumns, joinTableAlias, columns.inverseJoinColumns);
         }
 
-        if (relationship.type == MANY_TO_MANY) {
-            if (relationship.owning) {
-                JoinTable annotation = relationship.mappingField.getAnnotation(JoinTable.class);
-                String midTable = annotation.name() + " AS " + getJoinTableAlias(annotation.name(), local.getAlias(), joined.getAlias());
-
-                Expression onLeft = getThreeTablesDirectOnClause(db, local, joined, annotation);
-                Expression onRight = getThreeTablesInverseOnClause(db, local, joined, annotation);
-
-                List<String> result = new ArrayList<>(2);
+        writer.append(")");
+        writer.append(" " + type + " ").append(joined).append(" ON ");
 
-                result.add(" " + type + " " + midTable + " ON " + onLeft);
-                result.add(" " + type + " " + joined   + " ON " + onRight);
-
-                return result;
-
-            } else {
-                JoinTable annotation = relationship.mappingField.getAnnotation(JoinTable.class);
-                String midTable = annotation.name() + " AS " + getJoinTableAlias(annotation.name(), local.getAlias(), joined.getAlias());
-
-                Expression onLeft = getThreeTablesInverseOnClause(db, local, joined, annotation);
-                Expression onRight = getThreeTablesDirectOnClause(db, local, joined, annotation);
-
-                List<String> result = new ArrayList<>(2);
-
-                result.add(" " + type + " " + midTable + " ON " + onLeft);
-                result.add(" " + type + " " + joined   + " ON " + onRight);
-
-                return result;
-            }
+        if (relationship.owning) {
+            appendColumnsEquality(writer, joined.getAlias(), columns.inverseLinkedColumns, joinTableAlias, columns.inverseJoinColumns);
+        } else {
+            appendColumnsEquality(writer, joined.getAlias(), columns.localColumns, joinTableAlias, columns.linkedColumns);
         }
 
-        // Normally not reachable
-        throw new QueryException("Invalid join field \"" + property.fieldName + "\"");
-    }
+        writer.append(")");
 
-    /**
-     * Get the <code>ON</code> expression for the direct join columns of a {@link JoinColumn}
-     * annotated property.
-     *
-     * @param db            database
-     * @param owning        owning root
-     * @param referenced    referenced (non-owning) root
-     * @param annotation    JoinColumn annotation
-     *
-     * @return "ON" expression
-     */
-    private static Expression getTwoTablesOnClause(DatabaseObject db, Root<?> owning, Root<?> referenced, JoinColumn annotation) {
-        return getColumnsEqualityExpression(
-                db,
-                owning,
-                escape(owning.getAlias())     + "." + escape(annotation.name()),
-                escape(referenced.getAlias()) + "." + escape(annotation.referencedColumnName())
-        );
+        return 2;
     }
 
     /**
-     * Get the "ON" expression for the join columns of a {@link JoinColumns} annotated property.
+     * Write the equality expression between two lists of columns.
      *
-     * @param db            database
-     * @param owning        owning root
-     * @param referenced    referenced (non-owning) root
-     * @param annotation    JoinColumns annotation
+     * <p>
+     * The columns are paired by position. When there are multiple pairs, each equality is
+     * enclosed in parentheses (i.e. <code>("a"."x"="b"."y") AND ("a"."z"="b"."w")</code>).
+     * </p>
      *
-     * @return "ON" expression
+     * @param writer        writer
+     * @param firstAlias    alias of the table of the first columns
+     * @param firstColumns  first columns
+     * @param secondAlias   alias of the table of the second columns
+     * @param secondColumns second columns
      */
-    private static Expression getTwoTablesOnClause(DatabaseObject db, Root<?> owning, Root<?> referenced, JoinColumns annotation) {
-        Expression result = null;
+    private static void appendColumnsEquality(SqlWriter writer,
+                                              String firstAlias, List<String> firstColumns,
+                                              String secondAlias, List<String> secondColumns) {
 
-        for (JoinColumn joinColumn : annotation.value()) {
-            Expression expression = getTwoTablesOnClause(db, owning, referenced, joinColumn);
-            result = result == null ? expression : result.and(expression);
-        }
+        boolean parentheses = firstColumns.size() > 1;
 
-        return result;
-    }
+        for (int i = 0; i < firstColumns.size(); i++) {
+            if (i != 0) {
+                writer.append(" AND ");
+            }
 
-    /**
-     * Get the "ON" expression for the direct join columns of a {@link JoinTable} annotated property.
-     *
-     * @param db            database
-     * @param direct        direct join root
-     * @param inverse       inverse join root
-     * @param annotation    JoinTable annotation
-     *
-     * @return "ON" expression
-     */
-    private static Expression getThreeTablesDirectOnClause(DatabaseObject db, Root<?> direct, Root<?> inverse, JoinTable annotation) {
-        String joinTableAlias = getJoinTableAlias(annotation.name(), direct.getAlias(), inverse.getAlias());
-        Expression result = null;
-
-        for (JoinColumn joinColumn : annotation.joinColumns()) {
-            Expression expression = getColumnsEqualityExpression(
-                    db,
-                    direct,
-                    escape(direct.getAlias()) + "." + escape(joinColumn.referencedColumnName()),
-                    escape(joinTableAlias) + "." + escape(joinColumn.name())
-            );
-
-            result = result == null ? expression : result.and(expression);
-        }
+            if (parentheses) {
+                writer.append("(");
+            }
 
-        return result;
-    }
+            writer.appendColumn(firstAlias, firstColumns.get(i))
+                    .append("=")
+                    .appendColumn(secondAlias, secondColumns.get(i));
 
-    /**
-     * Get the "ON" expression for the inverse join columns of a {@link JoinTable} annotated property.
-     *
-     * @param db            database
-     * @param direct        direct join root
-     * @param inverse       inverse join root
-     * @param annotation    JoinTable annotation
-     *
-     * @return "ON" expression
-     */
-    private static Expression getThreeTablesInverseOnClause(DatabaseObject db, Root<?> direct, Root<?> inverse, JoinTable annotation) {
-        String joinTableAlias = getJoinTableAlias(annotation.name(), direct.getAlias(), inverse.getAlias());
-        Expression result = null;
-
-        for (JoinColumn joinColumn : annotation.inverseJoinColumns()) {
-            Expression expression = getColumnsEqualityExpression(
-                    db,
-                    inverse,
-                    escape(inverse.getAlias()) + "." + escape(joinColumn.referencedColumnName()),
-                    escape(joinTableAlias) + "." + escape(joinColumn.name())
-            );
-
-            result = result == null ? expression : result.and(expression);
+            if (parentheses) {
+                writer.append(")");
+            }
         }
-
-        return result;
-    }
-
-    /**
-     * Given two column names, get an equality expression between them.
-     *
-     * @param db            database
-     * @param firstColumn   first column, prepended with table alias (i.e. <code>"alias.column"</code>)
-     * @param secondColumn  second column, prepended with table alias (i.e. <code>"alias.column"</code>)
-     *
-     * @return equality expression
-     */
-    private static Expression getColumnsEqualityExpression(DatabaseObject db, Root<?> root, String firstColumn, String secondColumn) {
-        Variable<StringUtils.EscapedString> a = new Variable<>(new StringUtils.EscapedString(firstColumn));
-        Variable<StringUtils.EscapedString> b = new Variable<>(new StringUtils.EscapedString(secondColumn));
-
-        return PredicateImpl.eq(db, root, a, b);
     }
 
     /**
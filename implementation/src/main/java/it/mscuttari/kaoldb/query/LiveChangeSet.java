@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.query;
+
+import android.content.ContentValues;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import it.mscuttari.kaoldb.interfaces.ChangeSet;
+import it.mscuttari.kaoldb.mapping.DatabaseObject;
+import it.mscuttari.kaoldb.mapping.EntityObject;
+import it.mscuttari.kaoldb.mapping.FieldColumnObject;
+
+/**
+ * Live query emitting, together with the results list, the differences with respect to the
+ * previous results.
+ *
+ * <p>
+ * The elements are matched according to the primary keys of the result entity and compared
+ * according to the values of all their columns. Such values are captured when the results are
+ * emitted, so that the result objects can be modified in place (i.e. before being updated
+ * through the {@link it.mscuttari.kaoldb.interfaces.EntityManager}) without hiding the change
+ * from the next change set.
+ * </p>
+ *
+ * @param <T>   result objects class
+ */
+final class LiveChangeSet<T> extends LiveQuery<T, ChangeSet<T>> {
+
+    @NonNull private final DatabaseObject db;
+    @NonNull private final Collection<FieldColumnObject> primaryKeys;
+
+    /** States of the last emitted results */
+    @NonNull private List<State> previous = Collections.emptyList();
+
+    /**
+     * Constructor.
+     *
+     * @param db            database
+     * @param resultClass   result objects class
+     * @param query         query to be executed upon data change
+     * @param observed      observed entities
+     */
+    LiveChangeSet(@NonNull DatabaseObject db,
+                  @NonNull Class<T> resultClass,
+                  QueryImpl<T> query,
+                  Collection<EntityObject<?>> observed) {
+
+        super(query, observed);
+
+        this.db = db;
+        this.primaryKeys = new ArrayList<>(db.getEntity(resultClass).columns.getPrimaryKeys());
+    }
+
+    @Override
+    protected ChangeSet<T> process(List<T> results) {
+        List<State> current = new ArrayList<>(results.size());
+
+        for (T result : results) {
+            current.add(new State(result));
+        }
+
+        ChangeSet<T> changeSet = new ChangeSetImpl<>(previous, current, results, state -> state.key, State::hasSameContent);
+        previous = current;
+        return changeSet;
+    }
+
+    /**
+     * Column values of a result object, captured at the time of its emission.
+     */
+    private final class State {
+
+        /** Class of the object */
+        @NonNull final Class<?> type;
+
+        /** Primary key values, ordered by column name. Blobs are wrapped so that they are compared by content */
+        @NonNull final List<Object> key;
+
+        /** Values of all the columns of the entities hierarchy */
+        @NonNull final ContentValues values;
+
+        /**
+         * Constructor.
+         *
+         * @param obj   object
+         */
+        State(@NonNull T obj) {
+            this.type = obj.getClass();
+            ContentValues keyValues = new ContentValues();
+
+            for (FieldColumnObject primaryKey : primaryKeys) {
+                primaryKey.addToContentValues(keyValues, obj);
+            }
+
+            this.key = new ArrayList<>(keyValues.size());
+
+            for (String column : new TreeSet<>(keyValues.keySet())) {
+                Object value = keyValues.get(column);
+                key.add(value instanceof byte[] ? ByteBuffer.wrap((byte[]) value) : value);
+            }
+
+            this.values = new ContentValues();
+            EntityObject<?> entity = db.getEntity(type);
+
+            while (entity != null) {
+                entity.columns.addToContentValues(values, obj);
+                entity = entity.getParent();
+            }
+        }
+
+        /**
+         * Check whether the object had the same column values of another one.
+         *
+         * @param other     other state
+         *
+         * @return <code>true</code> if all the columns of the entities hierarchy have the same
+         *         values; <code>false</code> otherwise
+         */
+        boolean hasSameContent(State other) {
+            if (type != other.type || values.size() != other.values.size()) {
+                return false;
+            }
+
+            for (String column : values.keySet()) {
+                // Blobs are compared by content
+                if (!other.values.containsKey(column) || !Objects.deepEquals(values.get(column), other.values.get(column))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+    }
+
+}
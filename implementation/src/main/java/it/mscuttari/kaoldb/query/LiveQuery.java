@@ -16,48 +16,160 @@
 
 package it.mscuttari.kaoldb.query;
 
+import android.os.Handler;
+import android.os.Looper;
+
 import androidx.lifecycle.MutableLiveData;
 
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import it.mscuttari.kaoldb.ConcurrentSession;
+import it.mscuttari.kaoldb.LogUtils;
+import it.mscuttari.kaoldb.MetricsUtils;
 import it.mscuttari.kaoldb.mapping.EntityObject;
 import it.mscuttari.kaoldb.interfaces.EntityManager;
-import it.mscuttari.kaoldb.interfaces.Query;
+import it.mscuttari.kaoldb.interfaces.MetricsListener;
 
 /**
  * Stores a query that will be executed again when requested by the {@link EntityManager} in order
  * to update the data to be presented to the user.
  *
+ * <p>
+ * The query is executed in background and only while the live data has active observers.
+ * Refresh requests received while inactive just mark the data as dirty, so that the query is
+ * executed once as soon as an observer becomes active again.
+ * </p>
+ *
+ * <p>
+ * Every computed value is delivered to the observers, in the same order it has been computed.
+ * Differently from {@link #postValue(Object)}, values computed before the main thread had the
+ * chance to dispatch the previous ones are not dropped: subclasses can therefore emit data
+ * depending on the previously emitted one.
+ * </p>
+ *
+ * <p>
+ * Subclasses define the data to be emitted starting from the query results.
+ * </p>
+ *
  * @param <T>   result objects class
+ * @param <D>   emitted data type
  */
-class LiveQuery<T> extends MutableLiveData<List<T>> {
+abstract class LiveQuery<T, D> extends MutableLiveData<D> {
 
     /** The query to be executed in order to retrieve the latest data from the database */
-    private final Query<T> query;
+    private final QueryImpl<T> query;
 
     /** The entities the query observes. If any of them gets an update the {@link #query} is executed */
     private final Collection<EntityObject<?>> observed;
 
+    /** Whether the current value is outdated with respect to the database content */
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+
+    /** Whether a background task is executing the query */
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+
+    /** Handler used to deliver the values on the main thread */
+    private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+
     /**
      * Constructor.
      *
      * @param query     query to be executed upon data change
      * @param observed  observed entities
      */
-    public LiveQuery(Query<T> query, Collection<EntityObject<?>> observed) {
+    LiveQuery(QueryImpl<T> query, Collection<EntityObject<?>> observed) {
         this.query = query;
         this.observed = observed;
     }
 
+    @Override
+    protected void onActive() {
+        super.onActive();
+
+        if (dirty.get()) {
+            load();
+        }
+    }
+
     /**
-     * Execute the query in order to retrieve the latest data from the database.
+     * Notify that the observed data has changed.
+     *
+     * <p>
+     * If there is at least an active observer, the query is executed in background in order to
+     * retrieve the latest data from the database. Otherwise, the execution is postponed until
+     * an observer becomes active.
+     * </p>
      */
     public void refresh() {
-        postValue(query.getResults());
+        dirty.set(true);
+
+        if (hasActiveObservers()) {
+            load();
+        }
     }
 
+    /**
+     * Execute the query in background and deliver its results.
+     *
+     * <p>
+     * Refresh requests received while the query is already running are coalesced, so that just
+     * one more execution is done once the current one has finished.
+     * </p>
+     */
+    private void load() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+
+        ConcurrentSession.singleTask(() -> {
+            try {
+                while (hasActiveObservers() && dirty.compareAndSet(true, false)) {
+                    onRefresh();
+                    D value = process(query.getResults());
+                    mainThreadHandler.post(() -> setValue(value));
+                }
+
+            } catch (Exception e) {
+                LogUtils.e("[Query \"{}\"] can't refresh the live data: {}", query, e.getMessage());
+
+            } finally {
+                loading.set(false);
+            }
+
+            // A refresh request may have arrived after the last check, but before the loading
+            // flag was reset. In that case, nobody else would take care of it.
+            if (dirty.get() && hasActiveObservers()) {
+                load();
+            }
+        });
+    }
+
+    /**
+     * Report the execution of the query to the metrics listener, if any.
+     */
+    private void onRefresh() {
+        MetricsListener metrics = MetricsUtils.getListener();
+
+        if (metrics != null) {
+            metrics.onLiveQueryRefresh(query.getDatabaseName(), query.getShape());
+        }
+    }
+
+    /**
+     * Convert the query results into the data to be emitted.
+     *
+     * <p>
+     * It is invoked in the background thread and never concurrently with itself.
+     * </p>
+     *
+     * @param results   query results
+     * @return data to be emitted
+     */
+    protected abstract D process(List<T> results);
+
     /**
      * Get the observed entities.
      *
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.query;
+
+import java.util.Collection;
+import java.util.List;
+
+import it.mscuttari.kaoldb.mapping.EntityObject;
+
+/**
+ * Live query emitting the results list as it is.
+ *
+ * @param <T>   result objects class
+ */
+final class LiveResults<T> extends LiveQuery<T, List<T>> {
+
+    /**
+     * Constructor.
+     *
+     * @param query     query to be executed upon data change
+     * @param observed  observed entities
+     */
+    LiveResults(QueryImpl<T> query, Collection<EntityObject<?>> observed) {
+        super(query, observed);
+    }
+
+    @Override
+    protected List<T> process(List<T> results) {
+        return results;
+    }
+
+}
@@ -16,18 +16,15 @@
 
 package it.mscuttari.kaoldb.query;
 
-import android.util.Pair;
-
 import androidx.annotation.CheckResult;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.lang.reflect.Field;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 
@@ -37,13 +34,17 @@ import it.mscuttari.kaoldb.annotations.JoinColumns;
 import it.mscuttari.kaoldb.annotations.JoinTable;
 import it.mscuttari.kaoldb.exceptions.QueryException;
 import it.mscuttari.kaoldb.interfaces.Expression;
+import it.mscuttari.kaoldb.interfaces.Query;
 import it.mscuttari.kaoldb.interfaces.Root;
 import it.mscuttari.kaoldb.mapping.BaseColumnObject;
 import it.mscuttari.kaoldb.mapping.DatabaseObject;
 import it.mscuttari.kaoldb.mapping.EntityObject;
+import it.mscuttari.kaoldb.mapping.FieldColumnObject;
+import it.mscuttari.kaoldb.mapping.PropertyColumns;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static it.mscuttari.kaoldb.StringUtils.escape;
+import static it.mscuttari.kaoldb.StringUtils.quote;
 import static it.mscuttari.kaoldb.query.ExpressionImpl.ExpressionType.AND;
 
 /**
@@ -62,7 +63,9 @@ final class PredicateImpl<T> implements ExpressionInt {
         LT      ("<",       2),
         LE      ("<=",      2),
         LIKE    ("LIKE",    2),
-        GLOB    ("GLOB",    2);
+        GLOB    ("GLOB",    2),
+        IN      ("IN",      2),
+        NOT_IN  ("NOT IN",  2);
 
         private final String operation;
         public final int cardinality;
@@ -86,6 +89,13 @@ final class PredicateImpl<T> implements ExpressionInt {
     @NonNull  public final Variable<T> x;
     @Nullable public final Variable<T> y;
 
+    // The IN predicates compare the first variable with either a list of values or the
+    // column selected by a subquery
+
+    @Nullable private final Collection<? extends T> values;
+    @Nullable private final QueryImpl<?> subquery;
+    @Nullable private final Property<?, T> selected;
+
     /**
      * Constructor.
      *
@@ -108,6 +118,39 @@ final class PredicateImpl<T> implements ExpressionInt {
 
         // If the cardinality is 1, y is allowed to be null because not used
         this.y = operation.cardinality == 1 ? y : checkNotNull(y);
+
+        this.values = null;
+        this.subquery = null;
+        this.selected = null;
+    }
+
+    /**
+     * Constructor for the <code>IN</code> predicates.
+     *
+     * @param operation     <code>IN</code> or <code>NOT IN</code> operation
+     * @param db            database
+     * @param root          root the predicate is generated from
+     * @param x             variable
+     * @param values        values (<code>null</code> in case of subquery)
+     * @param subquery      subquery (<code>null</code> in case of values)
+     * @param selected      property selected by the subquery (<code>null</code> in case of values)
+     */
+    private PredicateImpl(@NonNull  PredicateType operation,
+                          @NonNull  DatabaseObject db,
+                          @NonNull  Root<?> root,
+                          @NonNull  Variable<T> x,
+                          @Nullable Collection<? extends T> values,
+                          @Nullable QueryImpl<?> subquery,
+                          @Nullable Property<?, T> selected) {
+
+        this.operation = operation;
+        this.db = db;
+        this.root = root;
+        this.x = checkNotNull(x);
+        this.y = null;
+        this.values = values;
+        this.subquery = subquery;
+        this.selected = selected;
     }
 
     /**
@@ -221,6 +264,100 @@ final class PredicateImpl<T> implements ExpressionInt {
         return new PredicateImpl<>(PredicateType.GLOB, db, root, x, y);
     }
 
+    /**
+     * Create <code>"IN"</code> predicate.
+     *
+     * @param db        database object
+     * @param root      root the predicate is generated from
+     * @param x         variable
+     * @param values    values
+     *
+     * @return predicate
+     * @throws QueryException if any of the values is null
+     */
+    public static <T> PredicateImpl<T> in(DatabaseObject db, Root<?> root, Variable<T> x, Collection<? extends T> values) {
+        return new PredicateImpl<>(PredicateType.IN, db, root, x, checkValues(values), null, null);
+    }
+
+    /**
+     * Create <code>"IN"</code> predicate with a subquery.
+     *
+     * @param db        database object
+     * @param root      root the predicate is generated from
+     * @param x         variable
+     * @param subquery  subquery
+     * @param selected  property of the subquery results to be selected
+     *
+     * @return predicate
+     */
+    public static <T> PredicateImpl<T> in(DatabaseObject db, Root<?> root, Variable<T> x, Query<?> subquery, Property<?, T> selected) {
+        return new PredicateImpl<>(PredicateType.IN, db, root, x, null, getSubquery(subquery), checkNotNull(selected));
+    }
+
+    /**
+     * Create <code>"NOT IN"</code> predicate.
+     *
+     * @param db        database object
+     * @param root      root the predicate is generated from
+     * @param x         variable
+     * @param values    values
+     *
+     * @return predicate
+     * @throws QueryException if any of the values is null
+     */
+    public static <T> PredicateImpl<T> notIn(DatabaseObject db, Root<?> root, Variable<T> x, Collection<? extends T> values) {
+        return new PredicateImpl<>(PredicateType.NOT_IN, db, root, x, checkValues(values), null, null);
+    }
+
+    /**
+     * Create <code>"NOT IN"</code> predicate with a subquery.
+     *
+     * @param db        database object
+     * @param root      root the predicate is generated from
+     * @param x         variable
+     * @param subquery  subquery
+     * @param selected  property of the subquery results to be selected
+     *
+     * @return predicate
+     */
+    public static <T> PredicateImpl<T> notIn(DatabaseObject db, Root<?> root, Variable<T> x, Query<?> subquery, Property<?, T> selected) {
+        return new PredicateImpl<>(PredicateType.NOT_IN, db, root, x, null, getSubquery(subquery), checkNotNull(selected));
+    }
+
+    /**
+     * Check the values of an <code>IN</code> predicate.
+     *
+     * <p>Null values are not allowed, as SQL would never consider them equal to a column value:
+     * <code>IN</code> would not match the null columns, while <code>NOT IN</code> would not match
+     * any row at all. {@link #isNull(DatabaseObject, Root, Variable)} must be used instead.</p>
+     *
+     * @param values    values
+     * @return the values
+     * @throws QueryException if any of the values is null
+     */
+    private static <T extends Collection<?>> T checkValues(T values) {
+        for (Object value : checkNotNull(values)) {
+            if (value == null)
+                throw new QueryException("Null values are not allowed in IN predicates, use IS NULL instead");
+        }
+
+        return values;
+    }
+
+    /**
+     * Get the implementation of a subquery.
+     *
+     * @param subquery  subquery
+     * @return subquery implementation
+     * @throws QueryException if the subquery has not been created by a query builder
+     */
+    private static QueryImpl<?> getSubquery(Query<?> subquery) {
+        if (!(checkNotNull(subquery) instanceof QueryImpl))
+            throw new QueryException("Incompatible subquery");
+
+        return (QueryImpl<?>) subquery;
+    }
+
     /**
      * Get the string representation to be used in SQL query.
      *
@@ -231,22 +368,36 @@ final class PredicateImpl<T> implements ExpressionInt {
      *     <li>a1.column = value</li>
      *     <li>a1.column = a2.column</li>
      *     <li>a1.column > value</li>
+     *     <li>a1.column IN (value1, value2)</li>
      * </ul>
      * </p>
      *
      * @return string representation of the predicate
      *
      * @throws QueryException if the requested configuration is invalid
-     * @throws IllegalStateException if the operation cardinality is unexpected
      */
     @NonNull
     @Override
     public String toString() {
-        if (operation.cardinality == 1) {
-            return processUnaryPredicate();
+        return new SqlWriter().append(this).toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws QueryException if the requested configuration is invalid
+     * @throws IllegalStateException if the operation cardinality is unexpected
+     */
+    @Override
+    public void appendTo(SqlWriter writer) {
+        if (operation == PredicateType.IN || operation == PredicateType.NOT_IN) {
+            processInPredicate(writer);
+
+        } else if (operation.cardinality == 1) {
+            processUnaryPredicate(writer);
 
         } else if (operation.cardinality == 2){
-            return processBinaryPredicate();
+            processBinaryPredicate(writer);
 
         } else {
             throw new IllegalStateException("Unexpected cardinality: " + operation.cardinality);
@@ -268,25 +419,13 @@ final class PredicateImpl<T> implements ExpressionInt {
     @NonNull
     @Override
     public Expression and(@NonNull Expression... expressions) {
-        Expression result = this;
-
-        for (Expression expression : expressions) {
-            result = ExpressionImpl.and(result, expression);
-        }
-
-        return result;
+        return ExpressionImpl.and(this, expressions);
     }
 
     @NonNull
     @Override
     public Expression or(@NonNull Expression... expressions) {
-        Expression result = this;
-
-        for (Expression expression : expressions) {
-            result = ExpressionImpl.or(result, expression);
-        }
-
-        return result;
+        return ExpressionImpl.or(this, expressions);
     }
 
     @NonNull
@@ -338,21 +477,29 @@ final class PredicateImpl<T> implements ExpressionInt {
     }
 
     /**
-     * Get string representation of an unary predicate.
+     * Write the string representation of an unary predicate.
      *
-     * @return string representation to be used in query
+     * @param writer    writer
      */
-    private String processUnaryPredicate() {
+    private void processUnaryPredicate(SqlWriter writer) {
         if (operation == PredicateType.IS_NULL) {
             if (x.hasProperty()) {
-                return getPropertyColumns(x.getProperty(), x.getTableAlias())
-                        .stream()
-                        .map(obj -> obj + " " + operation)
-                        .collect(Collectors.joining(" " + AND + " "));
+                String alias = getPropertyAlias(x.getProperty(), x.getTableAlias());
+                List<String> columns = getPropertyColumns(x.getProperty()).localColumns;
+
+                for (int i = 0; i < columns.size(); i++) {
+                    if (i != 0) {
+                        writer.append(" " + AND + " ");
+                    }
+
+                    writer.appendColumn(alias, columns.get(i)).append(" " + operation);
+                }
 
             } else {
-                return escape(String.valueOf(x.getRawData())) + " " + operation;
+                writer.append(escape(String.valueOf(x.getRawData())) + " " + operation);
             }
+
+            return;
         }
 
         // Normally not reachable
@@ -360,11 +507,11 @@ final class PredicateImpl<T> implements ExpressionInt {
     }
 
     /**
-     * Get string representation of an binary predicate.
+     * Write the string representation of an binary predicate.
      *
-     * @return string representation to be used in query
+     * @param writer    writer
      */
-    private String processBinaryPredicate() {
+    private void processBinaryPredicate(SqlWriter writer) {
         if (y == null) {
             // Security check. Normally not reachable.
             throw new IllegalStateException("Second variable is null");
@@ -372,239 +519,277 @@ final class PredicateImpl<T> implements ExpressionInt {
 
         if (x.hasProperty() && y.hasProperty()) {
             // Two properties
-            return bindProperties(x.getProperty(), x.getTableAlias(), y.getProperty(), y.getTableAlias())
-                    .stream()
-                    .map(obj -> obj.first + operation + obj.second)
-                    .collect(Collectors.joining(" " + AND + " "));
+            bindProperties(
+                    writer,
+                    x.getProperty(), getPropertyAlias(x.getProperty(), x.getTableAlias()),
+                    y.getProperty(), getPropertyAlias(y.getProperty(), y.getTableAlias()));
 
         } else if (x.hasProperty()) {
             // Property + value
-            return bindPropertyObject(x.getProperty(), y.getRawData())
-                    .stream()
-                    .map(obj -> obj.first + operation + obj.second)
-                    .collect(Collectors.joining(" " + AND + " "));
+            bindPropertyObject(writer, x.getProperty(), y.getRawData());
 
         } else {
             // Two values
-            return escape(x.getRawData()) + operation + escape(y.getRawData());
+            writer.append(escape(x.getRawData()) + operation + escape(y.getRawData()));
         }
     }
 
     /**
-     * Get the columns linked to a property.
+     * Write the string representation of an <code>IN</code> predicate.
      *
      * <p>
-     *     In case of {@link Column} or {@link JoinColumn} annotated field:
-     *     <ul>
-     *         <li>The result list will contain just one column</li>
-     *     </ul>
-     *
-     *     In case of {@link JoinColumns} annotated field:
-     *     <ul>
-     *         <li>The result list will contain all the join columns</li>
-     *     </ul>
-     *
-     *     In case of {@link JoinTable} annotated field:
-     *     <ul>
-     *         <li>The result list will contain the direct join columns. The inverse join columns
-     *         are not included because they are linked to the other join side table.</li>
-     *     </ul>
+     * The values are converted into literals, while the subquery is wrapped into a statement
+     * selecting just the column of the requested property:
+     * <code>a1.column IN (SELECT "a2.column" FROM (subquery))</code>.
      * </p>
      *
-     * <p>Every column is in the format <code>"tableAlias.columnName"</code>.</p>
-     *
-     * @param property      property
-     * @param alias         table alias
-     *
-     * @return list of columns
-     *
-     * @throws QueryException if the property is invalid
+     * @param writer    writer
+     * @throws QueryException if the properties are not mapped to a single column
      */
-    private static List<String> getPropertyColumns(Property<?, ?> property, String alias) {
-        List<String> result = new ArrayList<>();
+    private void processInPredicate(SqlWriter writer) {
+        PropertyColumns columns = getPropertyColumns(x.getProperty());
 
-        // Get field
-        Field field = property.getField();
+        if (columns.annotation != Column.class)
+            throw new QueryException("Property \"" + x.getProperty().fieldName + "\" is not mapped to a column");
 
-        // @Column
-        if (field.isAnnotationPresent(Column.class)) {
-            Column annotation = field.getAnnotation(Column.class);
-            result.add(escape(alias) + "." + escape(annotation.name()));
-            return result;
-        }
+        String column = columns.localColumns.get(0);
 
-        // @JoinColumn
-        if (field.isAnnotationPresent(JoinColumn.class)) {
-            JoinColumn annotation = field.getAnnotation(JoinColumn.class);
-            result.add(escape(alias) + "." + escape(annotation.name()));
-            return result;
-        }
+        writer.appendColumn(getPropertyAlias(x.getProperty(), x.getTableAlias()), column)
+                .append(" " + operation + " (");
+
+        if (values != null) {
+            BaseColumnObject columnObject = getColumn(columns.field, column);
+            boolean first = true;
 
-        // @JoinColumns
-        if (field.isAnnotationPresent(JoinColumns.class)) {
-            JoinColumns annotation = field.getAnnotation(JoinColumns.class);
+            for (Object value : values) {
+                if (!first) {
+                    writer.append(", ");
+                }
 
-            for (JoinColumn joinColumn : annotation.value()) {
-                result.add(escape(alias) + "." + escape(joinColumn.name()));
+                writer.append(toSqlLiteral(columnObject, value));
+                first = false;
             }
 
-            return result;
-        }
+        } else if (subquery != null && selected != null) {
+            PropertyColumns selectedColumns = getPropertyColumns(selected);
 
-        // @JoinTable
-        if (field.isAnnotationPresent(JoinTable.class)) {
-            JoinTable annotation = field.getAnnotation(JoinTable.class);
+            if (selectedColumns.annotation != Column.class)
+                throw new QueryException("Property \"" + selected.fieldName + "\" is not mapped to a column");
 
-            for (JoinColumn joinColumn : annotation.joinColumns()) {
-                result.add(escape(alias) + "." + escape(joinColumn.referencedColumnName()));
-            }
+            // The columns of the subquery results are labelled with their table alias
+            EntityObject<?> resultEntity = db.getEntity(subquery.getResultClass());
 
-            return result;
+            EntityObject<?> owningEntity = db.contains(selected.owningClass) ?
+                    db.getEntity(selected.owningClass) :
+                    db.getEntity(selected.entityClass);
+
+            String label = owningEntity.getTableAlias(resultEntity, subquery.getAlias()) + "." + selectedColumns.localColumns.get(0);
+
+            writer.append("SELECT " + escape(label) + " FROM (" + subquery + ")");
         }
 
-        throw new QueryException("Invalid parameter");
+        writer.append(")");
     }
 
     /**
-     * Create property-property associations for the query.
+     * Get the alias of the table containing the columns of a property.
+     *
+     * <p>
+     * When the property is inherited from a parent entity, its columns are stored in the parent
+     * table, which is joined using the root alias followed by the parent entity name, unless
+     * the whole hierarchy is stored in a single table.
+     * </p>
+     *
+     * @param property      property
+     * @param alias         alias of the table the property has been requested on
      *
+     * @return table alias
+     */
+    private String getPropertyAlias(Property<?, ?> property, String alias) {
+        if (property.owningClass == property.entityClass || !db.contains(property.owningClass))
+            return alias;
+
+        return db.getEntity(property.owningClass).getTableAlias(db.getEntity(property.entityClass), alias);
+    }
+
+    /**
+     * Get the columns linked to a property.
+     *
+     * <p>
+     * The local columns are the ones to be used when the property is referenced in the query:
+     * <ul>
+     *     <li>In case of {@link Column} or {@link JoinColumn} annotated field, just one column</li>
+     *     <li>In case of {@link JoinColumns} annotated field, all the join columns</li>
+     *     <li>In case of {@link JoinTable} annotated field, the columns referenced by the direct
+     *     join columns. The inverse join columns are not included because they are linked to
+     *     the other join side table.</li>
+     * </ul>
+     * </p>
+     *
+     * @param property      property
+     * @return property columns
+     *
+     * @throws QueryException if the property is invalid
+     */
+    private PropertyColumns getPropertyColumns(Property<?, ?> property) {
+        PropertyColumns result = db.getEntity(property.entityClass).getPropertyColumns(property.fieldName);
+
+        if (result.annotation == null)
+            throw new QueryException("Invalid parameter");
+
+        return result;
+    }
+
+    /**
+     * Write the property-property associations.
+     *
+     * @param writer        writer
      * @param xProperty     first property
      * @param xAlias        first table alias
      * @param yProperty     second property
      * @param yAlias        second table alias
      *
-     * @return list of columns pairs
-     *
      * @throws QueryException if the requested configuration is invalid
      */
-    private List<Pair<String, String>> bindProperties(Property xProperty, String xAlias, Property yProperty, String yAlias) {
-        List<Pair<String, String>> result = new ArrayList<>();
+    private void bindProperties(SqlWriter writer, Property<?, ?> xProperty, String xAlias, Property<?, ?> yProperty, String yAlias) {
+        PropertyColumns xColumns = db.getEntity(xProperty.entityClass).getPropertyColumns(xProperty.fieldName);
+        PropertyColumns yColumns = db.getEntity(yProperty.entityClass).getPropertyColumns(yProperty.fieldName);
 
-        // Get fields
-        Field xField = xProperty.getField();
-        Field yField = yProperty.getField();
+        Class<?> xType = xColumns.getType();
+        Class<?> yType = yColumns.getType();
 
-        if (!(xField.getType().isAssignableFrom(yField.getType()) && yField.getType().isAssignableFrom(xField.getType())))
-            throw new QueryException("Incompatible types: " + xField.getType().getSimpleName() + ", " + yField.getType().getSimpleName());
+        if (!(xType.isAssignableFrom(yType) && yType.isAssignableFrom(xType)))
+            throw new QueryException("Incompatible types: " + xType.getSimpleName() + ", " + yType.getSimpleName());
 
-        // @Column
-        if (xField.isAnnotationPresent(Column.class) && yField.isAnnotationPresent(Column.class)) {
-            Column xAnnotation = xField.getAnnotation(Column.class);
-            Column yAnnotation = yField.getAnnotation(Column.class);
+        if (xColumns.annotation == null || xColumns.annotation != yColumns.annotation)
+            throw new QueryException("Invalid parameters");
 
-            String xColumn = escape(xAlias) + "." + escape(xAnnotation.name());
-            String yColumn = escape(yAlias) + "." + escape(yAnnotation.name());
+        // @Column, @JoinColumn
+        if (xColumns.annotation == Column.class || xColumns.annotation == JoinColumn.class) {
+            writer.appendColumn(xAlias, xColumns.localColumns.get(0))
+                    .append(operation.toString())
+                    .appendColumn(yAlias, yColumns.localColumns.get(0));
 
-            result.add(new Pair<>(xColumn, yColumn));
-            return result;
+            return;
         }
 
-        // @JoinColumn
-        if (xField.isAnnotationPresent(JoinColumn.class) && yField.isAnnotationPresent(JoinColumn.class)) {
-            JoinColumn xAnnotation = xField.getAnnotation(JoinColumn.class);
-            JoinColumn yAnnotation = yField.getAnnotation(JoinColumn.class);
-
-            String xColumn = escape(xAlias) + "." + escape(xAnnotation.name());
-            String yColumn = escape(yAlias) + "." + escape(yAnnotation.name());
-
-            result.add(new Pair<>(xColumn, yColumn));
-            return result;
-        }
+        // @JoinColumns, @JoinTable: the columns are paired according to the columns they are linked to
+        boolean first = true;
 
-        // @JoinColumns
-        if (xField.isAnnotationPresent(JoinColumns.class) && yField.isAnnotationPresent(JoinColumns.class)) {
-            JoinColumns xAnnotation = xField.getAnnotation(JoinColumns.class);
-            JoinColumns yAnnotation = yField.getAnnotation(JoinColumns.class);
+        for (int i = 0; i < xColumns.linkedColumns.size(); i++) {
+            int j = yColumns.linkedColumns.indexOf(xColumns.linkedColumns.get(i));
 
-            outer:
-            for (JoinColumn xJoinColumn : xAnnotation.value()) {
-                for (JoinColumn yJoinColumn : yAnnotation.value()) {
-                    if (xJoinColumn.referencedColumnName().equals(yJoinColumn.referencedColumnName())) {
-                        String xColumn = escape(xAlias) + "." + escape(xJoinColumn.name());
-                        String yColumn = escape(yAlias) + "." + escape(yJoinColumn.name());
+            if (j < 0)
+                continue;
 
-                        result.add(new Pair<>(xColumn, yColumn));
-                        continue outer;
-                    }
-                }
+            if (!first) {
+                writer.append(" " + AND + " ");
             }
 
-            return result;
-        }
-
-        // @JoinTable
-        if (xField.isAnnotationPresent(JoinTable.class) && yField.isAnnotationPresent(JoinTable.class)) {
-            JoinTable xAnnotation = xField.getAnnotation(JoinTable.class);
-            JoinTable yAnnotation = yField.getAnnotation(JoinTable.class);
+            writer.appendColumn(xAlias, xColumns.localColumns.get(i))
+                    .append(operation.toString())
+                    .appendColumn(yAlias, yColumns.localColumns.get(j));
 
-            outer:
-            for (JoinColumn xJoinColumn : xAnnotation.joinColumns()) {
-                for (JoinColumn yJoinColumn : yAnnotation.joinColumns()) {
-                    if (xJoinColumn.name().equals(yJoinColumn.name())) {
-                        String xColumn = escape(xAlias) + "." + escape(xJoinColumn.referencedColumnName());
-                        String yColumn = escape(yAlias) + "." + escape(yJoinColumn.referencedColumnName());
-
-                        result.add(new Pair<>(xColumn, yColumn));
-                        continue outer;
-                    }
-                }
-            }
-
-            return result;
+            first = false;
         }
-
-        throw new QueryException("Invalid parameters");
     }
 
     /**
-     * Create property-value associations for the query.
+     * Write the property-value associations.
      *
+     * @param writer        writer
+     * @param property      property
      * @param obj           object value
-     * @return list of column-value pairs
+     *
      * @throws QueryException if the requested configuration is invalid
      */
-    private <T> List<Pair<String, String>> bindPropertyObject(Property<?, T> property, T obj) {
-        List<Pair<String, String>> result = new ArrayList<>();
-
-        // Get field
-        Field field = property.getField();
+    private <T> void bindPropertyObject(SqlWriter writer, Property<?, T> property, T obj) {
+        PropertyColumns columns = getPropertyColumns(property);
 
         // Object type must be compatible with the property
-        if (!field.getType().isAssignableFrom(obj.getClass())) {
+        if (!columns.getType().isAssignableFrom(obj.getClass())) {
             throw new QueryException("Invalid object class");
         }
 
         // @Column
-        if (property.columnAnnotation == Column.class) {
-            Column annotation = field.getAnnotation(Column.class);
-            String column = escape(root.getAlias()) + "." + escape(annotation.name());
-            result.add(new Pair<>(column, escapeObject(String.valueOf(obj))));
+        if (columns.annotation == Column.class) {
+            String column = columns.localColumns.get(0);
 
-            return result;
+            writer.appendColumn(getPropertyAlias(property, root.getAlias()), column)
+                    .append(operation.toString())
+                    .append(toSqlLiteral(getColumn(columns.field, column), obj));
+
+            return;
         }
 
         // @JoinColumn, @JoinColumns, @JoinTable
-        if (property.columnAnnotation == JoinColumn.class ||
-                property.columnAnnotation == JoinColumns.class ||
-                property.columnAnnotation == JoinTable.class) {
-
-            EntityObject<T> referencedEntity = db.getEntity(property.dataType);
+        EntityObject<T> referencedEntity = db.getEntity(property.dataType);
 
-            String referencedEntityAlias = isLeftVariableDerivedFromRoot() ?
-                    root.getAlias() :
-                    root.getAlias() + property.fieldName;
+        String referencedEntityAlias = isLeftVariableDerivedFromRoot() ?
+                root.getAlias() :
+                root.getAlias() + property.fieldName;
 
-            for (BaseColumnObject primaryKey : referencedEntity.columns.getPrimaryKeys()) {
-                String column = escape(referencedEntityAlias) + "." + escape(primaryKey.name);
-                String primaryKeyValue = escapeObject(String.valueOf(primaryKey.getValue(obj)));
+        boolean first = true;
 
-                result.add(new Pair<>(column, primaryKeyValue));
+        for (BaseColumnObject primaryKey : referencedEntity.columns.getPrimaryKeys()) {
+            if (!first) {
+                writer.append(" " + AND + " ");
             }
 
-            return result;
+            writer.appendColumn(referencedEntityAlias, primaryKey.name)
+                    .append(operation.toString())
+                    .append(toSqlLiteral(primaryKey, primaryKey.getValue(obj)));
+
+            first = false;
+        }
+    }
+
+    /**
+     * Get the discriminator value required by the predicate.
+     *
+     * <p>
+     * The predicate must be an equality between a property of the given table and a value,
+     * with the property being mapped to the discriminator column. If the property is a
+     * relationship, the discriminator value is read from the referenced column of the object.
+     * </p>
+     *
+     * @param alias     alias of the table owning the discriminator column
+     * @param column    discriminator column name
+     *
+     * @return discriminator value, or <code>null</code> if the predicate is not a discriminator
+     *         equality
+     */
+    @Nullable
+    Object getDiscriminatorValue(String alias, String column) {
+        if (operation != PredicateType.EQUAL || y == null || !x.hasProperty() || y.hasProperty())
+            return null;
+
+        if (!alias.equals(x.getTableAlias()))
+            return null;
+
+        PropertyColumns columns = db.getEntity(x.getProperty().entityClass).getPropertyColumns(x.getProperty().fieldName);
+        Object value = y.getRawData();
+
+        if (columns.localColumns.size() != 1 || !columns.localColumns.get(0).equals(column))
+            return null;
+
+        // @Column
+        if (columns.annotation == Column.class) {
+            return value;
+        }
+
+        // @JoinColumn
+        if (columns.annotation == JoinColumn.class) {
+            for (EntityObject<?> entity = db.getEntity(columns.getType()); entity != null; entity = entity.getParent()) {
+                BaseColumnObject referenced = entity.columns.get(columns.linkedColumns.get(0));
+
+                if (referenced != null) {
+                    return referenced.getValue(value);
+                }
+            }
         }
 
-        throw new QueryException("Invalid parameters");
+        return null;
     }
 
     /**
@@ -623,32 +808,48 @@ final class PredicateImpl<T> implements ExpressionInt {
         return result;
     }
 
-    @CheckResult
-    public static String escapeObject(String str) {
-        if (str == null) {
-            return null;
-        }
-
-        StringBuilder sb = new StringBuilder();
-
-        sb.append("'");
+    /**
+     * Get the column generated from a field.
+     *
+     * @param field     field annotated with {@link Column}
+     * @param name      column name
+     *
+     * @return column, or <code>null</code> if not found
+     */
+    @Nullable
+    private BaseColumnObject getColumn(Field field, String name) {
+        BaseColumnObject column = db.getEntity(field.getDeclaringClass()).columns.get(name);
 
-        int length = str.length();
-        for (int i = 0; i < length; i++) {
-            char c = str.charAt(i);
+        if (column instanceof FieldColumnObject && ((FieldColumnObject) column).field.equals(field)) {
+            return column;
+        }
 
-            if (c == '\'') {
-                sb.append("'");
-            }
+        return null;
+    }
 
-            sb.append(c);
+    /**
+     * Get the SQL literal representing a value, as it would be stored in a column.
+     *
+     * <p>The value is converted by the column converter, so that the comparison is done
+     * against the same data that is saved in the database.</p>
+     *
+     * @param column    column (if <code>null</code>, the string representation of the value is used)
+     * @param value     value
+     *
+     * @return SQL literal
+     */
+    static String toSqlLiteral(@Nullable BaseColumnObject column, Object value) {
+        if (column == null) {
+            return escapeObject(String.valueOf(value));
         }
 
-        sb.append("'");
-
-        return sb.toString();
+        return column.toSqlLiteral(value);
     }
 
+    @CheckResult
+    public static String escapeObject(String str) {
+        return quote(str);
+    }
 
     /**
      * Fake iterator to be used to iterate on a single predicate.
@@ -17,13 +17,10 @@
 package it.mscuttari.kaoldb.query;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import java.util.Stack;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 import it.mscuttari.kaoldb.annotations.Column;
 import it.mscuttari.kaoldb.exceptions.QueryException;
@@ -31,12 +28,10 @@ import it.mscuttari.kaoldb.interfaces.Expression;
 import it.mscuttari.kaoldb.interfaces.Query;
 import it.mscuttari.kaoldb.interfaces.QueryBuilder;
 import it.mscuttari.kaoldb.interfaces.Root;
-import it.mscuttari.kaoldb.mapping.BaseColumnObject;
 import it.mscuttari.kaoldb.mapping.DatabaseObject;
 import it.mscuttari.kaoldb.mapping.EntityObject;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static it.mscuttari.kaoldb.StringUtils.escape;
 
 /**
  * QueryBuilder implementation.
@@ -105,7 +100,8 @@ class QueryBuilderImpl<T> implements QueryBuilder<T> {
 
     @NonNull
     @Override
-    public Query<T> build(@NonNull Root<T> root) {
+    @SuppressWarnings("unchecked")
+    public Query<T> build(@NonNull Root<? extends T> root) {
         // The "FROM" clause must be set
         if (from == null) {
             throw new QueryException("\"FROM\" clause not set");
@@ -118,16 +114,84 @@ class QueryBuilderImpl<T> implements QueryBuilder<T> {
             throw new QueryException("The root doesn't belong to the \"FROM\" structure");
         }
 
+        // The joined roots are always entity roots
+        From<? extends T> resultRoot = (From<? extends T>) root;
+
+        // Skip the tables of the subclasses the results can't belong to
+        resultRoot.setRestriction(getDiscriminatorRestriction(resultRoot, where));
+
         // Start the real building part
         Root<?> from = createJoinForPredicates(this.from, where);
-        String sql = "SELECT " + getSelectClause(root) +
-                     " FROM " + from;
+        SqlWriter writer = new SqlWriter().append(" FROM ").append(from);
 
         if (where != null) {
-            sql += " WHERE " + where;
+            writer.append(" WHERE ").append(where);
         }
 
-        return new QueryImpl<>(db, entityManager, resultClass, root.getAlias(), sql);
+        String tables = writer.toString();
+        String sql = "SELECT " + getSelectClause(resultRoot) + tables;
+
+        // Statement for the first phase of the two-phase loading, in case the results may
+        // belong to different subclasses
+        String discriminatorSql = null;
+
+        if (!resultRoot.getEntity().children.isEmpty()) {
+            discriminatorSql = "SELECT " + getDiscriminatorSelectClause(resultRoot) + tables;
+        }
+
+        // The results are hydrated starting from the requested root entity, which may be a
+        // subclass of the result one.
+        Class<T> entityClass = (Class<T>) resultRoot.getEntityClass();
+        return new QueryImpl<>(db, entityManager, entityClass, root.getAlias(), sql, discriminatorSql);
+    }
+
+    /**
+     * Get the statement selecting all the objects of the entity of a root, without any
+     * condition.
+     *
+     * @param root      root
+     * @return <code>SELECT</code> statement, to be completed with a <code>WHERE</code> clause
+     */
+    String getSelectStatement(From<?> root) {
+        return "SELECT " + getSelectClause(root) + " FROM " + root;
+    }
+
+    /**
+     * Get the child entity all the results belong to, according to the discriminator value
+     * the <code>WHERE</code> clause requires.
+     *
+     * <p>
+     * Only the equality predicates on the discriminator column of the root entity being part
+     * of the top level conjunction are considered: in all the other cases the rows may belong
+     * to different children.
+     * </p>
+     *
+     * @param root      root of the result entity
+     * @param where     <code>WHERE</code> clause
+     *
+     * @return child entity, or <code>null</code> if the rows may belong to any child
+     */
+    @Nullable
+    private EntityObject<?> getDiscriminatorRestriction(From<?> root, @Nullable Expression where) {
+        EntityObject<?> entity = root.getEntity();
+
+        if (where == null || entity.children.isEmpty() || entity.discriminatorColumn == null)
+            return null;
+
+        for (PredicateImpl<?> predicate : ExpressionImpl.getConjunction(where)) {
+            Object value = predicate.getDiscriminatorValue(root.getAlias(), entity.discriminatorColumn.name);
+
+            if (value == null)
+                continue;
+
+            for (EntityObject<?> child : entity.children) {
+                if (value.equals(child.discriminatorValue)) {
+                    return child;
+                }
+            }
+        }
+
+        return null;
     }
 
     /**
@@ -186,65 +250,24 @@ class QueryBuilderImpl<T> implements QueryBuilder<T> {
      * @param root      root
      * @return <code>SELECT</code> clause
      */
-    private String getSelectClause(Root<T> root) {
-        List<String> columns = new ArrayList<>();
-
-        // Determine the root entity.
-        // resultClass is actually the same of root.getEntityClass(); the former is preferred to
-        // the latter in order to avoid the recursion of root.getEntityClass().
-        EntityObject<?> entity = db.getEntity(resultClass);
-
-        // Current entity
-        for (BaseColumnObject column : entity.columns) {
-            columns.add(
-                    escape(root.getAlias()) + "." + escape(column.name) +
-                    " AS " +
-                    escape(root.getAlias() + "." + column.name)
-            );
-        }
-
-        // Parents
-        EntityObject<?> parent = entity.getParent();
-
-        while (parent != null) {
-            String alias = root.getAlias() + parent.getName();
-
-            for (BaseColumnObject column : parent.columns) {
-                columns.add(
-                        escape(alias) + "." + escape(column.name) +
-                        " AS " +
-                        escape(alias + "." + column.name)
-                );
-            }
-
-            parent = parent.getParent();
-        }
-
-        // Children
-        Stack<EntityObject<?>> children = new Stack<>();
-        children.push(entity);
-
-        while (!children.empty()) {
-            EntityObject<?> node = children.pop();
-
-            for (EntityObject<?> child : node.children) {
-                String alias = root.getAlias() + child.getName();
-
-                for (BaseColumnObject column : child.columns) {
-                    columns.add(escape(alias) + "." + escape(column.name) +
-                                " AS " +
-                                escape(alias + "." + column.name)
-                    );
-                }
-
-                // Depth first scan
-                if (child.children.size() != 0) {
-                    children.push(child);
-                }
-            }
-        }
+    private String getSelectClause(From<?> root) {
+        return root.getEntity().templates.getSelectClause(root.getRestriction()).render(root.getAlias());
+    }
 
-        return columns.stream().collect(Collectors.joining(", "));
+    /**
+     * Get the <code>SELECT</code> clause of the first phase of the two-phase loading.
+     *
+     * <p>
+     * Only the primary keys and the discriminator columns needed to find the concrete class of
+     * each row are selected.
+     * </p>
+     *
+     * @param root      root
+     * @return <code>SELECT</code> clause
+     */
+    private String getDiscriminatorSelectClause(From<?> root) {
+        return root.getEntity().templates.getDiscriminatorSelectClause(root.getRestriction()).render(root.getAlias());
     }
 
+
 }
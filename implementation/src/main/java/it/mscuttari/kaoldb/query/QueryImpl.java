@@ -20,32 +20,49 @@ import android.database.Cursor;
 import android.util.Pair;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.collection.ArraySet;
 import androidx.lifecycle.LiveData;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ExecutionException;
 
 import it.mscuttari.kaoldb.ConcurrentSession;
 import it.mscuttari.kaoldb.LogUtils;
+import it.mscuttari.kaoldb.MetricsUtils;
+import it.mscuttari.kaoldb.SlowOperationLog;
 import it.mscuttari.kaoldb.annotations.ManyToMany;
 import it.mscuttari.kaoldb.annotations.ManyToOne;
 import it.mscuttari.kaoldb.annotations.OneToMany;
 import it.mscuttari.kaoldb.annotations.OneToOne;
 import it.mscuttari.kaoldb.exceptions.QueryException;
+import it.mscuttari.kaoldb.interfaces.ChangeSet;
 import it.mscuttari.kaoldb.interfaces.Expression;
+import it.mscuttari.kaoldb.interfaces.MetricsListener;
 import it.mscuttari.kaoldb.interfaces.Query;
 import it.mscuttari.kaoldb.interfaces.QueryBuilder;
+import it.mscuttari.kaoldb.interfaces.QueryPlan;
 import it.mscuttari.kaoldb.interfaces.Root;
+import it.mscuttari.kaoldb.interfaces.SlowOperation;
+import it.mscuttari.kaoldb.mapping.BaseColumnObject;
 import it.mscuttari.kaoldb.mapping.DatabaseObject;
 import it.mscuttari.kaoldb.mapping.EntityObject;
 import it.mscuttari.kaoldb.mapping.FieldColumnObject;
+import it.mscuttari.kaoldb.mapping.HydrationPlan;
 import it.mscuttari.kaoldb.mapping.Relationship;
 
+import static it.mscuttari.kaoldb.StringUtils.escape;
 import static it.mscuttari.kaoldb.mapping.Relationship.RelationshipType.MANY_TO_MANY;
 import static it.mscuttari.kaoldb.mapping.Relationship.RelationshipType.MANY_TO_ONE;
 import static it.mscuttari.kaoldb.mapping.Relationship.RelationshipType.ONE_TO_MANY;
@@ -56,12 +73,45 @@ import static it.mscuttari.kaoldb.mapping.Relationship.RelationshipType.ONE_TO_O
  */
 class QueryImpl<M> implements Query<M> {
 
+    /** Maximum amount of objects loaded by each query of the second phase of the two-phase loading */
+    private static final int TWO_PHASE_BATCH_SIZE = 250;
+
     @NonNull private final DatabaseObject db;
     @NonNull private final EntityManagerImpl entityManager;
     @NonNull private final Class<M> resultClass;
     @NonNull private final String alias;
     @NonNull private final String sql;
 
+    /**
+     * SQL statement selecting just the primary keys and the discriminator columns of the
+     * results (<code>null</code> if the results can't belong to different subclasses).
+     */
+    @Nullable private final String discriminatorSql;
+
+    /** Arguments of the <code>?</code> placeholders of {@link #sql} */
+    @Nullable private final String[] args;
+
+    /**
+     * Conversion plan of the result rows, created during the first execution and reused by
+     * the following ones, as the columns layout is the same.
+     */
+    @Nullable private HydrationPlan<M> hydrationPlan;
+
+    /** SQL statement without the literal values, computed on first use */
+    @Nullable private String shape;
+
+    /** Cursor window size in bytes (0 for the default one) */
+    private long cursorWindowSize = 0;
+
+    /** Maximum amount of rows to be read by each execution (0 to read all of them at once) */
+    private int chunkSize = 0;
+
+    /** Whether the objects have to be loaded in two phases */
+    private boolean twoPhaseLoading = false;
+
+    /** Conversion plans of the second phase queries, by concrete entity */
+    @NonNull private final Map<EntityObject<?>, HydrationPlan<?>> concretePlans = new HashMap<>();
+
     /**
      * Constructor.
      *
@@ -70,18 +120,47 @@ class QueryImpl<M> implements Query<M> {
      * @param resultClass       result objects type
      * @param alias             alias towards the query is built
      * @param sql               SQL statement to be run
+     * @param discriminatorSql  SQL statement to be run by the first phase of the two-phase
+     *                          loading (<code>null</code> if not applicable)
      */
     QueryImpl(@NonNull DatabaseObject db,
               @NonNull EntityManagerImpl entityManager,
               @NonNull Class<M> resultClass,
               @NonNull String alias,
-              @NonNull String sql) {
+              @NonNull String sql,
+              @Nullable String discriminatorSql) {
+
+        this(db, entityManager, resultClass, alias, sql, discriminatorSql, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param db                database
+     * @param entityManager     entity manager
+     * @param resultClass       result objects type
+     * @param alias             alias towards the query is built
+     * @param sql               SQL statement to be run
+     * @param discriminatorSql  SQL statement to be run by the first phase of the two-phase
+     *                          loading (<code>null</code> if not applicable)
+     * @param args              arguments of the statements (<code>null</code> if the statements
+     *                          have no placeholders)
+     */
+    QueryImpl(@NonNull DatabaseObject db,
+              @NonNull EntityManagerImpl entityManager,
+              @NonNull Class<M> resultClass,
+              @NonNull String alias,
+              @NonNull String sql,
+              @Nullable String discriminatorSql,
+              @Nullable String[] args) {
 
         this.db = db;
         this.entityManager = entityManager;
         this.resultClass = resultClass;
         this.alias = alias;
         this.sql = sql;
+        this.discriminatorSql = discriminatorSql;
+        this.args = args;
     }
 
     /**
@@ -98,38 +177,33 @@ class QueryImpl<M> implements Query<M> {
     @NonNull
     @Override
     public synchronized List<M> getResults() {
-        LogUtils.d("[Database \"" + db.getName() + "\"] " + sql);
+        String sql = getExecutedSql();
+        LogUtils.d("[Database \"{}\"] {}", db.getName(), sql);
 
         entityManager.dbHelper.open();
 
-        // Iterate among the rows and convert them to POJOs
-        try (Cursor c = entityManager.dbHelper.select(sql, null)) {
-            // Prepare a result list of the same size of the cursor rows amount
-            // (it's just a small performance improvement done in order to prevent the collection rescaling)
-            List<M> result = new ArrayList<>(c.getCount());
+        try {
+            entityManager.queryPlanInspector.inspect(sql);
 
-            for (c.moveToFirst(); !c.isAfterLast(); c.moveToNext()) {
-                M object = db.getEntity(resultClass).parseCursor(c, alias);
-
-                // This collection represent the tasks which will be concurrently executed in order
-                // to create the queries to eagerly load the many to one and one to one relationships
-                ConcurrentSession<Pair<Field, Query>> eagerLoads = getEagerLoadQueries(object);
+            if (chunkSize > 0) {
+                return getChunkedResults();
+            }
 
-                // While the queries are built, create the lazy collections
-                createLazyCollections(object);
+            long start = System.nanoTime();
 
-                // Run the queries and assign its result to the object field
-                eagerLoads.waitForAll();
+            try (Cursor c = entityManager.dbHelper.select(sql, args, cursorWindowSize)) {
+                // Prepare a result list of the same size of the cursor rows amount
+                // (it's just a small performance improvement done in order to prevent the collection rescaling).
+                // Counting the rows also executes the query.
+                List<M> result = new ArrayList<>(c.getCount());
+                long executed = System.nanoTime();
 
-                for (Pair<Field, Query> eagerLoad : eagerLoads) {
-                    eagerLoad.first.set(object, eagerLoad.second.getSingleResult());
-                }
+                readRows(c, result);
+                onExecuted(executed - start, result.size(), System.nanoTime() - executed);
 
-                result.add(object);
+                return result;
             }
 
-            return result;
-
         } catch (Exception e) {
             throw new QueryException(e);
 
@@ -138,6 +212,479 @@ class QueryImpl<M> implements Query<M> {
         }
     }
 
+    /**
+     * Read the results by executing the query multiple times, each time limited to
+     * {@link #chunkSize} rows.
+     *
+     * <p>Each chunk starts after the primary key of the last row of the previous one
+     * (keyset pagination), so that the rows already read don't have to be skipped again
+     * and the whole scan stays linear. The key is read from the cursor rather than from the
+     * loaded objects, as in case of two-phase loading the rows deleted in the meanwhile don't
+     * lead to any object.</p>
+     *
+     * @return results sorted by primary key
+     */
+    private List<M> getChunkedResults()
+            throws ExecutionException, InterruptedException, IllegalAccessException {
+        List<M> result = new ArrayList<>();
+        List<FieldColumnObject> primaryKeys = new ArrayList<>(db.getEntity(resultClass).columns.getPrimaryKeys());
+
+        StringBuilder orderBy = new StringBuilder();
+
+        for (FieldColumnObject primaryKey : primaryKeys) {
+            if (orderBy.length() != 0) {
+                orderBy.append(", ");
+            }
+
+            orderBy.append(escape(alias + "." + primaryKey.name));
+        }
+
+        List<String> lastKey = null;
+        long executionNanos = 0;
+        long hydrationNanos = 0;
+
+        while (true) {
+            String chunkSql = "SELECT * FROM (" + getExecutedSql() + ")" +
+                    (lastKey == null ? "" : " WHERE " + getKeysetCondition(primaryKeys, lastKey)) +
+                    " ORDER BY " + orderBy +
+                    " LIMIT " + chunkSize;
+
+            int rows;
+            long start = System.nanoTime();
+
+            try (Cursor c = entityManager.dbHelper.select(chunkSql, args, cursorWindowSize)) {
+                rows = c.getCount();
+                long executed = System.nanoTime();
+                executionNanos += executed - start;
+
+                readRows(c, result);
+                hydrationNanos += System.nanoTime() - executed;
+
+                if (rows == chunkSize && c.moveToLast()) {
+                    lastKey = getKey(c, primaryKeys, getColumnIndexes(c, alias, primaryKeys));
+                }
+            }
+
+            if (rows < chunkSize) {
+                onExecuted(executionNanos, result.size(), hydrationNanos);
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Get the condition selecting the rows following an object, according to the primary keys
+     * order.
+     *
+     * <p>Multiple primary keys are compared lexicographically: <code>(a, b) &gt; (x, y)</code>
+     * is expanded to <code>a &gt; x OR (a = x AND b &gt; y)</code>, as row values are not
+     * supported by the SQLite versions of the older Android releases.</p>
+     *
+     * @param primaryKeys   primary keys
+     * @param key           primary key values of the last row read, as SQL literals
+     *
+     * @return <code>WHERE</code> condition
+     */
+    private String getKeysetCondition(List<FieldColumnObject> primaryKeys, List<String> key) {
+        StringBuilder result = new StringBuilder();
+        StringBuilder equalities = new StringBuilder();
+
+        for (int i = 0; i < primaryKeys.size(); i++) {
+            String column = escape(alias + "." + primaryKeys.get(i).name);
+            String value = key.get(i);
+
+            if (result.length() != 0) {
+                result.append(" OR ");
+            }
+
+            result.append("(").append(equalities).append(column).append(" > ").append(value).append(")");
+            equalities.append(column).append(" = ").append(value).append(" AND ");
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Check whether the results are loaded in two phases.
+     *
+     * @return <code>true</code> if the two-phase loading has been requested and the results
+     *         may belong to different subclasses; <code>false</code> otherwise
+     */
+    private boolean isTwoPhaseLoading() {
+        return twoPhaseLoading && discriminatorSql != null;
+    }
+
+    /**
+     * Get the SQL statement to be run in order to read the result rows.
+     *
+     * @return {@link #discriminatorSql} in case of two-phase loading; {@link #sql} otherwise
+     */
+    private String getExecutedSql() {
+        return isTwoPhaseLoading() ? discriminatorSql : sql;
+    }
+
+    /**
+     * Convert the rows of a cursor to POJOs and load their relationships.
+     *
+     * @param c         cursor
+     * @param result    list the objects have to be added to
+     */
+    private void readRows(Cursor c, List<M> result)
+            throws ExecutionException, InterruptedException, IllegalAccessException {
+        if (isTwoPhaseLoading()) {
+            readRowsInTwoPhases(c, result);
+            return;
+        }
+
+        if (hydrationPlan == null) {
+            hydrationPlan = new HydrationPlan<>(db.getEntity(resultClass), c, alias);
+        }
+
+        for (c.moveToFirst(); !c.isAfterLast(); c.moveToNext()) {
+            M object = hydrationPlan.hydrate(c);
+            loadRelationships(object);
+            result.add(object);
+        }
+    }
+
+    /**
+     * Load the objects whose primary keys and discriminator values are contained in a cursor.
+     *
+     * <p>
+     * The concrete entity of each row is determined through the discriminator columns. Then,
+     * the objects of each concrete entity are loaded in batches by primary key, so that only
+     * the tables of the concrete entity and of its parents are involved.
+     * </p>
+     *
+     * @param c         cursor of the {@link #discriminatorSql} query
+     * @param result    list the objects have to be added to
+     */
+    private void readRowsInTwoPhases(Cursor c, List<M> result)
+            throws ExecutionException, InterruptedException, IllegalAccessException {
+        EntityObject<M> entity = db.getEntity(resultClass);
+        List<FieldColumnObject> primaryKeys = new ArrayList<>(entity.columns.getPrimaryKeys());
+        int[] keyIndexes = getColumnIndexes(c, alias, primaryKeys);
+
+        // First phase: primary keys of the rows, grouped by concrete entity
+        List<List<String>> keys = new ArrayList<>(c.getCount());
+        Map<EntityObject<?>, Set<List<String>>> keysByEntity = new LinkedHashMap<>();
+        Map<EntityObject<?>, Integer> discriminatorIndexes = new HashMap<>();
+
+        for (c.moveToFirst(); !c.isAfterLast(); c.moveToNext()) {
+            List<String> key = getKey(c, primaryKeys, keyIndexes);
+            keys.add(key);
+
+            EntityObject<?> concrete = getConcreteEntity(c, entity, discriminatorIndexes);
+            Set<List<String>> entityKeys = keysByEntity.get(concrete);
+
+            if (entityKeys == null) {
+                entityKeys = new LinkedHashSet<>();
+                keysByEntity.put(concrete, entityKeys);
+            }
+
+            entityKeys.add(key);
+        }
+
+        // Second phase: objects of each concrete entity
+        Map<List<String>, M> objects = new HashMap<>(keys.size());
+
+        for (Map.Entry<EntityObject<?>, Set<List<String>>> entry : keysByEntity.entrySet()) {
+            loadObjects(entry.getKey(), primaryKeys, entry.getValue(), objects);
+        }
+
+        for (List<String> key : keys) {
+            M object = objects.get(key);
+
+            // The row may have been deleted in the meanwhile
+            if (object != null) {
+                loadRelationships(object);
+                result.add(object);
+            }
+        }
+    }
+
+    /**
+     * Get the concrete entity the current row of a first phase cursor belongs to.
+     *
+     * @param c                     cursor
+     * @param entity                requested entity
+     * @param discriminatorIndexes  cursor indexes of the discriminator columns, by entity
+     *                              (filled while the entities are visited)
+     *
+     * @return leaf entity
+     *
+     * @throws QueryException if there is no child with the discriminator value found in the cursor
+     */
+    private EntityObject<?> getConcreteEntity(Cursor c,
+                                              EntityObject<?> entity,
+                                              Map<EntityObject<?>, Integer> discriminatorIndexes) {
+
+        EntityObject<?> current = entity;
+
+        while (!current.children.isEmpty()) {
+            assert current.discriminatorColumn != null;
+            Integer index = discriminatorIndexes.get(current);
+
+            if (index == null) {
+                String tableAlias = current.getTableAlias(entity, alias);
+                index = c.getColumnIndexOrThrow(tableAlias + "." + current.discriminatorColumn.name);
+                discriminatorIndexes.put(current, index);
+            }
+
+            Object discriminatorValue = c.isNull(index) ? null : current.discriminatorColumn.converter.read(c, index);
+            EntityObject<?> child = null;
+
+            for (EntityObject<?> candidate : current.children) {
+                if (candidate.discriminatorValue != null && candidate.discriminatorValue.equals(discriminatorValue)) {
+                    child = candidate;
+                    break;
+                }
+            }
+
+            if (child == null) {
+                throw new QueryException("Entity \"" + current.getName() + "\" has no child with discriminator value \"" + discriminatorValue + "\"");
+            }
+
+            current = child;
+        }
+
+        return current;
+    }
+
+    /**
+     * Load the objects of a concrete entity by their primary keys.
+     *
+     * <p>The primary keys are split in batches of {@link #TWO_PHASE_BATCH_SIZE} elements, each
+     * of them loaded with a single query.</p>
+     *
+     * @param entity        concrete entity
+     * @param primaryKeys   primary keys of the requested entity
+     * @param keys          primary key values of the objects to be loaded
+     * @param objects       map the loaded objects have to be added to, by primary key values
+     */
+    @SuppressWarnings("unchecked")
+    private void loadObjects(EntityObject<?> entity,
+                             List<FieldColumnObject> primaryKeys,
+                             Collection<List<String>> keys,
+                             Map<List<String>, M> objects) {
+
+        QueryBuilderImpl<?> qb = new QueryBuilderImpl<>(db, entity.clazz, entityManager);
+        From<?> root = (From<?>) qb.getRoot(entity.clazz);
+        String select = qb.getSelectStatement(root);
+
+        Iterator<List<String>> iterator = keys.iterator();
+
+        while (iterator.hasNext()) {
+            StringBuilder where = new StringBuilder();
+
+            for (int i = 0; i < TWO_PHASE_BATCH_SIZE && iterator.hasNext(); i++) {
+                appendKeyCondition(where, root.getAlias(), primaryKeys, iterator.next());
+            }
+
+            if (primaryKeys.size() == 1) {
+                where.insert(0, escape(root.getAlias()) + "." + escape(primaryKeys.get(0).name) + " IN (");
+                where.append(")");
+            }
+
+            String batchSql = select + " WHERE " + where;
+            LogUtils.d("[Database \"{}\"] {}", db.getName(), batchSql);
+
+            try (Cursor c = entityManager.dbHelper.select(batchSql, null, cursorWindowSize)) {
+                HydrationPlan<?> plan = concretePlans.get(entity);
+
+                if (plan == null) {
+                    plan = new HydrationPlan<>(entity, c, root.getAlias());
+                    concretePlans.put(entity, plan);
+                }
+
+                int[] keyIndexes = getColumnIndexes(c, root.getAlias(), primaryKeys);
+
+                for (c.moveToFirst(); !c.isAfterLast(); c.moveToNext()) {
+                    objects.put(getKey(c, primaryKeys, keyIndexes), (M) plan.hydrate(c));
+                }
+            }
+        }
+    }
+
+    /**
+     * Append the condition selecting an object by its primary key.
+     *
+     * <p>Single primary keys are just listed, in order to be used in an <code>IN</code> clause.
+     * Multiple primary keys are compared one by one, and the conditions of different objects
+     * are put in disjunction, as row values are not supported by the SQLite versions of the
+     * older Android releases.</p>
+     *
+     * @param sb            string builder the condition has to be appended to
+     * @param tableAlias    alias of the table
+     * @param primaryKeys   primary keys
+     * @param key           primary key values, as SQL literals
+     */
+    private static void appendKeyCondition(StringBuilder sb,
+                                           String tableAlias,
+                                           List<FieldColumnObject> primaryKeys,
+                                           List<String> key) {
+
+        if (primaryKeys.size() == 1) {
+            if (sb.length() != 0) {
+                sb.append(", ");
+            }
+
+            sb.append(key.get(0));
+            return;
+        }
+
+        if (sb.length() != 0) {
+            sb.append(" OR ");
+        }
+
+        sb.append("(");
+
+        for (int i = 0; i < primaryKeys.size(); i++) {
+            if (i != 0) {
+                sb.append(" AND ");
+            }
+
+            sb.append(escape(tableAlias)).append(".").append(escape(primaryKeys.get(i).name))
+                    .append(" = ").append(key.get(i));
+        }
+
+        sb.append(")");
+    }
+
+    /**
+     * Get the cursor indexes of some columns.
+     *
+     * @param c             cursor
+     * @param tableAlias    alias of the table the columns belong to
+     * @param columns       columns
+     *
+     * @return column indexes
+     */
+    private static int[] getColumnIndexes(Cursor c, String tableAlias, List<? extends BaseColumnObject> columns) {
+        int[] indexes = new int[columns.size()];
+
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = c.getColumnIndexOrThrow(tableAlias + "." + columns.get(i).name);
+        }
+
+        return indexes;
+    }
+
+    /**
+     * Get the primary key values of the current row of a cursor.
+     *
+     * <p>The values are represented as SQL literals, so that they can be directly compared and
+     * used to build the second phase queries.</p>
+     *
+     * @param c             cursor
+     * @param primaryKeys   primary keys
+     * @param indexes       cursor indexes of the primary keys
+     *
+     * @return primary key values
+     */
+    private static List<String> getKey(Cursor c, List<FieldColumnObject> primaryKeys, int[] indexes) {
+        String[] key = new String[indexes.length];
+
+        for (int i = 0; i < indexes.length; i++) {
+            FieldColumnObject primaryKey = primaryKeys.get(i);
+            Object value = c.isNull(indexes[i]) ? null : primaryKey.converter.read(c, indexes[i]);
+            key[i] = PredicateImpl.toSqlLiteral(primaryKey, value);
+        }
+
+        return Arrays.asList(key);
+    }
+
+    /**
+     * Load the relationships of an object.
+     *
+     * <p>The {@link OneToOne} and {@link ManyToOne} relationships are eagerly loaded, while
+     * lazy collections are created for the {@link OneToMany} and {@link ManyToMany} ones.</p>
+     *
+     * @param object    object got from the query
+     */
+    private void loadRelationships(M object)
+            throws ExecutionException, InterruptedException, IllegalAccessException {
+        // This collection represent the tasks which will be concurrently executed in order
+        // to create the queries to eagerly load the many to one and one to one relationships
+        ConcurrentSession<Pair<Field, Query>> eagerLoads = getEagerLoadQueries(object);
+
+        // While the queries are built, create the lazy collections
+        createLazyCollections(object);
+
+        // Run the queries and assign its result to the object field
+        eagerLoads.waitForAll();
+
+        for (Pair<Field, Query> eagerLoad : eagerLoads) {
+            eagerLoad.first.set(object, eagerLoad.second.getSingleResult());
+        }
+    }
+
+    /**
+     * Report the query execution to the metrics listener, if any, and to the slow operations log.
+     *
+     * @param executionNanos    time spent to execute the query
+     * @param rows              amount of rows read
+     * @param hydrationNanos    time spent to convert the rows into objects
+     */
+    private void onExecuted(long executionNanos, int rows, long hydrationNanos) {
+        MetricsListener metrics = MetricsUtils.getListener();
+
+        if (metrics != null) {
+            metrics.onQuery(db.getName(), getShape(), executionNanos, rows, hydrationNanos);
+        }
+
+        // The literal values are embedded into the SQL statement, so there are no bound arguments
+        if (SlowOperationLog.isEnabled(SlowOperation.Type.QUERY)) {
+            SlowOperationLog.record(SlowOperation.Type.QUERY, db.getName(), getShape(), 0, rows, executionNanos + hydrationNanos);
+        }
+    }
+
+    /**
+     * Get the name of the database the query is executed on.
+     *
+     * @return database name
+     */
+    @NonNull
+    String getDatabaseName() {
+        return db.getName();
+    }
+
+    /**
+     * Get the class of the result objects.
+     *
+     * @return result class
+     */
+    @NonNull
+    Class<M> getResultClass() {
+        return resultClass;
+    }
+
+    /**
+     * Get the alias of the root the results are read from.
+     *
+     * <p>The columns selected by the query are labelled with the alias of their table.</p>
+     *
+     * @return alias
+     */
+    @NonNull
+    String getAlias() {
+        return alias;
+    }
+
+    /**
+     * Get the shape of the query, that is its SQL statement without the literal values.
+     *
+     * @return query shape
+     */
+    @NonNull
+    String getShape() {
+        if (shape == null) {
+            shape = QueryPlanInspector.getShape(sql);
+        }
+
+        return shape;
+    }
+
     @Override
     public M getSingleResult() {
         List<M> resultList = getResults();
@@ -149,9 +696,67 @@ class QueryImpl<M> implements Query<M> {
         return resultList.get(0);
     }
 
+    @NonNull
+    @Override
+    public QueryPlan getQueryPlan() {
+        try {
+            return entityManager.queryPlanInspector.explain(sql);
+        } catch (Exception e) {
+            throw new QueryException(e);
+        }
+    }
+
+    @NonNull
+    @Override
+    public synchronized Query<M> setCursorWindowSize(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Negative cursor window size: " + bytes);
+        }
+
+        this.cursorWindowSize = bytes;
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public synchronized Query<M> setChunkSize(int rows) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Negative chunk size: " + rows);
+        }
+
+        this.chunkSize = rows;
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public synchronized Query<M> setTwoPhaseLoading(boolean enabled) {
+        this.twoPhaseLoading = enabled;
+        return this;
+    }
+
     @NonNull
     @Override
     public LiveData<List<M>> getLiveResults() {
+        LiveQuery<M, List<M>> liveQuery = new LiveResults<>(this, getObservedEntities());
+        entityManager.registerLiveQuery(liveQuery);
+        return liveQuery;
+    }
+
+    @NonNull
+    @Override
+    public LiveData<ChangeSet<M>> getLiveChanges() {
+        LiveQuery<M, ChangeSet<M>> liveQuery = new LiveChangeSet<>(db, resultClass, this, getObservedEntities());
+        entityManager.registerLiveQuery(liveQuery);
+        return liveQuery;
+    }
+
+    /**
+     * Get the entities whose changes may affect the query results.
+     *
+     * @return observed entities
+     */
+    private Collection<EntityObject<?>> getObservedEntities() {
         Collection<EntityObject<?>> observed = new ArraySet<>();
 
         EntityObject<?> entity = db.getEntity(resultClass);
@@ -200,6 +805,10 @@ class QueryImpl<M> implements Query<M> {
             while (!upStack.empty()) {
                 EntityObject<?> parentEntity = upStack.pop();
 
+                // The parent tables hold part of the data of their children, so they must be
+                // observed too, as their changes may not involve the children tables
+                observed.add(parentEntity);
+
                 for (Relationship relationship : parentEntity.relationships) {
                     EntityObject<?> linked = db.getEntity(relationship.linked);
 
@@ -219,11 +828,7 @@ class QueryImpl<M> implements Query<M> {
             }
         }
 
-        LiveQuery<M> liveQuery = new LiveQuery<>(this, observed);
-        entityManager.registerLiveQuery(liveQuery);
-        liveQuery.setValue(getResults());
-
-        return liveQuery;
+        return observed;
     }
 
     /**
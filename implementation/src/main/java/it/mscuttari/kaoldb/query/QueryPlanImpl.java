@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.query;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.List;
+
+import it.mscuttari.kaoldb.interfaces.QueryPlan;
+
+/**
+ * @see QueryPlan
+ */
+final class QueryPlanImpl implements QueryPlan {
+
+    @NonNull private final String sql;
+    @NonNull private final List<Step> steps;
+    @NonNull private final List<String> fullScans;
+
+    /**
+     * Constructor.
+     *
+     * @param sql           explained SQL statement
+     * @param steps         plan steps
+     * @param fullScans     fully scanned tables exceeding the rows threshold
+     */
+    QueryPlanImpl(@NonNull String sql, @NonNull List<Step> steps, @NonNull List<String> fullScans) {
+        this.sql = sql;
+        this.steps = Collections.unmodifiableList(steps);
+        this.fullScans = Collections.unmodifiableList(fullScans);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return steps.toString();
+    }
+
+    @NonNull
+    @Override
+    public String getSql() {
+        return sql;
+    }
+
+    @NonNull
+    @Override
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    @Override
+    public boolean usesIndex() {
+        for (Step step : steps) {
+            if (step.fullScan) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @NonNull
+    @Override
+    public List<String> getFullScans() {
+        return fullScans;
+    }
+
+}
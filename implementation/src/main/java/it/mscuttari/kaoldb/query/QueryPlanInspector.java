@@ -0,0 +1,256 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.query;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import it.mscuttari.kaoldb.LogUtils;
+import it.mscuttari.kaoldb.interfaces.QueryPlan;
+import it.mscuttari.kaoldb.interfaces.QueryPlanListener;
+import it.mscuttari.kaoldb.mapping.DatabaseObject;
+
+import static it.mscuttari.kaoldb.StringUtils.escape;
+
+/**
+ * Explain the queries through the SQLite <code>EXPLAIN QUERY PLAN</code> statement.
+ *
+ * <p>
+ * In debug mode every distinct query shape, that is the SQL statement with its literal values
+ * stripped, is explained just once: the plan is logged, the full scans of the tables holding
+ * at least {@link #fullScanThreshold} rows are reported as warnings and the registered
+ * {@link QueryPlanListener} is notified.
+ * </p>
+ */
+public final class QueryPlanInspector {
+
+    /** Default minimum amount of rows of a table in order for its full scans to be reported */
+    public static final long DEFAULT_FULL_SCAN_THRESHOLD = 1000;
+
+    /** String and numeric literals */
+    private static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+
+    /** Table aliases, both escaped (i.e. <code>"table" AS "alias"</code>) and not */
+    private static final Pattern ALIAS = Pattern.compile("(?<![.\\w\"])(?:\"([^\"]+)\"|(\\w+)) AS (?:\"([^\"]+)\"|(\\w+))");
+
+    /** Table accesses. Older SQLite versions prefix the table name with the <code>TABLE</code> keyword. */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("^(SCAN|SEARCH) (?:TABLE )?(\\w+)");
+
+    @Nullable private static volatile QueryPlanListener listener;
+    private static volatile long fullScanThreshold = DEFAULT_FULL_SCAN_THRESHOLD;
+
+    @NonNull private final DatabaseObject db;
+    @NonNull private final ConcurrentSQLiteOpenHelper dbHelper;
+
+    /** Shapes of the queries already explained */
+    private final Set<String> shapes = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * Constructor.
+     *
+     * @param db            database
+     * @param dbHelper      database helper used to run the statements
+     */
+    QueryPlanInspector(@NonNull DatabaseObject db, @NonNull ConcurrentSQLiteOpenHelper dbHelper) {
+        this.db = db;
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Set the listener to be notified of the plans of the queries executed in debug mode.
+     *
+     * @param listener      listener (<code>null</code> to remove the current one)
+     */
+    public static void setListener(@Nullable QueryPlanListener listener) {
+        QueryPlanInspector.listener = listener;
+    }
+
+    /**
+     * Set the minimum amount of rows a table must contain in order for its full scans to
+     * be reported.
+     *
+     * @param rows      rows threshold (<code>0</code> to report all the full scans)
+     * @throws IllegalArgumentException if <code>rows</code> is negative
+     */
+    public static void setFullScanThreshold(long rows) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Full scan threshold can't be negative");
+        }
+
+        fullScanThreshold = rows;
+    }
+
+    /**
+     * Explain the query, if running in debug mode and if a query with the same shape has not
+     * already been explained.
+     *
+     * <p>Failures are just logged, in order not to interfere with the query execution.</p>
+     *
+     * @param sql   SQL query
+     */
+    void inspect(@NonNull String sql) {
+        if (!LogUtils.enabled || !shapes.add(getShape(sql))) {
+            return;
+        }
+
+        QueryPlan plan;
+
+        try {
+            plan = explain(sql);
+        } catch (RuntimeException e) {
+            LogUtils.e("[Database \"{}\"] can't explain query: {}", db.getName(), e.getMessage());
+            return;
+        }
+
+        LogUtils.d("[Database \"{}\"] query plan: {}", db.getName(), plan);
+
+        for (String table : plan.getFullScans()) {
+            LogUtils.w("[Database \"{}\"] full scan of table \"{}\": {}", db.getName(), table, sql);
+        }
+
+        QueryPlanListener listener = QueryPlanInspector.listener;
+
+        if (listener != null) {
+            listener.onQueryPlan(plan);
+        }
+    }
+
+    /**
+     * Forget the shapes of the queries already explained, so that they are explained again
+     * during their next execution.
+     */
+    void clear() {
+        shapes.clear();
+    }
+
+    /**
+     * Explain a query.
+     *
+     * @param sql   SQL query
+     * @return query plan
+     */
+    @NonNull
+    QueryPlan explain(@NonNull String sql) {
+        Map<String, String> aliases = getAliases(sql);
+        long threshold = fullScanThreshold;
+
+        List<QueryPlan.Step> steps = new ArrayList<>();
+        List<String> fullScans = new ArrayList<>();
+
+        dbHelper.open();
+
+        try {
+            try (Cursor c = dbHelper.select("EXPLAIN QUERY PLAN " + sql, null)) {
+                // Older SQLite versions don't report the steps hierarchy
+                int idIndex = c.getColumnIndex("id");
+                int parentIndex = c.getColumnIndex("parent");
+                int detailIndex = c.getColumnIndexOrThrow("detail");
+
+                while (c.moveToNext()) {
+                    String detail = c.getString(detailIndex);
+                    String table = null;
+                    boolean fullScan = false;
+
+                    Matcher matcher = TABLE_ACCESS.matcher(detail);
+
+                    if (matcher.find() && !matcher.group(2).equals("SUBQUERY") && !matcher.group(2).equals("CONSTANT")) {
+                        String name = matcher.group(2);
+                        table = aliases.containsKey(name) ? aliases.get(name) : name;
+                        fullScan = matcher.group(1).equals("SCAN");
+                    }
+
+                    steps.add(new QueryPlan.Step(
+                            idIndex < 0 ? c.getPosition() + 1 : c.getInt(idIndex),
+                            parentIndex < 0 ? 0 : c.getInt(parentIndex),
+                            detail,
+                            table,
+                            fullScan
+                    ));
+
+                    if (fullScan && !fullScans.contains(table) && (threshold == 0 || countRows(table) >= threshold)) {
+                        fullScans.add(table);
+                    }
+                }
+            }
+
+        } finally {
+            dbHelper.close();
+        }
+
+        return new QueryPlanImpl(sql, steps, fullScans);
+    }
+
+    /**
+     * Get the shape of a query, that is its SQL statement with the literal values replaced
+     * by placeholders.
+     *
+     * @param sql   SQL query
+     * @return query shape
+     */
+    @NonNull
+    static String getShape(@NonNull String sql) {
+        return LITERAL.matcher(sql).replaceAll("?");
+    }
+
+    /**
+     * Get the tables aliases used in a query.
+     *
+     * @param sql   SQL query
+     * @return map between the aliases and the table names
+     */
+    private static Map<String, String> getAliases(String sql) {
+        Map<String, String> result = new HashMap<>();
+        Matcher matcher = ALIAS.matcher(sql);
+
+        while (matcher.find()) {
+            String table = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            String alias = matcher.group(3) != null ? matcher.group(3) : matcher.group(4);
+            result.put(alias, table);
+        }
+
+        return result;
+    }
+
+    /**
+     * Count the rows of a table.
+     *
+     * @param table     table name
+     * @return rows amount ({@link Long#MAX_VALUE} if the table can't be read)
+     */
+    private long countRows(String table) {
+        try (Cursor c = dbHelper.select("SELECT COUNT(*) FROM " + escape(table), null)) {
+            return c.moveToFirst() ? c.getLong(0) : 0;
+
+        } catch (RuntimeException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.query;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+import it.mscuttari.kaoldb.interfaces.Expression;
+import it.mscuttari.kaoldb.interfaces.Root;
+import it.mscuttari.kaoldb.mapping.AliasTemplate;
+
+import static it.mscuttari.kaoldb.StringUtils.escape;
+
+/**
+ * Buffer the SQL statements are rendered into.
+ *
+ * <p>
+ * The roots and the expressions write their representation directly into the buffer, instead
+ * of building and concatenating the strings of their subtrees, so that the whole statement is
+ * rendered in a single pass.
+ * </p>
+ */
+final class SqlWriter {
+
+    private final StringBuilder sb = new StringBuilder();
+
+    @NonNull
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+
+    /**
+     * Get the number of characters written so far.
+     *
+     * @return length
+     */
+    int length() {
+        return sb.length();
+    }
+
+    /**
+     * Append a SQL fragment.
+     *
+     * @param sql   SQL fragment
+     * @return this writer
+     */
+    SqlWriter append(String sql) {
+        sb.append(sql);
+        return this;
+    }
+
+    /**
+     * Append a column reference in the form <code>"alias"."column"</code>.
+     *
+     * @param alias     table alias
+     * @param column    column name
+     *
+     * @return this writer
+     */
+    SqlWriter appendColumn(String alias, String column) {
+        sb.append(escape(alias)).append('.').append(escape(column));
+        return this;
+    }
+
+    /**
+     * Append a template rendered with the given alias.
+     *
+     * @param template  template
+     * @param alias     alias
+     *
+     * @return this writer
+     */
+    SqlWriter append(AliasTemplate template, String alias) {
+        template.appendTo(sb, alias);
+        return this;
+    }
+
+    /**
+     * Append the <code>FROM</code> clause representation of a root.
+     *
+     * @param root  root
+     * @return this writer
+     */
+    SqlWriter append(Root<?> root) {
+        if (root instanceof From) {
+            ((From<?>) root).appendTo(this);
+        } else if (root instanceof Join) {
+            ((Join<?, ?>) root).appendTo(this);
+        } else {
+            sb.append(root);
+        }
+
+        return this;
+    }
+
+    /**
+     * Append the representation of an expression.
+     *
+     * @param expression    expression
+     * @return this writer
+     */
+    SqlWriter append(Expression expression) {
+        if (expression instanceof ExpressionInt) {
+            ((ExpressionInt) expression).appendTo(this);
+        } else {
+            sb.append(expression);
+        }
+
+        return this;
+    }
+
+    /**
+     * Insert a character multiple times.
+     *
+     * @param offset    position of the first inserted character
+     * @param c         character
+     * @param count     number of repetitions
+     */
+    void insert(int offset, char c, int count) {
+        if (count <= 0)
+            return;
+
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        sb.insert(offset, chars);
+    }
+
+}
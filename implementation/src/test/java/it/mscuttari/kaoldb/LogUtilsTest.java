@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import it.mscuttari.kaoldb.interfaces.LogSink;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LogUtilsTest extends AbstractTest {
+
+    private final List<String> messages = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        LogUtils.enabled = true;
+        LogUtils.setSink((level, tag, message) -> messages.add(level + " " + message));
+    }
+
+    @After
+    public void tearDown() {
+        LogUtils.enabled = false;
+        LogUtils.setLevel(LogSink.Level.VERBOSE);
+        LogUtils.setSink(LogUtils.STANDARD_OUTPUT);
+    }
+
+    @Test
+    public void messageWritten() {
+        LogUtils.i("message");
+        assertEquals(1, messages.size());
+        assertEquals("INFO message", messages.get(0));
+    }
+
+    @Test
+    public void levelFiltered() {
+        LogUtils.setLevel(LogSink.Level.WARN);
+
+        LogUtils.v("verbose");
+        LogUtils.d("debug");
+        LogUtils.i("info");
+        LogUtils.w("warn");
+        LogUtils.e("error");
+
+        assertEquals(2, messages.size());
+        assertEquals("WARN warn", messages.get(0));
+        assertEquals("ERROR error", messages.get(1));
+    }
+
+    @Test
+    public void supplierNotInvokedWhenDisabled() {
+        LogUtils.enabled = false;
+        LogUtils.d(() -> {
+            fail("The message must not be built");
+            return null;
+        });
+
+        assertTrue(messages.isEmpty());
+    }
+
+    @Test
+    public void supplierNotInvokedWhenFiltered() {
+        LogUtils.setLevel(LogSink.Level.ERROR);
+        LogUtils.d(() -> {
+            fail("The message must not be built");
+            return null;
+        });
+
+        assertTrue(messages.isEmpty());
+    }
+
+    @Test
+    public void formatPlaceholders() {
+        LogUtils.d("[Database \"{}\"] insert into {}: {}", "db", "table", 3);
+        assertEquals("DEBUG [Database \"db\"] insert into table: 3", messages.get(0));
+    }
+
+    @Test
+    public void formatMissingArguments() {
+        assertEquals("a {} {}", LogUtils.format("{} {} {}", "a"));
+    }
+
+    @Test
+    public void formatExceedingArguments() {
+        assertEquals("a b", LogUtils.format("{} {}", "a", "b", "c"));
+    }
+
+    @Test
+    public void formatArray() {
+        assertEquals("values: [1, [2, 3]]", LogUtils.format("values: {}", (Object) new Object[] {1, new Object[] {2, 3}}));
+    }
+
+    @Test
+    public void formatNull() {
+        assertEquals("value: null", LogUtils.format("value: {}", (Object) null));
+    }
+
+}
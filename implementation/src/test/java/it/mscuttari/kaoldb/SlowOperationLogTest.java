@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import it.mscuttari.kaoldb.interfaces.SlowOperation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SlowOperationLogTest extends AbstractTest {
+
+    @Before
+    public void setUp() {
+        SlowOperationLog.setThreshold(SlowOperation.Type.QUERY, 10, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        SlowOperationLog.setThreshold(SlowOperation.Type.QUERY, 0, TimeUnit.MILLISECONDS);
+        SlowOperationLog.setCapacity(SlowOperationLog.DEFAULT_CAPACITY);
+    }
+
+    @Test
+    public void fastOperationsIgnored() {
+        SlowOperationLog.record(SlowOperation.Type.QUERY, "db", "SELECT 1", 0, 1, TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(SlowOperationLog.getEntries().isEmpty());
+    }
+
+    @Test
+    public void disabledTypesIgnored() {
+        SlowOperationLog.record(SlowOperation.Type.INSERT, "db", "table", 2, 1, TimeUnit.SECONDS.toNanos(1));
+        assertTrue(SlowOperationLog.getEntries().isEmpty());
+    }
+
+    @Test
+    public void slowOperationRecorded() {
+        SlowOperationLog.record(SlowOperation.Type.QUERY, "db", "SELECT ?", 1, 3, TimeUnit.MILLISECONDS.toNanos(20));
+
+        List<SlowOperation> entries = SlowOperationLog.getEntries();
+        assertEquals(1, entries.size());
+
+        SlowOperation entry = entries.get(0);
+        assertEquals(SlowOperation.Type.QUERY, entry.getType());
+        assertEquals("db", entry.getDatabase());
+        assertEquals("SELECT ?", entry.getShape());
+        assertEquals(1, entry.getArgumentsCount());
+        assertEquals(3, entry.getRows());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(20), entry.getDuration());
+        assertEquals(Thread.currentThread().getName(), entry.getThreadName());
+    }
+
+    @Test
+    public void oldestEntriesOverwritten() {
+        SlowOperationLog.setCapacity(2);
+
+        for (int i = 0; i < 3; i++) {
+            SlowOperationLog.record(SlowOperation.Type.QUERY, "db", "query " + i, 0, 0, TimeUnit.SECONDS.toNanos(1));
+        }
+
+        List<SlowOperation> entries = SlowOperationLog.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals("query 1", entries.get(0).getShape());
+        assertEquals("query 2", entries.get(1).getShape());
+    }
+
+    @Test
+    public void clear() {
+        SlowOperationLog.record(SlowOperation.Type.QUERY, "db", "SELECT 1", 0, 1, TimeUnit.SECONDS.toNanos(1));
+        SlowOperationLog.clear();
+
+        assertTrue(SlowOperationLog.getEntries().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeThreshold() {
+        SlowOperationLog.setThreshold(SlowOperation.Type.QUERY, -1, TimeUnit.MILLISECONDS);
+    }
+
+}
@@ -34,6 +34,17 @@ public class StringUtilsTest extends AbstractTest {
         assertNull(StringUtils.escape(null));
     }
 
+    @Test
+    public void quote_string() {
+        assertEquals("'Test'", StringUtils.quote("Test"));
+        assertEquals("'It''s'", StringUtils.quote("It's"));
+    }
+
+    @Test
+    public void quote_nullString() {
+        assertNull(StringUtils.quote(null));
+    }
+
     @Test
     public void escape_bypass() {
         StringUtils.EscapedString escapedString = new StringUtils.EscapedString("\"Test\"");
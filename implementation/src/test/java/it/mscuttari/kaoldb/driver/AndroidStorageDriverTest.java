@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.driver;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.interfaces.StorageConnection;
+import it.mscuttari.kaoldb.interfaces.StorageDriver;
+import it.mscuttari.kaoldb.interfaces.StorageStatement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AndroidStorageDriverTest extends AbstractTest {
+
+    private static final String DB_NAME = "driver_test";
+
+    private StorageDriver driver;
+    private StorageConnection db;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        driver = new AndroidStorageDriver(context);
+        db = driver.open(DB_NAME);
+        db.execSQL("CREATE TABLE people (id INTEGER PRIMARY KEY, name TEXT)");
+    }
+
+    @After
+    public void tearDown() {
+        if (db.isOpen()) {
+            db.close();
+        }
+
+        driver.delete(DB_NAME);
+    }
+
+    @Test
+    public void version() {
+        assertEquals(0, db.getVersion());
+        db.setVersion(3);
+        assertEquals(3, db.getVersion());
+    }
+
+    @Test
+    public void insertUpdateDelete() {
+        ContentValues cv = new ContentValues();
+        cv.put("name", "Michele");
+        long id = db.insert("people", cv);
+
+        cv.put("name", "Scuttari");
+        assertEquals(1, db.update("people", cv, "id = ?", new String[] {String.valueOf(id)}));
+
+        try (Cursor c = db.rawQuery("SELECT name FROM people WHERE id = ?", new String[] {String.valueOf(id)})) {
+            assertTrue(c.moveToFirst());
+            assertEquals("Scuttari", c.getString(0));
+        }
+
+        assertEquals(1, db.delete("people", null, null));
+    }
+
+    @Test
+    public void insertFailure() {
+        ContentValues cv = new ContentValues();
+        cv.put("missing", 0);
+        assertEquals(-1, db.insert("people", cv));
+    }
+
+    @Test
+    public void compiledStatement() {
+        try (StorageStatement insert = db.compileStatement("INSERT INTO people (name) VALUES (?)")) {
+            for (int i = 0; i < 3; i++) {
+                insert.bindString(1, "Name " + i);
+                assertTrue(insert.executeInsert() > 0);
+                insert.clearBindings();
+            }
+        }
+
+        try (StorageStatement count = db.compileStatement("SELECT COUNT(*) FROM people")) {
+            assertEquals(3, count.simpleQueryForLong());
+        }
+    }
+
+    @Test
+    public void nestedTransactionRollback() {
+        db.beginTransaction();
+        db.execSQL("INSERT INTO people (name) VALUES (?)", new Object[] {"Outer"});
+
+        // The inner transaction is not marked as successful
+        db.beginTransaction();
+        db.execSQL("INSERT INTO people (name) VALUES (?)", new Object[] {"Inner"});
+        db.endTransaction();
+
+        db.setTransactionSuccessful();
+        db.endTransaction();
+        assertFalse(db.inTransaction());
+
+        try (Cursor c = db.rawQuery("SELECT * FROM people", null)) {
+            assertEquals(0, c.getCount());
+        }
+    }
+
+    @Test
+    public void delete() {
+        db.close();
+        assertTrue(driver.delete(DB_NAME));
+        assertFalse(driver.delete(DB_NAME));
+    }
+
+}
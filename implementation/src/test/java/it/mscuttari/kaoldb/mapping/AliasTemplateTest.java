@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package it.mscuttari.kaoldb.mapping;
+
+import org.junit.Test;
+
+import it.mscuttari.kaoldb.AbstractTest;
+
+import static it.mscuttari.kaoldb.StringUtils.escape;
+import static org.junit.Assert.assertEquals;
+
+public class AliasTemplateTest extends AbstractTest {
+
+    @Test
+    public void literal() {
+        AliasTemplate template = new AliasTemplate.Builder().append("SELECT 1").build();
+        assertEquals("SELECT 1", template.render("a0"));
+    }
+
+    @Test
+    public void alias() {
+        AliasTemplate template = new AliasTemplate.Builder()
+                .appendColumn("", "id")
+                .append(" AS ")
+                .appendAlias(".id")
+                .build();
+
+        assertEquals(escape("a0") + "." + escape("id") + " AS " + escape("a0.id"), template.render("a0"));
+        assertEquals(escape("a12") + "." + escape("id") + " AS " + escape("a12.id"), template.render("a12"));
+    }
+
+    @Test
+    public void aliasWithSuffix() {
+        AliasTemplate template = new AliasTemplate.Builder()
+                .append("\"films\" AS ")
+                .appendAlias("Film")
+                .build();
+
+        assertEquals("\"films\" AS " + escape("a0Film"), template.render("a0"));
+    }
+
+    @Test
+    public void quotesEscaped() {
+        AliasTemplate template = new AliasTemplate.Builder()
+                .appendColumn("E\"", "c\"")
+                .build();
+
+        assertEquals(escape("a\"0E\"") + "." + escape("c\""), template.render("a\"0"));
+    }
+
+    @Test
+    public void appendTo() {
+        AliasTemplate template = new AliasTemplate.Builder().appendAlias("").build();
+        StringBuilder sb = new StringBuilder("FROM ");
+        template.appendTo(sb, "a0");
+
+        assertEquals("FROM \"a0\"", sb.toString());
+    }
+
+}
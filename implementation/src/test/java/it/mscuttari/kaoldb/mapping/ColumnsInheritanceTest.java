@@ -16,7 +16,9 @@ import it.mscuttari.kaoldb.annotations.Entity;
 import it.mscuttari.kaoldb.annotations.Id;
 import it.mscuttari.kaoldb.annotations.Table;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
 public class ColumnsInheritanceTest extends AbstractTest {
@@ -105,4 +107,22 @@ public class ColumnsInheritanceTest extends AbstractTest {
 		assertFalse(child.columns.contains("parent_field"));
 	}
 
+	@Test
+	public void hierarchyMappedOnDemand() {
+		DatabaseObject db = new DatabaseObject();
+		db.setName("OnDemand");
+
+		db.addEntityClass(Grandparent.class);
+		db.addEntityClass(Parent.class);
+		db.addEntityClass(Child.class);
+
+		// The ancestors and the descendants of an entity are mapped together with it
+		EntityObject<Parent> parent = db.getEntity(Parent.class);
+
+		assertEquals(Grandparent.class, parent.getParent().clazz);
+		assertEquals(Child.class, parent.children.iterator().next().clazz);
+		assertEquals("child", parent.children.iterator().next().discriminatorValue);
+		assertNotNull(parent.discriminatorColumn);
+	}
+
 }
@@ -20,6 +20,14 @@ import org.junit.Before;
 import org.junit.Test;
 
 import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.annotations.Column;
+import it.mscuttari.kaoldb.annotations.DiscriminatorColumn;
+import it.mscuttari.kaoldb.annotations.DiscriminatorValue;
+import it.mscuttari.kaoldb.annotations.Entity;
+import it.mscuttari.kaoldb.annotations.Id;
+import it.mscuttari.kaoldb.annotations.Inheritance;
+import it.mscuttari.kaoldb.annotations.InheritanceType;
+import it.mscuttari.kaoldb.exceptions.MappingException;
 import it.mscuttari.kaoldb.interfaces.DatabaseSchemaMigrator;
 import it.mscuttari.kaoldb.mapping.entities.EntityA;
 import it.mscuttari.kaoldb.mapping.entities.EntityB;
@@ -27,8 +35,10 @@ import it.mscuttari.kaoldb.mapping.entities.GenericDbMigrator;
 import it.mscuttari.kaoldb.mapping.entities.NotAnEntity;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class DatabaseObjectTest extends AbstractTest {
 
@@ -136,8 +146,62 @@ public class DatabaseObjectTest extends AbstractTest {
         assertNotNull(db.getEntity(EntityB.class));
     }
 
+    @Test
+    public void mapEntitiesOnDemand() {
+        db.setName("Name");
+        db.addEntityClass(EntityA.class);
+        db.addEntityClass(EntityB.class);
+
+        assertNotNull(db.getEntity(EntityA.class));
+        assertFalse(db.isMapped());
+
+        assertEquals(db.getEntities().size(), 2);
+        assertTrue(db.isMapped());
+    }
+
+    @Test
+    public void mappingFailure() {
+        db.setName("Name");
+        db.addEntityClass(RootWithoutTable.class);
+        db.addEntityClass(Child.class);
+
+        // The child waits for the table name of the root, which can't be determined
+        for (int i = 0; i < 2; i++) {
+            try {
+                db.getEntity(Child.class);
+                fail("Mapping failure not reported");
+            } catch (MappingException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("RootWithoutTable"));
+            }
+        }
+
+        try {
+            db.waitUntilReady();
+            fail("Mapping failure not reported");
+        } catch (MappingException ignored) {
+
+        }
+    }
+
     private static abstract class SchemaMigratorAbstractStub implements DatabaseSchemaMigrator {
 
     }
 
+    @Entity
+    @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+    @DiscriminatorColumn(name = "type")
+    private abstract static class RootWithoutTable {
+
+        @Id
+        @Column(name = "id")
+        public Integer id;
+
+    }
+
+    @Entity
+    @DiscriminatorValue(value = "child")
+    private static class Child extends RootWithoutTable {
+
+    }
+
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.mapping;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.annotations.Column;
+import it.mscuttari.kaoldb.annotations.JoinColumn;
+import it.mscuttari.kaoldb.annotations.JoinColumns;
+import it.mscuttari.kaoldb.annotations.JoinTable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PropertyColumnsTest extends AbstractTest {
+
+    private static class Fields {
+
+        @Column(name = "col")
+        public Integer column;
+
+        @JoinColumn(name = "fk", referencedColumnName = "id")
+        public Object joinColumn;
+
+        @JoinColumns({
+                @JoinColumn(name = "fk1", referencedColumnName = "id1"),
+                @JoinColumn(name = "fk2", referencedColumnName = "id2")
+        })
+        public Object joinColumns;
+
+        @JoinTable(
+                name = "jt",
+                joinClass = Object.class,
+                inverseJoinClass = Object.class,
+                joinColumns = @JoinColumn(name = "direct", referencedColumnName = "id"),
+                inverseJoinColumns = @JoinColumn(name = "inverse", referencedColumnName = "code")
+        )
+        public Object joinTable;
+
+        public Object transientField;
+
+    }
+
+    @Test
+    public void column() throws Exception {
+        PropertyColumns columns = new PropertyColumns(Fields.class.getField("column"));
+
+        assertEquals(Column.class, columns.annotation);
+        assertEquals(Integer.class, columns.getType());
+        assertEquals(Collections.singletonList("col"), columns.localColumns);
+        assertTrue(columns.linkedColumns.isEmpty());
+        assertNull(columns.joinTable);
+    }
+
+    @Test
+    public void joinColumn() throws Exception {
+        PropertyColumns columns = new PropertyColumns(Fields.class.getField("joinColumn"));
+
+        assertEquals(JoinColumn.class, columns.annotation);
+        assertEquals(Collections.singletonList("fk"), columns.localColumns);
+        assertEquals(Collections.singletonList("id"), columns.linkedColumns);
+    }
+
+    @Test
+    public void joinColumns() throws Exception {
+        PropertyColumns columns = new PropertyColumns(Fields.class.getField("joinColumns"));
+
+        assertEquals(JoinColumns.class, columns.annotation);
+        assertEquals(Arrays.asList("fk1", "fk2"), columns.localColumns);
+        assertEquals(Arrays.asList("id1", "id2"), columns.linkedColumns);
+    }
+
+    @Test
+    public void joinTable() throws Exception {
+        PropertyColumns columns = new PropertyColumns(Fields.class.getField("joinTable"));
+
+        assertEquals(JoinTable.class, columns.annotation);
+        assertEquals("jt", columns.joinTable);
+        assertEquals(Collections.singletonList("id"), columns.localColumns);
+        assertEquals(Collections.singletonList("direct"), columns.linkedColumns);
+        assertEquals(Collections.singletonList("inverse"), columns.inverseJoinColumns);
+        assertEquals(Collections.singletonList("code"), columns.inverseLinkedColumns);
+    }
+
+    @Test
+    public void noAnnotation() throws Exception {
+        PropertyColumns columns = new PropertyColumns(Fields.class.getField("transientField"));
+
+        assertNull(columns.annotation);
+        assertTrue(columns.localColumns.isEmpty());
+    }
+
+}
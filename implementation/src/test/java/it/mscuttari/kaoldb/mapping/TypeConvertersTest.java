@@ -0,0 +1,337 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.mapping;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.annotations.EnumCode;
+import it.mscuttari.kaoldb.annotations.EnumType;
+import it.mscuttari.kaoldb.exceptions.MappingException;
+import it.mscuttari.kaoldb.exceptions.PojoException;
+import it.mscuttari.kaoldb.interfaces.TypeConverter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@SuppressWarnings("unchecked")
+public class TypeConvertersTest extends AbstractTest {
+
+    private enum Direction {
+        UP,
+        DOWN {
+            @Override
+            public String toString() {
+                return "down";
+            }
+        }
+    }
+
+    private enum DenseCodes {
+        @EnumCode(10) FIRST,
+        @EnumCode(12) SECOND,
+        @EnumCode(11) THIRD
+    }
+
+    private enum SparseCodes {
+        @EnumCode(-1000) FIRST,
+        @EnumCode(0) SECOND,
+        @EnumCode(1000000) THIRD
+    }
+
+    private enum DuplicatedCodes {
+        @EnumCode(1) FIRST,
+        @EnumCode(1) SECOND
+    }
+
+    private enum MissingCode {
+        @EnumCode(1) FIRST,
+        SECOND
+    }
+
+    /**
+     * Write a value into content values and read it back through a cursor.
+     *
+     * @param converter     converter
+     * @param value         value
+     * @param <T>           value type
+     *
+     * @return read value
+     */
+    private static <T> T roundTrip(TypeConverter<?> converter, T value) {
+        TypeConverter<T> typedConverter = (TypeConverter<T>) converter;
+
+        ContentValues cv = new ContentValues();
+        typedConverter.write(cv, "column", value);
+
+        MatrixCursor c = new MatrixCursor(new String[] {"column"});
+        c.addRow(new Object[] {cv.get("column")});
+        c.moveToFirst();
+
+        return typedConverter.read(c, 0);
+    }
+
+    @Test
+    public void primitives() {
+        assertEquals(true, roundTrip(TypeConverters.get(boolean.class), true));
+        assertEquals(42, (int) roundTrip(TypeConverters.get(int.class), 42));
+        assertEquals(Long.MAX_VALUE, (long) roundTrip(TypeConverters.get(Long.class), Long.MAX_VALUE));
+        assertEquals(1.5, roundTrip(TypeConverters.get(double.class), 1.5), 0);
+        assertEquals('c', (char) roundTrip(TypeConverters.get(char.class), 'c'));
+        assertEquals("INTEGER", TypeConverters.get(boolean.class).getColumnType());
+    }
+
+    @Test
+    public void primitiveReads() {
+        MatrixCursor c = new MatrixCursor(new String[] {"integer", "real"});
+        c.addRow(new Object[] {42, 1.5});
+        c.moveToFirst();
+
+        assertTrue(TypeConverters.get(boolean.class).readBoolean(c, 0));
+        assertEquals(42, TypeConverters.get(byte.class).readInt(c, 0));
+        assertEquals(42, TypeConverters.get(short.class).readInt(c, 0));
+        assertEquals(42, TypeConverters.get(int.class).readInt(c, 0));
+        assertEquals(42L, TypeConverters.get(long.class).readLong(c, 0));
+        assertEquals(1.5f, TypeConverters.get(float.class).readFloat(c, 1), 0);
+        assertEquals(1.5, TypeConverters.get(double.class).readDouble(c, 1), 0);
+    }
+
+    @Test
+    public void primitiveReads_unboxedByDefault() {
+        MatrixCursor c = new MatrixCursor(new String[] {"column"});
+        c.addRow(new Object[] {"21"});
+        c.moveToFirst();
+
+        TypeConverter<Integer> converter = new TypeConverter<Integer>() {
+            @Override
+            public String getColumnType() {
+                return "TEXT";
+            }
+
+            @Override
+            public Integer read(Cursor c, int columnIndex) {
+                return Integer.parseInt(c.getString(columnIndex)) * 2;
+            }
+
+            @Override
+            public void write(ContentValues cv, String column, Integer value) {
+                cv.put(column, String.valueOf(value / 2));
+            }
+        };
+
+        assertEquals(42, converter.readInt(c, 0));
+        assertEquals(42L, converter.readLong(c, 0));
+        assertEquals(42.0, converter.readDouble(c, 0), 0);
+    }
+
+    @Test
+    public void date() {
+        Date date = new Date(1234567890L);
+        assertEquals(date, roundTrip(TypeConverters.get(Date.class), date));
+    }
+
+    @Test
+    public void calendar() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(1234567890L);
+        assertEquals(calendar.getTimeInMillis(), roundTrip(TypeConverters.get(Calendar.class), calendar).getTimeInMillis());
+    }
+
+    @Test
+    public void calendar_currentDefaultTimeZone() {
+        TypeConverter<?> converter = TypeConverters.get(Calendar.class);
+        TimeZone timeZone = TimeZone.getDefault();
+
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+            assertEquals(TimeZone.getDefault(), roundTrip(converter, Calendar.getInstance()).getTimeZone());
+
+        } finally {
+            TimeZone.setDefault(timeZone);
+        }
+    }
+
+    @Test(expected = PojoException.class)
+    public void character_emptyString() {
+        MatrixCursor c = new MatrixCursor(new String[] {"column"});
+        c.addRow(new Object[] {""});
+        c.moveToFirst();
+
+        TypeConverters.get(char.class).read(c, 0);
+    }
+
+    @Test
+    public void read_null() {
+        MatrixCursor c = new MatrixCursor(new String[] {"column"});
+        c.addRow(new Object[] {null});
+        c.moveToFirst();
+
+        TypeConverter<Object> converter = (TypeConverter<Object>) TypeConverters.get(int.class);
+        assertNull(TypeConverters.read(c, 0, converter, TypeConverters.getCursorType(converter)));
+    }
+
+    @Test(expected = PojoException.class)
+    public void read_incompatibleType() {
+        MatrixCursor c = new MatrixCursor(new String[] {"column"});
+        c.addRow(new Object[] {"text"});
+        c.moveToFirst();
+
+        TypeConverter<Object> converter = (TypeConverter<Object>) TypeConverters.get(int.class);
+        TypeConverters.read(c, 0, converter, TypeConverters.getCursorType(converter));
+    }
+
+    @Test
+    public void uuid_sixteenBytesBlob() {
+        UUID uuid = UUID.randomUUID();
+        TypeConverter<UUID> converter = (TypeConverter<UUID>) TypeConverters.get(UUID.class);
+        assertNotNull(converter);
+
+        ContentValues cv = new ContentValues();
+        converter.write(cv, "column", uuid);
+        assertEquals(16, cv.getAsByteArray("column").length);
+        assertEquals("BLOB", converter.getColumnType());
+
+        assertEquals(uuid, roundTrip(converter, uuid));
+    }
+
+    @Test
+    public void bigDecimal_scaledLong() {
+        TypeConverter<?> converter = TypeConverters.get(BigDecimal.class, 2);
+        assertNotNull(converter);
+
+        assertEquals(new BigDecimal("12.30"), roundTrip(converter, new BigDecimal("12.3")));
+        assertEquals(new BigDecimal("-0.05"), roundTrip(converter, new BigDecimal("-0.05")));
+        assertEquals("INTEGER", converter.getColumnType());
+    }
+
+    @Test(expected = PojoException.class)
+    public void bigDecimal_tooManyDigits() {
+        roundTrip(TypeConverters.get(BigDecimal.class, 2), new BigDecimal("1.234"));
+    }
+
+    @Test
+    public void enum_constantWithBody() {
+        TypeConverter<?> converter = TypeConverters.get(Direction.DOWN.getClass());
+        assertNotNull(converter);
+        assertEquals(Direction.DOWN, roundTrip(converter, Direction.DOWN));
+    }
+
+    @Test
+    public void enum_ordinal() {
+        TypeConverter<?> converter = TypeConverters.getEnum(Direction.class, EnumType.ORDINAL);
+        assertEquals("INTEGER", converter.getColumnType());
+
+        ContentValues cv = new ContentValues();
+        ((TypeConverter<Direction>) converter).write(cv, "column", Direction.DOWN);
+        assertEquals(1, (int) cv.getAsInteger("column"));
+
+        assertEquals(Direction.DOWN, roundTrip(converter, Direction.DOWN));
+    }
+
+    @Test
+    public void enum_denseCodes() {
+        TypeConverter<?> converter = TypeConverters.getEnum(DenseCodes.class, EnumType.CODE);
+
+        ContentValues cv = new ContentValues();
+        ((TypeConverter<DenseCodes>) converter).write(cv, "column", DenseCodes.SECOND);
+        assertEquals(12, (int) cv.getAsInteger("column"));
+
+        for (DenseCodes value : DenseCodes.values()) {
+            assertEquals(value, roundTrip(converter, value));
+        }
+    }
+
+    @Test
+    public void enum_sparseCodes() {
+        TypeConverter<?> converter = TypeConverters.getEnum(SparseCodes.class, EnumType.CODE);
+
+        for (SparseCodes value : SparseCodes.values()) {
+            assertEquals(value, roundTrip(converter, value));
+        }
+    }
+
+    @Test(expected = PojoException.class)
+    public void enum_unknownCode() {
+        MatrixCursor c = new MatrixCursor(new String[] {"column"});
+        c.addRow(new Object[] {13});
+        c.moveToFirst();
+
+        TypeConverters.getEnum(DenseCodes.class, EnumType.CODE).read(c, 0);
+    }
+
+    @Test(expected = MappingException.class)
+    public void enum_duplicatedCodes() {
+        TypeConverters.getEnum(DuplicatedCodes.class, EnumType.CODE);
+    }
+
+    @Test(expected = MappingException.class)
+    public void enum_missingCode() {
+        TypeConverters.getEnum(MissingCode.class, EnumType.CODE);
+    }
+
+    @Test
+    public void unsupportedType() {
+        assertNull(TypeConverters.get(Object.class));
+    }
+
+    @Test
+    public void parse() {
+        assertEquals(true, TypeConverters.parse(boolean.class, "true"));
+        assertEquals(false, TypeConverters.parse(Boolean.class, "0"));
+        assertEquals(5L, TypeConverters.parse(long.class, "5"));
+        assertEquals('c', TypeConverters.parse(Character.class, "c"));
+        assertEquals(new Date(1000), TypeConverters.parse(Date.class, "1000"));
+        assertEquals(new BigDecimal("1.5"), TypeConverters.parse(BigDecimal.class, "1.5"));
+        assertEquals(Direction.DOWN, TypeConverters.parse(Direction.DOWN.getClass(), "DOWN"));
+
+        UUID uuid = UUID.randomUUID();
+        assertEquals(uuid, TypeConverters.parse(UUID.class, uuid.toString()));
+
+        assertNull(TypeConverters.parse(Object.class, "value"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_invalidBoolean() {
+        TypeConverters.parse(boolean.class, "yes");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_unknownEnumConstant() {
+        TypeConverters.parse(Direction.class, "down");
+    }
+
+    @Test
+    public void insertIntoContentValues_null() {
+        ContentValues cv = new ContentValues();
+        BaseColumnObject.insertIntoContentValues(cv, "column", null);
+        assertTrue(cv.containsKey("column"));
+        assertNull(cv.get("column"));
+    }
+
+}
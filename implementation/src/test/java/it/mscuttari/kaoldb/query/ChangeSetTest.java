@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.query;
+
+import android.util.Pair;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.interfaces.ChangeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChangeSetTest extends AbstractTest {
+
+    /**
+     * Compute the change set between two lists of "key=value" strings.
+     *
+     * @param previous  previous elements
+     * @param results   new elements
+     *
+     * @return change set
+     */
+    private static ChangeSet<String> diff(List<String> previous, List<String> results) {
+        return new ChangeSetImpl<>(previous, results, s -> s.split("=")[0], String::equals);
+    }
+
+    @Test
+    public void sameResults_empty() {
+        List<String> list = Arrays.asList("a=1", "b=2", "c=3");
+        ChangeSet<String> changeSet = diff(list, list);
+        assertTrue(changeSet.isEmpty());
+        assertEquals(list, changeSet.getResults());
+    }
+
+    @Test
+    public void firstResults_allInserted() {
+        ChangeSet<String> changeSet = diff(Collections.emptyList(), Arrays.asList("a=1", "b=2"));
+        assertEquals(Arrays.asList(0, 1), changeSet.getInsertions());
+        assertTrue(changeSet.getRemovals().isEmpty());
+        assertTrue(changeSet.getMoves().isEmpty());
+        assertTrue(changeSet.getChanges().isEmpty());
+    }
+
+    @Test
+    public void insertions() {
+        ChangeSet<String> changeSet = diff(Arrays.asList("a=1", "c=3"), Arrays.asList("a=1", "b=2", "c=3", "d=4"));
+        assertEquals(Arrays.asList(1, 3), changeSet.getInsertions());
+        assertTrue(changeSet.getRemovals().isEmpty());
+        assertTrue(changeSet.getMoves().isEmpty());
+    }
+
+    @Test
+    public void removals() {
+        ChangeSet<String> changeSet = diff(Arrays.asList("a=1", "b=2", "c=3", "d=4"), Arrays.asList("b=2", "d=4"));
+        assertEquals(Arrays.asList(0, 2), changeSet.getRemovals());
+        assertTrue(changeSet.getInsertions().isEmpty());
+        assertTrue(changeSet.getMoves().isEmpty());
+    }
+
+    @Test
+    public void changes() {
+        ChangeSet<String> changeSet = diff(Arrays.asList("a=1", "b=2", "c=3"), Arrays.asList("a=1", "b=5", "c=6"));
+        assertEquals(Arrays.asList(1, 2), changeSet.getChanges());
+        assertTrue(changeSet.getInsertions().isEmpty());
+        assertTrue(changeSet.getRemovals().isEmpty());
+        assertTrue(changeSet.getMoves().isEmpty());
+    }
+
+    @Test
+    public void singleMove() {
+        ChangeSet<String> changeSet = diff(Arrays.asList("a=1", "b=2", "c=3", "d=4"), Arrays.asList("b=2", "c=3", "d=4", "a=1"));
+        assertEquals(Collections.singletonList(new Pair<>(0, 3)), changeSet.getMoves());
+        assertFalse(changeSet.isEmpty());
+    }
+
+    @Test
+    public void minimumMoves() {
+        ChangeSet<String> changeSet = diff(Arrays.asList("a=1", "b=2", "c=3", "d=4", "e=5"), Arrays.asList("e=5", "a=1", "b=2", "d=4", "c=3"));
+        assertEquals(2, changeSet.getMoves().size());
+    }
+
+    @Test
+    public void mixed() {
+        ChangeSet<String> changeSet = diff(Arrays.asList("a=1", "b=2", "c=3"), Arrays.asList("c=3", "d=4", "b=7"));
+        assertEquals(Collections.singletonList(1), changeSet.getInsertions());
+        assertEquals(Collections.singletonList(0), changeSet.getRemovals());
+        assertEquals(Collections.singletonList(new Pair<>(2, 0)), changeSet.getMoves());
+        assertEquals(Collections.singletonList(2), changeSet.getChanges());
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.query;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.annotations.Column;
+import it.mscuttari.kaoldb.annotations.DiscriminatorColumn;
+import it.mscuttari.kaoldb.annotations.DiscriminatorValue;
+import it.mscuttari.kaoldb.annotations.Entity;
+import it.mscuttari.kaoldb.annotations.Id;
+import it.mscuttari.kaoldb.annotations.JoinColumn;
+import it.mscuttari.kaoldb.annotations.OneToOne;
+import it.mscuttari.kaoldb.annotations.Table;
+import it.mscuttari.kaoldb.interfaces.QueryBuilder;
+import it.mscuttari.kaoldb.interfaces.Root;
+import it.mscuttari.kaoldb.mapping.DatabaseObject;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChunkedQueryTest extends AbstractTest {
+
+	@Entity
+	@Table(name = "owners")
+	private static class Owner {
+
+		@Id
+		@Column(name = "id")
+		public Integer id;
+
+	}
+
+	@Entity
+	@Table(name = "profiles")
+	private static class Profile {
+
+		@Id
+		@OneToOne
+		@JoinColumn(name = "owner_id", referencedColumnName = "id")
+		public Owner owner;
+
+	}
+
+	@Entity
+	@Table(name = "vehicles")
+	@DiscriminatorColumn(name = "type")
+	private abstract static class Vehicle {
+
+		@Id
+		@Column(name = "id")
+		public Integer id;
+
+	}
+
+	@Entity
+	@Table(name = "cars")
+	@DiscriminatorValue(value = "car")
+	private static class Car extends Vehicle {
+
+	}
+
+	private EntityManagerImpl entityManager;
+
+	@Before
+	public void setUp() {
+		DatabaseObject db = new DatabaseObject();
+		db.setName("Test");
+		db.setVersion(1);
+
+		db.addEntityClass(Owner.class);
+		db.addEntityClass(Profile.class);
+		db.addEntityClass(Vehicle.class);
+		db.addEntityClass(Car.class);
+
+		db.mapEntities();
+		db.waitUntilReady();
+
+		Context context = ApplicationProvider.getApplicationContext();
+		entityManager = EntityManagerImpl.getEntityManager(context, db);
+	}
+
+	@After
+	public void tearDown() {
+		entityManager.deleteDatabase();
+	}
+
+	@Test
+	public void joinColumnPrimaryKey() {
+		for (int i = 1; i <= 5; i++) {
+			Owner owner = new Owner();
+			owner.id = i;
+			entityManager.persist(owner);
+
+			Profile profile = new Profile();
+			profile.owner = owner;
+			entityManager.persist(profile);
+		}
+
+		QueryBuilder<Profile> qb = entityManager.getQueryBuilder(Profile.class);
+		Root<Profile> root = qb.getRoot(Profile.class);
+		qb.from(root);
+
+		List<Integer> ids = new ArrayList<>();
+
+		for (Profile profile : qb.build(root).setChunkSize(2).getResults()) {
+			ids.add(profile.owner.id);
+		}
+
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5), ids);
+	}
+
+	@Test
+	public void twoPhaseLoadingWithMissingRows() {
+		for (int i = 1; i <= 5; i++) {
+			Car car = new Car();
+			car.id = i;
+			entityManager.persist(car);
+		}
+
+		// The first chunk leads to no object at all
+		entityManager.dbHelper.open();
+
+		try {
+			entityManager.dbHelper.delete("cars", "id IN (1, 2)", null);
+		} finally {
+			entityManager.dbHelper.close();
+		}
+
+		QueryBuilder<Vehicle> qb = entityManager.getQueryBuilder(Vehicle.class);
+		Root<Vehicle> root = qb.getRoot(Vehicle.class);
+		qb.from(root);
+
+		List<Integer> ids = new ArrayList<>();
+
+		for (Vehicle vehicle : qb.build(root).setTwoPhaseLoading(true).setChunkSize(2).getResults()) {
+			ids.add(vehicle.id);
+		}
+
+		assertEquals(Arrays.asList(3, 4, 5), ids);
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.query;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.annotations.Column;
+import it.mscuttari.kaoldb.annotations.Entity;
+import it.mscuttari.kaoldb.annotations.Id;
+import it.mscuttari.kaoldb.annotations.Table;
+import it.mscuttari.kaoldb.mapping.DatabaseObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentSQLiteOpenHelperTest extends AbstractTest {
+
+    @Entity
+    @Table(name = "items")
+    private static class Item {
+
+        @Id
+        @Column(name = "id")
+        public Integer id;
+
+    }
+
+    private EntityManagerImpl entityManager;
+
+    @Before
+    public void setUp() {
+        DatabaseObject db = new DatabaseObject();
+        db.setName("Test");
+        db.setVersion(1);
+
+        db.addEntityClass(Item.class);
+
+        db.mapEntities();
+        db.waitUntilReady();
+
+        Context context = ApplicationProvider.getApplicationContext();
+        entityManager = EntityManagerImpl.getEntityManager(context, db);
+    }
+
+    @After
+    public void tearDown() {
+        entityManager.deleteDatabase();
+    }
+
+    @Test(timeout = 10000)
+    public void deleteDatabaseWithOpenCursor() {
+        Item item = new Item();
+        item.id = 1;
+        entityManager.persist(item);
+
+        entityManager.dbHelper.open();
+        Cursor c = entityManager.dbHelper.select("SELECT * FROM items", null);
+        entityManager.dbHelper.close();
+
+        // The cursor is still held by the same thread
+        assertTrue(entityManager.deleteDatabase());
+        assertTrue(c.isClosed());
+
+        // The helper can be used again
+        entityManager.persist(item);
+        assertEquals(1, entityManager.getAll(Item.class).size());
+
+        // Closing the cursor again must not release any other connection reference
+        c.close();
+        assertEquals(1, entityManager.getAll(Item.class).size());
+    }
+
+}
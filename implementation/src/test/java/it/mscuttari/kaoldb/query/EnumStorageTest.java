@@ -0,0 +1,212 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.query;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.annotations.Column;
+import it.mscuttari.kaoldb.annotations.Entity;
+import it.mscuttari.kaoldb.annotations.EnumCode;
+import it.mscuttari.kaoldb.annotations.EnumType;
+import it.mscuttari.kaoldb.annotations.Enumerated;
+import it.mscuttari.kaoldb.annotations.Id;
+import it.mscuttari.kaoldb.annotations.Table;
+import it.mscuttari.kaoldb.exceptions.MappingException;
+import it.mscuttari.kaoldb.mapping.DatabaseObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EnumStorageTest extends AbstractTest {
+
+	private enum Priority {
+		@EnumCode(10) LOW,
+		@EnumCode(20) MEDIUM,
+		@EnumCode(30) HIGH
+	}
+
+	@Entity
+	@Table(name = "tickets")
+	private static class Ticket {
+
+		@Id
+		@Column(name = "id")
+		public Integer id;
+
+		@Column(name = "by_name")
+		public Priority byName;
+
+		@Column(name = "by_ordinal")
+		@Enumerated(EnumType.ORDINAL)
+		public Priority byOrdinal;
+
+		@Column(name = "by_code")
+		@Enumerated(EnumType.CODE)
+		public Priority byCode;
+
+		@Column(name = "default_by_name", defaultValue = "LOW")
+		public Priority defaultByName;
+
+		@Column(name = "default_by_ordinal", defaultValue = "HIGH")
+		@Enumerated(EnumType.ORDINAL)
+		public Priority defaultByOrdinal;
+
+		@Column(name = "default_by_code", defaultValue = "MEDIUM")
+		@Enumerated(EnumType.CODE)
+		public Priority defaultByCode;
+
+	}
+
+	@Entity
+	@Table(name = "invalid_tickets")
+	private static class InvalidTicket {
+
+		@Id
+		@Column(name = "id")
+		public Integer id;
+
+		@Column(name = "priority", defaultValue = "URGENT")
+		@Enumerated(EnumType.ORDINAL)
+		public Priority priority;
+
+	}
+
+	private EntityManagerImpl entityManager;
+
+	@Before
+	public void setUp() {
+		DatabaseObject db = new DatabaseObject();
+		db.setName("Test");
+		db.setVersion(1);
+
+		db.addEntityClass(Ticket.class);
+
+		db.mapEntities();
+		db.waitUntilReady();
+
+		Context context = ApplicationProvider.getApplicationContext();
+		entityManager = EntityManagerImpl.getEntityManager(context, db);
+	}
+
+	@After
+	public void tearDown() {
+		entityManager.deleteDatabase();
+	}
+
+	@Test
+	public void storedValues() {
+		Ticket ticket = new Ticket();
+		ticket.id = 1;
+		ticket.byName = Priority.MEDIUM;
+		ticket.byOrdinal = Priority.MEDIUM;
+		ticket.byCode = Priority.MEDIUM;
+		entityManager.persist(ticket);
+
+		entityManager.dbHelper.open();
+
+		try (Cursor c = entityManager.dbHelper.select("SELECT by_name, by_ordinal, by_code FROM tickets", null)) {
+			assertTrue(c.moveToFirst());
+			assertEquals("MEDIUM", c.getString(0));
+			assertEquals(1, c.getInt(1));
+			assertEquals(20, c.getInt(2));
+
+		} finally {
+			entityManager.dbHelper.close();
+		}
+	}
+
+	@Test
+	public void readBack() {
+		for (Priority priority : Priority.values()) {
+			Ticket ticket = new Ticket();
+			ticket.id = priority.ordinal();
+			ticket.byName = priority;
+			ticket.byOrdinal = priority;
+			ticket.byCode = priority;
+			entityManager.persist(ticket);
+		}
+
+		List<Ticket> tickets = entityManager.getAll(Ticket.class);
+		assertEquals(Priority.values().length, tickets.size());
+
+		for (Ticket ticket : tickets) {
+			Priority priority = Priority.values()[ticket.id];
+			assertEquals(priority, ticket.byName);
+			assertEquals(priority, ticket.byOrdinal);
+			assertEquals(priority, ticket.byCode);
+		}
+	}
+
+	@Test
+	public void defaultValues() {
+		entityManager.dbHelper.open();
+
+		try {
+			ContentValues cv = new ContentValues();
+			cv.put("id", 1);
+			entityManager.dbHelper.insert("tickets", cv);
+
+		} finally {
+			entityManager.dbHelper.close();
+		}
+
+		entityManager.dbHelper.open();
+
+		try (Cursor c = entityManager.dbHelper.select("SELECT default_by_name, default_by_ordinal, default_by_code FROM tickets", null)) {
+			assertTrue(c.moveToFirst());
+			assertEquals(Cursor.FIELD_TYPE_STRING, c.getType(0));
+			assertEquals("LOW", c.getString(0));
+			assertEquals(Cursor.FIELD_TYPE_INTEGER, c.getType(1));
+			assertEquals(2, c.getInt(1));
+			assertEquals(Cursor.FIELD_TYPE_INTEGER, c.getType(2));
+			assertEquals(20, c.getInt(2));
+
+		} finally {
+			entityManager.dbHelper.close();
+		}
+
+		List<Ticket> tickets = entityManager.getAll(Ticket.class);
+		assertEquals(1, tickets.size());
+		assertEquals(Priority.LOW, tickets.get(0).defaultByName);
+		assertEquals(Priority.HIGH, tickets.get(0).defaultByOrdinal);
+		assertEquals(Priority.MEDIUM, tickets.get(0).defaultByCode);
+	}
+
+	@Test(expected = MappingException.class)
+	public void invalidDefaultValue() {
+		DatabaseObject db = new DatabaseObject();
+		db.setName("Invalid");
+		db.setVersion(1);
+
+		db.addEntityClass(InvalidTicket.class);
+
+		db.mapEntities();
+		db.waitUntilReady();
+	}
+
+}
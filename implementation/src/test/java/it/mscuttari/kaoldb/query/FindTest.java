@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018 Scuttari Michele
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.mscuttari.kaoldb.query;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.annotations.Column;
+import it.mscuttari.kaoldb.annotations.Entity;
+import it.mscuttari.kaoldb.annotations.Id;
+import it.mscuttari.kaoldb.annotations.JoinColumn;
+import it.mscuttari.kaoldb.annotations.OneToOne;
+import it.mscuttari.kaoldb.annotations.Table;
+import it.mscuttari.kaoldb.mapping.DatabaseObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class FindTest extends AbstractTest {
+
+	@Entity
+	@Table(name = "owners")
+	private static class Owner {
+
+		@Id
+		@Column(name = "id")
+		public Integer id;
+
+	}
+
+	@Entity
+	@Table(name = "profiles")
+	private static class Profile {
+
+		@Id
+		@OneToOne
+		@JoinColumn(name = "owner_id", referencedColumnName = "id")
+		public Owner owner;
+
+		@Column(name = "nickname")
+		public String nickname;
+
+	}
+
+	@Entity
+	@Table(name = "tokens")
+	private static class Token {
+
+		@Id
+		@Column(name = "id")
+		public UUID id;
+
+		@Column(name = "description")
+		public String description;
+
+	}
+
+	private EntityManagerImpl entityManager;
+
+	@Before
+	public void setUp() {
+		DatabaseObject db = new DatabaseObject();
+		db.setName("Test");
+		db.setVersion(1);
+
+		db.addEntityClass(Owner.class);
+		db.addEntityClass(Profile.class);
+		db.addEntityClass(Token.class);
+
+		db.mapEntities();
+		db.waitUntilReady();
+
+		Context context = ApplicationProvider.getApplicationContext();
+		entityManager = EntityManagerImpl.getEntityManager(context, db);
+	}
+
+	@After
+	public void tearDown() {
+		entityManager.deleteDatabase();
+	}
+
+	@Test
+	public void joinColumnPrimaryKey() {
+		Owner owner = new Owner();
+		owner.id = 1;
+		entityManager.persist(owner);
+
+		Profile profile = new Profile();
+		profile.owner = owner;
+		profile.nickname = "first";
+		entityManager.persist(profile);
+
+		// By object of the entity, with the linked object set
+		Profile id = new Profile();
+		id.owner = new Owner();
+		id.owner.id = 1;
+
+		Profile result = entityManager.find(Profile.class, id);
+		assertNotNull(result);
+		assertEquals("first", result.nickname);
+
+		// By key of the linked object
+		result = entityManager.find(Profile.class, 1);
+		assertNotNull(result);
+		assertEquals("first", result.nickname);
+
+		id.owner.id = 2;
+		assertNull(entityManager.find(Profile.class, id));
+	}
+
+	@Test
+	public void blobPrimaryKey() {
+		Token first = new Token();
+		first.id = UUID.randomUUID();
+		first.description = "first";
+		entityManager.persist(first);
+
+		Token second = new Token();
+		second.id = UUID.randomUUID();
+		second.description = "second";
+		entityManager.persist(second);
+
+		Token result = entityManager.find(Token.class, first.id);
+		assertNotNull(result);
+		assertEquals("first", result.description);
+
+		Token id = new Token();
+		id.id = second.id;
+		result = entityManager.find(Token.class, id);
+		assertNotNull(result);
+		assertEquals("second", result.description);
+
+		assertNull(entityManager.find(Token.class, UUID.randomUUID()));
+
+		List<Token> results = entityManager.findAll(Token.class, Arrays.asList(first.id, second.id, UUID.randomUUID()));
+		assertEquals(2, results.size());
+		assertEquals(new HashSet<>(Arrays.asList(first.id, second.id)), new HashSet<>(Arrays.asList(results.get(0).id, results.get(1).id)));
+	}
+
+}
@@ -0,0 +1,290 @@
+package it.mscuttari.kaoldb.query;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Objects;
+
+import it.mscuttari.kaoldb.AbstractTest;
+import it.mscuttari.kaoldb.LogUtils;
+import it.mscuttari.kaoldb.annotations.Column;
+import it.mscuttari.kaoldb.annotations.DiscriminatorColumn;
+import it.mscuttari.kaoldb.annotations.DiscriminatorValue;
+import it.mscuttari.kaoldb.annotations.Entity;
+import it.mscuttari.kaoldb.annotations.Id;
+import it.mscuttari.kaoldb.annotations.Inheritance;
+import it.mscuttari.kaoldb.annotations.InheritanceType;
+import it.mscuttari.kaoldb.annotations.Table;
+import it.mscuttari.kaoldb.interfaces.EntityManager;
+import it.mscuttari.kaoldb.interfaces.QueryBuilder;
+import it.mscuttari.kaoldb.interfaces.Root;
+import it.mscuttari.kaoldb.mapping.DatabaseObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class SingleTableInheritanceTest extends AbstractTest {
+
+	/**
+	 *           A
+	 *           |
+	 *     ------------
+	 *     |          |
+	 *     AA        AB
+	 *     |
+	 *  --------
+	 *  |      |
+	 * AAA    AAB
+	 */
+
+	@Entity
+	@Table(name = "a")
+	@Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+	@DiscriminatorColumn(name = "type")
+	private abstract static class A {
+
+		@Id
+		@Column(name = "id")
+		public Integer id;
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			A parent = (A) o;
+			return id.equals(parent.id);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(id);
+		}
+	}
+
+	@Entity
+	@DiscriminatorColumn(name = "subtype")
+	@DiscriminatorValue(value = "aa")
+	private abstract static class AA extends A {
+
+		@Column(name = "value")
+		public Integer value;
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			if (!super.equals(o)) return false;
+			AA child = (AA) o;
+			return Objects.equals(value, child.value);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(super.hashCode(), value);
+		}
+	}
+
+	@Entity
+	@DiscriminatorValue(value = "aaa")
+	private static class AAA extends AA {
+
+	}
+
+	@Entity
+	@DiscriminatorValue(value = "aab")
+	private static class AAB extends AA {
+
+	}
+
+	@Entity
+	@DiscriminatorValue(value = "ab")
+	private static class AB extends A {
+
+		@Column(name = "name")
+		public String name;
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			if (!super.equals(o)) return false;
+			AB child = (AB) o;
+			return Objects.equals(name, child.name);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(super.hashCode(), name);
+		}
+	}
+
+	private DatabaseObject db;
+	private EntityManager entityManager;
+
+	@Before
+	public void setUp() {
+		LogUtils.enabled = true;
+
+		db = new DatabaseObject();
+		db.setName("Test");
+		db.setVersion(1);
+
+		db.addEntityClass(A.class);
+		db.addEntityClass(AA.class);
+		db.addEntityClass(AAA.class);
+		db.addEntityClass(AAB.class);
+		db.addEntityClass(AB.class);
+
+		db.mapEntities();
+		db.waitUntilReady();
+
+		Context context = ApplicationProvider.getApplicationContext();
+		entityManager = EntityManagerImpl.getEntityManager(context, db);
+	}
+
+	@After
+	public void tearDown() {
+		entityManager.deleteDatabase();
+	}
+
+	@Test
+	public void singleTable() {
+		assertTrue(db.getEntity(A.class).hasOwnTable());
+		assertNotNull(db.getEntity(A.class).getSQL());
+		assertEquals(5, db.getEntity(A.class).getTableEntities().size());
+
+		for (Class<?> clazz : new Class<?>[]{AA.class, AAA.class, AAB.class, AB.class}) {
+			assertFalse(db.getEntity(clazz).hasOwnTable());
+			assertEquals("a", db.getEntity(clazz).tableName);
+			assertNull(db.getEntity(clazz).getSQL());
+			assertTrue(db.getEntity(clazz).getIndexesSQL().isEmpty());
+		}
+
+		// The columns of the subclasses must accept the rows of their siblings
+		assertTrue(db.getEntity(AA.class).columns.get("value").nullable);
+		assertTrue(db.getEntity(AB.class).columns.get("name").nullable);
+		assertTrue(db.getEntity(AA.class).discriminatorColumn.nullable);
+	}
+
+	@Test
+	public void persist() {
+		AAA aaa = new AAA();
+		aaa.id = 1;
+		aaa.value = 10;
+		entityManager.persist(aaa);
+
+		AB ab = new AB();
+		ab.id = 2;
+		ab.name = "ab";
+		entityManager.persist(ab);
+
+		assertThat(entityManager.getAll(A.class), Matchers.containsInAnyOrder(aaa, ab));
+		assertThat(entityManager.getAll(AA.class), Matchers.contains(aaa));
+		assertThat(entityManager.getAll(AAB.class), Matchers.empty());
+		assertThat(entityManager.getAll(AB.class), Matchers.contains(ab));
+	}
+
+	@Test
+	public void where() {
+		AAA aaa = new AAA();
+		aaa.id = 1;
+		aaa.value = 10;
+		entityManager.persist(aaa);
+
+		AAB aab = new AAB();
+		aab.id = 2;
+		aab.value = 20;
+		entityManager.persist(aab);
+
+		SingleProperty<AA, Integer> id = new SingleProperty<>(AA.class, A.class, Integer.class, "id", Column.class, null);
+		SingleProperty<AA, Integer> value = new SingleProperty<>(AA.class, AA.class, Integer.class, "value", Column.class, null);
+
+		QueryBuilder<AA> qb = entityManager.getQueryBuilder(AA.class);
+		Root<AA> root = qb.getRoot(AA.class);
+		qb.from(root).where(root.eq(id, 2).and(root.eq(value, 20)));
+
+		assertThat(qb.build(root).getResults(), Matchers.contains(aab));
+	}
+
+	@Test
+	public void treatAs() {
+		AAA aaa = new AAA();
+		aaa.id = 1;
+		entityManager.persist(aaa);
+
+		AB ab = new AB();
+		ab.id = 2;
+		entityManager.persist(ab);
+
+		QueryBuilder<A> qb = entityManager.getQueryBuilder(A.class);
+		Root<AA> root = qb.getRoot(A.class).treatAs(AA.class);
+		qb.from(root);
+
+		List<A> elements = qb.build(root).getResults();
+		assertThat(elements, Matchers.contains(aaa));
+	}
+
+	@Test
+	public void update() {
+		AAA aaa = new AAA();
+		aaa.id = 1;
+		aaa.value = 10;
+		entityManager.persist(aaa);
+
+		aaa.value = 20;
+		entityManager.update(aaa);
+
+		assertThat(entityManager.getAll(A.class), Matchers.contains(aaa));
+	}
+
+	@Test
+	public void cousinClass() {
+		AB ab = new AB();
+		ab.id = 1;
+		ab.name = "ab";
+		entityManager.persist(ab);
+
+		AAB aab = new AAB();
+		aab.id = 1;
+		aab.value = 10;
+		entityManager.update(aab);
+
+		assertThat(entityManager.getAll(A.class), Matchers.contains(aab));
+		assertThat(entityManager.getAll(AB.class), Matchers.empty());
+
+		// The columns of the previous class must have been cleared
+		ab = new AB();
+		ab.id = 1;
+		entityManager.update(ab);
+
+		assertThat(entityManager.getAll(A.class), Matchers.contains(ab));
+		assertNull(((AB) entityManager.getAll(A.class).get(0)).name);
+	}
+
+	@Test
+	public void remove() {
+		AAA aaa = new AAA();
+		aaa.id = 1;
+		entityManager.persist(aaa);
+
+		AB ab = new AB();
+		ab.id = 2;
+		entityManager.persist(ab);
+
+		entityManager.remove(aaa);
+
+		assertThat(entityManager.getAll(A.class), Matchers.contains(ab));
+	}
+
+}
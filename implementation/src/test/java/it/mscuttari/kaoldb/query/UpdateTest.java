@@ -1,5 +1,7 @@
 package it.mscuttari.kaoldb.query;
 
+import android.content.Context;
+
 import androidx.test.core.app.ApplicationProvider;
 
 import org.hamcrest.Matchers;
@@ -124,7 +126,8 @@ public class UpdateTest extends AbstractTest {
 		db.mapEntities();
 		db.waitUntilReady();
 
-		entityManager = EntityManagerImpl.getEntityManager(ApplicationProvider.getApplicationContext(), db);
+		Context context = ApplicationProvider.getApplicationContext();
+		entityManager = EntityManagerImpl.getEntityManager(context, db);
 	}
 
 	@After